@@ -1,28 +1,620 @@
 package net.coderodde.pzzlsrch;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import static net.coderodde.pzzlsrch.Utils.title1;
 import static net.coderodde.pzzlsrch.Utils.title2;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import net.coderodde.pzzlsrch.ds.support.BHeap;
 import net.coderodde.pzzlsrch.ds.support.BucketHeap;
 import net.coderodde.pzzlsrch.ds.support.DAryHeap;
+import net.coderodde.pzzlsrch.ds.support.PrimitiveDAryHeap;
+import net.coderodde.pzzlsrch.ds.support.RadixHeap;
+import net.coderodde.pzzlsrch.ds.support.TieBreakingBucketHeap;
+import net.coderodde.pzzlsrch.model.BitPackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PermutationRanker;
 import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.pdb.MinBlockPatternTable;
+import net.coderodde.pzzlsrch.pdb.NibblePatternTable;
+import net.coderodde.pzzlsrch.pdb.ParallelPatternDatabaseBuilder;
+import net.coderodde.pzzlsrch.pdb.PatternDatabase;
+import net.coderodde.pzzlsrch.pdb.PatternDatabaseBuilder;
+import net.coderodde.pzzlsrch.pdb.PatternDatabaseFile;
+import net.coderodde.pzzlsrch.pdb.PatternTable;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.Solver;
 import net.coderodde.pzzlsrch.solvers.support.BidirectionalBFSSolver;
+import net.coderodde.pzzlsrch.solvers.support.BitPackedManhattanHeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.support.BidirectionalHeuristicBFSSolver;
+import net.coderodde.pzzlsrch.solvers.support.CachingHeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.support.DisplacementHeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.support.HeuristicBFSSolver;
+import net.coderodde.pzzlsrch.solvers.support.IDAStarSolver;
+import net.coderodde.pzzlsrch.solvers.support.LinearConflictHeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.support.ManhattanHeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.support.ManhattanHeuristicFunction2;
+import net.coderodde.pzzlsrch.solvers.support.MaxHeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.support.PackedManhattanHeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.support.ParallelIDAStarSolver;
+import net.coderodde.pzzlsrch.solvers.support.PatternDatabaseHeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.support.VectorKernels;
+import net.coderodde.pzzlsrch.solvers.support.WalkingDistanceHeuristicFunction;
 
 public class Demo {
     
     public static final void main(final String... args) {
 //        profilePriorityQueues();
+        profileSuccessorGeneration();
+        profileHashCollisions();
+        profilePermutationRanking();
         profileSolvers();
+        profileSolverTraces();
+        profileLazyDeletion();
+        profileHeapLayouts();
+        profileIDAStar();
+        profilePatternDatabaseConstruction();
+        profilePatternDatabases();
+        profileCompressedPatternDatabases();
+        profileBatchHeuristics();
+    }
+    
+    private static final void profileBatchHeuristics() {
+        title1("Profiling batch heuristic evaluation");
+        
+        final long SEED = 1398780721825L;
+        final Random r = new Random(SEED);
+        final int BATCH = 4096;
+        final int ROUNDS = 50;
+        
+        System.out.println("Seed: " + SEED);
+        System.out.println("Vector API: " + 
+                           (VectorKernels.isAvailable() ? 
+                            "available" : 
+                            "not available, run with --add-modules " + 
+                            "jdk.incubator.vector"));
+        
+        for (int n = 4; n <= 11; ++n) {
+            title2(n + "x" + n + ", nanoseconds per node");
+            
+            final PuzzleNode target = new PuzzleNode(n);
+            final byte[] tiles = 
+                    new byte[BATCH * n * n + VectorKernels.getPadding()];
+            final int[] estimates = new int[BATCH];
+            final DisplacementHeuristicFunction displacement = 
+                    new DisplacementHeuristicFunction().withTarget(target);
+            final ManhattanHeuristicFunction2 manhattan = 
+                    new ManhattanHeuristicFunction2(n * n).withTarget(target);
+            final long[] displacementTimes = new long[2];
+            final long[] manhattanTimes = new long[2];
+            
+            for (int i = 0; i != BATCH; ++i) {
+                Utils.getRandomPuzzleNode(4 * n * n, n, r)
+                     .copyTiles(tiles, i * n * n);
+            }
+            
+            for (int v = 0; v != 2; ++v) {
+                displacement.withVectorization(v == 1);
+                manhattan.withVectorization(v == 1);
+                displacementTimes[v] = Long.MAX_VALUE;
+                manhattanTimes[v] = Long.MAX_VALUE;
+                
+                for (int round = 0; round != ROUNDS; ++round) {
+                    long ta = System.nanoTime();
+                    displacement.getAll(tiles, BATCH, estimates);
+                    long tb = System.nanoTime();
+                    manhattan.getAll(tiles, BATCH, estimates);
+                    long tc = System.nanoTime();
+                    
+                    displacementTimes[v] = Math.min(displacementTimes[v], 
+                                                    tb - ta);
+                    manhattanTimes[v] = Math.min(manhattanTimes[v], tc - tb);
+                }
+            }
+            
+            printBatchTimes("Displacement", displacementTimes, BATCH);
+            printBatchTimes("Manhattan", manhattanTimes, BATCH);
+        }
+    }
+    
+    private static final void printBatchTimes(final String name,
+                                              final long[] times,
+                                              final int batch) {
+        System.out.println(name + ": " + 
+                           Math.round(10.0 * times[0] / batch) / 10.0 + 
+                           ", vectorized: " + 
+                           Math.round(10.0 * times[1] / batch) / 10.0 + 
+                           ", speedup: " + 
+                           Math.round(100.0 * times[0] / times[1]) / 100.0);
+    }
+    
+    private static final void profileCompressedPatternDatabases() {
+        title1("Profiling compressed pattern databases");
+        
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final File directory = new File(System.getProperty("java.io.tmpdir"),
+                                        "pzzlsrch-pdb");
+        PatternDatabase[] databases = null;
+        
+        try {
+            directory.mkdirs();
+            databases = PatternDatabaseFile.loadOrBuild(
+                    directory,
+                    target,
+                    new int[]{ 1, 2, 3, 5, 6, 7 },
+                    new int[]{ 9, 10, 11, 13, 14, 15 },
+                    new int[]{ 4, 8, 12 });
+        } catch (final IOException ex) {
+            System.out.println("Could not load the pattern databases: " + 
+                               ex.getMessage());
+            return;
+        }
+        
+        final String[] names = { 
+            "Bytes", "Nibbles", "Minimum of 2", "Minimum of 4", "Minimum of 8"
+        };
+        
+        for (int variant = 0; variant != names.length; ++variant) {
+            final PatternDatabase[] compressed = 
+                    new PatternDatabase[databases.length];
+            long bytes = 0L;
+            
+            for (int i = 0; i != databases.length; ++i) {
+                final PatternTable table = databases[i].getTable();
+                
+                switch (variant) {
+                    case 0:
+                        compressed[i] = databases[i];
+                        break;
+                        
+                    case 1:
+                        compressed[i] = databases[i].withTable(
+                                NibblePatternTable.encode(table));
+                        break;
+                        
+                    default:
+                        compressed[i] = databases[i].withTable(
+                                MinBlockPatternTable.encode(
+                                        table, 1 << (variant - 1)));
+                }
+                
+                bytes += compressed[i].getTable().getData().capacity();
+            }
+            
+            title2("6-6-3, " + names[variant] + ", " + 
+                   (bytes >>> 10) + " KB");
+            
+            final IDAStarSolver<PackedPuzzleState> solver = 
+                    new IDAStarSolver<PackedPuzzleState>();
+            
+            solver.withHeuristicFunction(
+                    new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                            compressed));
+            profileIDAStarInstances(solver);
+        }
+    }
+    
+    private static final void profilePatternDatabaseConstruction() {
+        title1("Profiling pattern database construction");
+        
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final int[] tiles = { 1, 2, 3, 4, 5 };
+        
+        title2("PatternDatabaseBuilder");
+        
+        long ta = System.currentTimeMillis();
+        final PatternDatabase expected = 
+                new PatternDatabaseBuilder(target, tiles).build();
+        long tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        
+        title2("ParallelPatternDatabaseBuilder on " + 
+               Runtime.getRuntime().availableProcessors() + " processors");
+        
+        ta = System.currentTimeMillis();
+        final PatternDatabase actual = 
+                new ParallelPatternDatabaseBuilder(target, tiles)
+                .withProgressListener(
+                        new PatternDatabaseBuilder.ProgressListener() {
+                    @Override
+                    public void layerCompleted(final int cost, 
+                                               final long states, 
+                                               final long reached, 
+                                               final long total) {
+                        System.out.println("Cost " + cost + ": " + states + 
+                                           " states, " + 
+                                           (100 * reached / total) + "%.");
+                    }
+                })
+                .build();
+        tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        
+        boolean identical = true;
+        
+        for (int i = 0; i != expected.size(); ++i) {
+            if (expected.getByRank(i) != actual.getByRank(i)) {
+                identical = false;
+                break;
+            }
+        }
+        
+        System.out.println("Identical tables: " + identical);
+    }
+    
+    private static final void profilePatternDatabases() {
+        title1("Profiling pattern databases");
+        
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final File directory = new File(System.getProperty("java.io.tmpdir"),
+                                        "pzzlsrch-pdb");
+        final int[][][] partitions = {
+            { { 1, 2, 3, 4, 5 }, { 6, 7, 8, 9, 10 }, { 11, 12, 13, 14, 15 } },
+            { { 1, 2, 3, 5, 6, 7 }, { 9, 10, 11, 13, 14, 15 }, { 4, 8, 12 } }
+        };
+        
+        if (directory.isDirectory() == false && directory.mkdirs() == false) {
+            System.out.println("Could not create " + directory + ".");
+            return;
+        }
+        
+        for (final int[][] partition : partitions) {
+            title2(partition[0].length + "-" + partition[1].length + "-" + 
+                   partition[2].length + " additive pattern database");
+            
+            long ta = System.currentTimeMillis();
+            PatternDatabase[] databases = null;
+            
+            try {
+                // The first run builds the files, later runs only map them.
+                databases = PatternDatabaseFile.loadOrBuild(directory, 
+                                                            target,
+                                                            partition);
+            } catch (final IOException ex) {
+                System.out.println("Could not load the pattern databases: " + 
+                                   ex.getMessage());
+                return;
+            }
+            
+            long tb = System.currentTimeMillis();
+            
+            System.out.println("Build or load time: " + (tb - ta) + " ms.");
+            
+            final IDAStarSolver<PackedPuzzleState> solver = 
+                    new IDAStarSolver<PackedPuzzleState>();
+            
+            solver.withHeuristicFunction(
+                    new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                            databases));
+            profileIDAStarInstances(solver);
+            
+            title2("With reflected lookups");
+            
+            final PatternDatabaseHeuristicFunction<PackedPuzzleState> 
+                    reflected = 
+                    new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                            databases).withReflection(true);
+            
+            solver.withHeuristicFunction(reflected);
+            profileIDAStarInstances(solver);
+            
+            title2("With cached reflected lookups");
+            
+            final CachingHeuristicFunction<PackedPuzzleState> cache = 
+                    new CachingHeuristicFunction<PackedPuzzleState>(reflected);
+            
+            solver.withHeuristicFunction(cache);
+            profileIDAStarInstances(solver);
+            System.out.println("Hit rate: " + cache.getHitRate() + ".");
+            
+            title2("With reflected lookups and walking distance");
+            
+            @SuppressWarnings("unchecked")
+            final MaxHeuristicFunction<PackedPuzzleState> max = 
+                    new MaxHeuristicFunction<PackedPuzzleState>(
+                    new WalkingDistanceHeuristicFunction<PackedPuzzleState>(),
+                    reflected);
+            
+            solver.withHeuristicFunction(max);
+            profileIDAStarInstances(solver);
+        }
+    }
+    
+    private static final void profileIDAStarInstances(
+            final IDAStarSolver<PackedPuzzleState> solver) {
+        final long SEED = 1398780721825L;
+        final Random r = new Random(SEED);
+        final int INSTANCES = 10;
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        long totalNodes = 0L;
+        long totalTime = 0L;
+        
+        System.out.println("Seed: " + SEED);
+        
+        for (int i = 0; i != INSTANCES; ++i) {
+            final PackedPuzzleState source = 
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(200, 4, r));
+            
+            long ta = System.currentTimeMillis();
+            final List<PackedPuzzleState> path = solver.search(source, target);
+            long tb = System.currentTimeMillis();
+            
+            totalNodes += solver.getNodeCount();
+            totalTime += tb - ta;
+            System.out.println("Instance " + i + ": " + (path.size() - 1) + 
+                               " moves, " + solver.getNodeCount() + 
+                               " nodes, " + (tb - ta) + " ms.");
+        }
+        
+        System.out.println("Time: " + totalTime + " ms.");
+        System.out.println("Nodes: " + totalNodes + ".");
+        System.out.println("Nodes per second: " + 
+                           (1000L * totalNodes / Math.max(1L, totalTime)));
+    }
+    
+    private static final void profileIDAStar() {
+        title1("Profiling IDA*");
+        title2("IDAStarSolver");
+        
+        final long SEED = 1398780721825L;
+        final Random r = new Random(SEED);
+        final int INSTANCES = 10;
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final IDAStarSolver<PackedPuzzleState> solver = 
+                new IDAStarSolver<PackedPuzzleState>();
+        
+        solver.withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        System.out.println("Seed: " + SEED);
+        
+        long totalNodes = 0L;
+        long totalTime = 0L;
+        
+        for (int i = 0; i != INSTANCES; ++i) {
+            final PackedPuzzleState source = 
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(200, 4, r));
+            
+            long ta = System.currentTimeMillis();
+            final List<PackedPuzzleState> path = solver.search(source, target);
+            long tb = System.currentTimeMillis();
+            
+            totalNodes += solver.getNodeCount();
+            totalTime += tb - ta;
+            System.out.println("Instance " + i + ": " + (path.size() - 1) + 
+                               " moves, " + solver.getNodeCount() + 
+                               " nodes, " + (tb - ta) + " ms.");
+        }
+        
+        System.out.println("Time: " + totalTime + " ms.");
+        System.out.println("Nodes per second: " + 
+                           (1000L * totalNodes / Math.max(1L, totalTime)));
+        
+        title2("IDAStarSolver with linear conflicts");
+        
+        profileIDAStarInstances(
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(
+                    new LinearConflictHeuristicFunction<PackedPuzzleState>()));
+        
+        title2("IDAStarSolver with walking distance");
+        
+        profileIDAStarInstances(
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(
+                    new WalkingDistanceHeuristicFunction<PackedPuzzleState>()));
+        
+        title2("IDAStarSolver with cached walking distance");
+        
+        final CachingHeuristicFunction<PackedPuzzleState> cache = 
+                new CachingHeuristicFunction<PackedPuzzleState>(
+                    new WalkingDistanceHeuristicFunction<PackedPuzzleState>());
+        
+        profileIDAStarInstances(
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(cache));
+        System.out.println("Hit rate: " + cache.getHitRate() + ".");
+        
+        title2("ParallelIDAStarSolver on " + 
+               Runtime.getRuntime().availableProcessors() + " processors");
+        
+        final ParallelIDAStarSolver<PackedPuzzleState> parallelSolver = 
+                new ParallelIDAStarSolver<PackedPuzzleState>();
+        
+        parallelSolver.withHeuristicFunction(
+                new PackedManhattanHeuristicFunction());
+        r.setSeed(SEED);
+        totalNodes = 0L;
+        totalTime = 0L;
+        
+        for (int i = 0; i != INSTANCES; ++i) {
+            final PackedPuzzleState source = 
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(200, 4, r));
+            
+            long ta = System.currentTimeMillis();
+            final List<PackedPuzzleState> path = 
+                    parallelSolver.search(source, target);
+            long tb = System.currentTimeMillis();
+            
+            totalNodes += parallelSolver.getNodeCount();
+            totalTime += tb - ta;
+            System.out.println("Instance " + i + ": " + (path.size() - 1) + 
+                               " moves, " + parallelSolver.getNodeCount() + 
+                               " nodes, " + (tb - ta) + " ms.");
+        }
+        
+        System.out.println("Time: " + totalTime + " ms.");
+        System.out.println("Nodes per second: " + 
+                           (1000L * totalNodes / Math.max(1L, totalTime)));
+    }
+    
+    private static final void profilePermutationRanking() {
+        title1("Profiling permutation ranking");
+        title2("Breadth-first search over all 3x3 nodes with a flat table");
+        
+        final PermutationRanker ranker = new PermutationRanker(3);
+        final byte[] distance = new byte[(int) ranker.getStateCount()];
+        final int[] queue = new int[distance.length];
+        final PuzzleNode goal = new PuzzleNode(3);
+        int head = 0;
+        int tail = 0;
+        int maxDistance = 0;
+        
+        Arrays.fill(distance, (byte) -1);
+        distance[(int) ranker.rank(goal)] = 0;
+        queue[tail++] = (int) ranker.rank(goal);
+        
+        long ta = System.currentTimeMillis();
+        
+        while (head != tail) {
+            final int index = queue[head++];
+            final PuzzleNode node = ranker.unrank(index);
+            
+            for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                if (node.canMove(d) == false) {
+                    continue;
+                }
+                
+                node.move(d);
+                final int next = (int) ranker.rank(node);
+                
+                if (distance[next] == -1) {
+                    distance[next] = (byte)(distance[index] + 1);
+                    maxDistance = Math.max(maxDistance, distance[next]);
+                    queue[tail++] = next;
+                }
+                
+                node.move(d ^ 2);
+            }
+        }
+        
+        long tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("States visited: " + tail + " of " + 
+                           ranker.getStateCount() + ".");
+        System.out.println("Largest distance: " + maxDistance + ".");
+    }
+    
+    private static final void profileHashCollisions() {
+        title1("Profiling hash collisions");
+        final Random r = new Random(1L);
+        final int STATES = 1000000;
+        final int[] weightedSum = new int[STATES];
+        final int[] zobrist = new int[STATES];
+        final PuzzleNode node = new PuzzleNode(4);
+        
+        for (int i = 0; i != STATES; ++i) {
+            for (int step = 0; step != 100; ++step) {
+                final int d = r.nextInt(PuzzleState.DIRECTIONS);
+                
+                if (node.canMove(d)) {
+                    node.move(d);
+                }
+            }
+            
+            weightedSum[i] = weightedSumHash(node);
+            zobrist[i] = node.hashCode();
+        }
+        
+        System.out.println("States: " + STATES + ".");
+        System.out.println("Weighted sum hash, distinct values: " + 
+                           countDistinct(weightedSum) + ".");
+        System.out.println("Zobrist hash, distinct values:      " + 
+                           countDistinct(zobrist) + ".");
+    }
+    
+    /**
+     * The hash <code>PuzzleNode</code> used before Zobrist hashing.
+     */
+    private static final int weightedSumHash(final PuzzleNode node) {
+        final int n = node.getDimension();
+        int hash = 0;
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                hash += node.get(x, y) * (y * n + x + 1);
+            }
+        }
+        
+        return hash;
+    }
+    
+    private static final int countDistinct(final int[] array) {
+        final int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        int distinct = sorted.length == 0 ? 0 : 1;
+        
+        for (int i = 1; i < sorted.length; ++i) {
+            if (sorted[i] != sorted[i - 1]) {
+                ++distinct;
+            }
+        }
+        
+        return distinct;
+    }
+    
+    private static final void profileSuccessorGeneration() {
+        title1("Profiling successor generation");
+        final Random r = new Random(1L);
+        final int NODES = 100000;
+        final PuzzleNode[] nodes = new PuzzleNode[NODES];
+        
+        for (int i = 0; i != NODES; ++i) {
+            nodes[i] = Utils.getRandomPuzzleNode(50, 4, r);
+        }
+        
+        title2("Iterator");
+        
+        int generated = 0;
+        long ba = Utils.getAllocatedBytes();
+        long ta = System.currentTimeMillis();
+        
+        for (final PuzzleNode node : nodes) {
+            for (final PuzzleNode neighbour : node) {
+                generated += neighbour.get(0, 0) & 1;
+            }
+        }
+        
+        long tb = System.currentTimeMillis();
+        long bb = Utils.getAllocatedBytes();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Allocated bytes per expanded node: " + 
+                           (bb - ba) / NODES + ".");
+        
+        title2("In-place moves");
+        
+        final PuzzleNode scratch = new PuzzleNode(4);
+        ba = Utils.getAllocatedBytes();
+        ta = System.currentTimeMillis();
+        
+        for (final PuzzleNode node : nodes) {
+            scratch.copyFrom(node);
+            
+            for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                if (scratch.canMove(d)) {
+                    scratch.move(d);
+                    generated += scratch.get(0, 0) & 1;
+                    scratch.move(d ^ 2);
+                }
+            }
+        }
+        
+        tb = System.currentTimeMillis();
+        bb = Utils.getAllocatedBytes();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Allocated bytes per expanded node: " + 
+                           (bb - ba) / NODES + ".");
+        System.out.println("Checksum: " + generated);
     }
     
     private static final void profileSolvers() {
@@ -51,17 +643,17 @@ public class Demo {
         profileHeuristicWithHeap(source,
                                  new HeuristicBFSSolver()
                                         .withHeuristicFunction(dhf),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new HeuristicBFSSolver()
                                         .withHeuristicFunction(mhf),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new HeuristicBFSSolver()
                                         .withHeuristicFunction(mhf2),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new HeuristicBFSSolver()
@@ -78,20 +670,30 @@ public class Demo {
                                         .withHeuristicFunction(mhf2),
                                  new DAryHeap<PuzzleNode>(6));
         
+        profileHeuristicWithHeap(source,
+                                 new HeuristicBFSSolver()
+                                        .withHeuristicFunction(mhf),
+                                 new TieBreakingBucketHeap<PuzzleNode>());
+        
+        profileHeuristicWithHeap(source,
+                                 new HeuristicBFSSolver()
+                                        .withHeuristicFunction(mhf2),
+                                 new TieBreakingBucketHeap<PuzzleNode>());
+        
         profileHeuristicWithHeap(source,
                                  new BidirectionalHeuristicBFSSolver()
                                         .withHeuristicFunction(dhf),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new BidirectionalHeuristicBFSSolver()
                                         .withHeuristicFunction(mhf),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new BidirectionalHeuristicBFSSolver()
                                         .withHeuristicFunction(mhf2),
-                                 new BucketHeap<PuzzleNode>(100));
+                                 new BucketHeap<PuzzleNode>());
         
         profileHeuristicWithHeap(source,
                                  new BidirectionalHeuristicBFSSolver()
@@ -107,6 +709,59 @@ public class Demo {
                                  new BidirectionalHeuristicBFSSolver()
                                         .withHeuristicFunction(mhf2),
                                  new DAryHeap<PuzzleNode>(6));
+        
+        profilePacked(source, r);
+    }
+    
+    private static final void profilePacked(final PuzzleNode source,
+                                            final Random r) {
+        final PackedPuzzleState packedSource = new PackedPuzzleState(source);
+        final PackedPuzzleState packedTarget = 
+                new PackedPuzzleState(source.getDimension());
+        
+        title2("HeuristicBFSSolver with DAryHeap using " +
+               "PackedManhattanHeuristicFunction");
+        
+        final Solver<PackedPuzzleState> solver = 
+                new HeuristicBFSSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        
+        long ta = System.currentTimeMillis();
+        List<PackedPuzzleState> path = solver.search(packedSource, 
+                                                     packedTarget);
+        long tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Path length: " + (path.size() - 1) + " edges.");
+        
+        title2("BidirectionalBFSSolver on PackedPuzzleState");
+        
+        ta = System.currentTimeMillis();
+        path = new BidirectionalBFSSolver<PackedPuzzleState>()
+                .search(packedSource, packedTarget);
+        tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Path length: " + (path.size() - 1) + " edges.");
+        
+        final PuzzleNode largeSource = 
+                Utils.getRandomPuzzleNode(40, 6, r);
+        
+        title2("HeuristicBFSSolver with DAryHeap using " +
+               "BitPackedManhattanHeuristicFunction (6x6)");
+        
+        ta = System.currentTimeMillis();
+        List<BitPackedPuzzleState> bitPackedPath =
+                new HeuristicBFSSolver<BitPackedPuzzleState>()
+                .withHeuristicFunction(
+                        new BitPackedManhattanHeuristicFunction())
+                .search(new BitPackedPuzzleState(largeSource), 
+                        new BitPackedPuzzleState(6));
+        tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Path length: " + (bitPackedPath.size() - 1) + 
+                           " edges.");
     }
     
     private static final void profileHeuristicWithHeap
@@ -176,9 +831,218 @@ public class Demo {
         results.add(profile(new DAryHeap<Integer>(4), new Random(SEED)));
         results.add(profile(new DAryHeap<Integer>(5), new Random(SEED)));
         results.add(profile(new DAryHeap<Integer>(6), new Random(SEED)));
+        
+        for (int d = 2; d <= 6; ++d) {
+            results.add(profile(new PrimitiveDAryHeap<Integer>(d),
+                                new Random(SEED)));
+        }
+        
         System.out.println("Priority sequences match: " + resultsMatch(results));
     }
     
+    private static final void profileSolverTraces() {
+        title1("Profiling priority queues on solver traces");
+        final Random r = new Random(1398780721825L);
+        final TraceRecorder recorder = new TraceRecorder();
+        final Solver<PackedPuzzleState> solver =
+                new HeuristicBFSSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction())
+                .withPriorityQueue(recorder);
+        
+        for (int i = 0; i != 200; ++i) {
+            solver.search(new PackedPuzzleState(
+                                  Utils.getRandomPuzzleNode(80, 4, r)),
+                          new PackedPuzzleState(4));
+        }
+        
+        System.out.println("Operations: " + recorder.size + ", elements: " +
+                           recorder.ids.size() + ".");
+        
+        final Integer[] elements = new Integer[recorder.ids.size()];
+        
+        for (int i = 0; i != elements.length; ++i) {
+            elements[i] = i;
+        }
+        
+        for (int round = 0; round != 3; ++round) {
+            replay(recorder, elements, new DAryHeap<Integer>(4));
+            replay(recorder, elements, new PrimitiveDAryHeap<Integer>(4));
+            replay(recorder, elements, new BucketHeap<Integer>());
+            replay(recorder, elements, new RadixHeap<Integer>());
+        }
+    }
+    
+    private static final void profileLazyDeletion() {
+        title1("Profiling the lazy-deletion mode");
+        final Random r = new Random(1398780721825L);
+        final PackedPuzzleState[] sources = new PackedPuzzleState[200];
+        
+        for (int i = 0; i != sources.length; ++i) {
+            sources[i] = new PackedPuzzleState(
+                                 Utils.getRandomPuzzleNode(80, 4, r));
+        }
+        
+        final List<IntegerPriorityQueue<PackedPuzzleState>> queues =
+                new ArrayList<IntegerPriorityQueue<PackedPuzzleState>>();
+        
+        queues.add(new DAryHeap<PackedPuzzleState>(4));
+        queues.add(new PrimitiveDAryHeap<PackedPuzzleState>(4));
+        queues.add(new BucketHeap<PackedPuzzleState>());
+        queues.add(new RadixHeap<PackedPuzzleState>());
+        
+        // Keeps the solvers reachable so that their tables and queues count
+        // as retained memory.
+        final List<Solver<PackedPuzzleState>> solvers =
+                new ArrayList<Solver<PackedPuzzleState>>();
+        
+        for (final IntegerPriorityQueue<PackedPuzzleState> queue : queues) {
+            profileDeletionMode(sources, queue, false, solvers);
+            profileDeletionMode(sources, queue, true, solvers);
+        }
+    }
+    
+    private static final void profileDeletionMode(
+            final PackedPuzzleState[] sources,
+            final IntegerPriorityQueue<PackedPuzzleState> queue,
+            final boolean lazy,
+            final List<Solver<PackedPuzzleState>> solvers) {
+        title2(queue.getClass().getSimpleName() + 
+               (lazy ? ", lazy deletion" : ", indexed"));
+        
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long ma = runtime.totalMemory() - runtime.freeMemory();
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final Solver<PackedPuzzleState> solver =
+                new HeuristicBFSSolver<PackedPuzzleState>()
+                .withLazyDeletion(lazy)
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction())
+                .withPriorityQueue(queue);
+        
+        solvers.add(solver);
+        
+        long length = 0L;
+        long ba = Utils.getAllocatedBytes();
+        long ta = System.currentTimeMillis();
+        
+        for (final PackedPuzzleState source : sources) {
+            length += solver.search(source, target).size();
+        }
+        
+        long tb = System.currentTimeMillis();
+        long bb = Utils.getAllocatedBytes();
+        
+        System.gc();
+        final long mb = runtime.totalMemory() - runtime.freeMemory();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Allocated bytes per search: " + 
+                           (bb - ba) / sources.length + ".");
+        System.out.println("Retained bytes: " + (mb - ma) + ".");
+        System.out.println("Total path length: " + length + ".");
+    }
+    
+    private static final void profileHeapLayouts() {
+        title1("Profiling heap layouts");
+        final int OPERATIONS = 2000000;
+        
+        // A rough upper bound of the bytes an entry of a lazy heap takes
+        // while its arrays grow.
+        final long BYTES_PER_ENTRY = 64L;
+        
+        for (int size = 10000; size <= 100000000; size *= 10) {
+            if (BYTES_PER_ENTRY * size > Runtime.getRuntime().maxMemory()) {
+                title2("Size " + size);
+                System.out.println("Skipped: needs about " + 
+                                   (BYTES_PER_ENTRY * size >> 20) + 
+                                   " MiB of heap.");
+                continue;
+            }
+            
+            profileHold(new PrimitiveDAryHeap<Integer>(2), "d = 2",
+                        size, OPERATIONS);
+            profileHold(new PrimitiveDAryHeap<Integer>(4), "d = 4",
+                        size, OPERATIONS);
+            profileHold(new BHeap<Integer>(64), "page size 64",
+                        size, OPERATIONS);
+            profileHold(new BHeap<Integer>(), "page size 1024",
+                        size, OPERATIONS);
+        }
+    }
+    
+    /**
+     * Runs the hold model on a lazy instance of <code>queue</code>: the queue
+     * is filled with <code>size</code> entries, after which every operation
+     * extracts the minimum and adds an entry with a greater priority.
+     */
+    private static final void profileHold(
+            final IntegerPriorityQueue<Integer> queue,
+            final String parameters,
+            final int size,
+            final int operations) {
+        title2(queue.getClass().getSimpleName() + " (" + parameters + 
+               "), size " + size);
+        
+        final IntegerPriorityQueue<Integer> heap = queue.newLazyInstance();
+        final Random r = new Random(1L);
+        final Integer element = 0;
+        
+        for (int i = 0; i != size; ++i) {
+            heap.add(element, r.nextInt(size));
+        }
+        
+        long sum = 0L;
+        long ta = System.nanoTime();
+        
+        for (int i = 0; i != operations; ++i) {
+            final int priority = heap.getMinimumPriority();
+            sum += priority;
+            heap.extractMinimum();
+            heap.add(element, priority + r.nextInt(size));
+        }
+        
+        long tb = System.nanoTime();
+        
+        System.out.println("Time per operation: " + 
+                           (tb - ta) / operations + " ns.");
+        System.out.println("Sum of extracted priorities: " + sum + ".");
+    }
+    
+    private static final void replay(final TraceRecorder trace,
+                                     final Integer[] elements,
+                                     final IntegerPriorityQueue<Integer> q) {
+        title2(q.getClass().getSimpleName());
+        
+        long sum = 0L;
+        long ta = System.currentTimeMillis();
+        
+        for (int i = 0; i != trace.size; ++i) {
+            switch (trace.operations[i]) {
+                case TraceRecorder.ADD:
+                    q.add(elements[trace.elements[i]], trace.priorities[i]);
+                    break;
+                    
+                case TraceRecorder.DECREASE:
+                    q.decreasePriority(elements[trace.elements[i]],
+                                       trace.priorities[i]);
+                    break;
+                    
+                case TraceRecorder.EXTRACT:
+                    sum += q.getMinimumPriority();
+                    q.extractMinimum();
+                    break;
+                    
+                default:
+                    q.clear();
+            }
+        }
+        
+        long tb = System.currentTimeMillis();
+        
+        System.out.println("Time: " + (tb - ta) + " ms.");
+        System.out.println("Sum of extracted priorities: " + sum + ".");
+    }
+    
     private static final boolean resultsMatch(List<int[]> r) {
         for (int i = 0; i < r.size() - 1; ++i) {
             if (r.get(i).length != r.get(i + 1).length) {
@@ -205,6 +1069,11 @@ public class Demo {
                 msg = " : degree " + ((DAryHeap<Integer>) queue).getDegree();
             }
             
+            if (queue instanceof PrimitiveDAryHeap) {
+                msg = " : degree " +
+                      ((PrimitiveDAryHeap<Integer>) queue).getDegree();
+            }
+            
             title1(queue.getClass().getName() + msg);
             queue.clear();
             final int SIZE = 1000000;
@@ -255,4 +1124,104 @@ public class Demo {
             
             return array;
         }
+    
+    /**
+     * Records the operations a solver performs on its priority queue, the
+     * elements numbered in the order of their first appearance, while
+     * delegating them to a d-ary heap.
+     */
+    private static final class TraceRecorder
+    implements IntegerPriorityQueue<PackedPuzzleState> {
+        
+        static final byte ADD = 0;
+        static final byte DECREASE = 1;
+        static final byte EXTRACT = 2;
+        static final byte CLEAR = 3;
+        
+        final IntegerPriorityQueue<PackedPuzzleState> queue =
+                new PrimitiveDAryHeap<PackedPuzzleState>(4);
+        
+        final Map<PackedPuzzleState, Integer> ids =
+                new HashMap<PackedPuzzleState, Integer>();
+        
+        byte[] operations = new byte[1024];
+        int[] elements = new int[1024];
+        int[] priorities = new int[1024];
+        int size;
+        
+        @Override
+        public void add(final PackedPuzzleState element, final int priority) {
+            record(ADD, element, priority);
+            queue.add(element, priority);
+        }
+        
+        @Override
+        public PackedPuzzleState min() {
+            return queue.min();
+        }
+        
+        @Override
+        public PackedPuzzleState extractMinimum() {
+            record(EXTRACT, null, 0);
+            return queue.extractMinimum();
+        }
+        
+        @Override
+        public void decreasePriority(final PackedPuzzleState element,
+                                     final int priority) {
+            record(DECREASE, element, priority);
+            queue.decreasePriority(element, priority);
+        }
+        
+        @Override
+        public int size() {
+            return queue.size();
+        }
+        
+        @Override
+        public void clear() {
+            record(CLEAR, null, 0);
+            queue.clear();
+        }
+        
+        @Override
+        public int getMinimumPriority() {
+            return queue.getMinimumPriority();
+        }
+        
+        @Override
+        public IntegerPriorityQueue<PackedPuzzleState> newInstance() {
+            return this;
+        }
+        
+        @Override
+        public IntegerPriorityQueue<PackedPuzzleState> newLazyInstance() {
+            throw new UnsupportedOperationException(
+                    "Lazy-deletion traces are not recorded.");
+        }
+        
+        private void record(final byte operation,
+                            final PackedPuzzleState element,
+                            final int priority) {
+            if (size == operations.length) {
+                operations = Arrays.copyOf(operations, 2 * size);
+                elements = Arrays.copyOf(elements, 2 * size);
+                priorities = Arrays.copyOf(priorities, 2 * size);
+            }
+            
+            if (element != null) {
+                Integer id = ids.get(element);
+                
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(element.copy(), id);
+                }
+                
+                elements[size] = id;
+            }
+            
+            operations[size] = operation;
+            priorities[size++] = priority;
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package net.coderodde.pzzlsrch;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Random;
 import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 
 /**
  * This class contains some utilities.
@@ -84,6 +87,50 @@ public class Utils {
         }
     }
     
+    /**
+     * Returns the direction in which the empty tile slid when moving from
+     * <code>from</code> to its neighbor <code>to</code>.
+     * 
+     * @param from the earlier state.
+     * @param to the later state.
+     * 
+     * @return the direction of the move, or <code>PuzzleState.NONE</code> if
+     * <code>from</code> is <code>null</code>.
+     */
+    public static final int getDirection(final PuzzleState<?> from, 
+                                         final PuzzleState<?> to) {
+        if (from == null) {
+            return PuzzleState.NONE;
+        }
+        
+        final int dx = to.getBlankX() - from.getBlankX();
+        
+        if (dx != 0) {
+            return dx > 0 ? PuzzleState.RIGHT : PuzzleState.LEFT;
+        }
+        
+        return to.getBlankY() > from.getBlankY() ? 
+               PuzzleState.DOWN : 
+               PuzzleState.UP;
+    }
+    
+    /**
+     * Returns the amount of bytes allocated so far by the calling thread, if 
+     * the JVM supports measuring it.
+     * 
+     * @return the amount of allocated bytes or -1 if not supported.
+     */
+    public static final long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        
+        return -1L;
+    }
+    
     /**
      * Returns a non-null neighbor node of <code>source</code>.
      * 
@@ -65,4 +65,15 @@ public interface IntegerPriorityQueue<T> {
      * @return an empty queue.
      */
     public IntegerPriorityQueue<T> newInstance();
+    
+    /**
+     * Spawns an empty queue with the same implementation in the lazy-deletion
+     * mode. Such a queue keeps no index of its elements: adding an element
+     * already in the queue adds another entry for it, and decreasing a
+     * priority is not supported. The user re-adds an element instead and
+     * skips its stale entries as they are extracted.
+     * 
+     * @return an empty lazy-deletion queue.
+     */
+    public IntegerPriorityQueue<T> newLazyInstance();
 }
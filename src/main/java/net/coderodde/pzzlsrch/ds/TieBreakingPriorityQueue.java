@@ -0,0 +1,40 @@
+package net.coderodde.pzzlsrch.ds;
+
+/**
+ * This interface defines the API for integer priority queues breaking the
+ * ties between equal priorities in favour of the elements with the higher
+ * g-score. With the priority being the f-score <code>g + h</code>, these are
+ * the elements with the lower heuristic estimate, which are the closest to
+ * the target on the last f-layer of a search.
+ * <p>
+ * The methods inherited from {@link IntegerPriorityQueue} treat the priority
+ * as the g-score, so that the elements they add or update are preferred
+ * among the ties.
+ * 
+ * @param <T> the element type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public interface TieBreakingPriorityQueue<T> extends IntegerPriorityQueue<T> {
+    
+    /**
+     * Adds a new element to this queue.
+     * 
+     * @param element the element to add.
+     * @param priority the priority of the element being added.
+     * @param g the g-score of the element being added.
+     */
+    public void add(final T element, final int priority, final int g);
+    
+    /**
+     * Updates the priority and the g-score of an element.
+     * 
+     * @param element the element whose priority to update.
+     * @param priority the new priority.
+     * @param g the new g-score.
+     */
+    public void decreasePriority(final T element,
+                                 final int priority,
+                                 final int g);
+}
@@ -0,0 +1,653 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+
+/**
+ * This class implements a B-heap: a binary minimum heap whose array is cut
+ * into pages, each page holding a complete binary subtree. A sift on a flat
+ * implicit heap touches a new memory page on every level below the first
+ * few, whereas a sift on a B-heap stays within a page for
+ * <code>log2(pageSize) - 1</code> levels, so a deep sift on a large heap
+ * touches about <code>log(n) / log(pageSize)</code> pages.
+ * <p>
+ * Position 0 of every page is unused and position 1 is the root of its
+ * subtree; the node at page position <code>i</code> has its children at
+ * <code>2i</code> and <code>2i + 1</code> of the same page, except for the
+ * bottom row of a page, whose children are the roots of two child pages.
+ * The pages thus form a <code>pageSize</code>-ary tree stored in the
+ * implicit layout of a d-ary heap. The elements fill the positions in
+ * array order, which puts every parent before its children.
+ * <p>
+ * As in {@link PrimitiveDAryHeap}, the priorities and the handles are kept
+ * in parallel arrays and the handle of an element is its slot in an
+ * open-addressing hash table holding the heap positions.
+ * 
+ * @param <T> the element type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BHeap<T> implements IntegerPriorityQueue<T> {
+    
+    /**
+     * The minimum capacity of this heap.
+     */
+    private static final int MINIMUM_CAPACITY = 128;
+    
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    /**
+     * The minimum page size.
+     */
+    private static final int MINIMUM_PAGE_SIZE = 4;
+    
+    /**
+     * The default page size; 1024 priorities fill a 4 KiB memory page.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 1024;
+    
+    /**
+     * The position of the root element.
+     */
+    private static final int ROOT = 1;
+    
+    /**
+     * The amount of positions in a page.
+     */
+    private final int pageSize;
+    
+    /**
+     * The base 2 logarithm of the page size.
+     */
+    private final int pageShift;
+    
+    /**
+     * The mask extracting the position within a page.
+     */
+    private final int pageMask;
+    
+    /**
+     * The first position of the bottom row of a page.
+     */
+    private final int bottom;
+    
+    /**
+     * The priority of the element at each heap position.
+     */
+    private int[] priorities;
+    
+    /**
+     * The handle of the element at each heap position.
+     */
+    private int[] handles;
+    
+    /**
+     * The elements by handle; <code>null</code> marks a free slot.
+     */
+    private Object[] keys;
+    
+    /**
+     * The cached hashes of the elements by handle.
+     */
+    private int[] hashes;
+    
+    /**
+     * The heap position of the element of each handle.
+     */
+    private int[] positions;
+    
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+    
+    /**
+     * The position the next element is added at.
+     */
+    private int end = ROOT;
+    
+    /**
+     * Whether this heap is in the lazy-deletion mode, in which the handles
+     * are allocated from a free list instead of by hashing the elements.
+     */
+    private boolean lazy;
+    
+    /**
+     * The first free handle in the lazy-deletion mode, the rest chained
+     * through <code>hashes</code>; -1 if none.
+     */
+    private int freeHandle = -1;
+    
+    /**
+     * The amount of handles ever allocated in the lazy-deletion mode since
+     * the last clear.
+     */
+    private int handleCount;
+    
+    /**
+     * Constructs a new B-heap with given <code>pageSize</code> and
+     * <code>capacity</code>.
+     * 
+     * @param pageSize the amount of positions in a page, a power of two.
+     * @param capacity the initial capacity.
+     * 
+     * @throws IllegalArgumentException if the page size or the capacity is
+     * invalid.
+     */
+    public BHeap(final int pageSize, final int capacity) {
+        if (pageSize < MINIMUM_PAGE_SIZE
+                || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException(
+                    "Page size (" + pageSize + ") is not a power of two " +
+                    "of at least " + MINIMUM_PAGE_SIZE + ".");
+        }
+        
+        if (capacity < MINIMUM_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below the minimum (" +
+                    MINIMUM_CAPACITY + ").");
+        }
+        
+        this.pageSize = pageSize;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        this.pageMask = pageSize - 1;
+        this.bottom = pageSize >>> 1;
+        
+        final int pages = (capacity + pageSize - 2) / (pageSize - 1);
+        this.priorities = new int[pages * pageSize];
+        this.handles = new int[pages * pageSize];
+        allocateTable(Integer.highestOneBit(capacity - 1) << 2);
+    }
+    
+    /**
+     * Constructs a new B-heap with given page size and default capacity.
+     * 
+     * @param pageSize the amount of positions in a page.
+     */
+    public BHeap(final int pageSize) {
+        this(pageSize, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a B-heap with default parameters.
+     */
+    public BHeap() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Adds an element to this queue if it is not already there.
+     * 
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final T element, final int priority) {
+        if (lazy) {
+            if (end >= priorities.length) {
+                expandHeap();
+            }
+            
+            final int handle = allocateHandle();
+            keys[handle] = element;
+            priorities[end] = priority;
+            handles[end] = handle;
+            siftUp(end);
+            advanceEnd();
+            return;
+        }
+        
+        final int hash = hash(element);
+        int slot = find(element, hash);
+        
+        if (slot >= 0) {
+            return;
+        }
+        
+        if (2 * (size + 1) > keys.length) {
+            expandTable();
+            slot = find(element, hash);
+        }
+        
+        if (end >= priorities.length) {
+            expandHeap();
+        }
+        
+        slot = -slot - 1;
+        keys[slot] = element;
+        hashes[slot] = hash;
+        priorities[end] = priority;
+        handles[end] = slot;
+        positions[slot] = end;
+        siftUp(end);
+        advanceEnd();
+    }
+    
+    /**
+     * Returns but does not remove the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        return (T) keys[handles[ROOT]];
+    }
+    
+    /**
+     * Returns and removes the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        
+        final int slot = handles[ROOT];
+        final T ret = (T) keys[slot];
+        
+        --size;
+        
+        if ((--end & pageMask) == 0) {
+            --end;
+        }
+        
+        if (size != 0) {
+            priorities[ROOT] = priorities[end];
+            handles[ROOT] = handles[end];
+            positions[handles[ROOT]] = ROOT;
+            siftDown(ROOT);
+        }
+        
+        if (lazy) {
+            keys[slot] = null;
+            hashes[slot] = freeHandle;
+            freeHandle = slot;
+        } else {
+            remove(slot);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Updates the priority of an element if lower than the current one.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param priority the new priority.
+     * 
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
+     */
+    @Override
+    public void decreasePriority(final T element, final int priority) {
+        if (lazy) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
+        }
+        
+        final int slot = find(element, hash(element));
+        
+        if (slot < 0 || priorities[positions[slot]] <= priority) {
+            return;
+        }
+        
+        priorities[positions[slot]] = priority;
+        siftUp(positions[slot]);
+    }
+    
+    /**
+     * Returns the amount of elements in this heap.
+     * 
+     * @return the amount of elements in this heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all the elements from this heap.
+     */
+    @Override
+    public void clear() {
+        for (int i = ROOT; i < end; ++i) {
+            if ((i & pageMask) != 0) {
+                keys[handles[i]] = null;
+            }
+        }
+        
+        size = 0;
+        end = ROOT;
+        freeHandle = -1;
+        handleCount = 0;
+    }
+    
+    /**
+     * Returns the amount of positions in a page of this heap.
+     * 
+     * @return the page size of this heap.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    /**
+     * Returns the minimum priority (the priority of the root element).
+     * 
+     * @return the minimum priority in this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int getMinimumPriority() {
+        checkNotEmpty();
+        return priorities[ROOT];
+    }
+    
+    /**
+     * Spawns a new empty heap with the same implementation.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public BHeap<T> newInstance() {
+        return new BHeap<T>(pageSize,
+                            Math.max(MINIMUM_CAPACITY,
+                                     priorities.length
+                                     / pageSize * (pageSize - 1)));
+    }
+    
+    /**
+     * Spawns a new empty heap with the same implementation in the
+     * lazy-deletion mode.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public BHeap<T> newLazyInstance() {
+        final BHeap<T> heap = newInstance();
+        heap.lazy = true;
+        return heap;
+    }
+    
+    /**
+     * Checks whether this heap is not empty.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+    
+    /**
+     * Counts the element just stored at <code>end</code> and moves
+     * <code>end</code> to the next position, skipping the unused first
+     * position of a page.
+     */
+    private void advanceEnd() {
+        ++size;
+        
+        if ((++end & pageMask) == 0) {
+            ++end;
+        }
+    }
+    
+    /**
+     * Returns the position of the parent of a non-root position.
+     * 
+     * @param position the position.
+     * 
+     * @return the position of the parent.
+     */
+    private int parent(final int position) {
+        final int i = position & pageMask;
+        
+        if (i != ROOT) {
+            return (position & ~pageMask) | (i >>> 1);
+        }
+        
+        // The root of a page hangs off the bottom row of the parent page.
+        final int page = (position >>> pageShift) - 1;
+        return (page & ~pageMask) | (bottom + ((page & pageMask) >>> 1));
+    }
+    
+    /**
+     * Sifts the element at <code>index</code> up the heap until the minimum
+     * heap invariant is satisfied.
+     * 
+     * @param index the heap position of the element.
+     */
+    private void siftUp(int index) {
+        final int priority = priorities[index];
+        final int handle = handles[index];
+        
+        while (index != ROOT) {
+            final int parent = parent(index);
+            
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            
+            priorities[index] = priorities[parent];
+            handles[index] = handles[parent];
+            positions[handles[index]] = index;
+            index = parent;
+        }
+        
+        priorities[index] = priority;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+    
+    /**
+     * Sifts the element at <code>index</code> down the heap until the
+     * minimum heap invariant is satisfied.
+     * 
+     * @param index the heap position of the element.
+     */
+    private void siftDown(int index) {
+        final int priority = priorities[index];
+        final int handle = handles[index];
+        final int lastPage = (end - 1) >>> pageShift;
+        
+        for (;;) {
+            final int i = index & pageMask;
+            final int left;
+            final int right;
+            
+            if (i < bottom) {
+                left = index + i;
+                right = left + 1;
+            } else {
+                // Checked before shifting so that the position cannot
+                // overflow.
+                final int page = (index & ~pageMask) + 2 * (i - bottom) + 1;
+                
+                if (page > lastPage) {
+                    break;
+                }
+                
+                left = (page << pageShift) | ROOT;
+                right = left + pageSize;
+            }
+            
+            if (left >= end) {
+                break;
+            }
+            
+            int minChild = left;
+            int minPriority = priorities[left];
+            
+            if (right < end && minPriority > priorities[right]) {
+                minPriority = priorities[right];
+                minChild = right;
+            }
+            
+            if (minPriority >= priority) {
+                break;
+            }
+            
+            priorities[index] = minPriority;
+            handles[index] = handles[minChild];
+            positions[handles[index]] = index;
+            index = minChild;
+        }
+        
+        priorities[index] = priority;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+    
+    /**
+     * Takes a free handle in the lazy-deletion mode, growing the element
+     * array if none is left.
+     * 
+     * @return the handle.
+     */
+    private int allocateHandle() {
+        if (freeHandle >= 0) {
+            final int handle = freeHandle;
+            freeHandle = hashes[handle];
+            return handle;
+        }
+        
+        if (handleCount == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * handleCount);
+            hashes = Arrays.copyOf(hashes, 2 * handleCount);
+            positions = Arrays.copyOf(positions, 2 * handleCount);
+        }
+        
+        return handleCount++;
+    }
+    
+    /**
+     * Looks up <code>element</code> in the table.
+     * 
+     * @param element the element to look up.
+     * @param hash the spread hash of <code>element</code>.
+     * 
+     * @return the handle of <code>element</code> if present; otherwise
+     * <code>-slot - 1</code>, where <code>slot</code> is the free slot ending
+     * the probe sequence.
+     */
+    private int find(final Object element, final int hash) {
+        final int mask = keys.length - 1;
+        int slot = hash & mask;
+        
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(element)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Removes the element with handle <code>slot</code> from the table,
+     * moving the following elements of the probe sequence backwards.
+     * 
+     * @param slot the handle of the element.
+     */
+    private void remove(int slot) {
+        final int mask = keys.length - 1;
+        
+        for (int next = (slot + 1) & mask;
+                keys[next] != null;
+                next = (next + 1) & mask) {
+            // The element at 'next' may fill the hole unless the hole lies
+            // before its home slot in the probe sequence.
+            final int home = hashes[next] & mask;
+            
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                hashes[slot] = hashes[next];
+                positions[slot] = positions[next];
+                handles[positions[slot]] = slot;
+                slot = next;
+            }
+        }
+        
+        keys[slot] = null;
+    }
+    
+    /**
+     * Allocates the table arrays for <code>capacity</code> slots.
+     * 
+     * @param capacity the capacity, a power of two.
+     */
+    private void allocateTable(final int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        positions = new int[capacity];
+    }
+    
+    /**
+     * Doubles the capacity of the table and rehashes the elements, updating
+     * their handles in the heap.
+     */
+    private void expandTable() {
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldPositions = positions;
+        
+        allocateTable(oldKeys.length << 1);
+        final int mask = keys.length - 1;
+        
+        for (int i = 0; i != oldKeys.length; ++i) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            
+            int slot = oldHashes[i] & mask;
+            
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+            positions[slot] = oldPositions[i];
+            handles[positions[slot]] = slot;
+        }
+    }
+    
+    /**
+     * Grows the heap arrays by half, rounded up to whole pages.
+     */
+    private void expandHeap() {
+        final int capacity =
+                (priorities.length + priorities.length / 2 + pageMask)
+                & ~pageMask;
+        
+        priorities = Arrays.copyOf(priorities, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
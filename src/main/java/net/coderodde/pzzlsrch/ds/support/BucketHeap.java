@@ -1,12 +1,25 @@
 package net.coderodde.pzzlsrch.ds.support;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
 
 /**
  * This class implements very easy integer priority queue.
+ * <p>
+ * The elements live in doubly-linked lists, one per priority. The lists are
+ * kept in a circular array of buckets indexed by the priority modulo its
+ * length, which doubles whenever the difference between the largest and the
+ * least priority in the heap would not fit in it, so the priorities need not
+ * be bounded in advance.
+ * <p>
+ * The list nodes are slots of parallel arrays drawn from a pool that is
+ * reused across the operations and the clears, and the elements are looked
+ * up through an open-addressing table over the same slots. Every bucket and
+ * every table slot carries the generation it was written in;
+ * {@link #clear()} merely starts a new generation, which takes constant
+ * time. The elements of the previous generations stay referenced by the pool
+ * until their slots are reused.
  * 
  * @author Rodion Efremov
  * @version 1.0
@@ -14,53 +27,79 @@ import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
 public class BucketHeap<T> implements IntegerPriorityQueue<T> {
 
     /**
-     * The node class.
-     * 
-     * @param <T> the element type. 
+     * The least amount of buckets.
      */
-    static class ListNode<T> {
-        /**
-         * The element.
-         */
-        T element;
-        
-        /**
-         * The priority of <code>element</code>.
-         */
-        int priority;
-        
-        /**
-         * The predecessor <code>ListNode</code>.
-         */
-        ListNode<T> prev;
-        
-        /**
-         * The successor <code>ListNode</code>.
-         */
-        ListNode<T> next;
-        
-        /**
-         * Constructs new <code>ListNode</code> with specified element and 
-         * priority.
-         * 
-         * @param element the element.
-         * @param priority the priority associated with the element.
-         */
-        ListNode(final T element, final int priority) {
-            this.element = element;
-            this.priority = priority;
-        }
-    }
+    private static final int MINIMUM_BUCKETS = 16;
+    
+    /**
+     * The initial amount of list nodes in the pool.
+     */
+    private static final int INITIAL_NODES = 128;
+    
+    /**
+     * The marker of the end of a list.
+     */
+    private static final int NONE = -1;
+    
+    /**
+     * The first list node of each bucket.
+     */
+    private int[] bucketHeads;
+    
+    /**
+     * The generation in which each bucket head was written.
+     */
+    private int[] bucketStamps;
+    
+    /**
+     * The element of each list node.
+     */
+    private Object[] elements;
+    
+    /**
+     * The cached hash of the element of each list node.
+     */
+    private int[] hashes;
+    
+    /**
+     * The priority of each list node.
+     */
+    private int[] priorities;
+    
+    /**
+     * The predecessor of each list node.
+     */
+    private int[] prev;
+    
+    /**
+     * The successor of each list node, or the next free node in the pool.
+     */
+    private int[] next;
+    
+    /**
+     * The list node of each table slot.
+     */
+    private int[] slotNodes;
+    
+    /**
+     * The generation in which each table slot was written.
+     */
+    private int[] slotStamps;
+    
+    /**
+     * The amount of list nodes taken from the pool during this generation.
+     */
+    private int nodeCount;
     
     /**
-     * Maps elements to their respective list nodes. Used for efficiency.
+     * The first of the list nodes freed during this generation.
      */
-    private Map<T, ListNode<T>> map;
+    private int freeList = NONE;
     
     /**
-     * The storage/lookup table.
+     * The current generation. Never zero, so that zero stamps are stale.
      */
-    private ListNode<T>[] storage;
+    private int generation = 1;
     
     /**
      * The cached size of this heap.
@@ -72,14 +111,51 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
      */
     private int minimumPriority = Integer.MAX_VALUE;
     
+    /**
+     * An upper bound on the priorities in this queue.
+     */
+    private int maximumPriority = Integer.MIN_VALUE;
+    
+    /**
+     * Whether this heap is in the lazy-deletion mode, in which the table is
+     * not used.
+     */
+    private boolean lazy;
+    
     /**
      * Constructs an empty heap.
      * 
-     * @param maxPriority the maximum priority this heap allows. 
+     * @param maxPriority the expected maximum priority; larger priorities are
+     * accommodated as well.
+     * 
+     * @throws IllegalArgumentException if <code>maxPriority</code> is
+     * negative.
      */
     public BucketHeap(final int maxPriority) {
-        this.storage = new ListNode[maxPriority + 1];
-        this.map = new HashMap<T, ListNode<T>>();
+        if (maxPriority < 0) {
+            throw new IllegalArgumentException(
+                    "Negative maximum priority: " + maxPriority + ".");
+        }
+        
+        final int buckets = Math.max(MINIMUM_BUCKETS,
+                                     Integer.highestOneBit(maxPriority) << 1);
+        
+        this.bucketHeads = new int[buckets];
+        this.bucketStamps = new int[buckets];
+        this.elements = new Object[INITIAL_NODES];
+        this.hashes = new int[INITIAL_NODES];
+        this.priorities = new int[INITIAL_NODES];
+        this.prev = new int[INITIAL_NODES];
+        this.next = new int[INITIAL_NODES];
+        this.slotNodes = new int[2 * INITIAL_NODES];
+        this.slotStamps = new int[2 * INITIAL_NODES];
+    }
+    
+    /**
+     * Constructs an empty heap with the least amount of buckets.
+     */
+    public BucketHeap() {
+        this(0);
     }
     
     /**
@@ -90,25 +166,43 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
      * @param priority the priority to associate with the element.
      */
     public void add(T element, int priority) {
-        if (map.containsKey(element)) {
+        final int hash = lazy ? 0 : hash(element);
+        int slot = lazy ? -1 : find(element, hash);
+        
+        if (slot >= 0) {
             return;
         }
         
-        ListNode<T> node = new ListNode<T>(element, priority);
-        map.put(element, node);
-        ++size;
-        
-        if (storage[priority] != null) {
-            storage[priority].prev = node;
-            node.next = storage[priority];
-            storage[priority] = node;
+        if (size == 0) {
+            minimumPriority = priority;
+            maximumPriority = priority;
         } else {
-            storage[priority] = node;
+            final int lo = Math.min(minimumPriority, priority);
+            final int hi = Math.max(maximumPriority, priority);
+            
+            ensureSpan(lo, hi);
+            minimumPriority = lo;
+            maximumPriority = hi;
         }
         
-        if (minimumPriority > priority) {
-            minimumPriority = priority;
+        if (lazy == false && 2 * (size + 1) > slotNodes.length) {
+            expandTable();
+            slot = find(element, hash);
+        }
+        
+        final int node = allocateNode();
+        elements[node] = element;
+        hashes[node] = hash;
+        priorities[node] = priority;
+        link(node);
+        
+        if (lazy == false) {
+            slot = -slot - 1;
+            slotNodes[slot] = node;
+            slotStamps[slot] = generation;
         }
+        
+        ++size;
     }
 
     /**
@@ -121,7 +215,7 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
      */
     public T min() {
         checkNotEmpty();
-        return storage[minimumPriority].element;
+        return (T) elements[head(minimumPriority)];
     }
 
     /**
@@ -134,27 +228,29 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
     public T extractMinimum() {
         checkNotEmpty();
         
-        ListNode<T> node = storage[minimumPriority];
-        map.remove(node.element);
-        size--;
+        final int node = head(minimumPriority);
+        final T element = (T) elements[node];
+        
+        unlink(node);
+        
+        if (lazy == false) {
+            remove(find(element, hashes[node]));
+        }
+        
+        elements[node] = null;
+        next[node] = freeList;
+        freeList = node;
         
-        if (node.next != null) {
-            node.next.prev = null;
-            storage[minimumPriority] = node.next;
+        if (--size == 0) {
+            minimumPriority = Integer.MAX_VALUE;
+            maximumPriority = Integer.MIN_VALUE;
         } else {
-            storage[minimumPriority] = null;
-            
-            for (int i = minimumPriority + 1; i != storage.length; ++i) {
-                if (storage[i] != null) {
-                    minimumPriority = i;
-                    return node.element;
-                }
+            while (head(minimumPriority) == NONE) {
+                ++minimumPriority;
             }
-            
-            minimumPriority = Integer.MAX_VALUE;
         }
         
-        return node.element;
+        return element;
     }
 
     /**
@@ -162,38 +258,36 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
      * 
      * @param element the element whose key to decrease.
      * @param priority the new priority of <code>element</code>.
+     * 
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
      */
     public void decreasePriority(T element, int priority) {
-        ListNode<T> node = map.get(element);
-        
-        if (node == null || node.priority <= priority) {
-            return;
+        if (lazy) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
         }
         
-        if (node.prev != null) {
-            node.prev.next = node.next;
-        }
-        
-        if (node.next != null) {
-            node.next.prev = node.prev;
-        }
+        final int slot = find(element, hash(element));
         
-        if (storage[node.priority] == node) {
-            storage[node.priority] = node.next;
+        if (slot < 0) {
+            return;
         }
         
-        node.priority = priority;
+        final int node = slotNodes[slot];
         
-        if (storage[priority] != null) {
-            storage[priority].prev = node;
-            node.next = storage[priority];
+        if (priorities[node] <= priority) {
+            return;
         }
         
-        storage[priority] = node;
-        
         if (minimumPriority > priority) {
+            ensureSpan(priority, maximumPriority);
             minimumPriority = priority;
         }
+        
+        unlink(node);
+        priorities[node] = priority;
+        link(node);
     }
 
     /**
@@ -206,18 +300,26 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
     }
 
     /**
-     * Clears this heap.
+     * Clears this heap in constant time by starting a new generation.
      */
     public void clear() {
+        if (++generation == 0) {
+            Arrays.fill(bucketStamps, 0);
+            Arrays.fill(slotStamps, 0);
+            generation = 1;
+        }
+        
         size = 0;
-        map.clear();
-        storage = new ListNode[storage.length];
+        nodeCount = 0;
+        freeList = NONE;
+        minimumPriority = Integer.MAX_VALUE;
+        maximumPriority = Integer.MIN_VALUE;
     }
 
     /**
      * Returns the minimum priority of this heap.
      * 
-     * @return the minimum priority of this heap. 
+     * @return the minimum priority of this heap.
      */
     public int getMinimumPriority() {
         return minimumPriority;
@@ -229,9 +331,20 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
      * @return a new heap with the same implementation.
      */
     public IntegerPriorityQueue<T> newInstance() {
-        return new BucketHeap<T>(storage.length);
+        return new BucketHeap<T>(bucketHeads.length - 1);
+    }
+    
+    /**
+     * Spawns a new empty <code>BucketHeap</code> in the lazy-deletion mode.
+     * 
+     * @return a new heap with the same implementation.
+     */
+    public IntegerPriorityQueue<T> newLazyInstance() {
+        final BucketHeap<T> heap = new BucketHeap<T>(bucketHeads.length - 1);
+        heap.lazy = true;
+        return heap;
     }
-   
+    
     /**
      * Checks whether this heap is empty, and throws an exception if it is.
      * 
@@ -242,4 +355,225 @@ public class BucketHeap<T> implements IntegerPriorityQueue<T> {
             throw new NoSuchElementException("Reading from an empty heap.");
         }
     }
+    
+    /**
+     * Returns the first list node of the bucket of <code>priority</code>.
+     * 
+     * @param priority the priority.
+     * 
+     * @return the first list node, or {@link #NONE} if the bucket is empty.
+     */
+    private int head(final int priority) {
+        final int bucket = priority & (bucketHeads.length - 1);
+        return bucketStamps[bucket] == generation ? bucketHeads[bucket] : NONE;
+    }
+    
+    /**
+     * Prepends <code>node</code> to the bucket of its priority.
+     * 
+     * @param node the list node.
+     */
+    private void link(final int node) {
+        final int bucket = priorities[node] & (bucketHeads.length - 1);
+        final int first = head(priorities[node]);
+        
+        prev[node] = NONE;
+        next[node] = first;
+        
+        if (first != NONE) {
+            prev[first] = node;
+        }
+        
+        bucketHeads[bucket] = node;
+        bucketStamps[bucket] = generation;
+    }
+    
+    /**
+     * Removes <code>node</code> from the bucket of its priority.
+     * 
+     * @param node the list node.
+     */
+    private void unlink(final int node) {
+        if (prev[node] != NONE) {
+            next[prev[node]] = next[node];
+        } else {
+            bucketHeads[priorities[node] & (bucketHeads.length - 1)] =
+                    next[node];
+        }
+        
+        if (next[node] != NONE) {
+            prev[next[node]] = prev[node];
+        }
+    }
+    
+    /**
+     * Makes sure the buckets cover the priorities from <code>lo</code> to
+     * <code>hi</code> inclusive, doubling them as needed and moving the lists
+     * from the minimum priority to the maximum priority.
+     * 
+     * @param lo the least priority.
+     * @param hi the largest priority.
+     * 
+     * @throws IllegalArgumentException if the span is too wide.
+     */
+    private void ensureSpan(final int lo, final int hi) {
+        final long span = (long) hi - lo + 1;
+        
+        if (span <= bucketHeads.length) {
+            return;
+        }
+        
+        if (span > 1 << 30) {
+            throw new IllegalArgumentException(
+                    "The priorities span too wide a range: " + lo + " to " +
+                    hi + ".");
+        }
+        
+        final int[] oldHeads = bucketHeads;
+        final int[] oldStamps = bucketStamps;
+        final int oldMask = oldHeads.length - 1;
+        int buckets = oldHeads.length;
+        
+        while (buckets < span) {
+            buckets <<= 1;
+        }
+        
+        bucketHeads = new int[buckets];
+        bucketStamps = new int[buckets];
+        
+        for (int p = minimumPriority; p <= maximumPriority; ++p) {
+            final int bucket = p & oldMask;
+            int node = oldStamps[bucket] == generation ?
+                       oldHeads[bucket] :
+                       NONE;
+            
+            while (node != NONE) {
+                final int successor = next[node];
+                link(node);
+                node = successor;
+            }
+            
+            if (p == Integer.MAX_VALUE) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Takes a list node from the pool, growing the pool if it is exhausted.
+     * 
+     * @return the list node.
+     */
+    private int allocateNode() {
+        if (freeList != NONE) {
+            final int node = freeList;
+            freeList = next[node];
+            return node;
+        }
+        
+        if (nodeCount == elements.length) {
+            final int capacity = 2 * nodeCount;
+            
+            elements = Arrays.copyOf(elements, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        
+        return nodeCount++;
+    }
+    
+    /**
+     * Looks up <code>element</code> in the table.
+     * 
+     * @param element the element to look up.
+     * @param hash the spread hash of <code>element</code>.
+     * 
+     * @return the slot of <code>element</code> if present; otherwise
+     * <code>-slot - 1</code>, where <code>slot</code> is the free slot ending
+     * the probe sequence.
+     */
+    private int find(final Object element, final int hash) {
+        final int mask = slotNodes.length - 1;
+        int slot = hash & mask;
+        
+        while (slotStamps[slot] == generation) {
+            final int node = slotNodes[slot];
+            
+            if (hashes[node] == hash && elements[node].equals(element)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Frees <code>slot</code> in the table, moving the following entries of
+     * the probe sequence backwards.
+     * 
+     * @param slot the slot to free.
+     */
+    private void remove(int slot) {
+        final int mask = slotNodes.length - 1;
+        
+        for (int following = (slot + 1) & mask;
+                slotStamps[following] == generation;
+                following = (following + 1) & mask) {
+            // The entry at 'following' may fill the hole unless the hole
+            // lies before its home slot in the probe sequence.
+            final int home = hashes[slotNodes[following]] & mask;
+            
+            if (((following - home) & mask) >= ((following - slot) & mask)) {
+                slotNodes[slot] = slotNodes[following];
+                slot = following;
+            }
+        }
+        
+        slotStamps[slot] = 0;
+    }
+    
+    /**
+     * Doubles the capacity of the table and rehashes the entries of the
+     * current generation.
+     */
+    private void expandTable() {
+        final int[] oldNodes = slotNodes;
+        final int[] oldStamps = slotStamps;
+        
+        slotNodes = new int[oldNodes.length << 1];
+        slotStamps = new int[oldNodes.length << 1];
+        final int mask = slotNodes.length - 1;
+        
+        for (int i = 0; i != oldNodes.length; ++i) {
+            if (oldStamps[i] != generation) {
+                continue;
+            }
+            
+            int slot = hashes[oldNodes[i]] & mask;
+            
+            while (slotStamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            
+            slotNodes[slot] = oldNodes[i];
+            slotStamps[slot] = generation;
+        }
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
 }
@@ -62,7 +62,8 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
     private Object[] storage;
     
     /**
-     * Used as to keep the decrease operation O(log N).
+     * Used as to keep the decrease operation O(log N). <code>null</code> in
+     * the lazy-deletion mode.
      */
     private Map<T, Node<T>> map;
     
@@ -117,7 +118,7 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
      */
     @Override
     public void add(T element, int priority) {
-        if (map.containsKey(element)) {
+        if (map != null && map.containsKey(element)) {
             return;
         }
         
@@ -127,7 +128,11 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
         node.priority = priority;
         node.index = size;
         storage[size] = node;
-        map.put(element, node);
+        
+        if (map != null) {
+            map.put(element, node);
+        }
+        
         siftUp(size++);
     }
 
@@ -155,7 +160,11 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
     public T extractMinimum() {
         checkNotEmpty();
         T ret = ((Node<T>) storage[0]).element;
-        map.remove(ret);
+        
+        if (map != null) {
+            map.remove(ret);
+        }
+        
         Node<T> node = (Node<T>) storage[--size];
         storage[size] = null; // For garbage collecting.
         
@@ -173,9 +182,17 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
      * 
      * @param element the element whose priority to decrease.
      * @param priority the new priority.
+     * 
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
      */
     @Override
     public void decreasePriority(T element, int priority) {
+        if (map == null) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
+        }
+        
         Node<T> node = map.get(element);
         
         if (node == null 
@@ -203,7 +220,9 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
      */
     @Override
     public void clear() {
-        map.clear();
+        if (map != null) {
+            map.clear();
+        }
         
         for (int i = 0; i != size; ++i) {
             storage[i] = null;
@@ -242,6 +261,19 @@ public class DAryHeap<T> implements IntegerPriorityQueue<T> {
         return new DAryHeap<T>(getDegree(), storage.length);
     }
     
+    /**
+     * Spawns a new empty heap with the same implementation in the
+     * lazy-deletion mode.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public final DAryHeap<T> newLazyInstance() {
+        final DAryHeap<T> heap = newInstance();
+        heap.map = null;
+        return heap;
+    }
+    
     /**
      * This method expands the storage array in case it is full.
      */
@@ -0,0 +1,325 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+
+/**
+ * This class implements an open-addressing hash table holding the search
+ * bookkeeping of every generated node: the g-score, the direction of the move
+ * that produced the node and whether the node is closed. The data is kept in
+ * parallel primitive arrays, so that a lookup costs a single probe sequence
+ * and no entry objects or boxed integers are allocated.
+ * <p>
+ * A slot index is valid until the next insertion, which may rehash the table.
+ * 
+ * @param <T> the node type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class NodeTable<T> {
+    
+    /**
+     * The minimum capacity of this table.
+     */
+    private static final int MINIMUM_CAPACITY = 16;
+    
+    /**
+     * The default capacity of this table.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    /**
+     * The bits of <code>info</code> storing the parent move.
+     */
+    private static final int MOVE_MASK = 0x3;
+    
+    /**
+     * The bit of <code>info</code> set if the node has a parent.
+     */
+    private static final int HAS_PARENT = 0x4;
+    
+    /**
+     * The bit of <code>info</code> set if the node is closed.
+     */
+    private static final int CLOSED = 0x8;
+    
+    /**
+     * The value returned for nodes without a parent move.
+     */
+    private static final int NO_MOVE = -4;
+    
+    /**
+     * The keys; <code>null</code> marks a free slot.
+     */
+    private Object[] keys;
+    
+    /**
+     * The cached hashes of the keys.
+     */
+    private int[] hashes;
+    
+    /**
+     * The g-scores of the keys.
+     */
+    private int[] g;
+    
+    /**
+     * The parent move and the flags of the keys.
+     */
+    private byte[] info;
+    
+    /**
+     * The amount of keys in this table.
+     */
+    private int size;
+    
+    /**
+     * Constructs an empty table with given initial capacity.
+     * 
+     * @param capacity the initial capacity.
+     */
+    public NodeTable(final int capacity) {
+        allocate(Integer.highestOneBit(Math.max(MINIMUM_CAPACITY,
+                                                capacity) - 1) << 1);
+    }
+    
+    /**
+     * Constructs an empty table with default capacity.
+     */
+    public NodeTable() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Looks up <code>key</code>.
+     * 
+     * @param key the key to look up.
+     * 
+     * @return the slot of <code>key</code> if present; otherwise a negative
+     * value encoding the insertion point, to be passed to
+     * <code>insert</code>.
+     */
+    public int find(final Object key) {
+        final int hash = hash(key);
+        final int mask = keys.length - 1;
+        int slot = hash & mask;
+        
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Inserts a new key.
+     * 
+     * @param insertionPoint the value returned by <code>find</code> for a key
+     * equal to <code>key</code>; no other modifications may have happened in
+     * between.
+     * @param key the key to insert.
+     * @param g the g-score of the key.
+     * @param parentMove the move that produced the key, or a negative value
+     * if none.
+     * 
+     * @return the slot of the key.
+     */
+    public int insert(final int insertionPoint,
+                      final T key,
+                      final int g,
+                      final int parentMove) {
+        int slot = -insertionPoint - 1;
+        final int hash = hash(key);
+        
+        if (2 * (size + 1) > keys.length) {
+            expand();
+            slot = -find(key) - 1;
+        }
+        
+        keys[slot] = key;
+        hashes[slot] = hash;
+        this.g[slot] = g;
+        info[slot] = 0;
+        setParentMove(slot, parentMove);
+        ++size;
+        return slot;
+    }
+    
+    /**
+     * Inserts <code>key</code> unless already present.
+     * 
+     * @param key the key to insert.
+     * @param g the g-score of the key.
+     * @param parentMove the move that produced the key, or a negative value
+     * if none.
+     * 
+     * @return the slot of the key.
+     */
+    public int insert(final T key, final int g, final int parentMove) {
+        final int slot = find(key);
+        
+        if (slot >= 0) {
+            return slot;
+        }
+        
+        return insert(slot, key, g, parentMove);
+    }
+    
+    /**
+     * Returns the key stored at <code>slot</code>.
+     * 
+     * @param slot the slot.
+     * 
+     * @return the key.
+     */
+    public T getKey(final int slot) {
+        return (T) keys[slot];
+    }
+    
+    /**
+     * Returns the g-score of the key at <code>slot</code>.
+     * 
+     * @param slot the slot.
+     * 
+     * @return the g-score.
+     */
+    public int getG(final int slot) {
+        return g[slot];
+    }
+    
+    /**
+     * Sets the g-score of the key at <code>slot</code>.
+     * 
+     * @param slot the slot.
+     * @param g the new g-score.
+     */
+    public void setG(final int slot, final int g) {
+        this.g[slot] = g;
+    }
+    
+    /**
+     * Returns the move that produced the key at <code>slot</code>.
+     * 
+     * @param slot the slot.
+     * 
+     * @return the parent move, or a negative value if the key has no parent.
+     */
+    public int getParentMove(final int slot) {
+        final int i = info[slot];
+        return (i & HAS_PARENT) != 0 ? i & MOVE_MASK : NO_MOVE;
+    }
+    
+    /**
+     * Sets the move that produced the key at <code>slot</code>.
+     * 
+     * @param slot the slot.
+     * @param move the parent move, or a negative value if none.
+     */
+    public void setParentMove(final int slot, final int move) {
+        int i = info[slot] & ~(HAS_PARENT | MOVE_MASK);
+        
+        if (move >= 0) {
+            i |= HAS_PARENT | (move & MOVE_MASK);
+        }
+        
+        info[slot] = (byte) i;
+    }
+    
+    /**
+     * Checks whether the key at <code>slot</code> is closed.
+     * 
+     * @param slot the slot.
+     * 
+     * @return <code>true</code> if the key is closed.
+     */
+    public boolean isClosed(final int slot) {
+        return (info[slot] & CLOSED) != 0;
+    }
+    
+    /**
+     * Marks the key at <code>slot</code> closed.
+     * 
+     * @param slot the slot.
+     */
+    public void close(final int slot) {
+        info[slot] |= CLOSED;
+    }
+    
+    /**
+     * Returns the amount of keys in this table.
+     * 
+     * @return the amount of keys.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all the keys from this table.
+     */
+    public void clear() {
+        if (size != 0) {
+            Arrays.fill(keys, null);
+            size = 0;
+        }
+    }
+    
+    /**
+     * Allocates the arrays for <code>capacity</code> slots.
+     * 
+     * @param capacity the capacity, a power of two.
+     */
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        g = new int[capacity];
+        info = new byte[capacity];
+    }
+    
+    /**
+     * Doubles the capacity of this table and rehashes the keys.
+     */
+    private void expand() {
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldG = g;
+        final byte[] oldInfo = info;
+        
+        allocate(oldKeys.length << 1);
+        final int mask = keys.length - 1;
+        
+        for (int i = 0; i != oldKeys.length; ++i) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            
+            int slot = oldHashes[i] & mask;
+            
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+            g[slot] = oldG[i];
+            info[slot] = oldInfo[i];
+        }
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
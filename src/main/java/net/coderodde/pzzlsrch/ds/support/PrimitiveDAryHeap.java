@@ -0,0 +1,548 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+
+/**
+ * This class implements a d-ary minimum heap without per-element objects.
+ * The heap is a pair of parallel arrays holding the priority and the handle
+ * of the element at each position; the handle is the slot of the element in
+ * an open-addressing hash table, which in turn holds the heap position of
+ * every element. Sifting hence scans the priorities of the children in a
+ * single array, and no operation allocates memory unless an array grows.
+ * <p>
+ * The elements are removed from the table by shifting the following entries
+ * of their probe sequence backwards, so the table never fills up with
+ * deleted entries; the handles of the shifted elements are updated in the
+ * heap.
+ * 
+ * @param <T> the element type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PrimitiveDAryHeap<T> implements IntegerPriorityQueue<T> {
+    
+    /**
+     * The minimum capacity of this heap.
+     */
+    private static final int MINIMUM_CAPACITY = 128;
+    
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    /**
+     * The default degree of this heap.
+     */
+    private static final int DEFAULT_DEGREE = 2;
+    
+    /**
+     * The degree of this heap.
+     */
+    private final int d;
+    
+    /**
+     * The priority of the element at each heap position.
+     */
+    private int[] priorities;
+    
+    /**
+     * The handle of the element at each heap position.
+     */
+    private int[] handles;
+    
+    /**
+     * The elements by handle; <code>null</code> marks a free slot.
+     */
+    private Object[] keys;
+    
+    /**
+     * The cached hashes of the elements by handle.
+     */
+    private int[] hashes;
+    
+    /**
+     * The heap position of the element of each handle.
+     */
+    private int[] positions;
+    
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+    
+    /**
+     * Whether this heap is in the lazy-deletion mode, in which the handles
+     * are allocated from a free list instead of by hashing the elements.
+     */
+    private boolean lazy;
+    
+    /**
+     * The first free handle in the lazy-deletion mode, the rest chained
+     * through <code>hashes</code>; -1 if none.
+     */
+    private int freeHandle = -1;
+    
+    /**
+     * The amount of handles ever allocated in the lazy-deletion mode since
+     * the last clear.
+     */
+    private int handleCount;
+    
+    /**
+     * Construct a new d-ary heap with given <code>d</code> and
+     * <code>capacity</code>.
+     * 
+     * @param d the degree (branching factor) of this heap.
+     * @param capacity the initial capacity.
+     * 
+     * @throws IllegalArgumentException if the degree or the capacity is
+     * invalid.
+     */
+    public PrimitiveDAryHeap(final int d, final int capacity) {
+        if (d < 2) {
+            throw new IllegalArgumentException("Degree is less than 2.");
+        }
+        
+        if (capacity < MINIMUM_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below the minimum (" +
+                    MINIMUM_CAPACITY + ").");
+        }
+        
+        this.d = d;
+        this.priorities = new int[capacity];
+        this.handles = new int[capacity];
+        allocateTable(Integer.highestOneBit(capacity - 1) << 2);
+    }
+    
+    /**
+     * Constructs a new d-ary heap with given degree and default capacity.
+     * 
+     * @param d the degree of newly constructed heap.
+     */
+    public PrimitiveDAryHeap(final int d) {
+        this(d, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a heap with default parameters.
+     */
+    public PrimitiveDAryHeap() {
+        this(DEFAULT_DEGREE, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Adds an element to this queue if it is not already there.
+     * 
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final T element, final int priority) {
+        if (lazy) {
+            if (size == priorities.length) {
+                expandHeap();
+            }
+            
+            final int handle = allocateHandle();
+            keys[handle] = element;
+            priorities[size] = priority;
+            handles[size] = handle;
+            siftUp(size++);
+            return;
+        }
+        
+        final int hash = hash(element);
+        int slot = find(element, hash);
+        
+        if (slot >= 0) {
+            return;
+        }
+        
+        if (2 * (size + 1) > keys.length) {
+            expandTable();
+            slot = find(element, hash);
+        }
+        
+        if (size == priorities.length) {
+            expandHeap();
+        }
+        
+        slot = -slot - 1;
+        keys[slot] = element;
+        hashes[slot] = hash;
+        priorities[size] = priority;
+        handles[size] = slot;
+        positions[slot] = size;
+        siftUp(size++);
+    }
+    
+    /**
+     * Returns but does not remove the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        return (T) keys[handles[0]];
+    }
+    
+    /**
+     * Returns and removes the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        
+        final int slot = handles[0];
+        final T ret = (T) keys[slot];
+        
+        if (--size != 0) {
+            priorities[0] = priorities[size];
+            handles[0] = handles[size];
+            positions[handles[0]] = 0;
+            siftDown(0);
+        }
+        
+        if (lazy) {
+            keys[slot] = null;
+            hashes[slot] = freeHandle;
+            freeHandle = slot;
+        } else {
+            remove(slot);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Updates the priority of an element if lower than the current one.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param priority the new priority.
+     * 
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
+     */
+    @Override
+    public void decreasePriority(final T element, final int priority) {
+        if (lazy) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
+        }
+        
+        final int slot = find(element, hash(element));
+        
+        if (slot < 0 || priorities[positions[slot]] <= priority) {
+            return;
+        }
+        
+        priorities[positions[slot]] = priority;
+        siftUp(positions[slot]);
+    }
+    
+    /**
+     * Returns the amount of elements in this heap.
+     * 
+     * @return the amount of elements in this heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all the elements from this heap.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i != size; ++i) {
+            keys[handles[i]] = null;
+        }
+        
+        size = 0;
+        freeHandle = -1;
+        handleCount = 0;
+    }
+    
+    /**
+     * Returns the branching factor (degree) of this heap.
+     * 
+     * @return the degree of this heap.
+     */
+    public int getDegree() {
+        return d;
+    }
+    
+    /**
+     * Returns the minimum priority (the priority of the root element).
+     * 
+     * @return the minimum priority in this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int getMinimumPriority() {
+        checkNotEmpty();
+        return priorities[0];
+    }
+    
+    /**
+     * Spawns a new empty heap with the same implementation.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public PrimitiveDAryHeap<T> newInstance() {
+        return new PrimitiveDAryHeap<T>(d, priorities.length);
+    }
+    
+    /**
+     * Spawns a new empty heap with the same implementation in the
+     * lazy-deletion mode.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public PrimitiveDAryHeap<T> newLazyInstance() {
+        final PrimitiveDAryHeap<T> heap = newInstance();
+        heap.lazy = true;
+        return heap;
+    }
+    
+    /**
+     * Checks whether this heap is not empty.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+    
+    /**
+     * Sifts the element at <code>index</code> up the heap until the minimum
+     * heap invariant is satisfied.
+     * 
+     * @param index the heap position of the element.
+     */
+    private void siftUp(int index) {
+        final int priority = priorities[index];
+        final int handle = handles[index];
+        
+        while (index != 0) {
+            final int parent = (index - 1) / d;
+            
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            
+            priorities[index] = priorities[parent];
+            handles[index] = handles[parent];
+            positions[handles[index]] = index;
+            index = parent;
+        }
+        
+        priorities[index] = priority;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+    
+    /**
+     * Sifts the element at <code>index</code> down the heap until the
+     * minimum heap invariant is satisfied.
+     * 
+     * @param index the heap position of the element.
+     */
+    private void siftDown(int index) {
+        final int priority = priorities[index];
+        final int handle = handles[index];
+        
+        for (;;) {
+            final int first = d * index + 1;
+            
+            if (first >= size) {
+                break;
+            }
+            
+            final int last = Math.min(first + d, size);
+            int minChild = first;
+            int minPriority = priorities[first];
+            
+            for (int child = first + 1; child < last; ++child) {
+                if (minPriority > priorities[child]) {
+                    minPriority = priorities[child];
+                    minChild = child;
+                }
+            }
+            
+            if (minPriority >= priority) {
+                break;
+            }
+            
+            priorities[index] = minPriority;
+            handles[index] = handles[minChild];
+            positions[handles[index]] = index;
+            index = minChild;
+        }
+        
+        priorities[index] = priority;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+    
+    /**
+     * Takes a free handle in the lazy-deletion mode, growing the element
+     * array if none is left.
+     * 
+     * @return the handle.
+     */
+    private int allocateHandle() {
+        if (freeHandle >= 0) {
+            final int handle = freeHandle;
+            freeHandle = hashes[handle];
+            return handle;
+        }
+        
+        if (handleCount == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * handleCount);
+            hashes = Arrays.copyOf(hashes, 2 * handleCount);
+            positions = Arrays.copyOf(positions, 2 * handleCount);
+        }
+        
+        return handleCount++;
+    }
+    
+    /**
+     * Looks up <code>element</code> in the table.
+     * 
+     * @param element the element to look up.
+     * @param hash the spread hash of <code>element</code>.
+     * 
+     * @return the handle of <code>element</code> if present; otherwise
+     * <code>-slot - 1</code>, where <code>slot</code> is the free slot ending
+     * the probe sequence.
+     */
+    private int find(final Object element, final int hash) {
+        final int mask = keys.length - 1;
+        int slot = hash & mask;
+        
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(element)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Removes the element with handle <code>slot</code> from the table,
+     * moving the following elements of the probe sequence backwards.
+     * 
+     * @param slot the handle of the element.
+     */
+    private void remove(int slot) {
+        final int mask = keys.length - 1;
+        
+        for (int next = (slot + 1) & mask;
+                keys[next] != null;
+                next = (next + 1) & mask) {
+            // The element at 'next' may fill the hole unless the hole lies
+            // before its home slot in the probe sequence.
+            final int home = hashes[next] & mask;
+            
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                hashes[slot] = hashes[next];
+                positions[slot] = positions[next];
+                handles[positions[slot]] = slot;
+                slot = next;
+            }
+        }
+        
+        keys[slot] = null;
+    }
+    
+    /**
+     * Allocates the table arrays for <code>capacity</code> slots.
+     * 
+     * @param capacity the capacity, a power of two.
+     */
+    private void allocateTable(final int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        positions = new int[capacity];
+    }
+    
+    /**
+     * Doubles the capacity of the table and rehashes the elements, updating
+     * their handles in the heap.
+     */
+    private void expandTable() {
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldPositions = positions;
+        
+        allocateTable(oldKeys.length << 1);
+        final int mask = keys.length - 1;
+        
+        for (int i = 0; i != oldKeys.length; ++i) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            
+            int slot = oldHashes[i] & mask;
+            
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+            positions[slot] = oldPositions[i];
+            handles[positions[slot]] = slot;
+        }
+    }
+    
+    /**
+     * Grows the heap arrays by half.
+     */
+    private void expandHeap() {
+        final int capacity = 3 * priorities.length / 2;
+        final int[] newPriorities = new int[capacity];
+        final int[] newHandles = new int[capacity];
+        
+        System.arraycopy(priorities, 0, newPriorities, 0, size);
+        System.arraycopy(handles, 0, newHandles, 0, size);
+        priorities = newPriorities;
+        handles = newHandles;
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,571 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+
+/**
+ * This class implements a radix heap, a monotone integer priority queue:
+ * while the heap is not empty, no priority may be below the last minimum
+ * extracted, as is the case with the f-scores of A* under a consistent
+ * heuristic. An entry lives in the bucket numbered by the position of the
+ * highest bit in which its priority differs from the last minimum, bucket
+ * zero holding the entries equal to it. Once bucket zero runs empty, the
+ * least nonempty bucket is emptied into the lower ones around its least
+ * priority, which becomes the new last minimum. Every entry moves to lower
+ * buckets only, so the operations take amortized <code>O(log C)</code> time,
+ * where <code>C</code> is the difference between the largest and the least
+ * priority in the heap.
+ * <p>
+ * The buckets are appended to and emptied as arrays.
+ * {@link #decreasePriority(Object, int)} appends a new entry and leaves the
+ * old one in place; the element table remembers the sequence number of the
+ * live entry of every element, and the stale entries are dropped once they
+ * reach bucket zero.
+ * 
+ * @param <T> the element type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class RadixHeap<T> implements IntegerPriorityQueue<T> {
+    
+    /**
+     * The amount of buckets: bucket zero and one per bit of a priority.
+     */
+    private static final int BUCKETS = Integer.SIZE + 1;
+    
+    /**
+     * The initial capacity of a bucket.
+     */
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+    
+    /**
+     * The initial capacity of the element table.
+     */
+    private static final int INITIAL_TABLE_CAPACITY = 256;
+    
+    /**
+     * The elements of the entries of each bucket.
+     */
+    private final Object[][] bucketElements = new Object[BUCKETS][];
+    
+    /**
+     * The priorities of the entries of each bucket.
+     */
+    private final int[][] bucketPriorities = new int[BUCKETS][];
+    
+    /**
+     * The sequence numbers of the entries of each bucket.
+     */
+    private final int[][] bucketSequences = new int[BUCKETS][];
+    
+    /**
+     * The amount of entries, live or stale, in each bucket.
+     */
+    private final int[] bucketSizes = new int[BUCKETS];
+    
+    /**
+     * The elements by table slot.
+     */
+    private Object[] keys;
+    
+    /**
+     * The cached hashes of the elements by table slot.
+     */
+    private int[] hashes;
+    
+    /**
+     * The current priority of the element of each table slot.
+     */
+    private int[] values;
+    
+    /**
+     * The sequence number of the live entry of the element of each table
+     * slot.
+     */
+    private int[] sequences;
+    
+    /**
+     * The generation in which each table slot was written.
+     */
+    private int[] slotStamps;
+    
+    /**
+     * The current generation. Never zero, so that zero stamps are stale.
+     */
+    private int generation = 1;
+    
+    /**
+     * The sequence number of the next entry.
+     */
+    private int nextSequence;
+    
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+    
+    /**
+     * The last minimum extracted; no priority may be below it.
+     */
+    private int last = Integer.MIN_VALUE;
+    
+    /**
+     * The table slot of the live entry on top of bucket zero, or -1 if not
+     * known.
+     */
+    private int minimumSlot = -1;
+    
+    /**
+     * Whether this heap is in the lazy-deletion mode, in which the table is
+     * not used and every entry is live.
+     */
+    private boolean lazy;
+    
+    /**
+     * Constructs an empty radix heap.
+     */
+    public RadixHeap() {
+        for (int i = 0; i != BUCKETS; ++i) {
+            bucketElements[i] = new Object[INITIAL_BUCKET_CAPACITY];
+            bucketPriorities[i] = new int[INITIAL_BUCKET_CAPACITY];
+            bucketSequences[i] = new int[INITIAL_BUCKET_CAPACITY];
+        }
+        
+        this.keys = new Object[INITIAL_TABLE_CAPACITY];
+        this.hashes = new int[INITIAL_TABLE_CAPACITY];
+        this.values = new int[INITIAL_TABLE_CAPACITY];
+        this.sequences = new int[INITIAL_TABLE_CAPACITY];
+        this.slotStamps = new int[INITIAL_TABLE_CAPACITY];
+    }
+    
+    /**
+     * Adds an element to this heap if not already present.
+     * 
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     * 
+     * @throws IllegalArgumentException if the heap is not empty and
+     * <code>priority</code> is below the last minimum extracted.
+     */
+    @Override
+    public void add(final T element, final int priority) {
+        if (lazy) {
+            if (size == 0) {
+                last = Integer.MIN_VALUE;
+            } else {
+                checkMonotone(priority);
+            }
+            
+            push(element, priority, 0);
+            ++size;
+            return;
+        }
+        
+        final int hash = hash(element);
+        int slot = find(element, hash);
+        
+        if (slot >= 0) {
+            return;
+        }
+        
+        if (size == 0) {
+            // Only stale entries may be left, and any priority will do.
+            discardEntries();
+            last = Integer.MIN_VALUE;
+        } else {
+            checkMonotone(priority);
+        }
+        
+        if (2 * (size + 1) > keys.length) {
+            expandTable();
+            slot = find(element, hash);
+        }
+        
+        slot = -slot - 1;
+        keys[slot] = element;
+        hashes[slot] = hash;
+        values[slot] = priority;
+        sequences[slot] = nextSequence;
+        slotStamps[slot] = generation;
+        push(element, priority, nextSequence++);
+        ++size;
+    }
+    
+    /**
+     * Returns but does not remove the element with the least priority.
+     * 
+     * @return the minimum element.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        settleMinimum();
+        return (T) bucketElements[0][bucketSizes[0] - 1];
+    }
+    
+    /**
+     * Removes and returns the element with the least priority.
+     * 
+     * @return the minimum element.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        
+        final int slot = settleMinimum();
+        final int top = --bucketSizes[0];
+        final T element = (T) bucketElements[0][top];
+        
+        bucketElements[0][top] = null;
+        
+        if (lazy == false) {
+            remove(slot);
+        }
+        
+        --size;
+        return element;
+    }
+    
+    /**
+     * Decreases the priority of an element by appending a new entry for it.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param priority the new priority.
+     * 
+     * @throws IllegalArgumentException if <code>priority</code> is a
+     * decrease below the last minimum extracted.
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
+     */
+    @Override
+    public void decreasePriority(final T element, final int priority) {
+        if (lazy) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
+        }
+        
+        final int slot = find(element, hash(element));
+        
+        if (slot < 0 || values[slot] <= priority) {
+            return;
+        }
+        
+        checkMonotone(priority);
+        values[slot] = priority;
+        sequences[slot] = nextSequence;
+        push(element, priority, nextSequence++);
+    }
+    
+    /**
+     * Returns the amount of elements in this heap.
+     * 
+     * @return the amount of elements in this heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all the elements from this heap.
+     */
+    @Override
+    public void clear() {
+        discardEntries();
+        
+        if (++generation == 0) {
+            Arrays.fill(slotStamps, 0);
+            generation = 1;
+        }
+        
+        size = 0;
+        last = Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Returns the minimum priority of this heap.
+     * 
+     * @return the minimum priority, or <code>Integer.MAX_VALUE</code> if this
+     * heap is empty.
+     */
+    @Override
+    public int getMinimumPriority() {
+        if (size == 0) {
+            return Integer.MAX_VALUE;
+        }
+        
+        settleMinimum();
+        return last;
+    }
+    
+    /**
+     * Spawns a new empty radix heap.
+     * 
+     * @return a new heap with the same implementation.
+     */
+    @Override
+    public RadixHeap<T> newInstance() {
+        return new RadixHeap<T>();
+    }
+    
+    /**
+     * Spawns a new empty radix heap in the lazy-deletion mode.
+     * 
+     * @return a new heap with the same implementation.
+     */
+    @Override
+    public RadixHeap<T> newLazyInstance() {
+        final RadixHeap<T> heap = new RadixHeap<T>();
+        heap.lazy = true;
+        return heap;
+    }
+    
+    /**
+     * Checks whether this heap is not empty.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+    
+    /**
+     * Empties all the buckets.
+     */
+    private void discardEntries() {
+        minimumSlot = -1;
+        
+        for (int i = 0; i != BUCKETS; ++i) {
+            Arrays.fill(bucketElements[i], 0, bucketSizes[i], null);
+            bucketSizes[i] = 0;
+        }
+    }
+    
+    /**
+     * Checks that <code>priority</code> keeps this heap monotone.
+     * 
+     * @param priority the priority.
+     * 
+     * @throws IllegalArgumentException if <code>priority</code> is below the
+     * last minimum extracted.
+     */
+    private void checkMonotone(final int priority) {
+        if (priority < last) {
+            throw new IllegalArgumentException(
+                    "Priority " + priority + " is below the last minimum " +
+                    last + ".");
+        }
+    }
+    
+    /**
+     * Brings a live entry of the least priority on top of bucket zero,
+     * dropping the stale entries met there. The stale entries in the other
+     * buckets are moved along with the live ones, since telling them apart
+     * costs a table lookup; the least priority of a bucket being emptied may
+     * thus be stale, but is never above a live priority. This heap must not
+     * be empty.
+     * 
+     * @return the table slot of the element of the entry, or -1 in the
+     * lazy-deletion mode.
+     */
+    private int settleMinimum() {
+        if (minimumSlot >= 0) {
+            return minimumSlot;
+        }
+        
+        for (;;) {
+            while (bucketSizes[0] != 0) {
+                if (lazy) {
+                    return -1;
+                }
+                
+                final int top = bucketSizes[0] - 1;
+                final Object element = bucketElements[0][top];
+                final int slot = find(element, hash(element));
+                
+                if (slot >= 0 && sequences[slot] == bucketSequences[0][top]) {
+                    return minimumSlot = slot;
+                }
+                
+                bucketElements[0][top] = null;
+                bucketSizes[0] = top;
+            }
+            
+            int bucket = 1;
+            
+            while (bucketSizes[bucket] == 0) {
+                ++bucket;
+            }
+            
+            final Object[] elements = bucketElements[bucket];
+            final int[] priorities = bucketPriorities[bucket];
+            final int[] sequences = bucketSequences[bucket];
+            final int count = bucketSizes[bucket];
+            int minimum = priorities[0];
+            
+            for (int i = 1; i < count; ++i) {
+                minimum = Math.min(minimum, priorities[i]);
+            }
+            
+            last = minimum;
+            bucketSizes[bucket] = 0;
+            
+            // Every entry goes to a lower bucket, so this one is not appended
+            // to while it is emptied.
+            for (int i = 0; i != count; ++i) {
+                push(elements[i], priorities[i], sequences[i]);
+                elements[i] = null;
+            }
+        }
+    }
+    
+    /**
+     * Appends an entry to the bucket of its priority.
+     * 
+     * @param element the element.
+     * @param priority the priority.
+     * @param sequence the sequence number of the entry.
+     */
+    private void push(final Object element,
+                      final int priority,
+                      final int sequence) {
+        final int bucket = priority == last ?
+                           0 :
+                           Integer.SIZE -
+                           Integer.numberOfLeadingZeros(priority ^ last);
+        final int index = bucketSizes[bucket]++;
+        
+        if (bucket == 0) {
+            minimumSlot = -1;
+        }
+        
+        if (index == bucketPriorities[bucket].length) {
+            bucketElements[bucket] =
+                    Arrays.copyOf(bucketElements[bucket], 2 * index);
+            bucketPriorities[bucket] =
+                    Arrays.copyOf(bucketPriorities[bucket], 2 * index);
+            bucketSequences[bucket] =
+                    Arrays.copyOf(bucketSequences[bucket], 2 * index);
+        }
+        
+        bucketElements[bucket][index] = element;
+        bucketPriorities[bucket][index] = priority;
+        bucketSequences[bucket][index] = sequence;
+    }
+    
+    /**
+     * Looks up <code>element</code> in the table.
+     * 
+     * @param element the element to look up.
+     * @param hash the spread hash of <code>element</code>.
+     * 
+     * @return the slot of <code>element</code> if present; otherwise
+     * <code>-slot - 1</code>, where <code>slot</code> is the free slot ending
+     * the probe sequence.
+     */
+    private int find(final Object element, final int hash) {
+        final int mask = keys.length - 1;
+        int slot = hash & mask;
+        
+        while (slotStamps[slot] == generation) {
+            if (hashes[slot] == hash && keys[slot].equals(element)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Frees <code>slot</code> in the table, moving the following entries of
+     * the probe sequence backwards.
+     * 
+     * @param slot the slot to free.
+     */
+    private void remove(int slot) {
+        final int mask = keys.length - 1;
+        
+        minimumSlot = -1;
+        
+        for (int following = (slot + 1) & mask;
+                slotStamps[following] == generation;
+                following = (following + 1) & mask) {
+            // The entry at 'following' may fill the hole unless the hole
+            // lies before its home slot in the probe sequence.
+            final int home = hashes[following] & mask;
+            
+            if (((following - home) & mask) >= ((following - slot) & mask)) {
+                keys[slot] = keys[following];
+                hashes[slot] = hashes[following];
+                values[slot] = values[following];
+                sequences[slot] = sequences[following];
+                slot = following;
+            }
+        }
+        
+        keys[slot] = null;
+        slotStamps[slot] = 0;
+    }
+    
+    /**
+     * Doubles the capacity of the table and rehashes the entries of the
+     * current generation.
+     */
+    private void expandTable() {
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldValues = values;
+        final int[] oldSequences = sequences;
+        final int[] oldStamps = slotStamps;
+        final int capacity = oldKeys.length << 1;
+        
+        minimumSlot = -1;
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+        sequences = new int[capacity];
+        slotStamps = new int[capacity];
+        final int mask = capacity - 1;
+        
+        for (int i = 0; i != oldKeys.length; ++i) {
+            if (oldStamps[i] != generation) {
+                continue;
+            }
+            
+            int slot = oldHashes[i] & mask;
+            
+            while (slotStamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+            values[slot] = oldValues[i];
+            sequences[slot] = oldSequences[i];
+            slotStamps[slot] = generation;
+        }
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,755 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import net.coderodde.pzzlsrch.ds.TieBreakingPriorityQueue;
+
+/**
+ * This class implements a two-level bucket queue. The elements are bucketed
+ * by their priority as in {@link BucketHeap}, and each of those buckets is in
+ * turn divided by the difference between the priority and the g-score, so
+ * that the elements with the least priority are extracted in the order of
+ * descending g-score. A difference below zero counts as zero.
+ * <p>
+ * The buckets of each priority are laid out consecutively in a single array,
+ * the priorities modulo their number; both the number of the priorities and
+ * the number of the differences double as needed, in which case the elements
+ * are redistributed. Every priority remembers how many elements it holds and
+ * a lower bound on their differences, which bounds the scan for the next
+ * element.
+ * <p>
+ * The list nodes, the element table and the constant-time
+ * {@link #clear()} work as in {@link BucketHeap}.
+ * 
+ * @param <T> the element type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class TieBreakingBucketHeap<T> implements TieBreakingPriorityQueue<T> {
+    
+    /**
+     * The least amount of priorities and of differences.
+     */
+    private static final int MINIMUM_BUCKETS = 16;
+    
+    /**
+     * The largest amount of buckets.
+     */
+    private static final int MAXIMUM_BUCKETS = 1 << 28;
+    
+    /**
+     * The initial amount of list nodes in the pool.
+     */
+    private static final int INITIAL_NODES = 128;
+    
+    /**
+     * The marker of the end of a list.
+     */
+    private static final int NONE = -1;
+    
+    /**
+     * The amount of priorities the buckets cover.
+     */
+    private int priorityBuckets;
+    
+    /**
+     * The amount of differences between the priority and the g-score the
+     * buckets of each priority cover.
+     */
+    private int differenceBuckets;
+    
+    /**
+     * The first list node of each bucket.
+     */
+    private int[] bucketHeads;
+    
+    /**
+     * The generation in which each bucket head was written.
+     */
+    private int[] bucketStamps;
+    
+    /**
+     * The amount of elements of each priority.
+     */
+    private int[] counts;
+    
+    /**
+     * A lower bound on the differences of the elements of each priority.
+     */
+    private int[] lowestDifferences;
+    
+    /**
+     * The generation in which the count of each priority was written.
+     */
+    private int[] countStamps;
+    
+    /**
+     * The element of each list node.
+     */
+    private Object[] elements;
+    
+    /**
+     * The cached hash of the element of each list node.
+     */
+    private int[] hashes;
+    
+    /**
+     * The priority of each list node.
+     */
+    private int[] priorities;
+    
+    /**
+     * The difference between the priority and the g-score of each list node.
+     */
+    private int[] differences;
+    
+    /**
+     * The predecessor of each list node.
+     */
+    private int[] prev;
+    
+    /**
+     * The successor of each list node, or the next free node in the pool.
+     */
+    private int[] next;
+    
+    /**
+     * The list node of each table slot.
+     */
+    private int[] slotNodes;
+    
+    /**
+     * The generation in which each table slot was written.
+     */
+    private int[] slotStamps;
+    
+    /**
+     * The amount of list nodes taken from the pool during this generation.
+     */
+    private int nodeCount;
+    
+    /**
+     * The first of the list nodes freed during this generation.
+     */
+    private int freeList = NONE;
+    
+    /**
+     * The current generation. Never zero, so that zero stamps are stale.
+     */
+    private int generation = 1;
+    
+    /**
+     * The cached size of this heap.
+     */
+    private int size;
+    
+    /**
+     * The cached minimum priority of this queue.
+     */
+    private int minimumPriority = Integer.MAX_VALUE;
+    
+    /**
+     * An upper bound on the priorities in this queue.
+     */
+    private int maximumPriority = Integer.MIN_VALUE;
+    
+    /**
+     * Whether this heap is in the lazy-deletion mode, in which the table is
+     * not used.
+     */
+    private boolean lazy;
+    
+    /**
+     * Constructs an empty heap.
+     * 
+     * @param maxPriority the expected maximum priority; larger priorities are
+     * accommodated as well.
+     * 
+     * @throws IllegalArgumentException if <code>maxPriority</code> is
+     * negative.
+     */
+    public TieBreakingBucketHeap(final int maxPriority) {
+        if (maxPriority < 0) {
+            throw new IllegalArgumentException(
+                    "Negative maximum priority: " + maxPriority + ".");
+        }
+        
+        this.elements = new Object[INITIAL_NODES];
+        this.hashes = new int[INITIAL_NODES];
+        this.priorities = new int[INITIAL_NODES];
+        this.differences = new int[INITIAL_NODES];
+        this.prev = new int[INITIAL_NODES];
+        this.next = new int[INITIAL_NODES];
+        this.slotNodes = new int[2 * INITIAL_NODES];
+        this.slotStamps = new int[2 * INITIAL_NODES];
+        allocateBuckets(roundUp(maxPriority + 1), MINIMUM_BUCKETS);
+    }
+    
+    /**
+     * Constructs an empty heap with the least amount of buckets.
+     */
+    public TieBreakingBucketHeap() {
+        this(0);
+    }
+    
+    /**
+     * Adds an element with the least g-score preference, as if its g-score
+     * was its priority.
+     * 
+     * @param element the element to add.
+     * @param priority the priority to associate with the element.
+     */
+    @Override
+    public void add(final T element, final int priority) {
+        add(element, priority, priority);
+    }
+    
+    /**
+     * Adds an element in this heap, if not already present.
+     * 
+     * @param element the element to add.
+     * @param priority the priority to associate with the element.
+     * @param g the g-score of the element.
+     */
+    @Override
+    public void add(final T element, final int priority, final int g) {
+        final int hash = lazy ? 0 : hash(element);
+        int slot = lazy ? -1 : find(element, hash);
+        
+        if (slot >= 0) {
+            return;
+        }
+        
+        final int difference = difference(priority, g);
+        
+        if (size == 0) {
+            ensureCapacity(priority, priority, difference);
+            minimumPriority = priority;
+            maximumPriority = priority;
+        } else {
+            final int lo = Math.min(minimumPriority, priority);
+            final int hi = Math.max(maximumPriority, priority);
+            
+            ensureCapacity(lo, hi, difference);
+            minimumPriority = lo;
+            maximumPriority = hi;
+        }
+        
+        if (lazy == false && 2 * (size + 1) > slotNodes.length) {
+            expandTable();
+            slot = find(element, hash);
+        }
+        
+        final int node = allocateNode();
+        elements[node] = element;
+        hashes[node] = hash;
+        priorities[node] = priority;
+        differences[node] = difference;
+        link(node);
+        
+        if (lazy == false) {
+            slot = -slot - 1;
+            slotNodes[slot] = node;
+            slotStamps[slot] = generation;
+        }
+        
+        ++size;
+    }
+    
+    /**
+     * Returns but does not remove the element with the least priority and
+     * the highest g-score among those.
+     * 
+     * @return the minimum element.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        return (T) elements[minimumNode()];
+    }
+    
+    /**
+     * Removes and returns the element with the least priority and the highest
+     * g-score among those.
+     * 
+     * @return the minimum element.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        
+        final int node = minimumNode();
+        final T element = (T) elements[node];
+        
+        unlink(node);
+        
+        if (lazy == false) {
+            remove(find(element, hashes[node]));
+        }
+        
+        elements[node] = null;
+        next[node] = freeList;
+        freeList = node;
+        
+        if (--size == 0) {
+            minimumPriority = Integer.MAX_VALUE;
+            maximumPriority = Integer.MIN_VALUE;
+        } else {
+            while (count(minimumPriority) == 0) {
+                ++minimumPriority;
+            }
+        }
+        
+        return element;
+    }
+    
+    /**
+     * Decreases the priority of an element, as if its g-score was its
+     * priority.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param priority the new priority of <code>element</code>.
+     */
+    @Override
+    public void decreasePriority(final T element, final int priority) {
+        decreasePriority(element, priority, priority);
+    }
+    
+    /**
+     * Decreases the priority of an element and sets its g-score.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param priority the new priority of <code>element</code>.
+     * @param g the new g-score of <code>element</code>.
+     * 
+     * @throws UnsupportedOperationException in the lazy-deletion mode.
+     */
+    @Override
+    public void decreasePriority(final T element,
+                                 final int priority,
+                                 final int g) {
+        if (lazy) {
+            throw new UnsupportedOperationException(
+                    "Decreasing priorities is not supported in the " +
+                    "lazy-deletion mode.");
+        }
+        
+        final int slot = find(element, hash(element));
+        
+        if (slot < 0) {
+            return;
+        }
+        
+        final int node = slotNodes[slot];
+        
+        if (priorities[node] <= priority) {
+            return;
+        }
+        
+        final int difference = difference(priority, g);
+        final int lo = Math.min(minimumPriority, priority);
+        
+        ensureCapacity(lo, maximumPriority, difference);
+        minimumPriority = lo;
+        unlink(node);
+        priorities[node] = priority;
+        differences[node] = difference;
+        link(node);
+    }
+    
+    /**
+     * Returns the amount of elements stored in this heap.
+     * 
+     * @return the amount of elements stored in this heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Clears this heap in constant time by starting a new generation.
+     */
+    @Override
+    public void clear() {
+        if (++generation == 0) {
+            Arrays.fill(bucketStamps, 0);
+            Arrays.fill(countStamps, 0);
+            Arrays.fill(slotStamps, 0);
+            generation = 1;
+        }
+        
+        size = 0;
+        nodeCount = 0;
+        freeList = NONE;
+        minimumPriority = Integer.MAX_VALUE;
+        maximumPriority = Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Returns the minimum priority of this heap.
+     * 
+     * @return the minimum priority of this heap.
+     */
+    @Override
+    public int getMinimumPriority() {
+        return minimumPriority;
+    }
+    
+    /**
+     * Spawns a new empty <code>TieBreakingBucketHeap</code>.
+     * 
+     * @return a new heap with the same implementation.
+     */
+    @Override
+    public TieBreakingBucketHeap<T> newInstance() {
+        return new TieBreakingBucketHeap<T>(priorityBuckets - 1);
+    }
+    
+    /**
+     * Spawns a new empty <code>TieBreakingBucketHeap</code> in the
+     * lazy-deletion mode.
+     * 
+     * @return a new heap with the same implementation.
+     */
+    @Override
+    public TieBreakingBucketHeap<T> newLazyInstance() {
+        final TieBreakingBucketHeap<T> heap = newInstance();
+        heap.lazy = true;
+        return heap;
+    }
+    
+    /**
+     * Checks whether this heap is empty, and throws an exception if it is.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+    
+    /**
+     * Finds the first list node of the least difference of the minimum
+     * priority, tightening the lower bound of the differences on the way.
+     * 
+     * @return the list node.
+     */
+    private int minimumNode() {
+        final int p = minimumPriority & (priorityBuckets - 1);
+        final int base = p * differenceBuckets;
+        int difference = lowestDifferences[p];
+        
+        while (head(base + difference) == NONE) {
+            ++difference;
+        }
+        
+        lowestDifferences[p] = difference;
+        return bucketHeads[base + difference];
+    }
+    
+    /**
+     * Returns the amount of elements of priority <code>priority</code>.
+     * 
+     * @param priority the priority.
+     * 
+     * @return the amount of elements.
+     */
+    private int count(final int priority) {
+        final int p = priority & (priorityBuckets - 1);
+        return countStamps[p] == generation ? counts[p] : 0;
+    }
+    
+    /**
+     * Returns the first list node of <code>bucket</code>.
+     * 
+     * @param bucket the bucket.
+     * 
+     * @return the first list node, or {@link #NONE} if the bucket is empty.
+     */
+    private int head(final int bucket) {
+        return bucketStamps[bucket] == generation ? bucketHeads[bucket] : NONE;
+    }
+    
+    /**
+     * Prepends <code>node</code> to the bucket of its priority and difference.
+     * 
+     * @param node the list node.
+     */
+    private void link(final int node) {
+        final int p = priorities[node] & (priorityBuckets - 1);
+        final int bucket = p * differenceBuckets + differences[node];
+        final int first = head(bucket);
+        
+        prev[node] = NONE;
+        next[node] = first;
+        
+        if (first != NONE) {
+            prev[first] = node;
+        }
+        
+        bucketHeads[bucket] = node;
+        bucketStamps[bucket] = generation;
+        
+        if (countStamps[p] != generation) {
+            countStamps[p] = generation;
+            counts[p] = 0;
+            lowestDifferences[p] = differences[node];
+        } else if (lowestDifferences[p] > differences[node]) {
+            lowestDifferences[p] = differences[node];
+        }
+        
+        ++counts[p];
+    }
+    
+    /**
+     * Removes <code>node</code> from the bucket of its priority and
+     * difference.
+     * 
+     * @param node the list node.
+     */
+    private void unlink(final int node) {
+        final int p = priorities[node] & (priorityBuckets - 1);
+        
+        if (prev[node] != NONE) {
+            next[prev[node]] = next[node];
+        } else {
+            bucketHeads[p * differenceBuckets + differences[node]] =
+                    next[node];
+        }
+        
+        if (next[node] != NONE) {
+            prev[next[node]] = prev[node];
+        }
+        
+        --counts[p];
+    }
+    
+    /**
+     * Makes sure the buckets cover the priorities from <code>lo</code> to
+     * <code>hi</code> inclusive and the differences up to
+     * <code>difference</code>, doubling them as needed and redistributing the
+     * elements.
+     * 
+     * @param lo the least priority.
+     * @param hi the largest priority.
+     * @param difference the largest difference.
+     * 
+     * @throws IllegalArgumentException if the buckets would be too many.
+     */
+    private void ensureCapacity(final int lo,
+                                final int hi,
+                                final int difference) {
+        final long span = (long) hi - lo + 1;
+        
+        if (span <= priorityBuckets && difference < differenceBuckets) {
+            return;
+        }
+        
+        int newPriorityBuckets = priorityBuckets;
+        int newDifferenceBuckets = differenceBuckets;
+        
+        while (newPriorityBuckets < span) {
+            newPriorityBuckets <<= 1;
+        }
+        
+        while (newDifferenceBuckets <= difference) {
+            newDifferenceBuckets <<= 1;
+        }
+        
+        if ((long) newPriorityBuckets * newDifferenceBuckets
+                > MAXIMUM_BUCKETS) {
+            throw new IllegalArgumentException(
+                    "Too many buckets for the priorities " + lo + " to " + hi +
+                    " and the difference " + difference + ".");
+        }
+        
+        allocateBuckets(newPriorityBuckets, newDifferenceBuckets);
+        
+        // Only the live nodes of this generation hold an element.
+        for (int node = 0; node != nodeCount; ++node) {
+            if (elements[node] != null) {
+                link(node);
+            }
+        }
+    }
+    
+    /**
+     * Allocates empty bucket arrays.
+     * 
+     * @param priorityBuckets the amount of priorities to cover.
+     * @param differenceBuckets the amount of differences to cover.
+     */
+    private void allocateBuckets(final int priorityBuckets,
+                                 final int differenceBuckets) {
+        this.priorityBuckets = priorityBuckets;
+        this.differenceBuckets = differenceBuckets;
+        this.bucketHeads = new int[priorityBuckets * differenceBuckets];
+        this.bucketStamps = new int[priorityBuckets * differenceBuckets];
+        this.counts = new int[priorityBuckets];
+        this.lowestDifferences = new int[priorityBuckets];
+        this.countStamps = new int[priorityBuckets];
+    }
+    
+    /**
+     * Takes a list node from the pool, growing the pool if it is exhausted.
+     * 
+     * @return the list node.
+     */
+    private int allocateNode() {
+        if (freeList != NONE) {
+            final int node = freeList;
+            freeList = next[node];
+            return node;
+        }
+        
+        if (nodeCount == elements.length) {
+            final int capacity = 2 * nodeCount;
+            
+            elements = Arrays.copyOf(elements, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            differences = Arrays.copyOf(differences, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        
+        return nodeCount++;
+    }
+    
+    /**
+     * Looks up <code>element</code> in the table.
+     * 
+     * @param element the element to look up.
+     * @param hash the spread hash of <code>element</code>.
+     * 
+     * @return the slot of <code>element</code> if present; otherwise
+     * <code>-slot - 1</code>, where <code>slot</code> is the free slot ending
+     * the probe sequence.
+     */
+    private int find(final Object element, final int hash) {
+        final int mask = slotNodes.length - 1;
+        int slot = hash & mask;
+        
+        while (slotStamps[slot] == generation) {
+            final int node = slotNodes[slot];
+            
+            if (hashes[node] == hash && elements[node].equals(element)) {
+                return slot;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -slot - 1;
+    }
+    
+    /**
+     * Frees <code>slot</code> in the table, moving the following entries of
+     * the probe sequence backwards.
+     * 
+     * @param slot the slot to free.
+     */
+    private void remove(int slot) {
+        final int mask = slotNodes.length - 1;
+        
+        for (int following = (slot + 1) & mask;
+                slotStamps[following] == generation;
+                following = (following + 1) & mask) {
+            // The entry at 'following' may fill the hole unless the hole
+            // lies before its home slot in the probe sequence.
+            final int home = hashes[slotNodes[following]] & mask;
+            
+            if (((following - home) & mask) >= ((following - slot) & mask)) {
+                slotNodes[slot] = slotNodes[following];
+                slot = following;
+            }
+        }
+        
+        slotStamps[slot] = 0;
+    }
+    
+    /**
+     * Doubles the capacity of the table and rehashes the entries of the
+     * current generation.
+     */
+    private void expandTable() {
+        final int[] oldNodes = slotNodes;
+        final int[] oldStamps = slotStamps;
+        
+        slotNodes = new int[oldNodes.length << 1];
+        slotStamps = new int[oldNodes.length << 1];
+        final int mask = slotNodes.length - 1;
+        
+        for (int i = 0; i != oldNodes.length; ++i) {
+            if (oldStamps[i] != generation) {
+                continue;
+            }
+            
+            int slot = hashes[oldNodes[i]] & mask;
+            
+            while (slotStamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            
+            slotNodes[slot] = oldNodes[i];
+            slotStamps[slot] = generation;
+        }
+    }
+    
+    /**
+     * Returns the bucket index of the difference between <code>priority</code>
+     * and <code>g</code>.
+     * 
+     * @param priority the priority.
+     * @param g the g-score.
+     * 
+     * @return the difference, or zero if negative.
+     */
+    private static int difference(final int priority, final int g) {
+        final long difference = (long) priority - g;
+        
+        if (difference > MAXIMUM_BUCKETS) {
+            return MAXIMUM_BUCKETS;
+        }
+        
+        return difference < 0L ? 0 : (int) difference;
+    }
+    
+    /**
+     * Rounds <code>n</code> up to a power of two of at least
+     * {@link #MINIMUM_BUCKETS}.
+     * 
+     * @param n the number.
+     * 
+     * @return the power of two.
+     */
+    private static int roundUp(final int n) {
+        int buckets = MINIMUM_BUCKETS;
+        
+        while (buckets < n && buckets < MAXIMUM_BUCKETS) {
+            buckets <<= 1;
+        }
+        
+        return buckets;
+    }
+    
+    /**
+     * Spreads the hash code of <code>key</code> so that the low bits used for
+     * indexing depend on all the bits.
+     * 
+     * @param key the key.
+     * 
+     * @return the spread hash.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,525 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class models a node of a puzzle game of any supported dimension with
+ * every tile stored in <tt>ceil(log2(n * n))</tt> bits. The tiles are packed
+ * into an array of <code>long</code>s so that no tile straddles two words;
+ * hence a move touches at most the two words holding the two swapped cells.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BitPackedPuzzleState 
+implements PuzzleState<BitPackedPuzzleState> {
+    
+    /**
+     * The maximum dimension of a bit packed state.
+     */
+    public static final int MAX_DIMENSION = 11;
+    
+    /**
+     * The packed tiles.
+     */
+    private final long[] words;
+    
+    /**
+     * The dimension of this state.
+     */
+    private final byte n;
+    
+    /**
+     * The amount of bits per tile.
+     */
+    private final byte bits;
+    
+    /**
+     * The amount of tiles per word.
+     */
+    private final byte tilesPerWord;
+    
+    /**
+     * The mask for extracting a single tile.
+     */
+    private final long mask;
+    
+    /**
+     * The cell index of the empty tile.
+     */
+    private short blank;
+    
+    /**
+     * Creates an initial (solved) bit packed state.
+     * 
+     * @param n the dimension of this state.
+     */
+    public BitPackedPuzzleState(final int n) {
+        checkDimension(n);
+        this.n = (byte) n;
+        this.bits = (byte) getBitsPerTile(n);
+        this.tilesPerWord = (byte)(Long.SIZE / bits);
+        this.mask = (1L << bits) - 1;
+        this.words = new long[(n * n + tilesPerWord - 1) / tilesPerWord];
+        
+        final int cells = n * n;
+        
+        for (int i = 0; i != cells - 1; ++i) {
+            write(i, i + 1);
+        }
+        
+        blank = (short)(cells - 1);
+    }
+    
+    /**
+     * Copy-constructs a new state from <code>state</code>.
+     * 
+     * @param state the state to copy.
+     */
+    public BitPackedPuzzleState(final BitPackedPuzzleState state) {
+        this.n = state.n;
+        this.bits = state.bits;
+        this.tilesPerWord = state.tilesPerWord;
+        this.mask = state.mask;
+        this.words = state.words.clone();
+        this.blank = state.blank;
+    }
+    
+    /**
+     * Packs the state of <code>node</code>.
+     * 
+     * @param node the node to pack.
+     */
+    public BitPackedPuzzleState(final PuzzleNode node) {
+        this(node.getDimension());
+        
+        // The tiles are or'ed in, so clear the solved board first.
+        Arrays.fill(words, 0L);
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final int i = y * n + x;
+                final byte tile = node.get(x, y);
+                
+                if (tile == 0) {
+                    blank = (short) i;
+                } else {
+                    write(i, tile);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the amount of bits needed to store a tile of a board with
+     * dimension <code>n</code>.
+     * 
+     * @param n the dimension of the board.
+     * 
+     * @return the amount of bits per tile.
+     */
+    public static int getBitsPerTile(final int n) {
+        final int maxTile = n * n - 1;
+        return Math.max(1, 
+                        Integer.SIZE - Integer.numberOfLeadingZeros(maxTile));
+    }
+    
+    /**
+     * Returns the iterator over this state's neighbor states.
+     * 
+     * @return the iterator over this state's neighbor states.
+     */
+    @Override
+    public Iterator<BitPackedPuzzleState> iterator() {
+        return new BitPackedPuzzleStateIterator();
+    }
+    
+    /**
+     * Checks whether <code>o</code> represents the same state as this.
+     * 
+     * @param o the object to test.
+     * 
+     * @return <code>true</code> if <code>o</code> is a bit packed state and
+     * encodes the same board as this.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if ((o instanceof BitPackedPuzzleState) == false) {
+            return false;
+        }
+        
+        final BitPackedPuzzleState other = (BitPackedPuzzleState) o;
+        
+        if (other.n != this.n || other.blank != this.blank) {
+            return false;
+        }
+        
+        return Arrays.equals(this.words, other.words);
+    }
+    
+    /**
+     * Computes the hash of this state one word at a time.
+     * 
+     * @return the hash of this state.
+     */
+    @Override
+    public int hashCode() {
+        long h = 0L;
+        
+        for (final long word : words) {
+            h = (h ^ word) * 0x9e3779b97f4a7c15L;
+        }
+        
+        return (int)(h ^ (h >>> 32));
+    }
+    
+    /**
+     * Reads a particular tile.
+     * 
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * 
+     * @return the tile at position <tt>(x, y)</tt>.
+     */
+    @Override
+    public byte get(final int x, final int y) {
+        return (byte) read(y * n + x);
+    }
+    
+    /**
+     * Returns the x-coordinate of the empty tile.
+     * 
+     * @return the x-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankX() {
+        return blank % n;
+    }
+    
+    /**
+     * Returns the y-coordinate of the empty tile.
+     * 
+     * @return the y-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankY() {
+        return blank / n;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile upwards.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public BitPackedPuzzleState moveUp() {
+        if (canMove(UP) == false) {
+            return null;
+        }
+        
+        final BitPackedPuzzleState state = new BitPackedPuzzleState(this);
+        state.move(UP);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile downwards.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public BitPackedPuzzleState moveDown() {
+        if (canMove(DOWN) == false) {
+            return null;
+        }
+        
+        final BitPackedPuzzleState state = new BitPackedPuzzleState(this);
+        state.move(DOWN);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile to the left.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public BitPackedPuzzleState moveLeft() {
+        if (canMove(LEFT) == false) {
+            return null;
+        }
+        
+        final BitPackedPuzzleState state = new BitPackedPuzzleState(this);
+        state.move(LEFT);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile to the right.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public BitPackedPuzzleState moveRight() {
+        if (canMove(RIGHT) == false) {
+            return null;
+        }
+        
+        final BitPackedPuzzleState state = new BitPackedPuzzleState(this);
+        state.move(RIGHT);
+        return state;
+    }
+    
+    /**
+     * Checks whether the empty tile may slide in direction 
+     * <code>direction</code>.
+     * 
+     * @param direction the direction to check.
+     * 
+     * @return <code>true</code> if the empty tile stays within the board.
+     */
+    @Override
+    public boolean canMove(final int direction) {
+        switch (direction) {
+            case UP:
+                return blank >= n;
+            case RIGHT:
+                return blank % n != n - 1;
+            case DOWN:
+                return blank < n * (n - 1);
+            case LEFT:
+                return blank % n != 0;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Slides the empty tile in direction <code>direction</code> in place.
+     * Only the words holding the two swapped cells are updated.
+     * 
+     * @param direction the direction to slide the empty tile in.
+     * 
+     * @return the tile that moved.
+     */
+    @Override
+    public int move(final int direction) {
+        int cell;
+        
+        switch (direction) {
+            case UP:
+                cell = blank - n;
+                break;
+            case RIGHT:
+                cell = blank + 1;
+                break;
+            case DOWN:
+                cell = blank + n;
+                break;
+            case LEFT:
+                cell = blank - 1;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown direction: " + direction + ".");
+        }
+        
+        final int shift = bits * (cell % tilesPerWord);
+        final int word = cell / tilesPerWord;
+        final long tile = (words[word] >>> shift) & mask;
+        words[word] &= ~(mask << shift);
+        write(blank, tile);
+        blank = (short) cell;
+        return (int) tile;
+    }
+    
+    /**
+     * Returns a copy of this state.
+     * 
+     * @return a copy of this state.
+     */
+    @Override
+    public BitPackedPuzzleState copy() {
+        return new BitPackedPuzzleState(this);
+    }
+    
+    /**
+     * Overwrites this state with <code>state</code>.
+     * 
+     * @param state the state to copy.
+     */
+    @Override
+    public void copyFrom(final BitPackedPuzzleState state) {
+        System.arraycopy(state.words, 0, words, 0, words.length);
+        blank = state.blank;
+    }
+    
+    /**
+     * Returns the dimension of this state.
+     * 
+     * @return the dimension of this state.
+     */
+    @Override
+    public final int getDimension() {
+        return n;
+    }
+    
+    /**
+     * Unpacks this state into a regular puzzle node.
+     * 
+     * @return a puzzle node representing the same board.
+     */
+    public PuzzleNode toPuzzleNode() {
+        final byte[] m = new byte[n * n];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                m[y * n + x] = get(x, y);
+            }
+        }
+        
+        return new PuzzleNode(m, n, getBlankX(), getBlankY());
+    }
+    
+    /**
+     * Produces printable String representing this state.
+     * 
+     * @return a text-UI representation of this state.
+     */
+    @Override
+    public String toString() {
+        return toPuzzleNode().toString();
+    }
+    
+    /**
+     * Reads the tile at cell <code>cell</code>.
+     * 
+     * @param cell the cell index.
+     * 
+     * @return the tile.
+     */
+    private int read(final int cell) {
+        final int shift = bits * (cell % tilesPerWord);
+        return (int)((words[cell / tilesPerWord] >>> shift) & mask);
+    }
+    
+    /**
+     * Writes a tile to an empty cell <code>cell</code>.
+     * 
+     * @param cell the cell index.
+     * @param tile the tile to write.
+     */
+    private void write(final int cell, final long tile) {
+        words[cell / tilesPerWord] |= tile << (bits * (cell % tilesPerWord));
+    }
+    
+    /**
+     * This inner class implements the bit packed state neighbor iterator. The
+     * neighbors are generated lazily in the same order as in
+     * <code>PuzzleNode</code>: up, right, down, left.
+     */
+    private class BitPackedPuzzleStateIterator
+    implements Iterator<BitPackedPuzzleState> {
+        
+        /**
+         * The next neighbor to return, or <code>null</code> if exhausted.
+         */
+        private BitPackedPuzzleState next;
+        
+        /**
+         * The index of the next direction to try.
+         */
+        private int direction;
+        
+        /**
+         * Constructs an iterator over the enclosing state's neighbors.
+         */
+        BitPackedPuzzleStateIterator() {
+            advance();
+        }
+        
+        /**
+         * Returns <code>true</code> if this iterator has more states to
+         * iterate, <code>false</code> otherwise.
+         * 
+         * @return <code>true</code> if this iterator has more states to
+         * iterate, <code>false</code> otherwise.
+         */
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        /**
+         * Returns the next neighbor state, or throws
+         * <code>NoSuchElementException</code> if there is no more left.
+         * 
+         * @return the next state.
+         * 
+         * @throws NoSuchElementException if there is no more states to
+         * iterate.
+         */
+        public BitPackedPuzzleState next() {
+            if (next == null) {
+                throw new NoSuchElementException("No more neighbors.");
+            }
+            
+            final BitPackedPuzzleState ret = next;
+            advance();
+            return ret;
+        }
+        
+        /**
+         * Not implemented.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "Removal on a state from the iterator makes no sense.");
+        }
+        
+        /**
+         * Generates the next existing neighbor.
+         */
+        private void advance() {
+            final BitPackedPuzzleState state = BitPackedPuzzleState.this;
+            next = null;
+            
+            while (next == null && direction != 4) {
+                switch (direction++) {
+                    case 0:
+                        next = state.moveUp();
+                        break;
+                    case 1:
+                        next = state.moveRight();
+                        break;
+                    case 2:
+                        next = state.moveDown();
+                        break;
+                    case 3:
+                        next = state.moveLeft();
+                        break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Checks the dimension.
+     * 
+     * @param n the dimension to check.
+     * 
+     * @throws IllegalArgumentException if dimension is too small or too large.
+     */
+    private static final void checkDimension(final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Dimension is less than 1.");
+        }
+        
+        if (n > MAX_DIMENSION) {
+            throw new IllegalArgumentException(
+                "Dimension is larger than the maximum: " +
+                n + " > " + MAX_DIMENSION + ".");
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class models a node of a puzzle game with at most 16 tiles. The entire
+ * board is packed into a single <code>long</code>: the tile at cell
+ * <tt>i = y * n + x</tt> occupies the 4-bit nibble starting at bit
+ * <tt>4 * i</tt>. The cell index of the empty tile is cached, so that moves
+ * are done with a couple of shifts and masks.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PackedPuzzleState implements PuzzleState<PackedPuzzleState> {
+    
+    /**
+     * The maximum dimension of a packed state.
+     */
+    public static final int MAX_DIMENSION = 4;
+    
+    /**
+     * The amount of bits per tile.
+     */
+    private static final int BITS_PER_TILE = 4;
+    
+    /**
+     * The mask for extracting a single tile.
+     */
+    private static final long TILE_MASK = 0xfL;
+    
+    /**
+     * The packed tiles.
+     */
+    private long tiles;
+    
+    /**
+     * The dimension of this state.
+     */
+    private final byte n;
+    
+    /**
+     * The cell index of the empty tile.
+     */
+    private byte blank;
+    
+    /**
+     * Creates an initial (solved) packed state.
+     * 
+     * @param n the dimension of this state.
+     */
+    public PackedPuzzleState(final int n) {
+        checkDimension(n);
+        this.n = (byte) n;
+        
+        final int cells = n * n;
+        
+        for (int i = 0; i != cells - 1; ++i) {
+            tiles |= ((long)(i + 1)) << (BITS_PER_TILE * i);
+        }
+        
+        blank = (byte)(cells - 1);
+    }
+    
+    /**
+     * Copy-constructs a new state from <code>state</code>.
+     * 
+     * @param state the state to copy.
+     */
+    public PackedPuzzleState(final PackedPuzzleState state) {
+        this.n = state.n;
+        this.tiles = state.tiles;
+        this.blank = state.blank;
+    }
+    
+    /**
+     * Packs the state of <code>node</code>.
+     * 
+     * @param node the node to pack.
+     * 
+     * @throws IllegalArgumentException if the node is too large to be packed.
+     */
+    public PackedPuzzleState(final PuzzleNode node) {
+        final int n = node.getDimension();
+        checkDimension(n);
+        this.n = (byte) n;
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final int i = y * n + x;
+                final byte tile = node.get(x, y);
+                
+                if (tile == 0) {
+                    blank = (byte) i;
+                } else {
+                    tiles |= ((long) tile) << (BITS_PER_TILE * i);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the iterator over this state's neighbor states.
+     * 
+     * @return the iterator over this state's neighbor states.
+     */
+    @Override
+    public Iterator<PackedPuzzleState> iterator() {
+        return new PackedPuzzleStateIterator();
+    }
+    
+    /**
+     * Checks whether <code>o</code> represents the same state as this.
+     * 
+     * @param o the object to test.
+     * 
+     * @return <code>true</code> if <code>o</code> is a packed state and
+     * encodes the same board as this.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if ((o instanceof PackedPuzzleState) == false) {
+            return false;
+        }
+        
+        final PackedPuzzleState other = (PackedPuzzleState) o;
+        return other.tiles == this.tiles && other.n == this.n;
+    }
+    
+    /**
+     * Computes the hash of this state by scrambling the packed board.
+     * 
+     * @return the hash of this state.
+     */
+    @Override
+    public int hashCode() {
+        final long h = tiles * 0x9e3779b97f4a7c15L;
+        return (int)(h ^ (h >>> 32));
+    }
+    
+    /**
+     * Reads a particular tile.
+     * 
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * 
+     * @return the tile at position <tt>(x, y)</tt>.
+     */
+    @Override
+    public byte get(final int x, final int y) {
+        return (byte)((tiles >>> (BITS_PER_TILE * (y * n + x))) & TILE_MASK);
+    }
+    
+    /**
+     * Returns the packed board.
+     * 
+     * @return the packed board.
+     */
+    public long getTiles() {
+        return tiles;
+    }
+    
+    /**
+     * Returns the x-coordinate of the empty tile.
+     * 
+     * @return the x-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankX() {
+        return blank % n;
+    }
+    
+    /**
+     * Returns the y-coordinate of the empty tile.
+     * 
+     * @return the y-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankY() {
+        return blank / n;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile upwards.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public PackedPuzzleState moveUp() {
+        if (canMove(UP) == false) {
+            return null;
+        }
+        
+        final PackedPuzzleState state = new PackedPuzzleState(this);
+        state.move(UP);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile downwards.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public PackedPuzzleState moveDown() {
+        if (canMove(DOWN) == false) {
+            return null;
+        }
+        
+        final PackedPuzzleState state = new PackedPuzzleState(this);
+        state.move(DOWN);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile to the left.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public PackedPuzzleState moveLeft() {
+        if (canMove(LEFT) == false) {
+            return null;
+        }
+        
+        final PackedPuzzleState state = new PackedPuzzleState(this);
+        state.move(LEFT);
+        return state;
+    }
+    
+    /**
+     * Returns a state generated by sliding the empty tile to the right.
+     * 
+     * @return a state or <code>null</code> if the empty tile slides away
+     * from the board.
+     */
+    public PackedPuzzleState moveRight() {
+        if (canMove(RIGHT) == false) {
+            return null;
+        }
+        
+        final PackedPuzzleState state = new PackedPuzzleState(this);
+        state.move(RIGHT);
+        return state;
+    }
+    
+    /**
+     * Checks whether the empty tile may slide in direction 
+     * <code>direction</code>.
+     * 
+     * @param direction the direction to check.
+     * 
+     * @return <code>true</code> if the empty tile stays within the board.
+     */
+    @Override
+    public boolean canMove(final int direction) {
+        switch (direction) {
+            case UP:
+                return blank >= n;
+            case RIGHT:
+                return blank % n != n - 1;
+            case DOWN:
+                return blank < n * (n - 1);
+            case LEFT:
+                return blank % n != 0;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Slides the empty tile in direction <code>direction</code> in place.
+     * 
+     * @param direction the direction to slide the empty tile in.
+     * 
+     * @return the tile that moved.
+     */
+    @Override
+    public int move(final int direction) {
+        int cell;
+        
+        switch (direction) {
+            case UP:
+                cell = blank - n;
+                break;
+            case RIGHT:
+                cell = blank + 1;
+                break;
+            case DOWN:
+                cell = blank + n;
+                break;
+            case LEFT:
+                cell = blank - 1;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown direction: " + direction + ".");
+        }
+        
+        final int shift = BITS_PER_TILE * cell;
+        final long tile = (tiles >>> shift) & TILE_MASK;
+        tiles = (tiles & ~(TILE_MASK << shift)) 
+              | (tile << (BITS_PER_TILE * blank));
+        blank = (byte) cell;
+        return (int) tile;
+    }
+    
+    /**
+     * Returns a copy of this state.
+     * 
+     * @return a copy of this state.
+     */
+    @Override
+    public PackedPuzzleState copy() {
+        return new PackedPuzzleState(this);
+    }
+    
+    /**
+     * Overwrites this state with <code>state</code>.
+     * 
+     * @param state the state to copy.
+     */
+    @Override
+    public void copyFrom(final PackedPuzzleState state) {
+        tiles = state.tiles;
+        blank = state.blank;
+    }
+    
+    /**
+     * Returns the dimension of this state.
+     * 
+     * @return the dimension of this state.
+     */
+    @Override
+    public final int getDimension() {
+        return n;
+    }
+    
+    /**
+     * Unpacks this state into a regular puzzle node.
+     * 
+     * @return a puzzle node representing the same board.
+     */
+    public PuzzleNode toPuzzleNode() {
+        final byte[] m = new byte[n * n];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                m[y * n + x] = get(x, y);
+            }
+        }
+        
+        return new PuzzleNode(m, n, getBlankX(), getBlankY());
+    }
+    
+    /**
+     * Produces printable String representing this state.
+     * 
+     * @return a text-UI representation of this state.
+     */
+    @Override
+    public String toString() {
+        return toPuzzleNode().toString();
+    }
+    
+    /**
+     * This inner class implements the packed state neighbor iterator. The
+     * neighbors are generated lazily in the same order as in
+     * <code>PuzzleNode</code>: up, right, down, left.
+     */
+    private class PackedPuzzleStateIterator
+    implements Iterator<PackedPuzzleState> {
+        
+        /**
+         * The next neighbor to return, or <code>null</code> if exhausted.
+         */
+        private PackedPuzzleState next;
+        
+        /**
+         * The index of the next direction to try.
+         */
+        private int direction;
+        
+        /**
+         * Constructs an iterator over the enclosing state's neighbors.
+         */
+        PackedPuzzleStateIterator() {
+            advance();
+        }
+        
+        /**
+         * Returns <code>true</code> if this iterator has more states to
+         * iterate, <code>false</code> otherwise.
+         * 
+         * @return <code>true</code> if this iterator has more states to
+         * iterate, <code>false</code> otherwise.
+         */
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        /**
+         * Returns the next neighbor state, or throws
+         * <code>NoSuchElementException</code> if there is no more left.
+         * 
+         * @return the next state.
+         * 
+         * @throws NoSuchElementException if there is no more states to
+         * iterate.
+         */
+        public PackedPuzzleState next() {
+            if (next == null) {
+                throw new NoSuchElementException("No more neighbors.");
+            }
+            
+            final PackedPuzzleState ret = next;
+            advance();
+            return ret;
+        }
+        
+        /**
+         * Not implemented.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "Removal on a state from the iterator makes no sense.");
+        }
+        
+        /**
+         * Generates the next existing neighbor.
+         */
+        private void advance() {
+            final PackedPuzzleState state = PackedPuzzleState.this;
+            next = null;
+            
+            while (next == null && direction != 4) {
+                switch (direction++) {
+                    case 0:
+                        next = state.moveUp();
+                        break;
+                    case 1:
+                        next = state.moveRight();
+                        break;
+                    case 2:
+                        next = state.moveDown();
+                        break;
+                    case 3:
+                        next = state.moveLeft();
+                        break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Checks the dimension.
+     * 
+     * @param n the dimension to check.
+     * 
+     * @throws IllegalArgumentException if dimension is too small or too large.
+     */
+    private static final void checkDimension(final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Dimension is less than 1.");
+        }
+        
+        if (n > MAX_DIMENSION) {
+            throw new IllegalArgumentException(
+                "Dimension is larger than the maximum: " +
+                n + " > " + MAX_DIMENSION + ".");
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package net.coderodde.pzzlsrch.model;
+
+/**
+ * This class maps the solvable puzzle nodes of a given dimension to dense
+ * indices <tt>0, 1, ..., (n * n)! / 2 - 1</tt> and back.
+ * <p>
+ * A node is described by the cells of its tiles, the empty tile first. The
+ * index is the lexicographic rank of that sequence divided by two: the two
+ * sequences that differ only in the cells of the two last tiles are adjacent
+ * in lexicographic order and have different permutation parity, so exactly one
+ * of them is solvable. The ranks depend only on the dimension and are hence
+ * stable across runs.
+ * <p>
+ * The static methods rank and unrank <tt>k</tt>-permutations, that is, the
+ * cells of <tt>k</tt> distinct tiles on a board of <tt>N</tt> cells. Pattern
+ * databases use them to index the abstract states. Both run in
+ * <tt>O(k)</tt> time: the free cells are kept in a bit set, and the cell of
+ * a digit is selected from it in constant time.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PermutationRanker {
+    
+    /**
+     * The maximum dimension of nodes whose full rank fits in a
+     * <code>long</code>.
+     */
+    public static final int MAX_DIMENSION = 4;
+    
+    /**
+     * The maximum amount of cells handled by the static methods.
+     */
+    public static final int MAX_CELLS = 64;
+    
+    /**
+     * <code>SELECT_IN_BYTE[(b << 3) | j]</code> is the position of the
+     * <code>j</code>th lowest set bit of the byte <code>b</code>.
+     */
+    private static final byte[] SELECT_IN_BYTE = new byte[256 << 3];
+    
+    /**
+     * Every byte set to one.
+     */
+    private static final long ONES = 0x0101010101010101L;
+    
+    /**
+     * The highest bit of every byte set.
+     */
+    private static final long HIGHS = 0x8080808080808080L;
+    
+    static {
+        for (int b = 0; b != 256; ++b) {
+            int j = 0;
+            
+            for (int bit = 0; bit != 8; ++bit) {
+                if ((b & (1 << bit)) != 0) {
+                    SELECT_IN_BYTE[(b << 3) | j++] = (byte) bit;
+                }
+            }
+        }
+    }
+    
+    /**
+     * The dimension of the ranked nodes.
+     */
+    private final int n;
+    
+    /**
+     * The cells of the tiles, used as work space.
+     */
+    private final int[] cells;
+    
+    /**
+     * Constructs a ranker for nodes of dimension <code>n</code>.
+     * 
+     * @param n the dimension of the nodes.
+     * 
+     * @throws IllegalArgumentException if the dimension is not supported.
+     */
+    public PermutationRanker(final int n) {
+        if (n < 2) {
+            throw new IllegalArgumentException("Dimension is less than 2.");
+        }
+        
+        if (n > MAX_DIMENSION) {
+            throw new IllegalArgumentException(
+                "Dimension is larger than the maximum: " +
+                n + " > " + MAX_DIMENSION + ".");
+        }
+        
+        this.n = n;
+        this.cells = new int[n * n];
+    }
+    
+    /**
+     * Returns the dimension of the nodes handled by this ranker.
+     * 
+     * @return the dimension.
+     */
+    public int getDimension() {
+        return n;
+    }
+    
+    /**
+     * Returns the amount of solvable nodes, which is one past the largest
+     * index.
+     * 
+     * @return the amount of solvable nodes.
+     */
+    public long getStateCount() {
+        return count(n * n, n * n) / 2;
+    }
+    
+    /**
+     * Computes the index of a solvable node.
+     * 
+     * @param state the node to rank.
+     * 
+     * @return the index of <code>state</code>.
+     * 
+     * @throws IllegalArgumentException if the dimension does not match.
+     */
+    public long rank(final PuzzleState<?> state) {
+        checkDimension(state);
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                cells[state.get(x, y)] = y * n + x;
+            }
+        }
+        
+        return rank(cells, cells.length, cells.length) >>> 1;
+    }
+    
+    /**
+     * Reconstructs the node with index <code>index</code>.
+     * 
+     * @param index the index of the node.
+     * 
+     * @return the node.
+     * 
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public PuzzleNode unrank(final long index) {
+        if (index < 0 || index >= getStateCount()) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of range.");
+        }
+        
+        final int N = n * n;
+        unrank(index << 1, N, N, cells);
+        
+        if (isSolvable(cells, n) == false) {
+            final int tmp = cells[N - 1];
+            cells[N - 1] = cells[N - 2];
+            cells[N - 2] = tmp;
+        }
+        
+        final byte[] m = new byte[N];
+        
+        for (int tile = 1; tile != N; ++tile) {
+            m[cells[tile]] = (byte) tile;
+        }
+        
+        return new PuzzleNode(m, n, cells[0] % n, cells[0] / n);
+    }
+    
+    /**
+     * Returns the amount of <code>k</code>-permutations of <code>N</code>
+     * cells, that is, <tt>N! / (N - k)!</tt>.
+     * 
+     * @param N the amount of cells.
+     * @param k the amount of tiles.
+     * 
+     * @return the amount of arrangements.
+     * 
+     * @throws ArithmeticException if the amount does not fit in a
+     * <code>long</code>.
+     */
+    public static long count(final int N, final int k) {
+        long count = 1L;
+        
+        for (int i = N - k + 1; i <= N; ++i) {
+            if (count > Long.MAX_VALUE / i) {
+                throw new ArithmeticException(
+                        "The amount of arrangements overflows a long.");
+            }
+            
+            count *= i;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Computes the lexicographic rank of the <code>k</code> distinct cells in
+     * <code>cells</code> among all <code>k</code>-permutations of
+     * <code>N</code> cells. Runs in <tt>O(k)</tt> time.
+     * 
+     * @param cells the cells of the tiles.
+     * @param k the amount of tiles.
+     * @param N the amount of cells.
+     * 
+     * @return the rank.
+     */
+    public static long rank(final int[] cells, final int k, final int N) {
+        long used = 0L;
+        long rank = 0L;
+        
+        for (int i = 0; i != k; ++i) {
+            final int cell = cells[i];
+            final int smallerFree =
+                    cell - Long.bitCount(used & ((1L << cell) - 1));
+            // (rank * (N - i)) + digit, digits being in mixed radix
+            // N, N - 1, ..., N - k + 1.
+            rank = rank * (N - i) + smallerFree;
+            used |= 1L << cell;
+        }
+        
+        return rank;
+    }
+    
+    /**
+     * Reconstructs the <code>k</code>-permutation of <code>N</code> cells with
+     * rank <code>rank</code> and stores it in <code>cells</code>. Runs in
+     * <tt>O(k)</tt> time.
+     * 
+     * @param rank the rank.
+     * @param k the amount of tiles.
+     * @param N the amount of cells.
+     * @param cells the output array of cells.
+     */
+    public static void unrank(long rank,
+                              final int k,
+                              final int N,
+                              final int[] cells) {
+        // Extract the mixed radix digits, least significant first.
+        for (int i = k - 1; i >= 0; --i) {
+            final int radix = N - i;
+            cells[i] = (int)(rank % radix);
+            rank /= radix;
+        }
+        
+        long free = N == Long.SIZE ? -1L : (1L << N) - 1;
+        
+        for (int i = 0; i != k; ++i) {
+            final int cell = select(free, cells[i]);
+            cells[i] = cell;
+            free &= ~(1L << cell);
+        }
+    }
+    
+    /**
+     * Returns the position of the <code>j</code>th lowest set bit of
+     * <code>word</code> in constant time. The set bits are counted byte-wise,
+     * the byte holding the bit is found by comparing the prefix sums of the
+     * counts against <code>j</code> in parallel, and the bit within the byte
+     * is looked up in a table.
+     * 
+     * @param word the bit set.
+     * @param j the index of the bit, less than the amount of set bits.
+     * 
+     * @return the position of the bit.
+     */
+    private static int select(final long word, final int j) {
+        long counts = word - ((word >>> 1) & 0x5555555555555555L);
+        counts = (counts & 0x3333333333333333L)
+               + ((counts >>> 2) & 0x3333333333333333L);
+        counts = (counts + (counts >>> 4)) & 0x0f0f0f0f0f0f0f0fL;
+        
+        // Byte b holds the amount of set bits in the bytes 0, 1, ..., b; as
+        // the sums do not exceed 64, no byte borrows from its neighbour.
+        final long prefix = counts * ONES;
+        final int b = Long.bitCount((((j * ONES) | HIGHS) - prefix) & HIGHS);
+        final int shift = b << 3;
+        final int before = (int) ((prefix << 8) >>> shift) & 0xff;
+        final int bits = (int) (word >>> shift) & 0xff;
+        return shift + SELECT_IN_BYTE[(bits << 3) | (j - before)];
+    }
+    
+    /**
+     * Checks whether <code>target</code> is reachable from
+     * <code>source</code>. The nodes of a dimension fall into two classes
+     * closed under the moves, told apart by the parity of the tile
+     * permutation plus the distance of the empty tile from its home cell;
+     * any two nodes of the same class are connected.
+     * 
+     * @param source the source node.
+     * @param target the target node.
+     * 
+     * @return <code>true</code> if the dimensions match and the nodes are in
+     * the same class.
+     */
+    public static boolean isReachable(final PuzzleState<?> source,
+                                      final PuzzleState<?> target) {
+        final int n = source.getDimension();
+        
+        if (target.getDimension() != n) {
+            return false;
+        }
+        
+        return isSolvable(getCells(source), n) ==
+               isSolvable(getCells(target), n);
+    }
+    
+    /**
+     * Checks whether the node described by <code>cells</code>, the cell of
+     * every tile with the empty tile first, is reachable from the solved node
+     * of dimension <code>n</code>.
+     * 
+     * @param cells the cells of the tiles.
+     * @param n the dimension.
+     * 
+     * @return <code>true</code> if the node is solvable.
+     */
+    static boolean isSolvable(final int[] cells, final int n) {
+        final int N = n * n;
+        // Parity of the tile -> cell permutation, counted over cycles.
+        final boolean[] visited = new boolean[N];
+        int cycles = 0;
+        
+        for (int i = 0; i != N; ++i) {
+            if (visited[i]) {
+                continue;
+            }
+            
+            ++cycles;
+            
+            for (int j = i; visited[j] == false; j = cells[j]) {
+                visited[j] = true;
+            }
+        }
+        
+        // In the solved node tile t is in cell t - 1 and the empty tile in
+        // cell N - 1: a single cycle of length N, with parity N - 1.
+        final int blank = cells[0];
+        final int distance = (n - 1 - blank % n) + (n - 1 - blank / n);
+        return ((N - cycles) + (N - 1) + distance) % 2 == 0;
+    }
+    
+    /**
+     * Returns the cell of every tile of <code>state</code>, the empty tile
+     * first.
+     * 
+     * @param state the state.
+     * 
+     * @return the cells of the tiles.
+     */
+    private static int[] getCells(final PuzzleState<?> state) {
+        final int n = state.getDimension();
+        final int[] cells = new int[n * n];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                cells[state.get(x, y)] = y * n + x;
+            }
+        }
+        
+        return cells;
+    }
+    
+    /**
+     * Checks that the dimension of <code>state</code> matches.
+     * 
+     * @param state the state to check.
+     * 
+     * @throws IllegalArgumentException if the dimension does not match.
+     */
+    private void checkDimension(final PuzzleState<?> state) {
+        if (state.getDimension() != n) {
+            throw new IllegalArgumentException(
+                    "The dimension of the state (" + state.getDimension() +
+                    ") does not match the dimension of the ranker (" + n +
+                    ").");
+        }
+    }
+}
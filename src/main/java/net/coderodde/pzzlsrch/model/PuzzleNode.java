@@ -1,8 +1,8 @@
 package net.coderodde.pzzlsrch.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * This class models a node of a puzzle game.
@@ -10,14 +10,43 @@ import java.util.List;
  * @author Rodion Efremov
  * @version 1.0
  */
-public class PuzzleNode implements Iterable<PuzzleNode> {
+public class PuzzleNode implements PuzzleState<PuzzleNode> {
    
     private static final int MAX_DIMENSION = 11;
     
     /**
-     * The matrix of tiles in this node..
+     * The maximum amount of cells in a node.
      */
-    private byte[][] m;
+    private static final int MAX_CELLS = MAX_DIMENSION * MAX_DIMENSION;
+    
+    /**
+     * The Zobrist keys. The key of tile <tt>t</tt> at cell <tt>i</tt> is at
+     * index <tt>t * MAX_CELLS + i</tt>. The keys are generated from a fixed
+     * seed, so that hashes are the same in every run.
+     */
+    private static final long[] ZOBRIST = new long[MAX_CELLS * MAX_CELLS];
+    
+    static {
+        long seed = 0x5deece66dL;
+        
+        for (int i = 0; i != ZOBRIST.length; ++i) {
+            // SplitMix64.
+            long z = (seed += 0x9e3779b97f4a7c15L);
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            ZOBRIST[i] = z ^ (z >>> 31);
+        }
+    }
+    
+    /**
+     * The tiles of this node in row-major order.
+     */
+    private byte[] m;
+    
+    /**
+     * The dimension of this node.
+     */
+    private byte n;
     
     /**
      * The x-coordinate of the zero tile.
@@ -29,6 +58,12 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      */
     private byte y;
     
+    /**
+     * The Zobrist hash of this node: the exclusive or of the keys of all 
+     * non-zero tiles at their current cells. Updated in O(1) on every move.
+     */
+    private long zobrist;
+    
     /**
      * Creates an initial puzzle node.
      * 
@@ -36,19 +71,16 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      */
     public PuzzleNode(final int n) {
         checkDimension(n);
-        m = new byte[n][n];
+        this.n = (byte) n;
+        m = new byte[n * n];
         
-        byte index = 1;
-        for (int y = 0; y != n; ++y) {
-            for (int x = 0; x != n; ++x, ++index) {
-                if (index != n * n) {
-                    m[y][x] = index;
-                }
-            }
+        for (int i = 0; i != n * n - 1; ++i) {
+            m[i] = (byte)(i + 1);
         }
         
         x = (byte)(n - 1);
         y = (byte)(n - 1);
+        zobrist = computeZobristHash();
     }
     
     /**
@@ -57,17 +89,29 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      * @param node the node to copy.
      */
     public PuzzleNode(final PuzzleNode node) {
-        final int n = node.getDimension();
-        m = new byte[n][n];
-        
-        for (int y = 0; y != n; ++y) {
-            for (int x = 0; x != n; ++x) {
-                m[y][x] = node.m[y][x];
-            }
-        }
-        
+        n = node.n;
+        m = node.m.clone();
         x = node.x;
         y = node.y;
+        zobrist = node.zobrist;
+    }
+    
+    /**
+     * Constructs a node directly from a row-major tile array. The array is not
+     * copied.
+     * 
+     * @param m the tile array.
+     * @param n the dimension of the node.
+     * @param x the x-coordinate of the zero tile.
+     * @param y the y-coordinate of the zero tile.
+     */
+    PuzzleNode(final byte[] m, final int n, final int x, final int y) {
+        checkDimension(n);
+        this.m = m;
+        this.n = (byte) n;
+        this.x = (byte) x;
+        this.y = (byte) y;
+        this.zobrist = computeZobristHash();
     }
     
     /**
@@ -96,41 +140,35 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
         
         final PuzzleNode other = (PuzzleNode) o;
         
-        if (other.getDimension() != this.getDimension()) {
+        if (other.zobrist != this.zobrist) {
             return false;
         }
         
-        final int n = this.getDimension();
-        
-        for (int y = 0; y != n; ++y) {
-            for (int x = 0; x != n; ++x) {
-                if (this.m[y][x] != other.m[y][x]) {
-                    return false;
-                }
-            }
+        if (other.n != this.n || other.x != this.x || other.y != this.y) {
+            return false;
         }
         
-        return true;
+        return Arrays.equals(this.m, other.m);
     }
     
     /**
-     * Computes the hash of this puzzle node.
+     * Returns the hash of this puzzle node. The hash is maintained 
+     * incrementally, so this method runs in constant time.
      * 
      * @return the hash of this puzzle node.
      */
     @Override
     public int hashCode() {
-        final int n = m.length;
-        int i = 1;
-        int hash = 0;
-        
-        for (int y = 0; y != n; ++y) {
-            for (int x = 0; x != n; ++x, ++i) {
-                hash += m[y][x] * i;
-            }
-        }
-        
-        return hash;
+        return (int)(zobrist ^ (zobrist >>> 32));
+    }
+    
+    /**
+     * Returns the full 64-bit Zobrist hash of this puzzle node.
+     * 
+     * @return the 64-bit hash of this puzzle node.
+     */
+    public long getZobristHash() {
+        return zobrist;
     }
     
     /**
@@ -141,8 +179,129 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      * 
      * @return the tile at position <tt>(x, y)</tt>. 
      */
+    @Override
     public byte get(final int x, final int y) {
-        return m[y][x];
+        return m[y * n + x];
+    }
+    
+    /**
+     * Returns the x-coordinate of the empty tile.
+     * 
+     * @return the x-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankX() {
+        return x;
+    }
+    
+    /**
+     * Returns the y-coordinate of the empty tile.
+     * 
+     * @return the y-coordinate of the empty tile.
+     */
+    @Override
+    public int getBlankY() {
+        return y;
+    }
+    
+    /**
+     * Checks whether the empty tile may slide in direction 
+     * <code>direction</code>.
+     * 
+     * @param direction the direction to check.
+     * 
+     * @return <code>true</code> if the empty tile stays within the matrix.
+     */
+    @Override
+    public boolean canMove(final int direction) {
+        switch (direction) {
+            case UP:
+                return y != 0;
+            case RIGHT:
+                return x != n - 1;
+            case DOWN:
+                return y != n - 1;
+            case LEFT:
+                return x != 0;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Slides the empty tile in direction <code>direction</code> in place.
+     * 
+     * @param direction the direction to slide the empty tile in.
+     * 
+     * @return the tile that moved.
+     */
+    @Override
+    public int move(final int direction) {
+        final int blank = y * n + x;
+        int cell;
+        
+        switch (direction) {
+            case UP:
+                cell = blank - n;
+                --y;
+                break;
+            case RIGHT:
+                cell = blank + 1;
+                ++x;
+                break;
+            case DOWN:
+                cell = blank + n;
+                ++y;
+                break;
+            case LEFT:
+                cell = blank - 1;
+                --x;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown direction: " + direction + ".");
+        }
+        
+        final byte tile = m[cell];
+        m[blank] = tile;
+        m[cell] = 0;
+        zobrist ^= ZOBRIST[tile * MAX_CELLS + cell] ^ 
+                   ZOBRIST[tile * MAX_CELLS + blank];
+        return tile;
+    }
+    
+    /**
+     * Returns a copy of this node.
+     * 
+     * @return a copy of this node.
+     */
+    @Override
+    public PuzzleNode copy() {
+        return new PuzzleNode(this);
+    }
+    
+    /**
+     * Overwrites this node with <code>node</code>.
+     * 
+     * @param node the node to copy.
+     */
+    @Override
+    public void copyFrom(final PuzzleNode node) {
+        System.arraycopy(node.m, 0, m, 0, m.length);
+        x = node.x;
+        y = node.y;
+        zobrist = node.zobrist;
+    }
+    
+    /**
+     * Copies the tiles of this node row by row into <code>dst</code>, for
+     * instance to lay out a batch of nodes in a single flat array.
+     * 
+     * @param dst the array to copy to.
+     * @param offset the index of the first cell in <code>dst</code>.
+     */
+    public void copyTiles(final byte[] dst, final int offset) {
+        System.arraycopy(m, 0, dst, offset, m.length);
     }
     
     /**
@@ -157,10 +316,7 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
         }
         
         final PuzzleNode node = new PuzzleNode(this);
-        final byte tmp = node.m[y][x];
-        node.m[y][x] = node.m[y - 1][x];
-        node.m[y - 1][x] = tmp;
-        node.y--;
+        node.move(UP);
         return node;
     }
     
@@ -171,15 +327,12 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      * from the matrix.
      */
     public PuzzleNode moveDown() {
-        if (y == m.length - 1) {
+        if (y == n - 1) {
             return null;
         }
         
         final PuzzleNode node = new PuzzleNode(this);
-        final byte tmp = node.m[y][x];
-        node.m[y][x] = node.m[y + 1][x];
-        node.m[y + 1][x] = tmp;
-        node.y++;
+        node.move(DOWN);
         return node;
     }
     
@@ -195,10 +348,7 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
         }
         
         final PuzzleNode node = new PuzzleNode(this);
-        final byte tmp = node.m[y][x];
-        node.m[y][x] = node.m[y][x - 1];
-        node.m[y][x - 1] = tmp;
-        node.x--;
+        node.move(LEFT);
         return node;
     }
     
@@ -209,15 +359,12 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      * from the matrix.
      */
     public PuzzleNode moveRight() {
-        if (x == m.length - 1) {
+        if (x == n - 1) {
             return null;
         }
         
         final PuzzleNode node = new PuzzleNode(this);
-        final byte tmp = node.m[y][x];
-        node.m[y][x] = node.m[y][x + 1];
-        node.m[y][x + 1] = tmp;
-        node.x++;
+        node.move(RIGHT);
         return node;
     }
     
@@ -226,8 +373,9 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      * 
      * @return the dimension of this puzzle node.
      */
+    @Override
     public final int getDimension() {
-        return m.length;
+        return n;
     }
     
     /**
@@ -237,7 +385,7 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
      */
     @Override
     public String toString() {
-        final int maxNumber = m.length * m.length - 1;
+        final int maxNumber = n * n - 1;
         final int fieldLength = 
                 Math.max(5, (int)(Math.floor(Math.log10(maxNumber))) + 1);
         
@@ -252,7 +400,7 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
             filler += ' ';
         }
         
-        for (int i = 0; i != m.length; ++i) {
+        for (int i = 0; i != n; ++i) {
             sb.append(smallBar);
         }
         
@@ -261,22 +409,22 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
         
         final String horizontalBar = sb.toString();
         
-        for (int yy = 0; yy != m.length; ++yy) {
+        for (int yy = 0; yy != n; ++yy) {
             ALL.append(horizontalBar);;
             
-            for (int xx = 0; xx != m.length; ++xx) {
+            for (int xx = 0; xx != n; ++xx) {
                 ALL.append(filler);
             }
             
             ALL.append("|\n");
             
-            for (int xx = 0; xx != m.length; ++xx) {
+            for (int xx = 0; xx != n; ++xx) {
                 int fl;
                 
-                if (m[yy][xx] == 0) {
+                if (get(xx, yy) == 0) {
                     fl = 1;
                 } else {
-                    fl = (int)(Math.floor(Math.log10(m[yy][xx]))) + 1; 
+                    fl = (int)(Math.floor(Math.log10(get(xx, yy)))) + 1; 
                 }
                 
                 int tmp = fieldLength - fl;
@@ -294,12 +442,12 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
                 }
                 
                 ALL.append("| ")
-                   .append(String.format(skip + "%d" + skip2 + " ", m[yy][xx]));
+                   .append(String.format(skip + "%d" + skip2 + " ", get(xx, yy)));
             }
             
             ALL.append("|\n");
             
-            for (int xx = 0; xx != m.length; ++xx) {
+            for (int xx = 0; xx != n; ++xx) {
                 ALL.append(filler);
             }
             
@@ -311,53 +459,21 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
     }
     
     /**
-     * This inner class implements the puzzle node neighbor iterator.
+     * This inner class implements the puzzle node neighbor iterator. The 
+     * neighbors are generated lazily in the order up, right, down, left.
      */
     private class PuzzleNodeIterator implements Iterator<PuzzleNode> {
 
         /**
-         * The list of neighbor nodes.
-         */
-        private List<PuzzleNode> neighbourList;
-        
-        /**
-         * The iterator of the neighbor list.
+         * The next direction to try.
          */
-        private Iterator<PuzzleNode> iterator;
+        private int direction;
         
         /**
          * Constructs an iterator over the enclosing nodes neighbors.
          */
         PuzzleNodeIterator() {
-            final PuzzleNode node = PuzzleNode.this;
-            
-            neighbourList = new ArrayList<PuzzleNode>(4);
-            
-            PuzzleNode tmp = node.moveUp();
-            
-            if (tmp != null) {
-                neighbourList.add(tmp);
-            }
-            
-            tmp = node.moveRight();
-            
-            if (tmp != null) {
-                neighbourList.add(tmp);
-            }
-            
-            tmp = node.moveDown();
-            
-            if (tmp != null) {
-                neighbourList.add(tmp);
-            }
-            
-            tmp = node.moveLeft();
-            
-            if (tmp != null) {
-                neighbourList.add(tmp);
-            }
-            
-            iterator = neighbourList.iterator();
+            skipIllegal();
         }
         
         /**
@@ -368,7 +484,7 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
          * <code>false</code> otherwise.
          */
         public boolean hasNext() {
-            return iterator.hasNext();
+            return direction != DIRECTIONS;
         }
 
         /**
@@ -380,7 +496,14 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
          * @throws NoSuchElementException if there is no more nodes to iterate.
          */
         public PuzzleNode next() {
-            return iterator.next();
+            if (direction == DIRECTIONS) {
+                throw new NoSuchElementException("No more neighbors.");
+            }
+            
+            final PuzzleNode node = new PuzzleNode(PuzzleNode.this);
+            node.move(direction++);
+            skipIllegal();
+            return node;
         }
 
         /**
@@ -390,6 +513,32 @@ public class PuzzleNode implements Iterable<PuzzleNode> {
             throw new UnsupportedOperationException(
                     "Removal on a node from the iterator makes no sense.");
         }
+        
+        /**
+         * Advances <code>direction</code> to the next legal direction.
+         */
+        private void skipIllegal() {
+            while (direction != DIRECTIONS && canMove(direction) == false) {
+                ++direction;
+            }
+        }
+    }
+    
+    /**
+     * Computes the Zobrist hash of this node from scratch.
+     * 
+     * @return the Zobrist hash.
+     */
+    private long computeZobristHash() {
+        long hash = 0L;
+        
+        for (int i = 0; i != m.length; ++i) {
+            if (m[i] != 0) {
+                hash ^= ZOBRIST[m[i] * MAX_CELLS + i];
+            }
+        }
+        
+        return hash;
     }
     
     /**
@@ -0,0 +1,115 @@
+package net.coderodde.pzzlsrch.model;
+
+/**
+ * This interface defines the API for puzzle states that can be modified in
+ * place. Instead of materializing every neighbor, a caller may slide the empty
+ * tile with {@link #move(int)}, inspect the state and slide it back with the
+ * opposite direction.
+ * 
+ * @param <T> the actual state type.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public interface PuzzleState<T extends PuzzleState<T>> extends Iterable<T> {
+    
+    /**
+     * The direction denoting sliding the empty tile upwards.
+     */
+    public static final int UP = 0;
+    
+    /**
+     * The direction denoting sliding the empty tile to the right.
+     */
+    public static final int RIGHT = 1;
+    
+    /**
+     * The direction denoting sliding the empty tile downwards.
+     */
+    public static final int DOWN = 2;
+    
+    /**
+     * The direction denoting sliding the empty tile to the left.
+     */
+    public static final int LEFT = 3;
+    
+    /**
+     * Denotes the absence of a direction, e.g., the parent move of a source
+     * state. The opposite of <code>NONE</code> is no valid direction either.
+     */
+    public static final int NONE = -4;
+    
+    /**
+     * The amount of directions. Directions are numbered from 0 to
+     * <code>DIRECTIONS - 1</code>, and the opposite of direction
+     * <code>d</code> is <code>d ^ 2</code>.
+     */
+    public static final int DIRECTIONS = 4;
+    
+    /**
+     * Returns the dimension of this state.
+     * 
+     * @return the dimension of this state.
+     */
+    public int getDimension();
+    
+    /**
+     * Reads a particular tile.
+     * 
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * 
+     * @return the tile at position <tt>(x, y)</tt>.
+     */
+    public byte get(final int x, final int y);
+    
+    /**
+     * Returns the x-coordinate of the empty tile.
+     * 
+     * @return the x-coordinate of the empty tile.
+     */
+    public int getBlankX();
+    
+    /**
+     * Returns the y-coordinate of the empty tile.
+     * 
+     * @return the y-coordinate of the empty tile.
+     */
+    public int getBlankY();
+    
+    /**
+     * Checks whether the empty tile may slide in direction
+     * <code>direction</code>.
+     * 
+     * @param direction the direction to check.
+     * 
+     * @return <code>true</code> if the empty tile stays within the board.
+     */
+    public boolean canMove(final int direction);
+    
+    /**
+     * Slides the empty tile in direction <code>direction</code> modifying
+     * this state. The caller must make sure the move is legal.
+     * 
+     * @param direction the direction to slide the empty tile in.
+     * 
+     * @return the tile that moved into the previous position of the empty
+     * tile.
+     */
+    public int move(final int direction);
+    
+    /**
+     * Returns a new state equal to this one.
+     * 
+     * @return a copy of this state.
+     */
+    public T copy();
+    
+    /**
+     * Overwrites this state with <code>state</code>. Both states must have the
+     * same dimension.
+     * 
+     * @param state the state to copy.
+     */
+    public void copyFrom(final T state);
+}
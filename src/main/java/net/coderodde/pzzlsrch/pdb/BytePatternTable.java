@@ -0,0 +1,49 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class implements the pattern table storing one cost per byte.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BytePatternTable extends PatternTable {
+    
+    /**
+     * Constructs a table over the costs in <code>costs</code>.
+     * 
+     * @param costs the costs, one per byte; not copied.
+     */
+    public BytePatternTable(final byte[] costs) {
+        this(ByteBuffer.wrap(costs), costs.length);
+    }
+    
+    /**
+     * Constructs a table over encoded data.
+     * 
+     * @param data the costs, one per byte.
+     * @param size the amount of entries.
+     * 
+     * @throws IllegalArgumentException if the data does not match the size.
+     */
+    public BytePatternTable(final ByteBuffer data, final int size) {
+        super(data, size);
+        
+        if (data.capacity() != size) {
+            throw new IllegalArgumentException(
+                    "Data length does not match the size: " + 
+                    data.capacity() + " != " + size + ".");
+        }
+    }
+    
+    @Override
+    public int get(final int index) {
+        return data.get(index) & 0xff;
+    }
+    
+    @Override
+    public int getEncoding() {
+        return BYTES;
+    }
+}
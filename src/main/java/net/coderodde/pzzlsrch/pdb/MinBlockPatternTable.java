@@ -0,0 +1,130 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class implements the pattern table folding each block of
+ * <code>factor</code> consecutive entries into a single byte holding their
+ * minimum. Since the stored costs never exceed the actual ones, the
+ * heuristic remains admissible. Consecutive ranks differ only by the cell of
+ * the last pattern tile, so the entries of a block tend to have close costs
+ * and little information is lost for small factors.
+ * <p>
+ * The data starts with the factor as a big-endian <code>int</code>,
+ * followed by the minima.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class MinBlockPatternTable extends PatternTable {
+    
+    /**
+     * The amount of bytes preceding the minima.
+     */
+    private static final int HEADER_LENGTH = 4;
+    
+    /**
+     * The amount of entries per block.
+     */
+    private final int factor;
+    
+    /**
+     * Constructs a table over encoded data.
+     * 
+     * @param data the factor followed by the minima.
+     * @param size the amount of entries.
+     * 
+     * @throws IllegalArgumentException if the data is invalid or does not
+     * match the size.
+     */
+    public MinBlockPatternTable(final ByteBuffer data, final int size) {
+        super(data, size);
+        
+        if (data.capacity() < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Data is too short.");
+        }
+        
+        this.factor = data.getInt(0);
+        
+        if (factor < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid factor: " + factor + ".");
+        }
+        
+        if (data.capacity() != getLength(size, factor)) {
+            throw new IllegalArgumentException(
+                    "Data length does not match the size: " +
+                    data.capacity() + " != " + getLength(size, factor) +
+                    ".");
+        }
+    }
+    
+    /**
+     * Encodes the costs of <code>table</code> folding each block of
+     * <code>factor</code> entries into their minimum.
+     * 
+     * @param table the table to encode.
+     * @param factor the amount of entries per block.
+     * 
+     * @return the encoded table.
+     * 
+     * @throws IllegalArgumentException if <code>factor</code> is not
+     * positive.
+     */
+    public static MinBlockPatternTable encode(final PatternTable table,
+                                              final int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid factor: " + factor + ".");
+        }
+        
+        final int size = table.size();
+        final ByteBuffer data =
+                ByteBuffer.allocate(getLength(size, factor));
+        
+        data.putInt(0, factor);
+        
+        for (int i = 0; i < size; i += factor) {
+            int min = table.get(i);
+            
+            for (int j = i + 1; j < Math.min(size, i + factor); ++j) {
+                min = Math.min(min, table.get(j));
+            }
+            
+            data.put(HEADER_LENGTH + i / factor, (byte) min);
+        }
+        
+        return new MinBlockPatternTable(data, size);
+    }
+    
+    /**
+     * Returns the amount of entries per block.
+     * 
+     * @return the factor.
+     */
+    public int getFactor() {
+        return factor;
+    }
+    
+    @Override
+    public int get(final int index) {
+        return data.get(HEADER_LENGTH + index / factor) & 0xff;
+    }
+    
+    @Override
+    public int getEncoding() {
+        return MIN_BLOCKS;
+    }
+    
+    /**
+     * Returns the amount of bytes encoding <code>size</code> entries.
+     * 
+     * @param size the amount of entries.
+     * @param factor the amount of entries per block.
+     * 
+     * @return the amount of bytes.
+     */
+    private static int getLength(final int size, final int factor) {
+        return HEADER_LENGTH + (int)((size + (long) factor - 1) / factor);
+    }
+}
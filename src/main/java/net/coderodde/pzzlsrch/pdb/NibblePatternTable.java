@@ -0,0 +1,80 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class implements the pattern table storing two costs per byte, the
+ * entry with the even index in the low four bits. Costs above
+ * {@link #MAX_COST} are stored as {@link #MAX_COST}; since the stored costs
+ * never exceed the actual ones, the heuristic remains admissible, but it is
+ * weaker on the states far from the target.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class NibblePatternTable extends PatternTable {
+    
+    /**
+     * The largest cost that may be stored.
+     */
+    public static final int MAX_COST = 0xf;
+    
+    /**
+     * Constructs a table over encoded data.
+     * 
+     * @param data the costs, two per byte.
+     * @param size the amount of entries.
+     * 
+     * @throws IllegalArgumentException if the data does not match the size.
+     */
+    public NibblePatternTable(final ByteBuffer data, final int size) {
+        super(data, size);
+        
+        if (data.capacity() != getLength(size)) {
+            throw new IllegalArgumentException(
+                    "Data length does not match the size: " +
+                    data.capacity() + " != " + getLength(size) + ".");
+        }
+    }
+    
+    /**
+     * Encodes the costs of <code>table</code>, saturating them at
+     * {@link #MAX_COST}.
+     * 
+     * @param table the table to encode.
+     * 
+     * @return the encoded table.
+     */
+    public static NibblePatternTable encode(final PatternTable table) {
+        final int size = table.size();
+        final byte[] data = new byte[getLength(size)];
+        
+        for (int i = 0; i != size; ++i) {
+            final int cost = Math.min(table.get(i), MAX_COST);
+            data[i >>> 1] |= cost << ((i & 1) << 2);
+        }
+        
+        return new NibblePatternTable(ByteBuffer.wrap(data), size);
+    }
+    
+    @Override
+    public int get(final int index) {
+        return (data.get(index >>> 1) >>> ((index & 1) << 2)) & MAX_COST;
+    }
+    
+    @Override
+    public int getEncoding() {
+        return NIBBLES;
+    }
+    
+    /**
+     * Returns the amount of bytes encoding <code>size</code> entries.
+     * 
+     * @param size the amount of entries.
+     * 
+     * @return the amount of bytes.
+     */
+    private static int getLength(final int size) {
+        return (int)((size + 1L) >>> 1);
+    }
+}
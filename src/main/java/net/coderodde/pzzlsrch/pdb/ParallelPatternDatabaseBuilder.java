@@ -0,0 +1,216 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import static net.coderodde.pzzlsrch.Utils.checkNotNull;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class builds pattern databases like {@link PatternDatabaseBuilder},
+ * but expands each layer of the breadth-first search in parallel. The
+ * states of the current layer are kept in a frontier bit set over the ranked
+ * abstract state space; the bit set is split into ranges of words, which are
+ * expanded as tasks in a {@link ForkJoinPool}. The states reached are added
+ * to the bit set of the next layer with atomic updates.
+ * <p>
+ * The costs are stored in a plain byte array. Within a layer, every write
+ * stores the same value, the cost of the layer plus one, into an entry that
+ * was unreached before the layer started; two threads reaching the same
+ * state at the same time hence write the same byte, and a thread seeing a
+ * stale entry merely marks the state again. Since each state is assigned its
+ * breadth-first distance regardless of the order of expansion, the tables
+ * built are identical to those of the sequential builder.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class ParallelPatternDatabaseBuilder extends PatternDatabaseBuilder {
+    
+    /**
+     * The amount of bit set words expanded by a single task.
+     */
+    private static final int WORDS_PER_TASK = 256;
+    
+    /**
+     * The pool running the expansion tasks.
+     */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    
+    /**
+     * Constructs a builder for the pattern consisting of <code>tiles</code>
+     * towards the target <code>target</code>.
+     * 
+     * @param target the target state.
+     * @param tiles the pattern tiles.
+     * 
+     * @throws IllegalArgumentException if the pattern is invalid.
+     */
+    public ParallelPatternDatabaseBuilder(final PuzzleState<?> target,
+                                          final int... tiles) {
+        super(target, tiles);
+    }
+    
+    /**
+     * Sets the pool running the expansion tasks.
+     * 
+     * @param pool the pool to use.
+     * 
+     * @return this for chaining.
+     */
+    public ParallelPatternDatabaseBuilder withPool(final ForkJoinPool pool) {
+        checkNotNull(pool, "Pool is null.");
+        this.pool = pool;
+        return this;
+    }
+    
+    @Override
+    public ParallelPatternDatabaseBuilder withProgressListener(
+            final ProgressListener listener) {
+        super.withProgressListener(listener);
+        return this;
+    }
+    
+    @Override
+    public PatternDatabase build() {
+        final byte[] costs = new byte[getAbstractStateCount()];
+        final int words = (costs.length + 63) >>> 6;
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        AtomicLongArray next = new AtomicLongArray(words);
+        Arrays.fill(costs, UNVISITED);
+        
+        markTarget(costs, new int[tiles.length + 1], frontier);
+        long reached = 0L;
+        
+        for (int cost = 0; ; ++cost) {
+            final long expanded = pool.invoke(
+                    new LayerTask(frontier, next, cost + 1, costs, 0, words));
+            
+            if (expanded == 0L) {
+                break;
+            }
+            
+            reached += expanded;
+            layerCompleted(cost, expanded, reached, costs.length);
+            
+            // The tasks have cleared the frontier, so it may be reused.
+            final AtomicLongArray tmp = frontier;
+            frontier = next;
+            next = tmp;
+        }
+        
+        return new PatternDatabase(n, tiles, target, compact(costs));
+    }
+    
+    /**
+     * Builds a pattern database for each group of tiles in the common pool.
+     * 
+     * @param target the target state.
+     * @param groups the disjoint groups of pattern tiles.
+     * 
+     * @return the pattern databases.
+     */
+    public static PatternDatabase[] buildPartition(
+            final PuzzleState<?> target,
+            final int[]... groups) {
+        final PatternDatabase[] databases = new PatternDatabase[groups.length];
+        
+        for (int i = 0; i != groups.length; ++i) {
+            databases[i] = new ParallelPatternDatabaseBuilder(target,
+                                                              groups[i])
+                           .build();
+        }
+        
+        return databases;
+    }
+    
+    /**
+     * This task expands the states of a range of frontier words, clears the
+     * words and returns the amount of states expanded.
+     */
+    private final class LayerTask extends RecursiveTask<Long> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The states of the current layer.
+         */
+        private final AtomicLongArray frontier;
+        
+        /**
+         * The states of the next layer.
+         */
+        private final AtomicLongArray next;
+        
+        /**
+         * The cost of the next layer.
+         */
+        private final int cost;
+        
+        /**
+         * The costs of the abstract states.
+         */
+        private final byte[] costs;
+        
+        /**
+         * The first word of the range.
+         */
+        private final int from;
+        
+        /**
+         * The word past the range.
+         */
+        private final int to;
+        
+        LayerTask(final AtomicLongArray frontier,
+                  final AtomicLongArray next,
+                  final int cost,
+                  final byte[] costs,
+                  final int from,
+                  final int to) {
+            this.frontier = frontier;
+            this.next = next;
+            this.cost = cost;
+            this.costs = costs;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected Long compute() {
+            if (to - from > WORDS_PER_TASK) {
+                final int middle = (from + to) >>> 1;
+                final LayerTask left = new LayerTask(frontier, next, cost,
+                                                     costs, from, middle);
+                final LayerTask right = new LayerTask(frontier, next, cost,
+                                                      costs, middle, to);
+                left.fork();
+                final long count = right.compute();
+                return count + left.join();
+            }
+            
+            final int[] cells = new int[tiles.length + 1];
+            long count = 0L;
+            
+            for (int word = from; word != to; ++word) {
+                final long bits = frontier.get(word);
+                
+                if (bits == 0L) {
+                    continue;
+                }
+                
+                frontier.set(word, 0L);
+                count += Long.bitCount(bits);
+                
+                for (long b = bits; b != 0L; b &= b - 1) {
+                    final int index = (word << 6)
+                                    + Long.numberOfTrailingZeros(b);
+                    expand(index, cost, costs, cells, next);
+                }
+            }
+            
+            return count;
+        }
+    }
+}
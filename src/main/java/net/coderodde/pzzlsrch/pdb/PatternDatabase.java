@@ -0,0 +1,232 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import net.coderodde.pzzlsrch.model.PermutationRanker;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class implements an additive pattern database. For every placement of
+ * the pattern tiles on the board it stores the least amount of pattern tile
+ * moves needed to bring them to their target cells; moves of the other tiles
+ * are free. The costs of pattern databases over disjoint tile sets may hence
+ * be summed up without losing admissibility.
+ * <p>
+ * A placement is indexed by the rank of the cells of the pattern tiles, in
+ * pattern order, among all the <code>k</code>-permutations of the cells; see
+ * {@link PermutationRanker#rank(int[], int, int)}. Instances are immutable and
+ * may be shared by threads.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PatternDatabase {
+    
+    /**
+     * The dimension of the board.
+     */
+    private final int n;
+    
+    /**
+     * The pattern tiles.
+     */
+    private final byte[] tiles;
+    
+    /**
+     * The target layout, row by row.
+     */
+    private final byte[] target;
+    
+    /**
+     * The costs indexed by the rank of the pattern tile cells.
+     */
+    private final PatternTable table;
+    
+    /**
+     * Constructs a pattern database.
+     * 
+     * @param n the dimension of the board.
+     * @param tiles the pattern tiles.
+     * @param target the target layout, row by row.
+     * @param table the costs indexed by the rank of the pattern tile cells.
+     * 
+     * @throws IllegalArgumentException if the table size does not match.
+     */
+    public PatternDatabase(final int n,
+                           final byte[] tiles,
+                           final byte[] target,
+                           final byte[] table) {
+        this(n, tiles, target, new BytePatternTable(table));
+    }
+    
+    /**
+     * Constructs a pattern database.
+     * 
+     * @param n the dimension of the board.
+     * @param tiles the pattern tiles.
+     * @param target the target layout, row by row.
+     * @param table the costs indexed by the rank of the pattern tile cells.
+     * 
+     * @throws IllegalArgumentException if the table size does not match.
+     */
+    public PatternDatabase(final int n,
+                           final byte[] tiles,
+                           final byte[] target,
+                           final PatternTable table) {
+        if (target.length != n * n) {
+            throw new IllegalArgumentException(
+                    "Target layout length does not match the dimension.");
+        }
+        
+        if (table.size() != PermutationRanker.count(n * n, tiles.length)) {
+            throw new IllegalArgumentException(
+                    "Table size does not match the pattern.");
+        }
+        
+        this.n = n;
+        this.tiles = tiles.clone();
+        this.target = target.clone();
+        this.table = table;
+    }
+    
+    /**
+     * Returns the dimension of the board.
+     * 
+     * @return the dimension.
+     */
+    public int getDimension() {
+        return n;
+    }
+    
+    /**
+     * Returns the pattern tiles.
+     * 
+     * @return a copy of the pattern tiles.
+     */
+    public byte[] getTiles() {
+        return tiles.clone();
+    }
+    
+    /**
+     * Returns the target layout, row by row.
+     * 
+     * @return a copy of the target layout.
+     */
+    public byte[] getTarget() {
+        return target.clone();
+    }
+    
+    /**
+     * Returns the amount of entries in this pattern database.
+     * 
+     * @return the amount of entries.
+     */
+    public int size() {
+        return table.size();
+    }
+    
+    /**
+     * Returns the table holding the costs.
+     * 
+     * @return the table.
+     */
+    public PatternTable getTable() {
+        return table;
+    }
+    
+    /**
+     * Returns a pattern database over the same pattern storing the costs in
+     * <code>table</code>, for instance a compressed encoding of the table of
+     * this database.
+     * 
+     * @param table the costs indexed by the rank of the pattern tile cells.
+     * 
+     * @return the pattern database.
+     * 
+     * @throws IllegalArgumentException if the table size does not match.
+     */
+    public PatternDatabase withTable(final PatternTable table) {
+        return new PatternDatabase(n, tiles, target, table);
+    }
+    
+    /**
+     * Checks whether this pattern database is valid for searches towards
+     * <code>state</code>, that is, whether the pattern tiles and the empty
+     * tile have the same target cells.
+     * 
+     * @param state the target state.
+     * 
+     * @return <code>true</code> if this database may be used.
+     */
+    public boolean matchesTarget(final PuzzleState<?> state) {
+        if (state.getDimension() != n) {
+            return false;
+        }
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte expected = target[y * n + x];
+                final byte actual = state.get(x, y);
+                
+                if (expected != actual
+                        && (expected == 0 || actual == 0
+                            || isPatternTile(expected)
+                            || isPatternTile(actual))) {
+                    return false;
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns the cost of a placement of the pattern tiles.
+     * 
+     * @param cellOfTile maps each tile to its cell.
+     * 
+     * @return the cost.
+     */
+    public int get(final int[] cellOfTile) {
+        // Same as PermutationRanker.rank, without a temporary array so that
+        // the database may be shared by threads.
+        final int N = n * n;
+        long used = 0L;
+        long rank = 0L;
+        
+        for (int i = 0; i != tiles.length; ++i) {
+            final int cell = cellOfTile[tiles[i]];
+            rank = rank * (N - i) + cell
+                 - Long.bitCount(used & ((1L << cell) - 1));
+            used |= 1L << cell;
+        }
+        
+        return getByRank(rank);
+    }
+    
+    /**
+     * Returns the cost stored at a given rank.
+     * 
+     * @param rank the rank of the pattern tile cells.
+     * 
+     * @return the cost.
+     */
+    public int getByRank(final long rank) {
+        return table.get((int) rank);
+    }
+    
+    /**
+     * Checks whether <code>tile</code> is a pattern tile.
+     * 
+     * @param tile the tile to check.
+     * 
+     * @return <code>true</code> if <code>tile</code> is in the pattern.
+     */
+    private boolean isPatternTile(final byte tile) {
+        for (final byte t : tiles) {
+            if (t == tile) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+}
@@ -0,0 +1,443 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import net.coderodde.pzzlsrch.model.PermutationRanker;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class builds additive pattern databases by a breadth-first search
+ * backwards from the target over the abstract states. An abstract state
+ * consists of the cells of the pattern tiles and the cell of the empty tile;
+ * the other tiles are indistinguishable. Sliding a pattern tile costs one,
+ * sliding any other tile costs nothing.
+ * <p>
+ * The search sweeps the ranked abstract state space once per cost, expanding
+ * the states whose cost equals the current one. Whenever a state is reached,
+ * all the states differing only by the position of the empty tile within the
+ * same region of non-pattern cells are assigned the same cost, so no queue is
+ * needed. Finally the cost of each placement of the pattern tiles is the
+ * minimum over the cells of the empty tile.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PatternDatabaseBuilder {
+    
+    /**
+     * Marks the abstract states not yet reached.
+     */
+    static final byte UNVISITED = (byte) 0xff;
+    
+    /**
+     * The dimension of the board.
+     */
+    final int n;
+    
+    /**
+     * The amount of cells.
+     */
+    final int N;
+    
+    /**
+     * The pattern tiles.
+     */
+    final byte[] tiles;
+    
+    /**
+     * The target layout, row by row.
+     */
+    final byte[] target;
+    
+    /**
+     * Maps each cell and direction to the neighbouring cell, or -1.
+     */
+    final int[][] neighbours;
+    
+    /**
+     * Maps each cell to the bit mask of its neighbouring cells.
+     */
+    final long[] neighbourMasks;
+    
+    /**
+     * The listener notified after each layer, or <code>null</code>.
+     */
+    ProgressListener listener;
+    
+    /**
+     * Constructs a builder for the pattern consisting of <code>tiles</code>
+     * towards the target <code>target</code>.
+     * 
+     * @param target the target state.
+     * @param tiles the pattern tiles.
+     * 
+     * @throws IllegalArgumentException if the pattern is invalid.
+     */
+    public PatternDatabaseBuilder(final PuzzleState<?> target,
+                                  final int... tiles) {
+        this.n = target.getDimension();
+        this.N = n * n;
+        
+        if (N > PermutationRanker.MAX_CELLS) {
+            throw new IllegalArgumentException(
+                    "Dimension is too large: " + n + ".");
+        }
+        
+        if (tiles.length == 0 || tiles.length > N - 3) {
+            throw new IllegalArgumentException(
+                    "Invalid amount of pattern tiles: " + tiles.length + ".");
+        }
+        
+        this.tiles = new byte[tiles.length];
+        long seen = 0L;
+        
+        for (int i = 0; i != tiles.length; ++i) {
+            if (tiles[i] <= 0 || tiles[i] >= N) {
+                throw new IllegalArgumentException(
+                        "Invalid pattern tile: " + tiles[i] + ".");
+            }
+            
+            if ((seen & (1L << tiles[i])) != 0) {
+                throw new IllegalArgumentException(
+                        "Duplicate pattern tile: " + tiles[i] + ".");
+            }
+            
+            seen |= 1L << tiles[i];
+            this.tiles[i] = (byte) tiles[i];
+        }
+        
+        this.target = new byte[N];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                this.target[y * n + x] = target.get(x, y);
+            }
+        }
+        
+        this.neighbours = new int[N][PuzzleState.DIRECTIONS];
+        this.neighbourMasks = new long[N];
+        
+        for (int cell = 0; cell != N; ++cell) {
+            final int x = cell % n;
+            final int y = cell / n;
+            
+            neighbours[cell][PuzzleState.UP] = y > 0 ? cell - n : -1;
+            neighbours[cell][PuzzleState.RIGHT] = x < n - 1 ? cell + 1 : -1;
+            neighbours[cell][PuzzleState.DOWN] = y < n - 1 ? cell + n : -1;
+            neighbours[cell][PuzzleState.LEFT] = x > 0 ? cell - 1 : -1;
+            
+            for (final int neighbour : neighbours[cell]) {
+                if (neighbour >= 0) {
+                    neighbourMasks[cell] |= 1L << neighbour;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the amount of abstract states, which must fit in an
+     * <code>int</code>.
+     * 
+     * @return the amount of abstract states.
+     * 
+     * @throws IllegalStateException if the abstract state space is too large
+     * to be built in memory.
+     */
+    int getAbstractStateCount() {
+        final long count = PermutationRanker.count(N, tiles.length + 1);
+        
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException(
+                    "The abstract state space is too large to build in " +
+                    "memory: " + count + " states.");
+        }
+        
+        return (int) count;
+    }
+    
+    /**
+     * Sets the listener notified after each layer of the search.
+     * 
+     * @param listener the listener, or <code>null</code> for none.
+     * 
+     * @return this for chaining.
+     */
+    public PatternDatabaseBuilder withProgressListener(
+            final ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+    
+    /**
+     * Builds the pattern database.
+     * 
+     * @return the pattern database.
+     */
+    public PatternDatabase build() {
+        final byte[] costs = new byte[getAbstractStateCount()];
+        final int[] cells = new int[tiles.length + 1];
+        Arrays.fill(costs, UNVISITED);
+        
+        markTarget(costs, cells, null);
+        long reached = 0L;
+        
+        for (int cost = 0; ; ++cost) {
+            long expanded = 0L;
+            
+            for (int index = 0; index != costs.length; ++index) {
+                if (costs[index] == (byte) cost) {
+                    expand(index, cost + 1, costs, cells, null);
+                    ++expanded;
+                }
+            }
+            
+            if (expanded == 0L) {
+                break;
+            }
+            
+            reached += expanded;
+            layerCompleted(cost, expanded, reached, costs.length);
+        }
+        
+        return new PatternDatabase(n, tiles, target, compact(costs));
+    }
+    
+    /**
+     * Builds a pattern database for each group of tiles.
+     * 
+     * @param target the target state.
+     * @param groups the disjoint groups of pattern tiles.
+     * 
+     * @return the pattern databases.
+     */
+    public static PatternDatabase[] buildPartition(
+            final PuzzleState<?> target,
+            final int[]... groups) {
+        final PatternDatabase[] databases = new PatternDatabase[groups.length];
+        
+        for (int i = 0; i != groups.length; ++i) {
+            databases[i] =
+                    new PatternDatabaseBuilder(target, groups[i]).build();
+        }
+        
+        return databases;
+    }
+    
+    /**
+     * Notifies the listener, if any, that a layer has been expanded.
+     * 
+     * @param cost the cost of the states in the layer.
+     * @param states the amount of states in the layer.
+     * @param reached the amount of states reached so far.
+     * @param total the amount of abstract states.
+     */
+    void layerCompleted(final int cost,
+                        final long states,
+                        final long reached,
+                        final long total) {
+        if (listener != null) {
+            listener.layerCompleted(cost, states, reached, total);
+        }
+    }
+    
+    /**
+     * Assigns cost zero to the target and the states reachable from it by
+     * moving non-pattern tiles only.
+     * 
+     * @param costs the costs of the abstract states.
+     * @param cells the work space.
+     * @param frontier the bit set of the states reached, or
+     * <code>null</code>.
+     */
+    void markTarget(final byte[] costs,
+                    final int[] cells,
+                    final AtomicLongArray frontier) {
+        for (int cell = 0; cell != N; ++cell) {
+            final byte tile = target[cell];
+            
+            if (tile == 0) {
+                cells[tiles.length] = cell;
+                continue;
+            }
+            
+            for (int i = 0; i != tiles.length; ++i) {
+                if (tiles[i] == tile) {
+                    cells[i] = cell;
+                }
+            }
+        }
+        
+        markRegion(cells, 0, costs, frontier);
+    }
+    
+    /**
+     * Expands the abstract state with index <code>index</code>: every pattern
+     * tile next to the empty tile is slid into it, and each unreached state
+     * obtained is assigned <code>cost</code>.
+     * 
+     * @param index the index of the state.
+     * @param cost the cost of the successors.
+     * @param costs the costs of the abstract states.
+     * @param cells the work space.
+     * @param frontier the bit set of the states reached, or
+     * <code>null</code>.
+     */
+    void expand(final int index,
+                final int cost,
+                final byte[] costs,
+                final int[] cells,
+                final AtomicLongArray frontier) {
+        final int k = tiles.length;
+        PermutationRanker.unrank(index, k + 1, N, cells);
+        final int blank = cells[k];
+        
+        for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+            final int neighbour = neighbours[blank][d];
+            
+            if (neighbour < 0) {
+                continue;
+            }
+            
+            for (int i = 0; i != k; ++i) {
+                if (cells[i] == neighbour) {
+                    cells[i] = blank;
+                    cells[k] = neighbour;
+                    
+                    if (costs[indexOf(cells)] == UNVISITED) {
+                        markRegion(cells, cost, costs, frontier);
+                    }
+                    
+                    cells[i] = neighbour;
+                    cells[k] = blank;
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Assigns <code>cost</code> to the state described by <code>cells</code>
+     * and to every state obtained from it by moving the empty tile through
+     * the cells not occupied by pattern tiles.
+     * 
+     * @param cells the cells of the pattern tiles followed by the cell of the
+     * empty tile.
+     * @param cost the cost to assign.
+     * @param costs the costs of the abstract states.
+     * @param layer the bit set to add the states to, or <code>null</code>.
+     */
+    void markRegion(final int[] cells,
+                    final int cost,
+                    final byte[] costs,
+                    final AtomicLongArray layer) {
+        final int k = tiles.length;
+        final int blank = cells[k];
+        final long rank = PermutationRanker.rank(cells, k, N);
+        long occupied = 0L;
+        
+        for (int i = 0; i != k; ++i) {
+            occupied |= 1L << cells[i];
+        }
+        
+        long region = 1L << blank;
+        long frontier = region;
+        
+        while (frontier != 0L) {
+            long next = 0L;
+            
+            for (long f = frontier; f != 0L; f &= f - 1) {
+                next |= neighbourMasks[Long.numberOfTrailingZeros(f)];
+            }
+            
+            frontier = next & ~occupied & ~region;
+            region |= frontier;
+        }
+        
+        for (long r = region; r != 0L; r &= r - 1) {
+            final int cell = Long.numberOfTrailingZeros(r);
+            final int index = (int)(rank * (N - k) + cell
+                    - Long.bitCount(occupied & ((1L << cell) - 1)));
+            costs[index] = (byte) cost;
+            
+            if (layer != null) {
+                setBit(layer, index);
+            }
+        }
+    }
+    
+    /**
+     * Sets a bit in a bit set shared by threads.
+     * 
+     * @param bits the bit set.
+     * @param index the index of the bit.
+     */
+    static void setBit(final AtomicLongArray bits, final int index) {
+        final int word = index >>> 6;
+        final long bit = 1L << index;
+        
+        for (;;) {
+            final long value = bits.get(word);
+            
+            if ((value & bit) != 0L
+                    || bits.compareAndSet(word, value, value | bit)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Returns the index of the abstract state described by
+     * <code>cells</code>.
+     * 
+     * @param cells the cells of the pattern tiles followed by the cell of the
+     * empty tile.
+     * 
+     * @return the index.
+     */
+    int indexOf(final int[] cells) {
+        return (int) PermutationRanker.rank(cells, tiles.length + 1, N);
+    }
+    
+    /**
+     * Reduces the costs of the abstract states to the costs of the pattern
+     * tile placements by minimizing over the cell of the empty tile. Since
+     * the empty tile is ranked last, the states of a placement are adjacent.
+     * 
+     * @param costs the costs of the abstract states.
+     * 
+     * @return the costs of the placements.
+     */
+    byte[] compact(final byte[] costs) {
+        final int free = N - tiles.length;
+        final byte[] table = new byte[costs.length / free];
+        
+        for (int i = 0; i != table.length; ++i) {
+            int min = UNVISITED & 0xff;
+            
+            for (int j = i * free; j != (i + 1) * free; ++j) {
+                min = Math.min(min, costs[j] & 0xff);
+            }
+            
+            table[i] = (byte) min;
+        }
+        
+        return table;
+    }
+    
+    /**
+     * The interface for receiving the progress of a build.
+     */
+    public interface ProgressListener {
+        
+        /**
+         * Called after all the states of cost <code>cost</code> have been
+         * expanded.
+         * 
+         * @param cost the cost of the states in the layer.
+         * @param states the amount of states in the layer.
+         * @param reached the amount of states reached so far.
+         * @param total the amount of abstract states.
+         */
+        void layerCompleted(int cost, long states, long reached, long total);
+    }
+}
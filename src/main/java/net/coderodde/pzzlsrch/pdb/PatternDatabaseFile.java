@@ -0,0 +1,330 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class reads and writes pattern database files. A file consists of a
+ * header followed by the encoded costs:
+ * <pre>
+ * int    magic number "PZDB"
+ * int    format version
+ * int    dimension n
+ * int    amount of pattern tiles k
+ * byte[] the k pattern tiles
+ * byte[] the n * n tiles of the target layout, row by row
+ * int    table encoding
+ * int    amount of entries
+ * long   amount of encoded bytes
+ * byte[] the encoded costs
+ * </pre>
+ * All the numbers are big-endian. Files are loaded by mapping the costs into
+ * memory, so loading is fast regardless of the table size, and processes
+ * mapping the same file share the pages of the operating system cache.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public final class PatternDatabaseFile {
+    
+    /**
+     * The magic number starting every pattern database file.
+     */
+    public static final int MAGIC = 0x505a4442;
+    
+    /**
+     * The current format version.
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * The extension of pattern database files.
+     */
+    public static final String EXTENSION = ".pdb";
+    
+    private PatternDatabaseFile() {
+        // Static methods only.
+    }
+    
+    /**
+     * Writes <code>database</code> to <code>file</code>.
+     * 
+     * @param database the pattern database to write.
+     * @param file the file to write to.
+     * 
+     * @throws IOException if writing fails.
+     */
+    public static void write(final PatternDatabase database, final File file)
+            throws IOException {
+        final PatternTable table = database.getTable();
+        final ByteBuffer data = table.getData();
+        final byte[] tiles = database.getTiles();
+        final byte[] buffer = new byte[1 << 16];
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(database.getDimension());
+            out.writeInt(tiles.length);
+            out.write(tiles);
+            out.write(database.getTarget());
+            out.writeInt(table.getEncoding());
+            out.writeInt(table.size());
+            out.writeLong(data.capacity());
+            
+            data.clear();
+            
+            while (data.hasRemaining()) {
+                final int length = Math.min(buffer.length, data.remaining());
+                data.get(buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Loads a pattern database by mapping <code>file</code> into memory.
+     * 
+     * @param file the file to load.
+     * 
+     * @return the pattern database.
+     * 
+     * @throws IOException if reading fails or the file is not a valid pattern
+     * database file.
+     */
+    public static PatternDatabase map(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        
+        try {
+            if (raf.readInt() != MAGIC) {
+                throw new IOException(
+                        "Not a pattern database file: " + file + ".");
+            }
+            
+            final int version = raf.readInt();
+            
+            if (version != VERSION) {
+                throw new IOException(
+                        "Unsupported pattern database file version " +
+                        version + ": " + file + ".");
+            }
+            
+            final int n = raf.readInt();
+            final int k = raf.readInt();
+            
+            if (n < 2 || n * n > 64 || k < 1 || k >= n * n) {
+                throw new IOException(
+                        "Corrupted pattern database file header: " +
+                        file + ".");
+            }
+            
+            final byte[] tiles = new byte[k];
+            final byte[] target = new byte[n * n];
+            
+            raf.readFully(tiles);
+            raf.readFully(target);
+            
+            if (isValidLayout(tiles, target) == false) {
+                throw new IOException(
+                        "Corrupted pattern database tiles or target: " +
+                        file + ".");
+            }
+            
+            final int encoding = raf.readInt();
+            final int size = raf.readInt();
+            final long length = raf.readLong();
+            final long offset = raf.getFilePointer();
+            
+            if (length < 0 || offset + length != raf.length()) {
+                throw new IOException(
+                        "Truncated pattern database file: " + file + ".");
+            }
+            
+            final MappedByteBuffer data = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, offset, length);
+            
+            try {
+                return new PatternDatabase(
+                        n,
+                        tiles,
+                        target,
+                        PatternTable.create(encoding, data, size));
+            } catch (final IllegalArgumentException ex) {
+                throw new IOException(
+                        "Invalid pattern database file: " + file + ".", ex);
+            }
+        } finally {
+            // The mapping stays valid after the channel is closed.
+            raf.close();
+        }
+    }
+    
+    /**
+     * Checks that <code>tiles</code> are distinct non-empty tiles and that
+     * <code>target</code> holds every tile exactly once.
+     * 
+     * @param tiles the pattern tiles.
+     * @param target the row-major tiles of the target state.
+     * 
+     * @return <code>true</code> if both are valid.
+     */
+    private static boolean isValidLayout(final byte[] tiles,
+                                         final byte[] target) {
+        final int N = target.length;
+        long seen = 0L;
+        
+        for (final byte tile : tiles) {
+            if (tile < 1 || tile >= N || (seen & (1L << tile)) != 0) {
+                return false;
+            }
+            
+            seen |= 1L << tile;
+        }
+        
+        seen = 0L;
+        
+        for (final byte tile : target) {
+            if (tile < 0 || tile >= N || (seen & (1L << tile)) != 0) {
+                return false;
+            }
+            
+            seen |= 1L << tile;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns the name of the file holding the pattern database over
+     * <code>tiles</code> towards <code>target</code>.
+     * 
+     * @param target the target state.
+     * @param tiles the pattern tiles.
+     * 
+     * @return the file name.
+     */
+    public static String getFileName(final PuzzleState<?> target,
+                                     final int... tiles) {
+        final int n = target.getDimension();
+        final byte[] layout = new byte[n * n];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                layout[y * n + x] = target.get(x, y);
+            }
+        }
+        
+        final StringBuilder sb = new StringBuilder("pdb-").append(n);
+        
+        for (int i = 0; i != tiles.length; ++i) {
+            sb.append(i == 0 ? '-' : '.').append(tiles[i]);
+        }
+        
+        return sb.append('-')
+                 .append(String.format("%08x", Arrays.hashCode(layout)))
+                 .append(EXTENSION)
+                 .toString();
+    }
+    
+    /**
+     * Loads the pattern databases over <code>groups</code> towards
+     * <code>target</code> from <code>directory</code>. The databases missing
+     * from the directory are built and written there first.
+     * 
+     * @param directory the directory holding the pattern database files.
+     * @param target the target state.
+     * @param groups the disjoint groups of pattern tiles.
+     * 
+     * @return the pattern databases.
+     * 
+     * @throws IOException if reading or writing fails, or if a file found
+     * does not hold the expected pattern database.
+     */
+    public static PatternDatabase[] loadOrBuild(final File directory,
+                                                final PuzzleState<?> target,
+                                                final int[]... groups)
+            throws IOException {
+        final PatternDatabase[] databases = new PatternDatabase[groups.length];
+        
+        for (int i = 0; i != groups.length; ++i) {
+            final File file = new File(directory,
+                                       getFileName(target, groups[i]));
+            
+            if (file.exists() == false) {
+                // Write to a temporary file first so that concurrent readers
+                // never see a partial file.
+                final File tmp = File.createTempFile("pdb", ".tmp", directory);
+                
+                write(newBuilder(target, groups[i]).build(), tmp);
+                
+                if (tmp.renameTo(file) == false && file.exists() == false) {
+                    tmp.delete();
+                    throw new IOException("Could not create " + file + ".");
+                }
+                
+                tmp.delete();
+            }
+            
+            databases[i] = map(file);
+            
+            if (databases[i].matchesTarget(target) == false
+                    || Arrays.equals(databases[i].getTiles(),
+                                     toBytes(groups[i])) == false) {
+                throw new IOException(
+                        "The pattern database file " + file + " does not " +
+                        "match the requested pattern.");
+            }
+        }
+        
+        return databases;
+    }
+    
+    /**
+     * Returns a builder for the pattern over <code>tiles</code>, building in
+     * parallel if there are several processors.
+     * 
+     * @param target the target state.
+     * @param tiles the pattern tiles.
+     * 
+     * @return the builder.
+     */
+    private static PatternDatabaseBuilder newBuilder(
+            final PuzzleState<?> target,
+            final int[] tiles) {
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            return new ParallelPatternDatabaseBuilder(target, tiles);
+        }
+        
+        return new PatternDatabaseBuilder(target, tiles);
+    }
+    
+    /**
+     * Converts tiles to bytes.
+     * 
+     * @param tiles the tiles.
+     * 
+     * @return the tiles as bytes.
+     */
+    private static byte[] toBytes(final int[] tiles) {
+        final byte[] bytes = new byte[tiles.length];
+        
+        for (int i = 0; i != tiles.length; ++i) {
+            bytes[i] = (byte) tiles[i];
+        }
+        
+        return bytes;
+    }
+}
@@ -0,0 +1,119 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This abstract class defines the storage of the costs of a pattern database.
+ * The costs are encoded in a byte buffer, which may live on the heap or be
+ * mapped from a file; the encoding is identified by a number stored in the
+ * pattern database files.
+ * <p>
+ * Implementations read the buffer with absolute accessors only and may hence
+ * be shared by threads.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public abstract class PatternTable {
+    
+    /**
+     * The encoding storing one cost per byte.
+     */
+    public static final int BYTES = 0;
+    
+    /**
+     * The encoding storing two saturated costs per byte.
+     */
+    public static final int NIBBLES = 1;
+    
+    /**
+     * The encoding storing the minimum of a block of costs per byte.
+     */
+    public static final int MIN_BLOCKS = 2;
+    
+    /**
+     * The encoded costs.
+     */
+    protected final ByteBuffer data;
+    
+    /**
+     * The amount of entries.
+     */
+    protected final int size;
+    
+    /**
+     * Constructs a table over encoded data.
+     * 
+     * @param data the encoded costs.
+     * @param size the amount of entries.
+     */
+    protected PatternTable(final ByteBuffer data, final int size) {
+        this.data = data;
+        this.size = size;
+    }
+    
+    /**
+     * Returns the cost stored at <code>index</code>.
+     * 
+     * @param index the index of the entry.
+     * 
+     * @return the cost.
+     */
+    public abstract int get(final int index);
+    
+    /**
+     * Returns the encoding of this table.
+     * 
+     * @return the encoding.
+     */
+    public abstract int getEncoding();
+    
+    /**
+     * Returns the amount of entries in this table.
+     * 
+     * @return the amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the encoded costs.
+     * 
+     * @return a read-only view of the encoded costs.
+     */
+    public ByteBuffer getData() {
+        return data.asReadOnlyBuffer();
+    }
+    
+    /**
+     * Creates a table of a given encoding over encoded data.
+     * 
+     * @param encoding the encoding.
+     * @param data the encoded costs.
+     * @param size the amount of entries.
+     * 
+     * @return the table.
+     * 
+     * @throws IllegalArgumentException if the encoding is unknown or the data
+     * does not match the size.
+     */
+    public static PatternTable create(final int encoding,
+                                      final ByteBuffer data,
+                                      final int size) {
+        switch (encoding) {
+            case BYTES:
+                return new BytePatternTable(data, size);
+                
+            case NIBBLES:
+                return new NibblePatternTable(data, size);
+                
+            case MIN_BLOCKS:
+                return new MinBlockPatternTable(data, size);
+                
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown encoding: " + encoding + ".");
+        }
+    }
+}
@@ -36,6 +36,95 @@ public abstract class HeuristicFunction<T> {
      */
     public abstract int get(final T t);
     
+    /**
+     * Gets the heuristic estimate between node <code>t</code> and
+     * <code>target</code>, where <code>t</code> was obtained from a node
+     * with estimate <code>parentH</code> by sliding <code>tile</code> from
+     * cell <code>from</code> to cell <code>to</code>. The cells are numbered
+     * row by row. Implementations able to update the estimate of the parent
+     * in constant time should override this method; by default the estimate
+     * is computed from scratch.
+     * 
+     * @param t the node.
+     * @param parentH the estimate of the parent of <code>t</code>.
+     * @param tile the tile moved.
+     * @param from the cell of <code>tile</code> in the parent.
+     * @param to the cell of <code>tile</code> in <code>t</code>.
+     * 
+     * @return the estimate for the distance between <code>t</code> and
+     * <code>target</code>.
+     */
+    public int get(final T t,
+                   final int parentH,
+                   final int tile,
+                   final int from,
+                   final int to) {
+        return get(t);
+    }
+    
+    /**
+     * Gets the heuristic estimate of <code>t</code> like
+     * {@link #get(Object, int, int, int, int)}, where <code>t</code> is the
+     * node a depth-first solver descends into. The solver calls
+     * {@link #ascend()} once it backs up from <code>t</code>, and starts
+     * every path by evaluating its first node with {@link #get(Object)}.
+     * Implementations keeping state for the nodes on the current path
+     * override both methods; by default no state is kept.
+     * 
+     * @param t the node.
+     * @param parentH the estimate of the parent of <code>t</code>.
+     * @param tile the tile moved.
+     * @param from the cell of <code>tile</code> in the parent.
+     * @param to the cell of <code>tile</code> in <code>t</code>.
+     * 
+     * @return the estimate for the distance between <code>t</code> and
+     * <code>target</code>.
+     */
+    public int descend(final T t,
+                       final int parentH,
+                       final int tile,
+                       final int from,
+                       final int to) {
+        return get(t, parentH, tile, from, to);
+    }
+    
+    /**
+     * Gets the heuristic estimate of <code>t</code> like
+     * {@link #descend(Object, int, int, int, int)}, where the solver prunes
+     * <code>t</code> whenever its estimate exceeds <code>limit</code>. Once
+     * an estimate exceeding <code>limit</code> is known, implementations may
+     * return it without computing the exact one; the solver then calls
+     * {@link #ascend()} without descending any further. By default the limit
+     * is ignored.
+     * 
+     * @param t the node.
+     * @param parentH the estimate of the parent of <code>t</code>.
+     * @param tile the tile moved.
+     * @param from the cell of <code>tile</code> in the parent.
+     * @param to the cell of <code>tile</code> in <code>t</code>.
+     * @param limit the largest estimate for which <code>t</code> is
+     * expanded.
+     * 
+     * @return an estimate for the distance between <code>t</code> and
+     * <code>target</code>, exact unless it exceeds <code>limit</code>.
+     */
+    public int descend(final T t,
+                       final int parentH,
+                       final int tile,
+                       final int from,
+                       final int to,
+                       final int limit) {
+        return descend(t, parentH, tile, from, to);
+    }
+    
+    /**
+     * Notifies this heuristic function that a depth-first solver backs up
+     * from the node last descended into. Does nothing by default.
+     */
+    public void ascend() {
+        // Nothing to restore by default.
+    }
+    
     /**
      * Sets the target node for this heuristic function.
      * 
@@ -0,0 +1,115 @@
+package net.coderodde.pzzlsrch.solvers;
+
+import java.util.AbstractList;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class implements a path stored as its source node and the directions
+ * in which the empty tile slides along the path, one byte per move. The nodes
+ * of the path are materialized only when the path is accessed as a list.
+ * <p>
+ * The solvers that store parent moves instead of parent nodes return their
+ * paths as instances of this class.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class MovePath<T extends PuzzleState<T>> extends AbstractList<T> {
+    
+    /**
+     * The first node of this path.
+     */
+    private final T source;
+    
+    /**
+     * The directions of the moves along this path.
+     */
+    private final byte[] moves;
+    
+    /**
+     * The nodes of this path, or <code>null</code> if not yet materialized.
+     */
+    private Object[] nodes;
+    
+    /**
+     * Constructs a path starting at <code>source</code> and following
+     * <code>moves</code>.
+     * 
+     * @param source the source node.
+     * @param moves the directions of the moves; not copied.
+     */
+    public MovePath(final T source, final byte[] moves) {
+        this.source = source;
+        this.moves = moves;
+    }
+    
+    /**
+     * Returns the source node of this path.
+     * 
+     * @return the source node.
+     */
+    public T getSource() {
+        return source;
+    }
+    
+    /**
+     * Returns the amount of moves in this path.
+     * 
+     * @return the amount of moves.
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+    
+    /**
+     * Returns the directions of the moves along this path.
+     * 
+     * @return a copy of the moves.
+     */
+    public byte[] getMoves() {
+        return moves.clone();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(final int index) {
+        if (index < 0 || index > moves.length) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of range.");
+        }
+        
+        if (nodes == null) {
+            materialize();
+        }
+        
+        return (T) nodes[index];
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return moves.length + 1;
+    }
+    
+    /**
+     * Replays the moves and stores the nodes of this path.
+     */
+    private void materialize() {
+        final Object[] array = new Object[moves.length + 1];
+        T node = source;
+        array[0] = node;
+        
+        for (int i = 0; i != moves.length; ++i) {
+            node = node.copy();
+            node.move(moves[i]);
+            array[i + 1] = node;
+        }
+        
+        nodes = array;
+    }
+}
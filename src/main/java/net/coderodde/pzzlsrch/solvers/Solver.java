@@ -1,10 +1,9 @@
 package net.coderodde.pzzlsrch.solvers;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import net.coderodde.pzzlsrch.ds.support.NodeTable;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 
 /**
  * This abstract class defines the API for solvers and some methods shared by
@@ -63,62 +62,91 @@ public abstract class Solver<T extends Iterable<T>> {
     public abstract List<T> search(final T source, final T target);
     
     /**
-     * Builds a path in unidirectional solvers.
+     * Returns, for each direction, the change in the row-by-row index of the
+     * empty tile's cell caused by a move in that direction on a board of
+     * dimension <code>n</code>.
      * 
+     * @param n the dimension of the board.
+     * 
+     * @return the offsets indexed by direction.
+     */
+    protected static int[] getMoveOffsets(final int n) {
+        final int[] offsets = new int[PuzzleState.DIRECTIONS];
+        offsets[PuzzleState.UP] = -n;
+        offsets[PuzzleState.RIGHT] = 1;
+        offsets[PuzzleState.DOWN] = n;
+        offsets[PuzzleState.LEFT] = -1;
+        return offsets;
+    }
+    
+    /**
+     * Builds a path in unidirectional solvers that store parent moves in a
+     * node table, replaying the moves backwards from <code>target</code>. The
+     * g-score of every node must equal the amount of its ancestors.
+     * 
+     * @param <S> the state type.
      * @param target the target node.
-     * @param parentMap the parent map.
+     * @param table the node table.
      * 
-     * @return a path. 
+     * @return a path.
      */
-    protected List<T> tracebackPath(final T target, final Map<T, T> parentMap) {
-        List<T> path = new ArrayList<T>();
+    protected static <S extends PuzzleState<S>> 
+        MovePath<S> tracebackPath(final S target, final NodeTable<S> table) {
+        final S node = target.copy();
+        int slot = table.find(node);
+        final byte[] moves = new byte[table.getG(slot)];
         
-        if (target == null || parentMap == null) {
-            // Return empty path.
-            return path;
+        for (int i = moves.length - 1; i >= 0; --i) {
+            final int move = table.getParentMove(slot);
+            moves[i] = (byte) move;
+            node.move(move ^ 2);
+            slot = table.find(node);
         }
         
-        T node = target;
-        
-        while (node != null) {
-            path.add(node);
-            node = parentMap.get(node);
-        }
-        
-        Collections.<T>reverse(path);
-        return path;
+        return new MovePath<S>(table.getKey(slot), moves);
     }
     
     /**
-     * Builds a path in bidirectional solvers.
+     * Builds a path in bidirectional solvers that store parent moves in node
+     * tables. The g-score of every node must equal the amount of its 
+     * ancestors.
      * 
+     * @param <S> the state type.
      * @param touch the touch node.
-     * @param parentMapA the parent map of the forward search.
-     * @param parentMapB the parent map of the backwards search.
+     * @param tableA the node table of the forward search.
+     * @param tableB the node table of the backwards search.
      * 
-     * @return a path. 
+     * @return a path.
      */
-    protected List<T> tracebackPathBidirectional(final T touch,
-                                                 final Map<T, T> parentMapA,
-                                                 final Map<T, T> parentMapB) {
-        List<T> path = new ArrayList<T>();
+    protected static <S extends PuzzleState<S>> 
+        MovePath<S> tracebackPathBidirectional(final S touch,
+                                               final NodeTable<S> tableA,
+                                               final NodeTable<S> tableB) {
+        final S node = touch.copy();
+        int slotA = tableA.find(node);
+        int slotB = tableB.find(node);
+        final int lengthA = tableA.getG(slotA);
+        final byte[] moves = new byte[lengthA + tableB.getG(slotB)];
         
-        T tmp = touch;
-        
-        while (tmp != null) {
-            path.add(tmp);
-            tmp = parentMapA.get(tmp);
+        for (int i = lengthA - 1; i >= 0; --i) {
+            final int move = tableA.getParentMove(slotA);
+            moves[i] = (byte) move;
+            node.move(move ^ 2);
+            slotA = tableA.find(node);
         }
         
-        Collections.<T>reverse(path);
-        
-        tmp = parentMapB.get(touch);
+        final S source = tableA.getKey(slotA);
+        node.copyFrom(touch);
         
-        while (tmp != null) {
-            path.add(tmp);
-            tmp = parentMapB.get(tmp);
+        // The parent moves of the backwards search point towards the touch
+        // node, so they are replayed in reverse.
+        for (int i = lengthA; i != moves.length; ++i) {
+            final int move = tableB.getParentMove(slotB) ^ 2;
+            moves[i] = (byte) move;
+            node.move(move);
+            slotB = tableB.find(node);
         }
         
-        return path;
+        return new MovePath<S>(source, moves);
     }
 }
@@ -1,11 +1,11 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import net.coderodde.pzzlsrch.ds.support.NodeTable;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.Solver;
 import static net.coderodde.pzzlsrch.Utils.checkNotNull;
@@ -17,12 +17,12 @@ import static net.coderodde.pzzlsrch.Utils.checkNotNull;
  * @author Rodion Efremov
  * @version 1.0
  */
-public class BFSSolver<T extends Iterable<T>> extends Solver<T> {
+public class BFSSolver<T extends PuzzleState<T>> extends Solver<T> {
 
     /**
-     * The parent map of this solver.
+     * The table holding the depth and the parent move of every visited node.
      */
-    private Map<T, T> parentMap = new HashMap<T, T>();
+    private NodeTable<T> table = new NodeTable<T>();
 
     public Solver<T> setHeuristicFunction(final HeuristicFunction<T> h) {
         // Just ignore.
@@ -33,27 +33,62 @@ public class BFSSolver<T extends Iterable<T>> extends Solver<T> {
         checkNotNull(source, "Source is null.");
         checkNotNull(target, "Target is null.");
         
-        parentMap.clear();
-        parentMap.put(source, null);
+        table.clear();
+        table.insert(source, 0, PuzzleState.NONE);
      
-        Deque<T> queue = new LinkedList<T>();
+        Deque<T> queue = new ArrayDeque<T>();
         queue.addLast(source);
         
+        final T scratch = source.copy();
+        
         while (queue.size() > 0) {
             final T current = queue.removeFirst();
             
             if (current.equals(target)) {
-                return tracebackPath(target, parentMap);
+                return tracebackPath(current, table);
             }
             
-            for (final T neighbour : current) {
-                if (parentMap.containsKey(neighbour) == false) {
-                    parentMap.put(neighbour, current);
-                    queue.addLast(neighbour);
-                }
-            }
+            expand(current, scratch, table, queue);
         }
         
         return Collections.<T>emptyList();
     }
+    
+    /**
+     * Appends the unvisited neighbours of <code>current</code> to 
+     * <code>queue</code>. The neighbours are generated in place in 
+     * <code>scratch</code> and copied only when they are stored.
+     * 
+     * @param current the node to expand.
+     * @param scratch the work node.
+     * @param table the node table of the search direction.
+     * @param queue the queue of the search direction.
+     */
+    static <T extends PuzzleState<T>> void expand(final T current,
+                                                  final T scratch,
+                                                  final NodeTable<T> table,
+                                                  final Deque<T> queue) {
+        final int slot = table.find(current);
+        final int depth = table.getG(slot) + 1;
+        final int undo = table.getParentMove(slot) ^ 2;
+        scratch.copyFrom(current);
+        
+        for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+            if (d == undo || scratch.canMove(d) == false) {
+                continue;
+            }
+            
+            scratch.move(d);
+            
+            final int s = table.find(scratch);
+            
+            if (s < 0) {
+                final T neighbour = scratch.copy();
+                table.insert(s, neighbour, depth, d);
+                queue.addLast(neighbour);
+            }
+            
+            scratch.move(d ^ 2);
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+/**
+ * This interface defines the API for the kernels evaluating a heuristic
+ * function over a batch of nodes laid out back to back, each row by row.
+ * A kernel may leave the last nodes of a batch to the caller, for instance
+ * when it would read past the end of the array.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+interface BatchKernel {
+    
+    /**
+     * Gets the estimates of the leading nodes of a batch.
+     * 
+     * @param tiles the tiles of the nodes.
+     * @param count the amount of nodes.
+     * @param estimates the array to store the estimates to.
+     * 
+     * @return the amount of leading nodes evaluated.
+     */
+    int getAll(byte[] tiles, int count, int[] estimates);
+}
@@ -1,14 +1,14 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import net.coderodde.pzzlsrch.ds.support.NodeTable;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 import net.coderodde.pzzlsrch.solvers.Solver;
 import static net.coderodde.pzzlsrch.Utils.checkNotNull;
+import static net.coderodde.pzzlsrch.solvers.support.BFSSolver.expand;
 
 /**
  * This class implements a solver based on bidirectional breadth-first search.
@@ -17,30 +17,33 @@ import static net.coderodde.pzzlsrch.Utils.checkNotNull;
  * @param <T> the node type.
  * @version 1.0
  */
-public class BidirectionalBFSSolver<T extends Iterable<T>> extends Solver<T> {
+public class BidirectionalBFSSolver<T extends PuzzleState<T>> 
+extends Solver<T> {
 
     /**
-     * The forward parent map of this solver.
+     * The node table of the forward search.
      */
-    private Map<T, T> parentMapA = new HashMap<T, T>();
+    private NodeTable<T> tableA = new NodeTable<T>();
     
     /**
-     * The backward parent map of this solver.
+     * The node table of the backwards search.
      */
-    private Map<T, T> parentMapB = new HashMap<T, T>();
+    private NodeTable<T> tableB = new NodeTable<T>();
     
     @Override
     public List<T> search(final T source, final T target) {
         checkNotNull(source, "Source is null.");
         checkNotNull(target, "Target is null.");
-        parentMapA.clear();
-        parentMapB.clear();
+        tableA.clear();
+        tableB.clear();
         
-        parentMapA.put(source, null);
-        parentMapB.put(target, null);
+        tableA.insert(source, 0, PuzzleState.NONE);
+        tableB.insert(target, 0, PuzzleState.NONE);
         
-        Deque<T> queueA = new LinkedList<T>();
-        Deque<T> queueB = new LinkedList<T>();
+        Deque<T> queueA = new ArrayDeque<T>();
+        Deque<T> queueB = new ArrayDeque<T>();
+        
+        final T scratch = source.copy();
         
         queueA.addLast(source);
         queueB.addLast(target);
@@ -48,33 +51,23 @@ public class BidirectionalBFSSolver<T extends Iterable<T>> extends Solver<T> {
         while (queueA.size() != 0 && queueB.size() != 0) {
             T current = queueA.removeFirst();
             
-            if (parentMapB.containsKey(current)) {
+            if (tableB.find(current) >= 0) {
                 return tracebackPathBidirectional(current, 
-                                                  parentMapA, 
-                                                  parentMapB);
+                                                  tableA, 
+                                                  tableB);
             }
             
-            for (final T neighbour : current) {
-                if (parentMapA.containsKey(neighbour) == false) {
-                    parentMapA.put(neighbour, current);
-                    queueA.addLast(neighbour);
-                }
-            }
+            expand(current, scratch, tableA, queueA);
             
             current = queueB.removeFirst();
             
-            if (parentMapA.containsKey(current)) {
+            if (tableA.find(current) >= 0) {
                 return tracebackPathBidirectional(current, 
-                                                  parentMapA,
-                                                  parentMapB);
+                                                  tableA,
+                                                  tableB);
             }
             
-            for (final T neighbour : current) {
-                if (parentMapB.containsKey(neighbour) == false) {
-                    parentMapB.put(neighbour, current);
-                    queueB.addLast(neighbour);
-                }
-            }
+            expand(current, scratch, tableB, queueB);
         }
         
         return Collections.<T>emptyList();
@@ -1,13 +1,11 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
 import net.coderodde.pzzlsrch.ds.support.DAryHeap;
+import net.coderodde.pzzlsrch.ds.support.NodeTable;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.Solver;
 
@@ -18,7 +16,7 @@ import net.coderodde.pzzlsrch.solvers.Solver;
  * @version 1.0
  * @param <T> the node type.
  */
-public class BidirectionalHeuristicBFSSolver<T extends Iterable<T>> 
+public class BidirectionalHeuristicBFSSolver<T extends PuzzleState<T>> 
 extends Solver<T> {
     
     /**
@@ -31,16 +29,6 @@ extends Solver<T> {
      */
     private HeuristicFunction<T> hb;
 
-    /**
-     * The closed set of the forward search.
-     */
-    private Set<T> CLOSEDA = new HashSet<T>();
-    
-    /**
-     * The closed set of the backwards search.
-     */
-    private Set<T> CLOSEDB = new HashSet<T>();
-    
     /**
      * The priority queue of forwards search.
      */
@@ -52,24 +40,14 @@ extends Solver<T> {
     private IntegerPriorityQueue<T> OPENB = new DAryHeap<T>();
     
     /**
-     * The map holding g-scores in forward search.
-     */
-    private Map<T, Integer> distanceMapA = new HashMap<T, Integer>();
-    
-    /**
-     * The map holding g-scores in backwards search.
-     */
-    private Map<T, Integer> distanceMapB = new HashMap<T, Integer>();
-    
-    /**
-     * The parent map in forward search.
+     * The g-scores, parent moves and closed flags of the forward search.
      */
-    private Map<T, T> parentMapA = new HashMap<T, T>();
+    private NodeTable<T> tableA = new NodeTable<T>();
     
     /**
-     * The parent map in backwards search.
+     * The g-scores, parent moves and closed flags of the backwards search.
      */
-    private Map<T, T> parentMapB = new HashMap<T, T>();
+    private NodeTable<T> tableB = new NodeTable<T>();
     
     /**
      * Sets the forwards search heuristic.
@@ -112,117 +90,139 @@ extends Solver<T> {
         OPENA.clear();
         OPENB.clear();
         
-        CLOSEDA.clear();
-        CLOSEDB.clear();
-        
-        parentMapA.clear();
-        parentMapB.clear();
-        
-        distanceMapA.clear();
-        distanceMapB.clear();
+        tableA.clear();
+        tableB.clear();
         
         OPENA.add(source, hf.get(source));
         OPENB.add(target, hb.get(target));
         
-        parentMapA.put(source, null);
-        parentMapB.put(target, null);
+        tableA.insert(source, 0, PuzzleState.NONE);
+        tableB.insert(target, 0, PuzzleState.NONE);
         
-        distanceMapA.put(source, 0);
-        distanceMapB.put(target, 0);
+        // The successors are generated in place in this state; a copy is made
+        // only for the successors that are stored.
+        final T scratch = source.copy();
+        final int[] offsets = getMoveOffsets(source.getDimension());
         
         T touch = null;
         int m = Integer.MAX_VALUE;
         
         while (OPENA.size() * OPENB.size() != 0) {
             if (touch != null) {
-                int m1 = distanceMapA.get(OPENA.min()) + hf.get(OPENA.min());
-                int m2 = distanceMapB.get(OPENB.min()) + hb.get(OPENB.min());
+                int m1 = OPENA.getMinimumPriority();
+                int m2 = OPENB.getMinimumPriority();
                 
                 if (m <= Math.max(m1, m2)) {
-                    return tracebackPathBidirectional(touch, 
-                                                      parentMapA, 
-                                                      parentMapB);
+                    return tracebackPathBidirectional(touch, tableA, tableB);
                 }
             }
             
+            int f = OPENA.getMinimumPriority();
             T current = OPENA.extractMinimum();
+            int slot = tableA.find(current);
+            tableA.close(slot);
             
-            CLOSEDA.add(current);
+            int h = f - tableA.getG(slot);
+            int tmpg = tableA.getG(slot) + 1;
+            int undo = tableA.getParentMove(slot) ^ 2;
+            scratch.copyFrom(current);
+            int blank = scratch.getBlankY() * scratch.getDimension()
+                      + scratch.getBlankX();
             
-            for (final T neighbour : current) {
-                if (CLOSEDA.contains(neighbour)) {
+            for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                if (d == undo || scratch.canMove(d) == false) {
                     continue;
                 }
                 
-                int tmpg = distanceMapA.get(current) + 1;
+                final int tile = scratch.move(d);
+                final int s = tableA.find(scratch);
+                T neighbour = null;
                 
-                if (parentMapA.containsKey(neighbour) == false) {
-                    OPENA.add(neighbour, tmpg + hf.get(neighbour));
-                    parentMapA.put(neighbour, current);
-                    distanceMapA.put(neighbour, tmpg);
-                    
-                    if (CLOSEDB.contains(neighbour)) {
-                        if (m > tmpg + distanceMapB.get(neighbour)) {
-                            m = tmpg + distanceMapB.get(neighbour);
-                            touch = neighbour;
-                        }
-                    }
-                } else if (tmpg < distanceMapA.get(neighbour)) {
-                    OPENA.decreasePriority(neighbour, tmpg + hf.get(neighbour));
-                    parentMapA.put(neighbour, current);
-                    distanceMapA.put(neighbour, tmpg);
+                if (s < 0) {
+                    neighbour = scratch.copy();
+                    tableA.insert(s, neighbour, tmpg, d);
+                    OPENA.add(neighbour,
+                              tmpg + hf.get(neighbour, h, tile,
+                                            blank + offsets[d], blank));
+                } else if (tableA.isClosed(s) == false 
+                        && tmpg < tableA.getG(s)) {
+                    neighbour = tableA.getKey(s);
+                    tableA.setG(s, tmpg);
+                    tableA.setParentMove(s, d);
+                    OPENA.decreasePriority(neighbour,
+                                           tmpg + hf.get(neighbour, h, tile,
+                                                         blank + offsets[d],
+                                                         blank));
+                }
+                
+                if (neighbour != null) {
+                    final int t = tableB.find(neighbour);
                     
-                    if (CLOSEDB.contains(neighbour)) {
-                        if (m > tmpg + distanceMapB.get(neighbour)) {
-                            m = tmpg + distanceMapB.get(neighbour);
-                            touch = neighbour;
-                        }
+                    if (t >= 0 && tableB.isClosed(t) 
+                            && m > tmpg + tableB.getG(t)) {
+                        m = tmpg + tableB.getG(t);
+                        touch = neighbour;
                     }
                 }
+                
+                scratch.move(d ^ 2);
             }
             
+            f = OPENB.getMinimumPriority();
             current = OPENB.extractMinimum();
+            slot = tableB.find(current);
+            tableB.close(slot);
             
-            CLOSEDB.add(current);
+            h = f - tableB.getG(slot);
+            tmpg = tableB.getG(slot) + 1;
+            undo = tableB.getParentMove(slot) ^ 2;
+            scratch.copyFrom(current);
+            blank = scratch.getBlankY() * scratch.getDimension()
+                  + scratch.getBlankX();
             
-            for (final T neighbour : current) {
-                if (CLOSEDB.contains(neighbour)) {
+            for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                if (d == undo || scratch.canMove(d) == false) {
                     continue;
                 }
                 
-                int tmpg = distanceMapB.get(current) + 1;
+                final int tile = scratch.move(d);
+                final int s = tableB.find(scratch);
+                T neighbour = null;
                 
-                if (parentMapB.containsKey(neighbour) == false) {
-                    OPENB.add(neighbour, tmpg + hb.get(neighbour));
-                    parentMapB.put(neighbour, current);
-                    distanceMapB.put(neighbour, tmpg);
+                if (s < 0) {
+                    neighbour = scratch.copy();
+                    tableB.insert(s, neighbour, tmpg, d);
+                    OPENB.add(neighbour,
+                              tmpg + hb.get(neighbour, h, tile,
+                                            blank + offsets[d], blank));
+                } else if (tableB.isClosed(s) == false 
+                        && tmpg < tableB.getG(s)) {
+                    neighbour = tableB.getKey(s);
+                    tableB.setG(s, tmpg);
+                    tableB.setParentMove(s, d);
+                    OPENB.decreasePriority(neighbour,
+                                           tmpg + hb.get(neighbour, h, tile,
+                                                         blank + offsets[d],
+                                                         blank));
+                }
+                
+                if (neighbour != null) {
+                    final int t = tableA.find(neighbour);
                     
-                    if (CLOSEDA.contains(neighbour)) {
-                        if (m > tmpg + distanceMapA.get(neighbour)) {
-                            m = tmpg + distanceMapA.get(neighbour);
-                            touch = neighbour;
-                        }
+                    if (t >= 0 && tableA.isClosed(t) 
+                            && m > tmpg + tableA.getG(t)) {
+                        m = tmpg + tableA.getG(t);
+                        touch = neighbour;
                     }
-                } else if (tmpg < distanceMapB.get(neighbour)) {
-                   OPENB.decreasePriority(neighbour, tmpg + hb.get(neighbour));
-                   parentMapB.put(neighbour, current);
-                   distanceMapB.put(neighbour, tmpg);
-                   
-                   if (CLOSEDA.contains(neighbour)) {
-                       if (m > tmpg + distanceMapA.get(neighbour)) {
-                           m = tmpg + distanceMapA.get(neighbour);
-                           touch = neighbour;
-                       }
-                   }
                 }
+                
+                scratch.move(d ^ 2);
             }
         }
         
         if (touch != null) {
             System.out.println("FUNKKKKEEE");
-            return tracebackPathBidirectional(touch, 
-                                              parentMapA, 
-                                              parentMapB);
+            return tracebackPathBidirectional(touch, tableA, tableB);
         }
         
         return Collections.<T>emptyList();
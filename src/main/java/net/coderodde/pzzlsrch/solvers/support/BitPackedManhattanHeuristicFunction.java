@@ -0,0 +1,70 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.BitPackedPuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the Manhattan distance heuristic for bit packed
+ * states; see {@link ManhattanTable}.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BitPackedManhattanHeuristicFunction
+extends HeuristicFunction<BitPackedPuzzleState> {
+    
+    /**
+     * The distance of each tile from each cell; see {@link ManhattanTable}.
+     */
+    private int[] distances;
+    
+    /**
+     * The amount of cells.
+     */
+    private int cells;
+    
+    @Override
+    public BitPackedManhattanHeuristicFunction
+        withTarget(final BitPackedPuzzleState target) {
+        super.withTarget(target);
+        this.distances = ManhattanTable.create(target);
+        this.cells = target.getDimension() * target.getDimension();
+        return this;
+    }
+    
+    @Override
+    public int get(final BitPackedPuzzleState state) {
+        final int N = state.getDimension();
+        int h = 0;
+        
+        for (int y = 0, cell = 0; y != N; ++y) {
+            for (int x = 0; x != N; ++x, ++cell) {
+                h += distances[state.get(x, y) * cells + cell];
+            }
+        }
+        
+        return h;
+    }
+    
+    @Override
+    public int get(final BitPackedPuzzleState state,
+                   final int parentH,
+                   final int tile,
+                   final int from,
+                   final int to) {
+        final int offset = tile * cells;
+        return parentH + distances[offset + to] - distances[offset + from];
+    }
+    
+    @Override
+    public int get(final BitPackedPuzzleState s1, 
+                   final BitPackedPuzzleState s2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public HeuristicFunction<BitPackedPuzzleState> newInstance() {
+        return new BitPackedManhattanHeuristicFunction();
+    }
+}
@@ -0,0 +1,243 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import static net.coderodde.pzzlsrch.Utils.checkNotNull;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class wraps a heuristic function with a direct-mapped cache of its
+ * estimates, so that the searches evaluating the same node over and over
+ * again compute each estimate only once as long as it stays in the cache.
+ * A new estimate replaces the one in its slot.
+ * <p>
+ * The nodes are keyed by a 64-bit fingerprint: the packed board of a
+ * {@link PackedPuzzleState}, which is exact, the Zobrist hash of a
+ * {@link PuzzleNode}, or a hash of the tiles of any other node. The wrapped
+ * function is used statelessly, through {@link #get(PuzzleState)} and
+ * {@link #get(PuzzleState, int, int, int, int)} only.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class CachingHeuristicFunction<T extends PuzzleState<T>>
+extends HeuristicFunction<T> {
+    
+    /**
+     * The default amount of slots.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    
+    /**
+     * The marker of an empty slot.
+     */
+    private static final int EMPTY = -1;
+    
+    /**
+     * The wrapped heuristic function.
+     */
+    private final HeuristicFunction<T> hf;
+    
+    /**
+     * The fingerprint of the node cached in each slot.
+     */
+    private final long[] keys;
+    
+    /**
+     * The estimate cached in each slot, or {@link #EMPTY}.
+     */
+    private final int[] values;
+    
+    /**
+     * The amount of bits in a slot index.
+     */
+    private final int bits;
+    
+    /**
+     * The amount of estimates found in the cache.
+     */
+    private long hits;
+    
+    /**
+     * The amount of estimates computed by the wrapped function.
+     */
+    private long misses;
+    
+    /**
+     * Constructs a cache of {@link #DEFAULT_CAPACITY} slots over
+     * <code>hf</code>.
+     * 
+     * @param hf the heuristic function to wrap.
+     */
+    public CachingHeuristicFunction(final HeuristicFunction<T> hf) {
+        this(hf, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a cache over <code>hf</code>.
+     * 
+     * @param hf the heuristic function to wrap.
+     * @param capacity the least amount of slots, rounded up to a power of
+     * two.
+     * 
+     * @throws IllegalArgumentException if <code>capacity</code> is not
+     * positive or too large.
+     */
+    public CachingHeuristicFunction(final HeuristicFunction<T> hf,
+                                    final int capacity) {
+        checkNotNull(hf, "Heuristic function is null.");
+        
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(
+                    "Invalid capacity: " + capacity + ".");
+        }
+        
+        this.hf = hf;
+        this.bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        this.keys = new long[1 << bits];
+        this.values = new int[1 << bits];
+        Arrays.fill(values, EMPTY);
+    }
+    
+    /**
+     * Sets the target node and empties the cache.
+     * 
+     * @param target the target node.
+     * 
+     * @return this for chaining.
+     */
+    @Override
+    public CachingHeuristicFunction<T> withTarget(final T target) {
+        super.withTarget(target);
+        hf.withTarget(target);
+        Arrays.fill(values, EMPTY);
+        return this;
+    }
+    
+    @Override
+    public int get(final T t) {
+        final long key = getKey(t);
+        final int slot = getSlot(key);
+        
+        if (values[slot] != EMPTY && keys[slot] == key) {
+            ++hits;
+            return values[slot];
+        }
+        
+        ++misses;
+        keys[slot] = key;
+        return values[slot] = hf.get(t);
+    }
+    
+    @Override
+    public int get(final T t,
+                  final int parentH,
+                  final int tile,
+                  final int from,
+                  final int to) {
+        final long key = getKey(t);
+        final int slot = getSlot(key);
+        
+        if (values[slot] != EMPTY && keys[slot] == key) {
+            ++hits;
+            return values[slot];
+        }
+        
+        ++misses;
+        keys[slot] = key;
+        return values[slot] = hf.get(t, parentH, tile, from, to);
+    }
+    
+    @Override
+    public int get(final T t1, final T t2) {
+        return hf.get(t1, t2);
+    }
+    
+    /**
+     * Returns the amount of estimates found in the cache.
+     * 
+     * @return the amount of hits.
+     */
+    public long getHitCount() {
+        return hits;
+    }
+    
+    /**
+     * Returns the amount of estimates computed by the wrapped function.
+     * 
+     * @return the amount of misses.
+     */
+    public long getMissCount() {
+        return misses;
+    }
+    
+    /**
+     * Returns the share of the estimates found in the cache.
+     * 
+     * @return the hit rate between 0 and 1, or 0 if nothing was looked up.
+     */
+    public double getHitRate() {
+        return hits + misses == 0L ? 0.0 : (double) hits / (hits + misses);
+    }
+    
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetStatistics() {
+        hits = 0L;
+        misses = 0L;
+    }
+    
+    /**
+     * Spawns a new function with an empty cache of the same capacity over a
+     * new instance of the wrapped function.
+     * 
+     * @return a new heuristic function.
+     */
+    @Override
+    public CachingHeuristicFunction<T> newInstance() {
+        return new CachingHeuristicFunction<T>(hf.newInstance(), keys.length);
+    }
+    
+    /**
+     * Returns the slot of a fingerprint by Fibonacci hashing.
+     * 
+     * @param key the fingerprint.
+     * 
+     * @return the slot index.
+     */
+    private int getSlot(final long key) {
+        return bits == 0 ? 0 : (int)((key * 0x9e3779b97f4a7c15L) >>> -bits);
+    }
+    
+    /**
+     * Returns the fingerprint of a node.
+     * 
+     * @param t the node.
+     * 
+     * @return the fingerprint.
+     */
+    private static long getKey(final PuzzleState<?> t) {
+        if (t instanceof PackedPuzzleState) {
+            return ((PackedPuzzleState) t).getTiles();
+        }
+        
+        if (t instanceof PuzzleNode) {
+            return ((PuzzleNode) t).getZobristHash();
+        }
+        
+        final int n = t.getDimension();
+        long key = 0xcbf29ce484222325L;
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                key = (key ^ t.get(x, y)) * 0x100000001b3L;
+            }
+        }
+        
+        return key;
+    }
+}
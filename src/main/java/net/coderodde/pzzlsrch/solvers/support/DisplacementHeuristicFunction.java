@@ -1,5 +1,7 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import net.coderodde.pzzlsrch.model.PuzzleNode;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 import static net.coderodde.pzzlsrch.Utils.checkDimensions;
@@ -11,6 +13,68 @@ import static net.coderodde.pzzlsrch.Utils.checkDimensions;
 public class DisplacementHeuristicFunction 
 extends HeuristicFunction<PuzzleNode> {
 
+    /**
+     * The low seven bits of every byte of a word.
+     */
+    private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+    
+    /**
+     * The high bit of every byte of a word.
+     */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    
+    /**
+     * The tiles of the target, row by row.
+     */
+    private byte[] targetTiles;
+    
+    /**
+     * The tiles of the target, eight per word in big-endian order.
+     */
+    private long[] targetWords;
+    
+    /**
+     * Whether {@link #getAll(byte[], int, int[])} compares several cells at
+     * a time.
+     */
+    private boolean vectorization = true;
+    
+    /**
+     * The Vector API kernel, or <code>null</code> if the API is not
+     * available.
+     */
+    private BatchKernel kernel;
+    
+    @Override
+    public DisplacementHeuristicFunction withTarget(final PuzzleNode pn) {
+        super.withTarget(pn);
+        
+        final int cells = pn.getDimension() * pn.getDimension();
+        final byte[] padded = new byte[(cells + 7) & ~7];
+        
+        pn.copyTiles(padded, 0);
+        this.targetTiles = Arrays.copyOf(padded, cells);
+        this.targetWords = new long[padded.length >>> 3];
+        ByteBuffer.wrap(padded).asLongBuffer().get(targetWords);
+        this.kernel = VectorKernels.newDisplacementKernel(targetTiles);
+        
+        return this;
+    }
+    
+    /**
+     * Sets whether {@link #getAll(byte[], int, int[])} compares several
+     * cells at a time, or one by one.
+     * 
+     * @param vectorization whether to compare several cells at a time.
+     * 
+     * @return this for chaining.
+     */
+    public DisplacementHeuristicFunction withVectorization(
+            final boolean vectorization) {
+        this.vectorization = vectorization;
+        return this;
+    }
+    
     @Override
     public int get(final PuzzleNode pn) {
         return get(pn, target);
@@ -33,9 +97,67 @@ extends HeuristicFunction<PuzzleNode> {
         
         return h;
     }
+    
+    /**
+     * Gets the estimates of a batch of nodes laid out back to back in
+     * <code>tiles</code>, each row by row as by
+     * {@link PuzzleNode#copyTiles(byte[], int)}.
+     * <p>
+     * With vectorization, the nodes are evaluated by the Vector API kernel
+     * if {@link VectorKernels#isAvailable()}, a whole vector of cells at a
+     * time. The rest of the nodes are evaluated eight cells at a time within
+     * a <code>long</code>: the bytes of the exclusive or of eight cells and
+     * the matching target cells are nonzero exactly at the displaced cells,
+     * and setting the high bit of every nonzero byte reduces the count to a
+     * single bit count.
+     * 
+     * @param tiles the tiles of the nodes.
+     * @param count the amount of nodes.
+     * @param estimates the array to store the estimates to.
+     * 
+     * @throws IllegalArgumentException if the arrays are too short.
+     */
+    public void getAll(final byte[] tiles,
+                       final int count,
+                       final int[] estimates) {
+        final int cells = targetTiles.length;
+        
+        if (tiles.length < (long) count * cells || estimates.length < count) {
+            throw new IllegalArgumentException(
+                    "The arrays are too short for " + count + " nodes.");
+        }
+        
+        final ByteBuffer buffer = ByteBuffer.wrap(tiles);
+        final int words = vectorization ? cells >>> 3 : 0;
+        final int start = vectorization && kernel != null ?
+                          kernel.getAll(tiles, count, estimates) :
+                          0;
+        int base = start * cells;
+        
+        for (int k = start; k != count; ++k, base += cells) {
+            int h = 0;
+            
+            for (int w = 0; w != words; ++w) {
+                final long x = buffer.getLong(base + (w << 3))
+                             ^ targetWords[w];
+                
+                h += Long.bitCount((((x & LOW_BITS) + LOW_BITS) | x)
+                                   & HIGH_BITS);
+            }
+            
+            for (int i = words << 3; i != cells; ++i) {
+                if (tiles[base + i] != targetTiles[i]) {
+                    ++h;
+                }
+            }
+            
+            estimates[k] = h;
+        }
+    }
 
     @Override
     public HeuristicFunction<PuzzleNode> newInstance() {
-        return new DisplacementHeuristicFunction();
+        return new DisplacementHeuristicFunction()
+                   .withVectorization(vectorization);
     }
 }
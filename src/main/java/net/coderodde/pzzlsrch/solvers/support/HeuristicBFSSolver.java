@@ -1,37 +1,49 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import static net.coderodde.pzzlsrch.Utils.checkNotNull;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import net.coderodde.pzzlsrch.ds.TieBreakingPriorityQueue;
 import net.coderodde.pzzlsrch.ds.support.DAryHeap;
+import net.coderodde.pzzlsrch.ds.support.NodeTable;
+import net.coderodde.pzzlsrch.model.PuzzleState;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 import net.coderodde.pzzlsrch.solvers.Solver;
 
 /**
- * This class implements heuristic breadth-first search.
+ * This class implements heuristic breadth-first search. If the priority
+ * queue is a {@link TieBreakingPriorityQueue}, the g-score of every node is
+ * passed along with its f-score, so that the ties are broken in favour of the
+ * nodes closer to the target.
+ * <p>
+ * In the lazy-deletion mode the priority queue keeps no index of its
+ * elements. A node reached along a shorter path is added once more instead
+ * of having its priority decreased; the new entry has the lower f-score and
+ * is extracted first, so the entries of closed nodes are stale and skipped.
  * 
  * @author Rodion Efremov
  * @param <T> the node type.
  */
-public class HeuristicBFSSolver<T extends Iterable<T>> extends Solver<T> {
+public class HeuristicBFSSolver<T extends PuzzleState<T>> extends Solver<T> {
 
     /**
      * The heuristic function implementation.
      */
     private HeuristicFunction<T> hf;
     
-    private Map<T, T> parentMap = new HashMap<T, T>();
-    
-    private Map<T, Integer> distanceMap = new HashMap<T, Integer>();
+    /**
+     * The table holding the g-score, the parent move and the closed flag of
+     * every generated node.
+     */
+    private NodeTable<T> table = new NodeTable<T>();
     
     private IntegerPriorityQueue<T> OPEN = new DAryHeap<T>();
     
-    private Set<T> CLOSED = new HashSet<T>();
+    /**
+     * Whether the priority queue is used in the lazy-deletion mode.
+     */
+    private boolean lazyDeletion;
     
     @Override
     public HeuristicFunction<T> getHeuristicFunction() {
@@ -46,7 +58,21 @@ public class HeuristicBFSSolver<T extends Iterable<T>> extends Solver<T> {
     
     @Override
     public Solver<T> withPriorityQueue(final IntegerPriorityQueue<T> queue) {
-        OPEN = queue.newInstance();
+        OPEN = lazyDeletion ? queue.newLazyInstance() : queue.newInstance();
+        return this;
+    }
+    
+    /**
+     * Sets whether the priority queue is used in the lazy-deletion mode.
+     * 
+     * @param lazyDeletion whether to add the nodes reached along shorter
+     * paths anew instead of decreasing their priority.
+     * 
+     * @return this for chaining.
+     */
+    public HeuristicBFSSolver<T> withLazyDeletion(final boolean lazyDeletion) {
+        this.lazyDeletion = lazyDeletion;
+        OPEN = lazyDeletion ? OPEN.newLazyInstance() : OPEN.newInstance();
         return this;
     }
 
@@ -58,41 +84,90 @@ public class HeuristicBFSSolver<T extends Iterable<T>> extends Solver<T> {
         checkNotNull(target, "Target is null.");
         
         OPEN.clear();
-        CLOSED.clear();
-        parentMap.clear();
-        distanceMap.clear();
+        table.clear();
         
         hf.withTarget(target);
         
+        final TieBreakingPriorityQueue<T> tieBreakingOPEN =
+                OPEN instanceof TieBreakingPriorityQueue ?
+                        (TieBreakingPriorityQueue<T>) OPEN :
+                        null;
+        
         OPEN.add(source, hf.get(source));
-        parentMap.put(source, null);
-        distanceMap.put(source, 0);
+        table.insert(source, 0, PuzzleState.NONE);
+        
+        // The successors are generated in place in this state; a copy is made
+        // only for the successors that are stored.
+        final T scratch = source.copy();
+        final int[] offsets = getMoveOffsets(source.getDimension());
         
         while (OPEN.size() > 0) {
+            final int f = OPEN.getMinimumPriority();
             T current = OPEN.extractMinimum();
             
             if (current.equals(target)) {
-                return tracebackPath(target, parentMap);
+                return tracebackPath(current, table);
             }
             
-            CLOSED.add(current);
+            final int slot = table.find(current);
+            
+            if (lazyDeletion && table.isClosed(slot)) {
+                continue;
+            }
             
-            for (final T neighbour : current) {
-                if (CLOSED.contains(neighbour)) {
+            table.close(slot);
+            
+            final int h = f - table.getG(slot);
+            final int tmpg = table.getG(slot) + 1;
+            final int undo = table.getParentMove(slot) ^ 2;
+            scratch.copyFrom(current);
+            
+            final int blank = scratch.getBlankY() * scratch.getDimension()
+                            + scratch.getBlankX();
+            
+            for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                if (d == undo || scratch.canMove(d) == false) {
                     continue;
                 }
                 
-                int tmpg = distanceMap.get(current) + 1;
+                final int tile = scratch.move(d);
+                final int s = table.find(scratch);
                 
-                if (parentMap.containsKey(neighbour) == false) {
-                    parentMap.put(neighbour, current);
-                    distanceMap.put(neighbour, distanceMap.get(current) + 1);
-                    OPEN.add(neighbour, tmpg + hf.get(neighbour));
-                } else if (tmpg < distanceMap.get(neighbour)) {
-                    parentMap.put(neighbour, current);
-                    distanceMap.put(neighbour, tmpg);
-                    OPEN.decreasePriority(neighbour, tmpg + hf.get(neighbour));
+                if (s < 0) {
+                    final T neighbour = scratch.copy();
+                    final int tmpf = tmpg + hf.get(neighbour, h, tile,
+                                                   blank + offsets[d], blank);
+                    table.insert(s, neighbour, tmpg, d);
+                    
+                    if (tieBreakingOPEN != null) {
+                        tieBreakingOPEN.add(neighbour, tmpf, tmpg);
+                    } else {
+                        OPEN.add(neighbour, tmpf);
+                    }
+                } else if (table.isClosed(s) == false
+                        && tmpg < table.getG(s)) {
+                    final T neighbour = table.getKey(s);
+                    final int tmpf = tmpg + hf.get(neighbour, h, tile,
+                                                   blank + offsets[d], blank);
+                    table.setG(s, tmpg);
+                    table.setParentMove(s, d);
+                    
+                    if (lazyDeletion) {
+                        if (tieBreakingOPEN != null) {
+                            tieBreakingOPEN.add(neighbour, tmpf, tmpg);
+                        } else {
+                            OPEN.add(neighbour, tmpf);
+                        }
+                    } else if (tieBreakingOPEN != null) {
+                        tieBreakingOPEN.decreasePriority(neighbour,
+                                                         tmpf,
+                                                         tmpg);
+                    } else {
+                        OPEN.decreasePriority(neighbour, tmpf);
+                    }
                 }
+                
+                scratch.move(d ^ 2);
             }
         }
         
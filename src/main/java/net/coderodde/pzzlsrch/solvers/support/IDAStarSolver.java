@@ -0,0 +1,203 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static net.coderodde.pzzlsrch.Utils.checkNotNull;
+import net.coderodde.pzzlsrch.model.PermutationRanker;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.MovePath;
+import net.coderodde.pzzlsrch.solvers.Solver;
+
+/**
+ * This class implements the iterative deepening A* (IDA*). Every iteration
+ * is a depth-first search bounded by the f-score, run on a single mutable
+ * state that is modified and restored with in-place moves. The move leading
+ * back to the parent is never generated. Apart from the move stack, the
+ * memory use does not depend on the amount of expanded nodes.
+ * <p>
+ * As the deepening would never end on an unreachable target, the parity of
+ * the source and the target is compared before searching.
+ * <p>
+ * The returned path is optimal if the heuristic function is admissible.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class IDAStarSolver<T extends PuzzleState<T>> extends Solver<T> {
+    
+    /**
+     * Returned by the depth-first search once the target is found.
+     */
+    private static final int FOUND = -1;
+    
+    /**
+     * The heuristic function implementation.
+     */
+    private HeuristicFunction<T> hf;
+    
+    /**
+     * The state modified by the depth-first search.
+     */
+    private T state;
+    
+    /**
+     * The target state.
+     */
+    private T target;
+    
+    /**
+     * The change of the cell index of the empty tile caused by each move.
+     */
+    private int[] offsets;
+    
+    /**
+     * The directions of the moves leading from the source to
+     * <code>state</code>.
+     */
+    private byte[] moves;
+    
+    /**
+     * The length of the found path.
+     */
+    private int length;
+    
+    /**
+     * The f-score bound of the current iteration.
+     */
+    private int bound;
+    
+    /**
+     * The amount of nodes generated in the last search.
+     */
+    private long nodeCount;
+    
+    @Override
+    public HeuristicFunction<T> getHeuristicFunction() {
+        return hf;
+    }
+    
+    @Override
+    public IDAStarSolver<T> withHeuristicFunction(
+            final HeuristicFunction<T> hf) {
+        this.hf = hf;
+        return this;
+    }
+    
+    /**
+     * Returns the amount of nodes generated in the last search.
+     * 
+     * @return the amount of generated nodes.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+    
+    @Override
+    public List<T> search(final T source, final T target) {
+        checkNotNull(hf, "Heuristic function is null.");
+        checkNotNull(source, "Source is null.");
+        checkNotNull(target, "Target is null.");
+        
+        if (PermutationRanker.isReachable(source, target) == false) {
+            nodeCount = 0L;
+            return Collections.<T>emptyList();
+        }
+        
+        hf.withTarget(target);
+        
+        this.state = source.copy();
+        this.target = target;
+        this.offsets = getMoveOffsets(source.getDimension());
+        this.nodeCount = 0L;
+        
+        final int h = hf.get(state);
+        bound = h;
+        
+        try {
+            while (true) {
+                if (moves == null || moves.length < bound + 1) {
+                    moves = new byte[bound + 1];
+                }
+                
+                final int t = search(0, h, PuzzleState.NONE);
+                
+                if (t == FOUND) {
+                    return new MovePath<T>(source.copy(),
+                                           Arrays.copyOf(moves, length));
+                }
+                
+                if (t == Integer.MAX_VALUE) {
+                    return Collections.<T>emptyList();
+                }
+                
+                bound = t;
+            }
+        } finally {
+            this.state = null;
+            this.target = null;
+            this.offsets = null;
+        }
+    }
+    
+    /**
+     * Searches the subtree of <code>state</code> within the current bound.
+     * 
+     * @param g the distance of <code>state</code> from the source.
+     * @param h the heuristic estimate of <code>state</code>.
+     * @param parentMove the move that produced <code>state</code>.
+     * 
+     * @return <code>FOUND</code> if the target was found, otherwise the
+     * smallest f-score exceeding the bound.
+     */
+    private int search(final int g, final int h, final int parentMove) {
+        final int f = g + h;
+        
+        if (f > bound) {
+            return f;
+        }
+        
+        if (state.equals(target)) {
+            length = g;
+            return FOUND;
+        }
+        
+        final int undo = parentMove ^ 2;
+        final int blank = state.getBlankY() * state.getDimension()
+                        + state.getBlankX();
+        int min = Integer.MAX_VALUE;
+        
+        for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+            if (d == undo || state.canMove(d) == false) {
+                continue;
+            }
+            
+            // The tile slides from the new cell of the empty tile into the
+            // old one.
+            final int tile = state.move(d);
+            moves[g] = (byte) d;
+            ++nodeCount;
+            
+            final int t = search(g + 1,
+                                 hf.descend(state, h, tile,
+                                            blank + offsets[d], blank,
+                                            bound - g - 1),
+                                 d);
+            
+            hf.ascend();
+            state.move(d ^ 2);
+            
+            if (t == FOUND) {
+                return FOUND;
+            }
+            
+            if (min > t) {
+                min = t;
+            }
+        }
+        
+        return min;
+    }
+}
@@ -0,0 +1,375 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the linear conflict heuristic: the Manhattan
+ * distance plus two moves for every tile that must leave its target row or
+ * column to let other tiles of that line pass. The amount of such tiles in a
+ * line is the amount of tiles in their target line minus the length of the
+ * longest subsequence of them already in the target order.
+ * <p>
+ * A line is described by the target position of each tile standing in its
+ * target line, one digit per cell. For boards of dimension up to
+ * {@value #MAX_TABLE_DIMENSION} the conflicts of every line are precomputed
+ * in a table indexed by these digits. After a move, only the single line
+ * the moved tile enters or leaves is reevaluated.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class LinearConflictHeuristicFunction<T extends PuzzleState<T>>
+extends HeuristicFunction<T> {
+    
+    /**
+     * The largest dimension for which the conflicts are precomputed.
+     */
+    public static final int MAX_TABLE_DIMENSION = 6;
+    
+    /**
+     * The dimension of the board.
+     */
+    private int n;
+    
+    /**
+     * The amount of cells.
+     */
+    private int cells;
+    
+    /**
+     * The distance of each tile from each cell; see {@link ManhattanTable}.
+     */
+    private int[] distances;
+    
+    /**
+     * Maps each tile to its target x-coordinate.
+     */
+    private int[] targetX;
+    
+    /**
+     * Maps each tile to its target y-coordinate.
+     */
+    private int[] targetY;
+    
+    /**
+     * Maps each cell to its x-coordinate.
+     */
+    private int[] cellX;
+    
+    /**
+     * Maps each cell to its y-coordinate.
+     */
+    private int[] cellY;
+    
+    /**
+     * The weight of the digit at each position of a line description.
+     */
+    private int[] powers;
+    
+    /**
+     * Maps each line description to the amount of conflicting tiles, or
+     * <code>null</code> if the board is too large.
+     */
+    private byte[] conflicts;
+    
+    /**
+     * The description of the line being evaluated.
+     */
+    private int[] line;
+    
+    /**
+     * The descriptions of the columns, built while scanning the rows.
+     */
+    private int[][] columns;
+    
+    @Override
+    public LinearConflictHeuristicFunction<T> withTarget(final T target) {
+        super.withTarget(target);
+        
+        if (target.getDimension() != n) {
+            this.n = target.getDimension();
+            this.cells = n * n;
+            this.targetX = new int[cells];
+            this.targetY = new int[cells];
+            this.cellX = new int[cells];
+            this.cellY = new int[cells];
+            this.powers = new int[n];
+            this.line = new int[n];
+            this.columns = new int[n][n];
+            
+            for (int cell = 0; cell != cells; ++cell) {
+                cellX[cell] = cell % n;
+                cellY[cell] = cell / n;
+            }
+            
+            for (int i = 0, power = 1; i != n; ++i, power *= n + 1) {
+                powers[i] = power;
+            }
+            
+            this.conflicts = n <= MAX_TABLE_DIMENSION ?
+                             buildConflictTable(n) :
+                             null;
+        }
+        
+        this.distances = ManhattanTable.create(target);
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte tile = target.get(x, y);
+                targetX[tile] = x;
+                targetY[tile] = y;
+            }
+        }
+        
+        return this;
+    }
+    
+    @Override
+    public int get(final T t) {
+        int h = 0;
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte tile = t.get(x, y);
+                
+                h += distances[tile * cells + y * n + x];
+                
+                if (tile == 0) {
+                    line[x] = 0;
+                    columns[x][y] = 0;
+                    continue;
+                }
+                
+                line[x] = targetY[tile] == y ? targetX[tile] + 1 : 0;
+                columns[x][y] = targetX[tile] == x ? targetY[tile] + 1 : 0;
+            }
+            
+            h += 2 * countConflicts(line);
+        }
+        
+        for (int x = 0; x != n; ++x) {
+            h += 2 * countConflicts(columns[x]);
+        }
+        
+        return h;
+    }
+    
+    @Override
+    public int get(final T t,
+                   final int parentH,
+                   final int tile,
+                   final int from,
+                   final int to) {
+        final int offset = tile * cells;
+        final int h = parentH + distances[offset + to]
+                              - distances[offset + from];
+        final int x = cellX[to];
+        final int y = cellY[to];
+        
+        // A move does not change the order of the tiles in the line it runs
+        // along, so only the target line of the moved tile may change, and
+        // only if the tile enters or leaves it.
+        if (cellX[from] == x) {
+            final int tx = targetX[tile];
+            final int ty = targetY[tile];
+            
+            if (ty == y) {
+                return h + 2 * getRowDelta(t, y, x, tx + 1);
+            } else if (ty == cellY[from]) {
+                return h - 2 * getRowDelta(t, ty, x, tx + 1);
+            }
+        } else {
+            final int tx = targetX[tile];
+            final int ty = targetY[tile];
+            
+            if (tx == x) {
+                return h + 2 * getColumnDelta(t, x, y, ty + 1);
+            } else if (tx == cellX[from]) {
+                return h - 2 * getColumnDelta(t, tx, y, ty + 1);
+            }
+        }
+        
+        return h;
+    }
+    
+    @Override
+    public int get(final T t1, final T t2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public LinearConflictHeuristicFunction<T> newInstance() {
+        return new LinearConflictHeuristicFunction<T>();
+    }
+    
+    /**
+     * Returns the amount of conflicts gained in row <code>y</code> of
+     * <code>t</code> by placing a tile with digit <code>digit</code> at
+     * x-coordinate <code>x</code>, where the cell holds such a tile or none.
+     * 
+     * @param t the node.
+     * @param y the y-coordinate of the row.
+     * @param x the x-coordinate of the cell.
+     * @param digit the digit of the tile.
+     * 
+     * @return the amount of conflicts gained.
+     */
+    private int getRowDelta(final T t,
+                            final int y,
+                            final int x,
+                            final int digit) {
+        for (int i = 0; i != n; ++i) {
+            final byte tile = t.get(i, y);
+            line[i] = tile != 0 && targetY[tile] == y ? targetX[tile] + 1 : 0;
+        }
+        
+        return getDelta(x, digit);
+    }
+    
+    /**
+     * Returns the amount of conflicts gained in column <code>x</code> of
+     * <code>t</code> by placing a tile with digit <code>digit</code> at
+     * y-coordinate <code>y</code>, where the cell holds such a tile or none.
+     * 
+     * @param t the node.
+     * @param x the x-coordinate of the column.
+     * @param y the y-coordinate of the cell.
+     * @param digit the digit of the tile.
+     * 
+     * @return the amount of conflicts gained.
+     */
+    private int getColumnDelta(final T t,
+                               final int x,
+                               final int y,
+                               final int digit) {
+        for (int i = 0; i != n; ++i) {
+            final byte tile = t.get(x, i);
+            line[i] = tile != 0 && targetX[tile] == x ? targetY[tile] + 1 : 0;
+        }
+        
+        return getDelta(y, digit);
+    }
+    
+    /**
+     * Returns the amount of conflicts in <code>line</code> with the tile of
+     * digit <code>digit</code> at <code>position</code> minus the amount
+     * without it.
+     * 
+     * @param position the position of the tile in the line.
+     * @param digit the digit of the tile.
+     * 
+     * @return the amount of conflicts gained.
+     */
+    private int getDelta(final int position, final int digit) {
+        line[position] = 0;
+        
+        if (conflicts == null) {
+            final int without = computeConflicts(line);
+            line[position] = digit;
+            return computeConflicts(line) - without;
+        }
+        
+        final int key = getKey(line);
+        return conflicts[key + digit * powers[position]] - conflicts[key];
+    }
+    
+    /**
+     * Returns the amount of conflicting tiles in a line.
+     * 
+     * @param digits the line description.
+     * 
+     * @return the amount of tiles that must leave the line.
+     */
+    private int countConflicts(final int[] digits) {
+        if (conflicts == null) {
+            return computeConflicts(digits);
+        }
+        
+        return conflicts[getKey(digits)];
+    }
+    
+    /**
+     * Returns the index of a line description in the conflict table.
+     * 
+     * @param digits the line description.
+     * 
+     * @return the index.
+     */
+    private int getKey(final int[] digits) {
+        int key = 0;
+        
+        for (int i = 0; i != n; ++i) {
+            key += digits[i] * powers[i];
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Builds the table of conflicts of every line on a board of dimension
+     * <code>n</code>.
+     * 
+     * @param n the dimension of the board.
+     * 
+     * @return the table indexed by line descriptions.
+     */
+    private static byte[] buildConflictTable(final int n) {
+        int size = 1;
+        
+        for (int i = 0; i != n; ++i) {
+            size *= n + 1;
+        }
+        
+        final byte[] table = new byte[size];
+        final int[] digits = new int[n];
+        
+        for (int key = 0; key != size; ++key) {
+            for (int i = 0, k = key; i != n; ++i, k /= n + 1) {
+                digits[i] = k % (n + 1);
+            }
+            
+            table[key] = (byte) computeConflicts(digits);
+        }
+        
+        return table;
+    }
+    
+    /**
+     * Computes the amount of conflicting tiles in a line: the amount of
+     * nonzero digits minus the length of their longest increasing
+     * subsequence.
+     * 
+     * @param digits the line description.
+     * 
+     * @return the amount of tiles that must leave the line.
+     */
+    private static int computeConflicts(final int[] digits) {
+        // lengths[i] is the length of the longest increasing subsequence
+        // ending at position i.
+        final int[] lengths = new int[digits.length];
+        int count = 0;
+        int longest = 0;
+        
+        for (int i = 0; i != digits.length; ++i) {
+            if (digits[i] == 0) {
+                continue;
+            }
+            
+            ++count;
+            lengths[i] = 1;
+            
+            for (int j = 0; j != i; ++j) {
+                if (digits[j] != 0 && digits[j] < digits[i]) {
+                    lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+                }
+            }
+            
+            longest = Math.max(longest, lengths[i]);
+        }
+        
+        return count - longest;
+    }
+}
@@ -1,57 +1,144 @@
 package net.coderodde.pzzlsrch.solvers.support;
 
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import net.coderodde.pzzlsrch.model.PuzzleNode;
 import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
 
 /**
+ * This class implements the Manhattan distance heuristic reading the tiles
+ * row by row; see {@link ManhattanTable}.
  *
  * @author Rodion Efremov
  * @version 1.0
  */
-public class ManhattanHeuristicFunction2 
+public class ManhattanHeuristicFunction2
 extends HeuristicFunction<PuzzleNode> {
     
-    private int[] xarr;
-    private int[] yarr;
+    /**
+     * The largest amount of tiles expected.
+     */
+    private final int n;
+    
+    /**
+     * The distance of each tile from each cell; see {@link ManhattanTable}.
+     */
+    private int[] distances;
+    
+    /**
+     * The amount of cells.
+     */
+    private int cells;
+    
+    /**
+     * Whether {@link #getAll(byte[], int, int[])} looks up several cells at
+     * a time.
+     */
+    private boolean vectorization = true;
+    
+    /**
+     * The Vector API kernel, or <code>null</code> if the API is not
+     * available.
+     */
+    private BatchKernel kernel;
     
     public ManhattanHeuristicFunction2(final int n) {
-        this.xarr = new int[n];
-        this.yarr = new int[n];
+        this.n = n;
     }
     
+    @Override
     public ManhattanHeuristicFunction2 withTarget(final PuzzleNode pn) {
         final int N = pn.getDimension();
         
-        for (int y = 0; y != N; ++y) {
-            for (int x = 0; x != N; ++x) {
-                byte tile = pn.get(x, y);
-                xarr[tile] = x;
-                yarr[tile] = y;
-            }
+        if (N * N > n) {
+            throw new IllegalArgumentException(
+                    "The target has more than " + n + " tiles.");
         }
         
+        super.withTarget(pn);
+        this.distances = ManhattanTable.create(pn);
+        this.cells = N * N;
+        this.kernel = VectorKernels.newManhattanKernel(pn);
         return this;
     }
     
+    /**
+     * Sets whether {@link #getAll(byte[], int, int[])} looks up several
+     * cells at a time with the Vector API, or one by one.
+     * 
+     * @param vectorization whether to look up several cells at a time.
+     * 
+     * @return this for chaining.
+     */
+    public ManhattanHeuristicFunction2 withVectorization(
+            final boolean vectorization) {
+        this.vectorization = vectorization;
+        return this;
+    }
+    
+    @Override
     public int get(final PuzzleNode pn) {
         final int N = pn.getDimension();
         int h = 0;
         
-        for (int y = 0; y != N; ++y) {
-            for (int x = 0; x != N; ++x) {
-                byte tile = pn.get(x, y);
-                h += Math.abs(xarr[tile] - x) + Math.abs(yarr[tile] - y);
+        for (int y = 0, cell = 0; y != N; ++y) {
+            for (int x = 0; x != N; ++x, ++cell) {
+                h += distances[pn.get(x, y) * cells + cell];
             }
         }
         
         return h;
     }
     
+    @Override
+    public int get(final PuzzleNode pn,
+                   final int parentH,
+                   final int tile,
+                   final int from,
+                   final int to) {
+        final int offset = tile * cells;
+        return parentH + distances[offset + to] - distances[offset + from];
+    }
+    
+    /**
+     * Gets the estimates of a batch of nodes laid out back to back in
+     * <code>tiles</code>, each row by row as by
+     * {@link PuzzleNode#copyTiles(byte[], int)}.
+     * <p>
+     * With vectorization, the nodes are evaluated by the Vector API kernel
+     * if {@link VectorKernels#isAvailable()}, which looks up the target row
+     * and column of a whole vector of tiles at a time. The rest of the nodes
+     * are evaluated one cell at a time.
+     * 
+     * @param tiles the tiles of the nodes.
+     * @param count the amount of nodes.
+     * @param estimates the array to store the estimates to.
+     * 
+     * @throws IllegalArgumentException if the arrays are too short.
+     */
+    public void getAll(final byte[] tiles,
+                       final int count,
+                       final int[] estimates) {
+        if (tiles.length < (long) count * cells || estimates.length < count) {
+            throw new IllegalArgumentException(
+                    "The arrays are too short for " + count + " nodes.");
+        }
+        
+        final int start = vectorization && kernel != null ?
+                          kernel.getAll(tiles, count, estimates) :
+                          0;
+        int base = start * cells;
+        
+        for (int k = start; k != count; ++k, base += cells) {
+            int h = 0;
+            
+            for (int cell = 0; cell != cells; ++cell) {
+                h += distances[tiles[base + cell] * cells + cell];
+            }
+            
+            estimates[k] = h;
+        }
+    }
+    
+    @Override
     public int get(final PuzzleNode pn1, final PuzzleNode pn2) {
         throw new UnsupportedOperationException(
                 "This operation is not supported due to performance issues.");
@@ -59,6 +146,7 @@ extends HeuristicFunction<PuzzleNode> {
 
     @Override
     public HeuristicFunction<PuzzleNode> newInstance() {
-        return new ManhattanHeuristicFunction2(xarr.length);
+        return new ManhattanHeuristicFunction2(n)
+                   .withVectorization(vectorization);
     }
 }
@@ -0,0 +1,54 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class precomputes the Manhattan distance of every tile from every
+ * cell to its target cell, so that the Manhattan heuristics read the
+ * distance of a tile with a single array access and update it in constant
+ * time after a move.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+final class ManhattanTable {
+    
+    private ManhattanTable() {
+        // Static methods only.
+    }
+    
+    /**
+     * Returns the Manhattan distances towards <code>target</code>. The
+     * distance of tile <code>t</code> in cell <code>c</code>, the cells
+     * numbered row by row, is at index <code>t * n * n + c</code>; the
+     * distances of the empty tile are zero.
+     * 
+     * @param target the target state.
+     * 
+     * @return the distances.
+     */
+    static int[] create(final PuzzleState<?> target) {
+        final int n = target.getDimension();
+        final int N = n * n;
+        final int[] distances = new int[N * N];
+        
+        for (int ty = 0; ty != n; ++ty) {
+            for (int tx = 0; tx != n; ++tx) {
+                final int tile = target.get(tx, ty);
+                
+                if (tile == 0) {
+                    continue;
+                }
+                
+                for (int y = 0; y != n; ++y) {
+                    for (int x = 0; x != n; ++x) {
+                        distances[tile * N + y * n + x] =
+                                Math.abs(x - tx) + Math.abs(y - ty);
+                    }
+                }
+            }
+        }
+        
+        return distances;
+    }
+}
@@ -0,0 +1,168 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the maximum of several admissible heuristics, which
+ * is admissible as well. The members are evaluated in the order given, so
+ * the cheapest ones should come first: once the maximum so far exceeds the
+ * limit passed to {@link #descend(PuzzleState, int, int, int, int, int)},
+ * the node is pruned anyway and the remaining members are skipped.
+ * <p>
+ * The estimates of every member for the nodes on the current path are
+ * kept, so that each member is updated from its own estimate of the parent
+ * and stateful members descend and ascend along with the solver.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class MaxHeuristicFunction<T extends PuzzleState<T>>
+extends HeuristicFunction<T> {
+    
+    /**
+     * The member heuristic functions, cheapest first.
+     */
+    private final HeuristicFunction<T>[] members;
+    
+    /**
+     * The estimate of each member for each node on the current path, node
+     * by node.
+     */
+    private int[] estimates;
+    
+    /**
+     * The amount of members evaluated for each node on the current path.
+     */
+    private int[] evaluated;
+    
+    /**
+     * The index of the last node on the current path.
+     */
+    private int top;
+    
+    /**
+     * Constructs a heuristic function taking the maximum of
+     * <code>members</code>.
+     * 
+     * @param members the heuristic functions, cheapest first.
+     * 
+     * @throws IllegalArgumentException if no members are given.
+     */
+    public MaxHeuristicFunction(final HeuristicFunction<T>... members) {
+        if (members.length == 0) {
+            throw new IllegalArgumentException("No heuristic functions.");
+        }
+        
+        this.members = members.clone();
+        this.estimates = new int[64 * members.length];
+        this.evaluated = new int[64];
+    }
+    
+    @Override
+    public MaxHeuristicFunction<T> withTarget(final T target) {
+        super.withTarget(target);
+        
+        for (final HeuristicFunction<T> member : members) {
+            member.withTarget(target);
+        }
+        
+        return this;
+    }
+    
+    /**
+     * Gets the maximum estimate of all the members and starts a new path at
+     * <code>t</code>.
+     * 
+     * @param t the node.
+     * 
+     * @return the maximum estimate.
+     */
+    @Override
+    public int get(final T t) {
+        int h = 0;
+        
+        top = 0;
+        evaluated[0] = members.length;
+        
+        for (int i = 0; i != members.length; ++i) {
+            estimates[i] = members[i].get(t);
+            h = Math.max(h, estimates[i]);
+        }
+        
+        return h;
+    }
+    
+    @Override
+    public int descend(final T t,
+                       final int parentH,
+                       final int tile,
+                       final int from,
+                       final int to) {
+        return descend(t, parentH, tile, from, to, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public int descend(final T t,
+                       final int parentH,
+                       final int tile,
+                       final int from,
+                       final int to,
+                       final int limit) {
+        final int k = members.length;
+        final int parent = top * k;
+        
+        if (++top == evaluated.length) {
+            evaluated = Arrays.copyOf(evaluated, 2 * top);
+            estimates = Arrays.copyOf(estimates, 2 * top * k);
+        }
+        
+        final int child = top * k;
+        int h = 0;
+        int i = 0;
+        
+        while (i != k && h <= limit) {
+            estimates[child + i] = members[i].descend(t,
+                                                      estimates[parent + i],
+                                                      tile,
+                                                      from,
+                                                      to,
+                                                      limit);
+            h = Math.max(h, estimates[child + i]);
+            ++i;
+        }
+        
+        evaluated[top] = i;
+        return h;
+    }
+    
+    @Override
+    public void ascend() {
+        for (int i = 0; i != evaluated[top]; ++i) {
+            members[i].ascend();
+        }
+        
+        --top;
+    }
+    
+    @Override
+    public int get(final T t1, final T t2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public MaxHeuristicFunction<T> newInstance() {
+        @SuppressWarnings("unchecked")
+        final HeuristicFunction<T>[] copies =
+                new HeuristicFunction[members.length];
+        
+        for (int i = 0; i != members.length; ++i) {
+            copies[i] = members[i].newInstance();
+        }
+        
+        return new MaxHeuristicFunction<T>(copies);
+    }
+}
@@ -0,0 +1,68 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the Manhattan distance heuristic reading the tiles
+ * directly from packed states; see {@link ManhattanTable}.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PackedManhattanHeuristicFunction
+extends HeuristicFunction<PackedPuzzleState> {
+    
+    /**
+     * The distance of each tile from each cell; see {@link ManhattanTable}.
+     */
+    private int[] distances;
+    
+    /**
+     * The amount of cells.
+     */
+    private int cells;
+    
+    @Override
+    public PackedManhattanHeuristicFunction
+        withTarget(final PackedPuzzleState target) {
+        super.withTarget(target);
+        this.distances = ManhattanTable.create(target);
+        this.cells = target.getDimension() * target.getDimension();
+        return this;
+    }
+    
+    @Override
+    public int get(final PackedPuzzleState state) {
+        final int N = state.getDimension() * state.getDimension();
+        long tiles = state.getTiles();
+        int h = 0;
+        
+        for (int cell = 0; cell != N; ++cell, tiles >>>= 4) {
+            h += distances[(int)(tiles & 0xf) * cells + cell];
+        }
+        
+        return h;
+    }
+    
+    @Override
+    public int get(final PackedPuzzleState state,
+                   final int parentH,
+                   final int tile,
+                   final int from,
+                   final int to) {
+        final int offset = tile * cells;
+        return parentH + distances[offset + to] - distances[offset + from];
+    }
+    
+    @Override
+    public int get(final PackedPuzzleState s1, final PackedPuzzleState s2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public HeuristicFunction<PackedPuzzleState> newInstance() {
+        return new PackedManhattanHeuristicFunction();
+    }
+}
@@ -0,0 +1,483 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import static net.coderodde.pzzlsrch.Utils.checkNotNull;
+import net.coderodde.pzzlsrch.model.PermutationRanker;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.MovePath;
+import net.coderodde.pzzlsrch.solvers.Solver;
+
+/**
+ * This class implements a parallel iterative deepening A*. Every iteration
+ * first enumerates the nodes at the split depth; the subtree of each such
+ * node is then searched as a separate task in a {@link ForkJoinPool}, which
+ * balances the uneven subtrees by work stealing.
+ * <p>
+ * Every worker thread uses its own instance of the heuristic function,
+ * created with {@link HeuristicFunction#newInstance()}. Once a task finds
+ * the target, the remaining tasks of the iteration stop early; since all the
+ * tasks share the same bound, the first path found is optimal provided the
+ * heuristic function is admissible.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class ParallelIDAStarSolver<T extends PuzzleState<T>>
+extends Solver<T> {
+    
+    /**
+     * The default split depth.
+     */
+    private static final int DEFAULT_SPLIT_DEPTH = 8;
+    
+    /**
+     * The heuristic function implementation.
+     */
+    private HeuristicFunction<T> hf;
+    
+    /**
+     * The pool running the subtree tasks.
+     */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    
+    /**
+     * The depth at which the iterations are split into tasks.
+     */
+    private int splitDepth = DEFAULT_SPLIT_DEPTH;
+    
+    /**
+     * The amount of nodes generated in the last search.
+     */
+    private long nodeCount;
+    
+    @Override
+    public HeuristicFunction<T> getHeuristicFunction() {
+        return hf;
+    }
+    
+    @Override
+    public ParallelIDAStarSolver<T> withHeuristicFunction(
+            final HeuristicFunction<T> hf) {
+        this.hf = hf;
+        return this;
+    }
+    
+    /**
+     * Sets the pool running the subtree tasks.
+     * 
+     * @param pool the pool to use.
+     * 
+     * @return this for chaining.
+     */
+    public ParallelIDAStarSolver<T> withPool(final ForkJoinPool pool) {
+        checkNotNull(pool, "Pool is null.");
+        this.pool = pool;
+        return this;
+    }
+    
+    /**
+     * Sets the depth at which the iterations are split into tasks.
+     * 
+     * @param splitDepth the split depth.
+     * 
+     * @return this for chaining.
+     * 
+     * @throws IllegalArgumentException if <code>splitDepth</code> is
+     * negative.
+     */
+    public ParallelIDAStarSolver<T> withSplitDepth(final int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException(
+                    "Split depth is negative: " + splitDepth + ".");
+        }
+        
+        this.splitDepth = splitDepth;
+        return this;
+    }
+    
+    /**
+     * Returns the amount of nodes generated in the last search by all the
+     * threads.
+     * 
+     * @return the amount of generated nodes.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+    
+    @Override
+    public List<T> search(final T source, final T target) {
+        checkNotNull(hf, "Heuristic function is null.");
+        checkNotNull(source, "Source is null.");
+        checkNotNull(target, "Target is null.");
+        
+        if (PermutationRanker.isReachable(source, target) == false) {
+            nodeCount = 0L;
+            return Collections.<T>emptyList();
+        }
+        
+        final Search search = new Search(source, target);
+        
+        try {
+            final byte[] moves = search.run();
+            
+            if (moves == null) {
+                return Collections.<T>emptyList();
+            }
+            
+            return new MovePath<T>(source.copy(), moves);
+        } finally {
+            nodeCount = search.nodeCount.get();
+        }
+    }
+    
+    /**
+     * Holds the state shared by the tasks of a single search.
+     */
+    private final class Search {
+        
+        /**
+         * The source node.
+         */
+        final T source;
+        
+        /**
+         * The target node.
+         */
+        final T target;
+        
+        /**
+         * The heuristic function of each worker thread.
+         */
+        final ThreadLocal<HeuristicFunction<T>> heuristic =
+                new ThreadLocal<HeuristicFunction<T>>() {
+            @Override
+            protected HeuristicFunction<T> initialValue() {
+                return hf.newInstance().withTarget(Search.this.target);
+            }
+        };
+        
+        /**
+         * The change of the cell index of the empty tile caused by each
+         * move.
+         */
+        final int[] offsets;
+        
+        /**
+         * The smallest f-score exceeding the bound of the current iteration.
+         */
+        final AtomicInteger nextBound = new AtomicInteger();
+        
+        /**
+         * The moves of the path found, or <code>null</code>.
+         */
+        final AtomicReference<byte[]> solution =
+                new AtomicReference<byte[]>();
+        
+        /**
+         * The amount of nodes generated by all the threads.
+         */
+        final AtomicLong nodeCount = new AtomicLong();
+        
+        /**
+         * The f-score bound of the current iteration.
+         */
+        int bound;
+        
+        Search(final T source, final T target) {
+            this.source = source;
+            this.target = target;
+            this.offsets = getMoveOffsets(source.getDimension());
+        }
+        
+        /**
+         * Runs the iterations until the target is found or the search space
+         * is exhausted.
+         * 
+         * @return the moves of an optimal path, or <code>null</code>.
+         */
+        byte[] run() {
+            final int h = heuristic.get().get(source);
+            bound = h;
+            
+            while (true) {
+                nextBound.set(Integer.MAX_VALUE);
+                
+                final List<byte[]> prefixes = new ArrayList<byte[]>();
+                final Worker worker = new Worker(source.copy(), bound + 1);
+                
+                // The subtree tasks may run on this thread and evaluate
+                // other paths, so every iteration starts its own path.
+                worker.split(0,
+                             worker.h.get(worker.state),
+                             PuzzleState.NONE,
+                             prefixes);
+                nodeCount.addAndGet(worker.nodes);
+                
+                if (solution.get() == null && prefixes.isEmpty() == false) {
+                    final List<SubtreeTask> tasks =
+                            new ArrayList<SubtreeTask>(prefixes.size());
+                    
+                    for (final byte[] prefix : prefixes) {
+                        tasks.add(new SubtreeTask(prefix));
+                    }
+                    
+                    pool.invoke(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            invokeAll(tasks);
+                        }
+                    });
+                }
+                
+                if (solution.get() != null) {
+                    return solution.get();
+                }
+                
+                if (nextBound.get() == Integer.MAX_VALUE) {
+                    return null;
+                }
+                
+                bound = nextBound.get();
+            }
+        }
+        
+        /**
+         * Lowers <code>nextBound</code> to <code>f</code> if larger.
+         * 
+         * @param f the f-score.
+         */
+        void offerBound(final int f) {
+            int current;
+            
+            while (f < (current = nextBound.get())) {
+                if (nextBound.compareAndSet(current, f)) {
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Searches the subtree of a single node at the split depth.
+         */
+        final class SubtreeTask extends RecursiveAction {
+            
+            private static final long serialVersionUID = 1L;
+            
+            /**
+             * The moves leading from the source to the root of the subtree.
+             */
+            private final byte[] prefix;
+            
+            SubtreeTask(final byte[] prefix) {
+                this.prefix = prefix;
+            }
+            
+            @Override
+            protected void compute() {
+                if (solution.get() != null) {
+                    return;
+                }
+                
+                final Worker worker = new Worker(source.copy(), bound + 1);
+                int parentMove = PuzzleState.NONE;
+                
+                for (final byte move : prefix) {
+                    worker.state.move(move);
+                    parentMove = move;
+                }
+                
+                System.arraycopy(prefix, 0, worker.moves, 0, prefix.length);
+                
+                final int t = worker.search(prefix.length,
+                                            worker.h.get(worker.state),
+                                            parentMove);
+                
+                nodeCount.addAndGet(worker.nodes);
+                
+                if (t != Worker.FOUND && t != Worker.STOPPED) {
+                    offerBound(t);
+                }
+            }
+        }
+        
+        /**
+         * Runs the depth-first search within a single thread.
+         */
+        final class Worker {
+            
+            /**
+             * Returned once the target is found.
+             */
+            static final int FOUND = -1;
+            
+            /**
+             * Returned once another worker has found the target.
+             */
+            static final int STOPPED = -2;
+            
+            /**
+             * The state modified by the depth-first search.
+             */
+            final T state;
+            
+            /**
+             * The heuristic function of the current thread.
+             */
+            final HeuristicFunction<T> h = heuristic.get();
+            
+            /**
+             * The moves leading from the source to <code>state</code>.
+             */
+            final byte[] moves;
+            
+            /**
+             * The amount of nodes generated by this worker.
+             */
+            long nodes;
+            
+            Worker(final T state, final int maxLength) {
+                this.state = state;
+                this.moves = new byte[maxLength];
+            }
+            
+            /**
+             * Collects the move sequences leading to the nodes at the split
+             * depth, searching the shallower part of the tree directly.
+             * 
+             * @param g the distance of <code>state</code> from the source.
+             * @param estimate the heuristic estimate of <code>state</code>.
+             * @param parentMove the move that produced <code>state</code>.
+             * @param prefixes the list of move sequences to append to.
+             */
+            void split(final int g,
+                       final int estimate,
+                       final int parentMove,
+                       final List<byte[]> prefixes) {
+                final int f = g + estimate;
+                
+                if (f > bound) {
+                    offerBound(f);
+                    return;
+                }
+                
+                if (state.equals(target)) {
+                    solution.compareAndSet(null, Arrays.copyOf(moves, g));
+                    return;
+                }
+                
+                if (g == splitDepth) {
+                    prefixes.add(Arrays.copyOf(moves, g));
+                    return;
+                }
+                
+                final int undo = parentMove ^ 2;
+                final int blank = getBlankCell();
+                
+                for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                    if (d == undo || state.canMove(d) == false) {
+                        continue;
+                    }
+                    
+                    final int tile = state.move(d);
+                    moves[g] = (byte) d;
+                    ++nodes;
+                    split(g + 1,
+                          h.descend(state, estimate, tile, blank + offsets[d],
+                                    blank, bound - g - 1),
+                          d,
+                          prefixes);
+                    h.ascend();
+                    state.move(d ^ 2);
+                    
+                    if (solution.get() != null) {
+                        return;
+                    }
+                }
+            }
+            
+            /**
+             * Searches the subtree of <code>state</code> within the bound.
+             * 
+             * @param g the distance of <code>state</code> from the source.
+             * @param estimate the heuristic estimate of <code>state</code>.
+             * @param parentMove the move that produced <code>state</code>.
+             * 
+             * @return <code>FOUND</code> if the target was found,
+             * <code>STOPPED</code> if another worker found it first, otherwise
+             * the smallest f-score exceeding the bound.
+             */
+            int search(final int g, final int estimate, final int parentMove) {
+                final int f = g + estimate;
+                
+                if (f > bound) {
+                    return f;
+                }
+                
+                if (state.equals(target)) {
+                    return solution.compareAndSet(null,
+                                                  Arrays.copyOf(moves, g)) ?
+                            FOUND :
+                            STOPPED;
+                }
+                
+                if (solution.get() != null) {
+                    return STOPPED;
+                }
+                
+                final int undo = parentMove ^ 2;
+                final int blank = getBlankCell();
+                int min = Integer.MAX_VALUE;
+                
+                for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+                    if (d == undo || state.canMove(d) == false) {
+                        continue;
+                    }
+                    
+                    final int tile = state.move(d);
+                    moves[g] = (byte) d;
+                    ++nodes;
+                    
+                    final int t = search(g + 1,
+                                         h.descend(state, estimate, tile,
+                                                   blank + offsets[d], blank,
+                                                   bound - g - 1),
+                                         d);
+                    
+                    h.ascend();
+                    state.move(d ^ 2);
+                    
+                    if (t == FOUND || t == STOPPED) {
+                        return t;
+                    }
+                    
+                    if (min > t) {
+                        min = t;
+                    }
+                }
+                
+                return min;
+            }
+            
+            /**
+             * Returns the row-by-row index of the cell of the empty tile.
+             * 
+             * @return the cell of the empty tile.
+             */
+            int getBlankCell() {
+                return state.getBlankY() * state.getDimension()
+                     + state.getBlankX();
+            }
+        }
+    }
+}
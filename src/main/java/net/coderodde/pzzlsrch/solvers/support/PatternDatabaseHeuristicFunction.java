@@ -0,0 +1,202 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.pdb.PatternDatabase;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the additive pattern database heuristic: the sum of
+ * the costs looked up in pattern databases over disjoint sets of tiles. The
+ * databases are shared by the instances spawned with
+ * {@link #newInstance()}.
+ * <p>
+ * If the target is symmetric about the main diagonal, reflecting a node
+ * about it, and renaming each tile after the target tile of the reflected
+ * target cell, preserves the distance to the target. With reflection enabled
+ * the databases are looked up on the reflected node as well, and the larger
+ * sum is returned, so that a single set of databases gives two estimates.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class PatternDatabaseHeuristicFunction<T extends PuzzleState<T>>
+extends HeuristicFunction<T> {
+    
+    /**
+     * The pattern databases.
+     */
+    private final PatternDatabase[] databases;
+    
+    /**
+     * Maps each tile to its cell in the node being evaluated.
+     */
+    private final int[] cellOfTile;
+    
+    /**
+     * Maps each tile to its cell in the reflected node being evaluated.
+     */
+    private final int[] reflectedCellOfTile;
+    
+    /**
+     * Maps each cell to its reflection about the main diagonal.
+     */
+    private final int[] reflectedCell;
+    
+    /**
+     * Maps each tile to the tile it is renamed to in the reflected node.
+     */
+    private final int[] reflectedTile;
+    
+    /**
+     * Whether the databases are looked up on the reflected nodes as well.
+     */
+    private boolean reflection;
+    
+    /**
+     * Constructs a heuristic function summing up the pattern databases
+     * <code>databases</code>.
+     * 
+     * @param databases the pattern databases.
+     * 
+     * @throws IllegalArgumentException if the databases have different
+     * dimensions or share tiles.
+     */
+    public PatternDatabaseHeuristicFunction(
+            final PatternDatabase... databases) {
+        if (databases.length == 0) {
+            throw new IllegalArgumentException("No pattern databases.");
+        }
+        
+        final int n = databases[0].getDimension();
+        long seen = 0L;
+        
+        for (final PatternDatabase database : databases) {
+            if (database.getDimension() != n) {
+                throw new IllegalArgumentException(
+                        "Pattern databases have different dimensions.");
+            }
+            
+            for (final byte tile : database.getTiles()) {
+                if ((seen & (1L << tile)) != 0) {
+                    throw new IllegalArgumentException(
+                            "Pattern databases are not disjoint: tile " +
+                            tile + " appears twice.");
+                }
+                
+                seen |= 1L << tile;
+            }
+        }
+        
+        this.databases = databases.clone();
+        this.cellOfTile = new int[n * n];
+        this.reflectedCellOfTile = new int[n * n];
+        this.reflectedCell = new int[n * n];
+        this.reflectedTile = new int[n * n];
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                reflectedCell[y * n + x] = x * n + y;
+            }
+        }
+    }
+    
+    /**
+     * Sets whether the databases are looked up on the nodes reflected about
+     * the main diagonal as well.
+     * 
+     * @param reflection whether to enable the reflected lookups.
+     * 
+     * @return this for chaining.
+     */
+    public PatternDatabaseHeuristicFunction<T> withReflection(
+            final boolean reflection) {
+        this.reflection = reflection;
+        return this;
+    }
+    
+    /**
+     * Sets the target node.
+     * 
+     * @param target the target node.
+     * 
+     * @return this for chaining.
+     * 
+     * @throws IllegalArgumentException if a database was built for another
+     * target, or if reflection is enabled and the empty tile of the target
+     * is off the main diagonal.
+     */
+    @Override
+    public PatternDatabaseHeuristicFunction<T> withTarget(final T target) {
+        for (final PatternDatabase database : databases) {
+            if (database.matchesTarget(target) == false) {
+                throw new IllegalArgumentException(
+                        "The pattern database was not built for the " +
+                        "target node.");
+            }
+        }
+        
+        final int n = target.getDimension();
+        
+        if (reflection && target.getBlankX() != target.getBlankY()) {
+            throw new IllegalArgumentException(
+                    "The target node is not symmetric about the main " +
+                    "diagonal.");
+        }
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                reflectedTile[target.get(x, y)] = target.get(y, x);
+            }
+        }
+        
+        super.withTarget(target);
+        return this;
+    }
+    
+    @Override
+    public int get(final T t) {
+        final int n = t.getDimension();
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                cellOfTile[t.get(x, y)] = y * n + x;
+            }
+        }
+        
+        int h = 0;
+        
+        for (final PatternDatabase database : databases) {
+            h += database.get(cellOfTile);
+        }
+        
+        if (reflection == false) {
+            return h;
+        }
+        
+        for (int tile = 0; tile != cellOfTile.length; ++tile) {
+            reflectedCellOfTile[reflectedTile[tile]] =
+                    reflectedCell[cellOfTile[tile]];
+        }
+        
+        int reflectedH = 0;
+        
+        for (final PatternDatabase database : databases) {
+            reflectedH += database.get(reflectedCellOfTile);
+        }
+        
+        return Math.max(h, reflectedH);
+    }
+    
+    @Override
+    public int get(final T t1, final T t2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public PatternDatabaseHeuristicFunction<T> newInstance() {
+        return new PatternDatabaseHeuristicFunction<T>(databases)
+                   .withReflection(reflection);
+    }
+}
@@ -0,0 +1,103 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class counts the displaced tiles of a batch of nodes with the Vector
+ * API, comparing a whole vector of cells at a time. The target and a mask of
+ * the valid lanes are padded to whole vectors, so that the cells of a node
+ * are read with unmasked loads; the lanes past the last cell, which belong
+ * to the next node, are cleared by the mask. Only {@link VectorKernels} may
+ * create instances.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+final class VectorDisplacementKernel implements BatchKernel {
+    
+    /**
+     * The widest byte vectors of the platform.
+     */
+    private static final VectorSpecies<Byte> SPECIES =
+            ByteVector.SPECIES_PREFERRED;
+    
+    /**
+     * The tiles of the target, padded with zeros to whole vectors.
+     */
+    private final byte[] target;
+    
+    /**
+     * Minus one at the lanes of the cells, zero at the padding.
+     */
+    private final byte[] valid;
+    
+    /**
+     * The amount of cells.
+     */
+    private final int cells;
+    
+    VectorDisplacementKernel(final byte[] targetTiles) {
+        final int L = SPECIES.length();
+        
+        this.cells = targetTiles.length;
+        this.target = Arrays.copyOf(targetTiles, (cells + L - 1) / L * L);
+        this.valid = new byte[target.length];
+        Arrays.fill(valid, 0, cells, (byte) -1);
+    }
+    
+    /**
+     * Returns the amount of lanes of the byte vectors used.
+     * 
+     * @return the amount of lanes.
+     */
+    static int getLength() {
+        return SPECIES.length();
+    }
+    
+    @Override
+    public int getAll(final byte[] tiles,
+                      final int count,
+                      final int[] estimates) {
+        final int L = SPECIES.length();
+        final int end = count(tiles.length, count);
+        
+        for (int k = 0, base = 0; k != end; ++k, base += cells) {
+            int h = 0;
+            
+            for (int i = 0; i != target.length; i += L) {
+                h += ByteVector.fromArray(SPECIES, tiles, base + i)
+                               .lanewise(VectorOperators.XOR,
+                                         ByteVector.fromArray(SPECIES,
+                                                              target,
+                                                              i))
+                               .and(ByteVector.fromArray(SPECIES, valid, i))
+                               .compare(VectorOperators.NE, (byte) 0)
+                               .trueCount();
+            }
+            
+            estimates[k] = h;
+        }
+        
+        return end;
+    }
+    
+    /**
+     * Returns the amount of leading nodes whose vectors all lie within the
+     * array.
+     * 
+     * @param length the length of the array.
+     * @param count the amount of nodes.
+     * 
+     * @return the amount of nodes to evaluate with vectors.
+     */
+    private int count(final int length, final int count) {
+        if (length < target.length) {
+            return 0;
+        }
+        
+        return (int) Math.min(count, (length - target.length) / cells + 1L);
+    }
+}
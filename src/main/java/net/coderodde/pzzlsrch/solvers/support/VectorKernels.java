@@ -0,0 +1,73 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class selects the batch kernels built on the Vector API. The API
+ * lives in the incubator module <code>jdk.incubator.vector</code>, which is
+ * resolved only when the virtual machine is started with
+ * <code>--add-modules jdk.incubator.vector</code>; otherwise the factory
+ * methods return <code>null</code> and the heuristic functions fall back to
+ * their scalar loops. The kernel classes are not loaded before the module is
+ * known to be present.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public final class VectorKernels {
+    
+    /**
+     * Whether the Vector API module is present.
+     */
+    private static final boolean AVAILABLE =
+            ModuleLayer.boot()
+                       .findModule("jdk.incubator.vector")
+                       .isPresent();
+    
+    private VectorKernels() {
+        // Static methods only.
+    }
+    
+    /**
+     * Returns whether the Vector API is available to the batch kernels.
+     * 
+     * @return <code>true</code> if the Vector API module is present.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+    
+    /**
+     * Returns the amount of bytes to leave after a batch so that the vector
+     * kernels evaluate all of its nodes. The kernels read whole vectors, and
+     * evaluate the nodes whose last vector would run past the end of the
+     * array one cell at a time.
+     * 
+     * @return the amount of padding bytes, zero without the Vector API.
+     */
+    public static int getPadding() {
+        return AVAILABLE ? VectorDisplacementKernel.getLength() : 0;
+    }
+    
+    /**
+     * Returns the displacement kernel towards <code>targetTiles</code>.
+     * 
+     * @param targetTiles the tiles of the target, row by row.
+     * 
+     * @return the kernel, or <code>null</code> without the Vector API.
+     */
+    static BatchKernel newDisplacementKernel(final byte[] targetTiles) {
+        return AVAILABLE ? new VectorDisplacementKernel(targetTiles) : null;
+    }
+    
+    /**
+     * Returns the Manhattan distance kernel towards <code>target</code>.
+     * 
+     * @param target the target state.
+     * 
+     * @return the kernel, or <code>null</code> without the Vector API.
+     */
+    static BatchKernel newManhattanKernel(final PuzzleState<?> target) {
+        return AVAILABLE ? new VectorManhattanKernel(target) : null;
+    }
+}
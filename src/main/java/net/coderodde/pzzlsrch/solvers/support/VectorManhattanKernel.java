@@ -0,0 +1,174 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+
+/**
+ * This class sums the Manhattan distances of a batch of nodes with the
+ * Vector API. The target row and column of each tile are kept in tables of
+ * one vector each: the low bits of a tile select its lane within a table by
+ * a lane shuffle, and the high bits select the table, so a whole vector of
+ * tiles is looked up at once. The distances are then the absolute
+ * differences from the row and column of each cell, and are summed in
+ * 16-bit lanes. As in {@link VectorDisplacementKernel}, the cells are read
+ * with unmasked loads and the lanes past the last cell are cleared by a
+ * mask. Only {@link VectorKernels} may create instances.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+final class VectorManhattanKernel implements BatchKernel {
+    
+    /**
+     * The widest byte vectors of the platform.
+     */
+    private static final VectorSpecies<Byte> SPECIES =
+            ByteVector.SPECIES_PREFERRED;
+    
+    /**
+     * The short vectors of the same size.
+     */
+    private static final VectorSpecies<Short> SHORTS =
+            SPECIES.withLanes(short.class);
+    
+    /**
+     * The amount of bits selecting a lane within a table.
+     */
+    private static final int SHIFT =
+            Integer.numberOfTrailingZeros(SPECIES.length());
+    
+    /**
+     * The target row of each tile, one vector per table.
+     */
+    private final byte[] tileRows;
+    
+    /**
+     * The target column of each tile, one vector per table.
+     */
+    private final byte[] tileColumns;
+    
+    /**
+     * The row of each cell, padded to whole vectors.
+     */
+    private final byte[] cellRows;
+    
+    /**
+     * The column of each cell, padded to whole vectors.
+     */
+    private final byte[] cellColumns;
+    
+    /**
+     * Minus one at the lanes of the cells, zero at the padding.
+     */
+    private final byte[] valid;
+    
+    /**
+     * The amount of cells.
+     */
+    private final int cells;
+    
+    VectorManhattanKernel(final PuzzleState<?> target) {
+        final int n = target.getDimension();
+        final int L = SPECIES.length();
+        final int length = (n * n + L - 1) / L * L;
+        
+        this.cells = n * n;
+        this.tileRows = new byte[length];
+        this.tileColumns = new byte[length];
+        this.cellRows = new byte[length];
+        this.cellColumns = new byte[length];
+        this.valid = new byte[length];
+        
+        for (int y = 0, cell = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x, ++cell) {
+                final int tile = target.get(x, y);
+                
+                tileRows[tile] = (byte) y;
+                tileColumns[tile] = (byte) x;
+                cellRows[cell] = (byte) y;
+                cellColumns[cell] = (byte) x;
+            }
+        }
+        
+        Arrays.fill(valid, 0, cells, (byte) -1);
+    }
+    
+    @Override
+    public int getAll(final byte[] tiles,
+                      final int count,
+                      final int[] estimates) {
+        final int L = SPECIES.length();
+        final int end = count(tiles.length, count);
+        
+        for (int k = 0, base = 0; k != end; ++k, base += cells) {
+            ShortVector sum = ShortVector.zero(SHORTS);
+            
+            for (int i = 0; i != valid.length; i += L) {
+                final ByteVector t = ByteVector.fromArray(SPECIES,
+                                                          tiles,
+                                                          base + i);
+                final ByteVector lane = t.and((byte) (L - 1));
+                ByteVector row = lane.selectFrom(
+                        ByteVector.fromArray(SPECIES, tileRows, 0));
+                ByteVector column = lane.selectFrom(
+                        ByteVector.fromArray(SPECIES, tileColumns, 0));
+                
+                for (int j = L; j != valid.length; j += L) {
+                    final VectorMask<Byte> inTable =
+                            t.lanewise(VectorOperators.LSHR, SHIFT)
+                             .eq((byte) (j >>> SHIFT));
+                    
+                    row = row.blend(lane.selectFrom(
+                            ByteVector.fromArray(SPECIES, tileRows, j)),
+                                    inTable);
+                    column = column.blend(lane.selectFrom(
+                            ByteVector.fromArray(SPECIES, tileColumns, j)),
+                                          inTable);
+                }
+                
+                final ByteVector d =
+                        row.sub(ByteVector.fromArray(SPECIES, cellRows, i))
+                           .abs()
+                           .add(column.sub(ByteVector.fromArray(SPECIES,
+                                                                cellColumns,
+                                                                i))
+                                      .abs())
+                           .and(ByteVector.fromArray(SPECIES, valid, i))
+                           .blend((byte) 0, t.eq((byte) 0));
+                
+                // No distance exceeds 20, so the pairs of byte lanes are
+                // summed within 16-bit lanes without overflow.
+                final ShortVector pairs = d.reinterpretAsShorts();
+                
+                sum = sum.add(pairs.and((short) 0xff))
+                         .add(pairs.lanewise(VectorOperators.LSHR, 8));
+            }
+            
+            estimates[k] = sum.reduceLanes(VectorOperators.ADD);
+        }
+        
+        return end;
+    }
+    
+    /**
+     * Returns the amount of leading nodes whose vectors all lie within the
+     * array.
+     * 
+     * @param length the length of the array.
+     * @param count the amount of nodes.
+     * 
+     * @return the amount of nodes to evaluate with vectors.
+     */
+    private int count(final int length, final int count) {
+        if (length < valid.length) {
+            return 0;
+        }
+        
+        return (int) Math.min(count, (length - valid.length) / cells + 1L);
+    }
+}
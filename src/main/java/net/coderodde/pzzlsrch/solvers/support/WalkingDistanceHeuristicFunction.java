@@ -0,0 +1,221 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Arrays;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+
+/**
+ * This class implements the walking distance heuristic: the sum of the
+ * walking distances of the rows and of the columns, looked up from tables
+ * precomputed once per dimension; see {@link WalkingDistanceTable}. Since a
+ * vertical move changes only the row matrix and a horizontal move only the
+ * column matrix, the heuristic is admissible, and it dominates the Manhattan
+ * distance.
+ * <p>
+ * Depth-first solvers descending with
+ * {@link #descend(PuzzleState, int, int, int, int)} get the matrix indices
+ * of every child from those of its parent in constant time; any other
+ * evaluation recounts the tiles of the node.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ * @param <T> the node type.
+ */
+public class WalkingDistanceHeuristicFunction<T extends PuzzleState<T>>
+extends HeuristicFunction<T> {
+    
+    /**
+     * The largest supported dimension.
+     */
+    public static final int MAX_DIMENSION = 4;
+    
+    /**
+     * The dimension of the board.
+     */
+    private int n;
+    
+    /**
+     * The row table.
+     */
+    private WalkingDistanceTable rows;
+    
+    /**
+     * The column table.
+     */
+    private WalkingDistanceTable columns;
+    
+    /**
+     * Maps each tile to its target x-coordinate.
+     */
+    private int[] targetX;
+    
+    /**
+     * Maps each tile to its target y-coordinate.
+     */
+    private int[] targetY;
+    
+    /**
+     * Maps each cell to its x-coordinate.
+     */
+    private int[] cellX;
+    
+    /**
+     * Maps each cell to its y-coordinate.
+     */
+    private int[] cellY;
+    
+    /**
+     * The work space for counting the tiles.
+     */
+    private int[] counts;
+    
+    /**
+     * The row matrix index of each node on the current path.
+     */
+    private int[] rowPath = new int[64];
+    
+    /**
+     * The column matrix index of each node on the current path.
+     */
+    private int[] columnPath = new int[64];
+    
+    /**
+     * The index of the last node on the current path.
+     */
+    private int top;
+    
+    /**
+     * Sets the target node.
+     * 
+     * @param target the target node.
+     * 
+     * @return this for chaining.
+     * 
+     * @throws IllegalArgumentException if the dimension of
+     * <code>target</code> exceeds {@link #MAX_DIMENSION}.
+     */
+    @Override
+    public WalkingDistanceHeuristicFunction<T> withTarget(final T target) {
+        if (target.getDimension() > MAX_DIMENSION) {
+            throw new IllegalArgumentException(
+                    "The walking distance is not supported for dimension " +
+                    target.getDimension() + ".");
+        }
+        
+        super.withTarget(target);
+        this.n = target.getDimension();
+        this.targetX = new int[n * n];
+        this.targetY = new int[n * n];
+        this.cellX = new int[n * n];
+        this.cellY = new int[n * n];
+        this.counts = new int[n * n];
+        
+        for (int cell = 0; cell != n * n; ++cell) {
+            cellX[cell] = cell % n;
+            cellY[cell] = cell / n;
+        }
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte tile = target.get(x, y);
+                targetX[tile] = x;
+                targetY[tile] = y;
+            }
+        }
+        
+        this.rows = WalkingDistanceTable.get(n, targetY[0]);
+        this.columns = WalkingDistanceTable.get(n, targetX[0]);
+        return this;
+    }
+    
+    /**
+     * Gets the heuristic estimate of <code>t</code> and starts a new path at
+     * <code>t</code> for {@link #descend(PuzzleState, int, int, int, int)}.
+     * 
+     * @param t the node.
+     * 
+     * @return the walking distance of <code>t</code>.
+     */
+    @Override
+    public int get(final T t) {
+        Arrays.fill(counts, 0);
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte tile = t.get(x, y);
+                
+                if (tile != 0) {
+                    ++counts[y * n + targetY[tile]];
+                }
+            }
+        }
+        
+        top = 0;
+        rowPath[0] = rows.indexOf(counts, t.getBlankY());
+        Arrays.fill(counts, 0);
+        
+        for (int y = 0; y != n; ++y) {
+            for (int x = 0; x != n; ++x) {
+                final byte tile = t.get(x, y);
+                
+                if (tile != 0) {
+                    ++counts[x * n + targetX[tile]];
+                }
+            }
+        }
+        
+        columnPath[0] = columns.indexOf(counts, t.getBlankX());
+        return rows.getDistance(rowPath[0])
+             + columns.getDistance(columnPath[0]);
+    }
+    
+    @Override
+    public int descend(final T t,
+                       final int parentH,
+                       final int tile,
+                       final int from,
+                       final int to) {
+        int row = rowPath[top];
+        int column = columnPath[top];
+        
+        // The empty tile moves from the cell 'to' into the cell 'from'.
+        if (cellX[from] == cellX[to]) {
+            row = rows.getSuccessor(row,
+                                    cellY[from] < cellY[to] ?
+                                            WalkingDistanceTable.BACKWARD :
+                                            WalkingDistanceTable.FORWARD,
+                                    targetY[tile]);
+        } else {
+            column = columns.getSuccessor(column,
+                                          cellX[from] < cellX[to] ?
+                                              WalkingDistanceTable.BACKWARD :
+                                              WalkingDistanceTable.FORWARD,
+                                          targetX[tile]);
+        }
+        
+        if (++top == rowPath.length) {
+            rowPath = Arrays.copyOf(rowPath, 2 * top);
+            columnPath = Arrays.copyOf(columnPath, 2 * top);
+        }
+        
+        rowPath[top] = row;
+        columnPath[top] = column;
+        return rows.getDistance(row) + columns.getDistance(column);
+    }
+    
+    @Override
+    public void ascend() {
+        --top;
+    }
+    
+    @Override
+    public int get(final T t1, final T t2) {
+        throw new UnsupportedOperationException(
+                "This operation is not supported due to performance issues.");
+    }
+    
+    @Override
+    public WalkingDistanceHeuristicFunction<T> newInstance() {
+        return new WalkingDistanceHeuristicFunction<T>();
+    }
+}
@@ -0,0 +1,261 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the walking distance table of one direction. The rows of
+ * the board are abstracted into a matrix counting, for every row, the tiles
+ * of each class, a class being the set of tiles with the same target row,
+ * together with the row of the empty tile. A vertical move carries a tile of
+ * some class from a row next to the empty tile into the row of the empty
+ * tile. The walking distance of a matrix is the least amount of such moves
+ * leading to the target matrix; the columns are handled by the same table
+ * applied to the transposed board.
+ * <p>
+ * The tables depend only on the dimension and on the line of the empty tile
+ * in the target, and are shared by all the heuristic functions.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+final class WalkingDistanceTable {
+    
+    /**
+     * The direction moving the empty tile towards the lower line indices.
+     */
+    static final int BACKWARD = 0;
+    
+    /**
+     * The direction moving the empty tile towards the higher line indices.
+     */
+    static final int FORWARD = 1;
+    
+    /**
+     * The amount of bits encoding a single count.
+     */
+    private static final int BITS = 3;
+    
+    /**
+     * The tables built so far, by dimension and target line of the empty
+     * tile.
+     */
+    private static final Map<Integer, WalkingDistanceTable> cache =
+            new HashMap<Integer, WalkingDistanceTable>();
+    
+    /**
+     * The dimension of the board.
+     */
+    private final int n;
+    
+    /**
+     * Maps each encoded matrix to its index.
+     */
+    private final Map<Long, Integer> indices = new HashMap<Long, Integer>();
+    
+    /**
+     * The walking distance of each matrix.
+     */
+    private final byte[] distances;
+    
+    /**
+     * Maps each matrix, direction and class to the index of the matrix
+     * obtained by moving a tile of that class in that direction, or -1.
+     */
+    private final int[] successors;
+    
+    /**
+     * Builds the table by a breadth-first search from the target matrix.
+     * 
+     * @param n the dimension of the board.
+     * @param blankLine the line of the empty tile in the target.
+     */
+    private WalkingDistanceTable(final int n, final int blankLine) {
+        this.n = n;
+        
+        final int[] counts = new int[n * n];
+        
+        for (int line = 0; line != n; ++line) {
+            counts[line * n + line] = line == blankLine ? n - 1 : n;
+        }
+        
+        final Deque<Long> queue = new ArrayDeque<Long>();
+        final long target = encode(counts, blankLine);
+        final List<Byte> distanceList = new ArrayList<Byte>();
+        
+        indices.put(target, 0);
+        distanceList.add((byte) 0);
+        queue.add(target);
+        
+        while (queue.isEmpty() == false) {
+            final long key = queue.remove();
+            final int distance = distanceList.get(indices.get(key));
+            final int blank = decode(key, counts);
+            
+            for (int d = BACKWARD; d <= FORWARD; ++d) {
+                final int line = d == BACKWARD ? blank - 1 : blank + 1;
+                
+                if (line < 0 || line >= n) {
+                    continue;
+                }
+                
+                for (int c = 0; c != n; ++c) {
+                    if (counts[line * n + c] == 0) {
+                        continue;
+                    }
+                    
+                    --counts[line * n + c];
+                    ++counts[blank * n + c];
+                    
+                    final long next = encode(counts, line);
+                    
+                    if (indices.containsKey(next) == false) {
+                        indices.put(next, indices.size());
+                        distanceList.add((byte)(distance + 1));
+                        queue.add(next);
+                    }
+                    
+                    ++counts[line * n + c];
+                    --counts[blank * n + c];
+                }
+            }
+        }
+        
+        this.distances = new byte[distanceList.size()];
+        this.successors = new int[distances.length * 2 * n];
+        
+        for (int i = 0; i != distances.length; ++i) {
+            distances[i] = distanceList.get(i);
+        }
+        
+        for (final Map.Entry<Long, Integer> e : indices.entrySet()) {
+            final int blank = decode(e.getKey(), counts);
+            
+            for (int d = BACKWARD; d <= FORWARD; ++d) {
+                final int line = d == BACKWARD ? blank - 1 : blank + 1;
+                
+                for (int c = 0; c != n; ++c) {
+                    final int slot = (e.getValue() * 2 + d) * n + c;
+                    
+                    if (line < 0 || line >= n || counts[line * n + c] == 0) {
+                        successors[slot] = -1;
+                        continue;
+                    }
+                    
+                    --counts[line * n + c];
+                    ++counts[blank * n + c];
+                    successors[slot] = indices.get(encode(counts, line));
+                    ++counts[line * n + c];
+                    --counts[blank * n + c];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the table for dimension <code>n</code> and target line
+     * <code>blankLine</code> of the empty tile, building it on first use.
+     * 
+     * @param n the dimension of the board.
+     * @param blankLine the line of the empty tile in the target.
+     * 
+     * @return the table.
+     */
+    static synchronized WalkingDistanceTable get(final int n,
+                                                 final int blankLine) {
+        final Integer key = n * n + blankLine;
+        WalkingDistanceTable table = cache.get(key);
+        
+        if (table == null) {
+            table = new WalkingDistanceTable(n, blankLine);
+            cache.put(key, table);
+        }
+        
+        return table;
+    }
+    
+    /**
+     * Returns the amount of matrices.
+     * 
+     * @return the amount of matrices.
+     */
+    int size() {
+        return distances.length;
+    }
+    
+    /**
+     * Returns the index of a matrix.
+     * 
+     * @param counts the counts of the tiles of each class in each line, line
+     * by line.
+     * @param blank the line of the empty tile.
+     * 
+     * @return the index of the matrix.
+     */
+    int indexOf(final int[] counts, final int blank) {
+        return indices.get(encode(counts, blank));
+    }
+    
+    /**
+     * Returns the walking distance of a matrix.
+     * 
+     * @param index the index of the matrix.
+     * 
+     * @return the walking distance.
+     */
+    int getDistance(final int index) {
+        return distances[index];
+    }
+    
+    /**
+     * Returns the index of the matrix obtained by moving a tile of class
+     * <code>c</code> in direction <code>direction</code>.
+     * 
+     * @param index the index of the matrix.
+     * @param direction the direction the empty tile moves in.
+     * @param c the class of the moved tile.
+     * 
+     * @return the index of the resulting matrix.
+     */
+    int getSuccessor(final int index, final int direction, final int c) {
+        return successors[(index * 2 + direction) * n + c];
+    }
+    
+    /**
+     * Encodes a matrix into a <code>long</code>.
+     * 
+     * @param counts the counts, line by line.
+     * @param blank the line of the empty tile.
+     * 
+     * @return the encoded matrix.
+     */
+    private static long encode(final int[] counts, final int blank) {
+        long key = blank;
+        
+        for (final int count : counts) {
+            key = (key << BITS) | count;
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Decodes a matrix.
+     * 
+     * @param key the encoded matrix.
+     * @param counts the array to store the counts to.
+     * 
+     * @return the line of the empty tile.
+     */
+    private static int decode(long key, final int[] counts) {
+        for (int i = counts.length - 1; i >= 0; --i, key >>>= BITS) {
+            counts[i] = (int)(key & ((1 << BITS) - 1));
+        }
+        
+        return (int) key;
+    }
+}
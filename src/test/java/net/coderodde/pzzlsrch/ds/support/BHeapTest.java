@@ -0,0 +1,149 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the B-heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BHeapTest {
+    
+    private IntegerPriorityQueue<Integer> heap = new BHeap<Integer>(8);
+    
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>add</code> method over many pages.
+     */
+    @Test
+    public void testAdd() {
+        for (int i = 5000; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        heap.add(2500, 1);
+        
+        assertEquals(5000, heap.size());
+        assertEquals((Integer) 1, heap.min());
+        
+        for (int i = 1; i != 5001; ++i) {
+            assertEquals(i, heap.getMinimumPriority());
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals(0, heap.size());
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 3000; ++i) {
+            heap.add(i, 10000 + i);
+        }
+        
+        for (int i = 0; i != 3000; ++i) {
+            heap.decreasePriority(i, 3000 - i);
+        }
+        
+        heap.decreasePriority(0, 5000);
+        
+        for (int i = 2999; i >= 0; --i) {
+            assertEquals(3000 - i, heap.getMinimumPriority());
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+    }
+    
+    /**
+     * This method tests that the heap extracts the same elements as
+     * {@link PrimitiveDAryHeap} under random operations, with both the heap
+     * and its element table growing, for several page sizes.
+     */
+    @Test
+    public void testAgainstPrimitiveDAryHeap() {
+        final Random random = new Random(29L);
+        
+        for (int pageSize = 4; pageSize <= 64; pageSize <<= 1) {
+            final IntegerPriorityQueue<Integer> expected =
+                    new PrimitiveDAryHeap<Integer>(2, 128);
+            final IntegerPriorityQueue<Integer> actual =
+                    new BHeap<Integer>(pageSize, 128);
+            
+            for (int round = 0; round != 30000; ++round) {
+                final int op = random.nextInt(4);
+                
+                if (op == 0 && expected.size() != 0) {
+                    assertEquals(expected.getMinimumPriority(),
+                                 actual.getMinimumPriority());
+                    assertEquals(expected.extractMinimum(),
+                                 actual.extractMinimum());
+                    continue;
+                }
+                
+                // The priorities are distinct, so both heaps hold the same
+                // elements at all times.
+                final int element = random.nextInt(10000);
+                final int priority = random.nextInt(100000) * 10000 + element;
+                
+                if (op == 1) {
+                    expected.decreasePriority(element, priority);
+                    actual.decreasePriority(element, priority);
+                } else {
+                    expected.add(element, priority);
+                    actual.add(element, priority);
+                }
+                
+                assertEquals(expected.size(), actual.size());
+            }
+            
+            while (expected.size() != 0) {
+                assertEquals(expected.getMinimumPriority(),
+                             actual.getMinimumPriority());
+                assertEquals(expected.extractMinimum(),
+                             actual.extractMinimum());
+            }
+            
+            assertEquals(0, actual.size());
+        }
+    }
+    
+    /**
+     * This method tests the <code>clear</code> method.
+     */
+    @Test
+    public void testClear() {
+        for (int i = 0; i != 1000; ++i) {
+            heap.add(i, i);
+        }
+        
+        heap.clear();
+        
+        assertEquals(0, heap.size());
+        
+        for (int i = 1000; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        assertEquals(1000, heap.size());
+        assertEquals((Integer) 1, heap.extractMinimum());
+    }
+    
+    /**
+     * This method tests that a page size not being a power of two is
+     * rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPageSize() {
+        new BHeap<Integer>(24);
+    }
+}
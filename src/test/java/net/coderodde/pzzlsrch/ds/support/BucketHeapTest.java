@@ -1,7 +1,11 @@
 package net.coderodde.pzzlsrch.ds.support;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -96,4 +100,119 @@ public class BucketHeapTest {
         
         assertEquals(0, heap.size());
     }
-}
\ No newline at end of file
+    
+    /**
+     * This method tests that the priorities are not bounded by the maximum
+     * priority given at construction, and may be negative.
+     */
+    @Test
+    public void testGrowth() {
+        final IntegerPriorityQueue<Integer> small = new BucketHeap<Integer>(4);
+        
+        small.add(0, 100);
+        small.add(1, 3);
+        small.add(2, 5000);
+        small.add(3, -20);
+        small.decreasePriority(2, -100);
+        
+        assertEquals(-100, small.getMinimumPriority());
+        assertEquals((Integer) 2, small.extractMinimum());
+        assertEquals((Integer) 3, small.extractMinimum());
+        assertEquals((Integer) 1, small.extractMinimum());
+        assertEquals(100, small.getMinimumPriority());
+        assertEquals((Integer) 0, small.extractMinimum());
+        assertEquals(Integer.MAX_VALUE, small.getMinimumPriority());
+    }
+    
+    /**
+     * This method tests that the heap is reusable after the constant-time
+     * <code>clear</code>.
+     */
+    @Test
+    public void testClear() {
+        for (int round = 0; round != 100; ++round) {
+            for (int i = 0; i != 300; ++i) {
+                heap.add(i, (i * 7 + round) % 300);
+            }
+            
+            heap.decreasePriority(299, -1);
+            heap.extractMinimum();
+            
+            assertEquals(299, heap.size());
+            
+            heap.clear();
+            
+            assertEquals(0, heap.size());
+            
+            heap.add(299, 5);
+            
+            assertEquals(1, heap.size());
+            assertEquals((Integer) 299, heap.min());
+            
+            heap.clear();
+        }
+    }
+    
+    /**
+     * This method tests random operations against a map of the priorities.
+     */
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(17L);
+        final Map<Integer, Integer> model = new HashMap<Integer, Integer>();
+        
+        for (int round = 0; round != 20000; ++round) {
+            final int op = random.nextInt(4);
+            final int element = random.nextInt(500);
+            final int priority = random.nextInt(2000) - 500;
+            
+            if (op == 0 && model.isEmpty() == false) {
+                int minimum = Integer.MAX_VALUE;
+                
+                for (final int p : model.values()) {
+                    minimum = Math.min(minimum, p);
+                }
+                
+                assertEquals(minimum, heap.getMinimumPriority());
+                
+                final Integer e = heap.extractMinimum();
+                
+                assertEquals((Integer) minimum, model.remove(e));
+            } else if (op == 1) {
+                heap.decreasePriority(element, priority);
+                
+                if (model.containsKey(element) &&
+                        model.get(element) > priority) {
+                    model.put(element, priority);
+                }
+            } else {
+                heap.add(element, priority);
+                
+                if (model.containsKey(element) == false) {
+                    model.put(element, priority);
+                }
+            }
+            
+            assertEquals(model.size(), heap.size());
+            
+            if (round % 5000 == 4999) {
+                heap.clear();
+                model.clear();
+            }
+        }
+        
+        int last = Integer.MIN_VALUE;
+        
+        while (model.isEmpty() == false) {
+            final int minimum = heap.getMinimumPriority();
+            
+            assertTrue(last <= minimum);
+            assertEquals((Integer) minimum,
+                         model.remove(heap.extractMinimum()));
+            
+            last = minimum;
+        }
+        
+        assertEquals(0, heap.size());
+    }
+}
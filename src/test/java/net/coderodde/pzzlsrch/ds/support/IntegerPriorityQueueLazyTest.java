@@ -0,0 +1,128 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Arrays;
+import java.util.Collection;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * This class tests the lazy-deletion mode of every priority queue.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+@RunWith(Parameterized.class)
+public class IntegerPriorityQueueLazyTest {
+    
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> getQueues() {
+        return Arrays.asList(new Object[][]{
+            { "DAryHeap", new DAryHeap<Integer>(3) },
+            { "PrimitiveDAryHeap", new PrimitiveDAryHeap<Integer>(3) },
+            { "BucketHeap", new BucketHeap<Integer>(1000) },
+            { "TieBreakingBucketHeap", new TieBreakingBucketHeap<Integer>() },
+            { "RadixHeap", new RadixHeap<Integer>() },
+            { "BHeap", new BHeap<Integer>(8) },
+        });
+    }
+    
+    private final IntegerPriorityQueue<Integer> queue;
+    
+    private IntegerPriorityQueue<Integer> lazy;
+    
+    public IntegerPriorityQueueLazyTest(
+            final String name,
+            final IntegerPriorityQueue<Integer> queue) {
+        this.queue = queue;
+    }
+    
+    @Before
+    public void init() {
+        queue.clear();
+        lazy = queue.newLazyInstance();
+    }
+    
+    /**
+     * This method tests that the lazy-deletion mode keeps every entry of an
+     * element added more than once.
+     */
+    @Test
+    public void testDuplicates() {
+        for (int i = 0; i != 1000; ++i) {
+            lazy.add(i, 2000 - i);
+            lazy.add(i, 1000 + i);
+        }
+        
+        assertEquals(2000, lazy.size());
+        
+        final int[] counts = new int[1000];
+        int previous = Integer.MIN_VALUE;
+        
+        while (lazy.size() > 0) {
+            final int priority = lazy.getMinimumPriority();
+            assertTrue(previous <= priority);
+            previous = priority;
+            counts[lazy.extractMinimum()]++;
+        }
+        
+        for (int i = 0; i != 1000; ++i) {
+            assertEquals(2, counts[i]);
+        }
+    }
+    
+    /**
+     * This method tests that the lazy-deletion mode does not support
+     * decreasing priorities.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDecreasePriority() {
+        lazy.add(1, 10);
+        lazy.decreasePriority(1, 5);
+    }
+    
+    /**
+     * This method tests that a cleared lazy queue can be refilled.
+     */
+    @Test
+    public void testClear() {
+        for (int i = 0; i != 500; ++i) {
+            lazy.add(i % 10, i);
+        }
+        
+        lazy.clear();
+        
+        assertEquals(0, lazy.size());
+        
+        lazy.add(7, 3);
+        lazy.add(7, 2);
+        
+        assertEquals(2, lazy.size());
+        assertEquals(2, lazy.getMinimumPriority());
+        assertEquals((Integer) 7, lazy.extractMinimum());
+        assertEquals((Integer) 7, lazy.extractMinimum());
+        assertEquals(0, lazy.size());
+    }
+    
+    /**
+     * This method tests that the lazy instance does not share its contents
+     * with the queue it is spawned from, which stays indexed.
+     */
+    @Test
+    public void testIndependence() {
+        lazy.add(1, 1);
+        
+        assertEquals(0, queue.size());
+        
+        queue.add(2, 5);
+        queue.add(2, 5);
+        
+        assertEquals(1, queue.size());
+        assertEquals(1, lazy.size());
+    }
+}
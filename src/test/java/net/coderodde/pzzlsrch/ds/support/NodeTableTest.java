@@ -0,0 +1,80 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the node table.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class NodeTableTest {
+    
+    /**
+     * This method tests insertion and lookup across several rehashes.
+     */
+    @Test
+    public void testInsertAndFind() {
+        final NodeTable<Integer> table = new NodeTable<Integer>(16);
+        
+        for (int i = 0; i != 1000; ++i) {
+            final int slot = table.find(i);
+            
+            assertTrue(slot < 0);
+            table.insert(slot, i, 2 * i, i % 4);
+        }
+        
+        assertEquals(1000, table.size());
+        
+        for (int i = 0; i != 1000; ++i) {
+            final int slot = table.find(i);
+            
+            assertTrue(slot >= 0);
+            assertEquals(Integer.valueOf(i), table.getKey(slot));
+            assertEquals(2 * i, table.getG(slot));
+            assertEquals(i % 4, table.getParentMove(slot));
+            assertFalse(table.isClosed(slot));
+        }
+        
+        assertTrue(table.find(1000) < 0);
+    }
+    
+    /**
+     * This method tests updating the entries.
+     */
+    @Test
+    public void testUpdate() {
+        final NodeTable<Integer> table = new NodeTable<Integer>();
+        final Integer key = 7;
+        int slot = table.insert(key, 10, -4);
+        
+        assertTrue(table.getParentMove(slot) < 0);
+        assertSame(key, table.getKey(slot));
+        assertEquals(slot, table.insert(7, 5, 1));
+        assertEquals(10, table.getG(slot));
+        
+        table.setG(slot, 3);
+        table.setParentMove(slot, 2);
+        table.close(slot);
+        
+        slot = table.find(7);
+        
+        assertEquals(3, table.getG(slot));
+        assertEquals(2, table.getParentMove(slot));
+        assertTrue(table.isClosed(slot));
+        
+        table.setParentMove(slot, 0);
+        
+        assertEquals(0, table.getParentMove(slot));
+        assertTrue(table.isClosed(slot));
+        
+        table.clear();
+        
+        assertEquals(0, table.size());
+        assertTrue(table.find(7) < 0);
+    }
+}
@@ -0,0 +1,150 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the primitive d-ary heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PrimitiveDAryHeapTest {
+    
+    private IntegerPriorityQueue<Integer> heap =
+            new PrimitiveDAryHeap<Integer>(3);
+    
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>add</code> method.
+     */
+    @Test
+    public void testAdd() {
+        for (int i = 100; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        heap.add(50, -1);
+        
+        assertEquals(100, heap.size());
+        assertEquals((Integer) 1, heap.min());
+        
+        for (int i = 1; i != 101; ++i) {
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals(0, heap.size());
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 1000; ++i) {
+            heap.add(i, i);
+        }
+        
+        for (int i = 0; i != 1000; ++i) {
+            heap.decreasePriority(i, -i);
+        }
+        
+        heap.decreasePriority(999, 0);
+        heap.decreasePriority(1000, -2000);
+        
+        for (int i = 999; i > -1; --i) {
+            assertEquals(-i, heap.getMinimumPriority());
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals(0, heap.size());
+    }
+    
+    /**
+     * This method tests that the priority of the root may be decreased.
+     */
+    @Test
+    public void testDecreaseRootPriority() {
+        heap.add(1, 10);
+        heap.add(2, 20);
+        heap.decreasePriority(1, 5);
+        
+        assertEquals(5, heap.getMinimumPriority());
+        assertEquals((Integer) 1, heap.extractMinimum());
+        assertEquals(20, heap.getMinimumPriority());
+    }
+    
+    /**
+     * This method tests that the heap extracts the same elements as
+     * {@link DAryHeap} under random operations, with both the heap and its
+     * element table growing.
+     */
+    @Test
+    public void testAgainstDAryHeap() {
+        final Random random = new Random(13L);
+        
+        for (int d = 2; d <= 6; ++d) {
+            final IntegerPriorityQueue<Integer> expected =
+                    new DAryHeap<Integer>(d);
+            final IntegerPriorityQueue<Integer> actual =
+                    new PrimitiveDAryHeap<Integer>(d, 128);
+            
+            for (int round = 0; round != 20000; ++round) {
+                final int op = random.nextInt(4);
+                
+                if (op == 0 && expected.size() != 0) {
+                    assertEquals(expected.getMinimumPriority(),
+                                 actual.getMinimumPriority());
+                    assertEquals(expected.extractMinimum(),
+                                 actual.extractMinimum());
+                    continue;
+                }
+                
+                // The priorities are distinct, so both heaps hold the same
+                // elements at all times.
+                final int element = random.nextInt(5000);
+                final int priority = random.nextInt(100000) * 5000 + element;
+                
+                if (op == 1) {
+                    // DAryHeap ignores the decreases of its root.
+                    if (expected.size() != 0 &&
+                            expected.min().intValue() == element) {
+                        continue;
+                    }
+                    
+                    expected.decreasePriority(element, priority);
+                    actual.decreasePriority(element, priority);
+                } else {
+                    expected.add(element, priority);
+                    actual.add(element, priority);
+                }
+                
+                assertEquals(expected.size(), actual.size());
+            }
+            
+            while (expected.size() != 0) {
+                assertEquals(expected.getMinimumPriority(),
+                             actual.getMinimumPriority());
+                assertEquals(expected.extractMinimum(),
+                             actual.extractMinimum());
+            }
+            
+            assertEquals(0, actual.size());
+        }
+    }
+    
+    /**
+     * This method tests that the degree below two is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDegree() {
+        new PrimitiveDAryHeap<Integer>(1);
+    }
+}
@@ -0,0 +1,198 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the radix heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class RadixHeapTest {
+    
+    private IntegerPriorityQueue<Integer> heap = new RadixHeap<Integer>();
+    
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>add</code> method.
+     */
+    @Test
+    public void testAdd() {
+        for (int i = 1000; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        heap.add(500, 1);
+        
+        assertEquals(1000, heap.size());
+        assertEquals((Integer) 1, heap.min());
+        
+        for (int i = 1; i != 1001; ++i) {
+            assertEquals(i, heap.getMinimumPriority());
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals(0, heap.size());
+        assertEquals(Integer.MAX_VALUE, heap.getMinimumPriority());
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method and that the
+     * stale entries it leaves behind are never extracted.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 1000; ++i) {
+            heap.add(i, 5000 + i);
+        }
+        
+        for (int i = 0; i != 1000; ++i) {
+            heap.decreasePriority(i, 2000 - i);
+        }
+        
+        heap.decreasePriority(0, 3000);
+        
+        for (int i = 999; i > 499; --i) {
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        // Re-adding an extracted element with its stale priority must not
+        // revive the stale entry.
+        heap.add(999, 5999);
+        
+        for (int i = 499; i > -1; --i) {
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals((Integer) 999, heap.extractMinimum());
+        assertEquals(0, heap.size());
+    }
+    
+    /**
+     * This method tests negative priorities and priorities of both signs.
+     */
+    @Test
+    public void testNegativePriorities() {
+        heap.add(1, Integer.MAX_VALUE);
+        heap.add(2, -7);
+        heap.add(3, Integer.MIN_VALUE);
+        heap.add(4, 0);
+        
+        assertEquals((Integer) 3, heap.extractMinimum());
+        assertEquals((Integer) 2, heap.extractMinimum());
+        assertEquals((Integer) 4, heap.extractMinimum());
+        assertEquals((Integer) 1, heap.extractMinimum());
+    }
+    
+    /**
+     * This method tests that a rejected addition leaves the heap intact, in
+     * both modes.
+     */
+    @Test
+    public void testAddAfterRejectedAdd() {
+        final List<IntegerPriorityQueue<Integer>> heaps =
+                new ArrayList<IntegerPriorityQueue<Integer>>();
+        
+        heaps.add(heap);
+        heaps.add(heap.newLazyInstance());
+        
+        for (final IntegerPriorityQueue<Integer> h : heaps) {
+            h.add(1, 10);
+            h.add(2, 20);
+            assertEquals((Integer) 1, h.extractMinimum());
+            
+            try {
+                h.add(3, 5);
+                fail("A priority below the last minimum was accepted.");
+            } catch (final IllegalArgumentException ex) {
+                // Expected.
+            }
+            
+            assertEquals(1, h.size());
+            
+            h.add(4, 15);
+            
+            assertEquals(2, h.size());
+            assertEquals((Integer) 4, h.extractMinimum());
+            assertEquals((Integer) 2, h.extractMinimum());
+            assertEquals(0, h.size());
+        }
+    }
+    
+    /**
+     * This method tests that the priorities below the last minimum are
+     * rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMonotonicity() {
+        heap.add(1, 10);
+        heap.add(2, 20);
+        heap.extractMinimum();
+        heap.add(3, 9);
+    }
+    
+    /**
+     * This method tests monotone random operations against a map of the
+     * priorities.
+     */
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(29L);
+        final Map<Integer, Integer> model = new HashMap<Integer, Integer>();
+        int last = 0;
+        
+        for (int round = 0; round != 20000; ++round) {
+            final int op = random.nextInt(4);
+            final int element = random.nextInt(500);
+            final int priority = last + random.nextInt(1000);
+            
+            if (op == 0 && model.isEmpty() == false) {
+                int minimum = Integer.MAX_VALUE;
+                
+                for (final int p : model.values()) {
+                    minimum = Math.min(minimum, p);
+                }
+                
+                assertEquals(minimum, heap.getMinimumPriority());
+                assertEquals((Integer) minimum,
+                             model.remove(heap.extractMinimum()));
+                
+                last = minimum;
+            } else if (op == 1) {
+                heap.decreasePriority(element, priority);
+                
+                if (model.containsKey(element) &&
+                        model.get(element) > priority) {
+                    model.put(element, priority);
+                }
+            } else {
+                heap.add(element, priority);
+                
+                if (model.containsKey(element) == false) {
+                    model.put(element, priority);
+                }
+            }
+            
+            assertEquals(model.size(), heap.size());
+            
+            if (round % 5000 == 4999) {
+                heap.clear();
+                model.clear();
+                last = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package net.coderodde.pzzlsrch.ds.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import net.coderodde.pzzlsrch.ds.TieBreakingPriorityQueue;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the tie-breaking bucket heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class TieBreakingBucketHeapTest {
+    
+    private TieBreakingPriorityQueue<Integer> heap =
+            new TieBreakingBucketHeap<Integer>(100);
+    
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests that the ties are broken by the highest g-score.
+     */
+    @Test
+    public void testTieBreaking() {
+        heap.add(1, 50, 10);
+        heap.add(2, 50, 40);
+        heap.add(3, 50, 25);
+        heap.add(4, 49, 0);
+        heap.add(5, 50, 60);
+        
+        assertEquals((Integer) 4, heap.extractMinimum());
+        assertEquals(50, heap.getMinimumPriority());
+        assertEquals((Integer) 5, heap.min());
+        assertEquals((Integer) 5, heap.extractMinimum());
+        assertEquals((Integer) 2, heap.extractMinimum());
+        assertEquals((Integer) 3, heap.extractMinimum());
+        assertEquals((Integer) 1, heap.extractMinimum());
+        assertEquals(0, heap.size());
+        assertEquals(Integer.MAX_VALUE, heap.getMinimumPriority());
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method.
+     */
+    @Test
+    public void testDecreasePriority() {
+        heap.add(1, 60, 30);
+        heap.add(2, 50, 30);
+        heap.add(3, 50, 10);
+        heap.decreasePriority(1, 50, 20);
+        heap.decreasePriority(2, 55, 50);
+        heap.decreasePriority(4, 0, 0);
+        
+        assertEquals(3, heap.size());
+        assertEquals((Integer) 2, heap.extractMinimum());
+        assertEquals((Integer) 1, heap.extractMinimum());
+        assertEquals((Integer) 3, heap.extractMinimum());
+    }
+    
+    /**
+     * This method tests that the priorities and the g-scores need not be
+     * bounded in advance.
+     */
+    @Test
+    public void testGrowth() {
+        heap.add(1, 1000, 0);
+        heap.add(2, -5, -500);
+        heap.add(3, 1000, 999);
+        heap.add(4, 7, 7);
+        heap.decreasePriority(1, -5, -2000);
+        
+        assertEquals((Integer) 2, heap.extractMinimum());
+        assertEquals((Integer) 1, heap.extractMinimum());
+        assertEquals((Integer) 4, heap.extractMinimum());
+        assertEquals((Integer) 3, heap.extractMinimum());
+    }
+    
+    /**
+     * This method tests random operations against a map of the priorities
+     * and the g-scores.
+     */
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(23L);
+        final Map<Integer, int[]> model = new HashMap<Integer, int[]>();
+        
+        for (int round = 0; round != 20000; ++round) {
+            final int op = random.nextInt(4);
+            final int element = random.nextInt(500);
+            final int priority = random.nextInt(200);
+            final int g = priority - random.nextInt(50);
+            
+            if (op == 0 && model.isEmpty() == false) {
+                int minimum = Integer.MAX_VALUE;
+                int maximumG = Integer.MIN_VALUE;
+                
+                for (final int[] entry : model.values()) {
+                    if (entry[0] < minimum) {
+                        minimum = entry[0];
+                        maximumG = entry[1];
+                    } else if (entry[0] == minimum) {
+                        maximumG = Math.max(maximumG, entry[1]);
+                    }
+                }
+                
+                assertEquals(minimum, heap.getMinimumPriority());
+                
+                final int[] entry = model.remove(heap.extractMinimum());
+                
+                assertEquals(minimum, entry[0]);
+                assertEquals(maximumG, entry[1]);
+            } else if (op == 1) {
+                heap.decreasePriority(element, priority, g);
+                
+                if (model.containsKey(element) &&
+                        model.get(element)[0] > priority) {
+                    model.put(element, new int[]{ priority, g });
+                }
+            } else {
+                heap.add(element, priority, g);
+                
+                if (model.containsKey(element) == false) {
+                    model.put(element, new int[]{ priority, g });
+                }
+            }
+            
+            assertEquals(model.size(), heap.size());
+            
+            if (round % 5000 == 4999) {
+                heap.clear();
+                model.clear();
+            }
+        }
+    }
+}
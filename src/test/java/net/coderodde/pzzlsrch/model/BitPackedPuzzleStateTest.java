@@ -0,0 +1,136 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Iterator;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the bit packed puzzle state.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class BitPackedPuzzleStateTest {
+    
+    /**
+     * This method tests that the bit packed state follows the puzzle node in a
+     * random walk.
+     */
+    @Test
+    public void testMovesMatchPuzzleNode() {
+        final Random r = new Random(13L);
+        
+        for (int n = 2; n <= BitPackedPuzzleState.MAX_DIMENSION; ++n) {
+            PuzzleNode node = new PuzzleNode(n);
+            BitPackedPuzzleState state = new BitPackedPuzzleState(n);
+            
+            assertEquals(new BitPackedPuzzleState(node), state);
+            
+            for (int i = 0; i != 1000; ++i) {
+                PuzzleNode nextNode = null;
+                BitPackedPuzzleState nextState = null;
+                
+                switch (r.nextInt(4)) {
+                    case 0:
+                        nextNode = node.moveUp();
+                        nextState = state.moveUp();
+                        break;
+                    case 1:
+                        nextNode = node.moveRight();
+                        nextState = state.moveRight();
+                        break;
+                    case 2:
+                        nextNode = node.moveDown();
+                        nextState = state.moveDown();
+                        break;
+                    case 3:
+                        nextNode = node.moveLeft();
+                        nextState = state.moveLeft();
+                        break;
+                }
+                
+                if (nextNode == null) {
+                    assertNull(nextState);
+                    continue;
+                }
+                
+                node = nextNode;
+                state = nextState;
+                
+                assertEquals(node, state.toPuzzleNode());
+                assertEquals(new BitPackedPuzzleState(node), state);
+                assertEquals(new BitPackedPuzzleState(node).hashCode(),
+                             state.hashCode());
+            }
+        }
+    }
+    
+    /**
+     * This method tests that in-place moves agree with the copying moves and
+     * that sliding back restores the state.
+     */
+    @Test
+    public void testInPlaceMoves() {
+        final BitPackedPuzzleState state =
+                new BitPackedPuzzleState(new PuzzleNode(7).moveUp().moveLeft());
+        final BitPackedPuzzleState work = state.copy();
+        
+        for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+            assertTrue(work.canMove(d));
+            
+            final PuzzleNode expected = work.toPuzzleNode();
+            final int x = expected.getBlankX();
+            final int y = expected.getBlankY();
+            final int tile = work.move(d);
+            
+            expected.move(d);
+            assertEquals(expected, work.toPuzzleNode());
+            assertEquals(tile, work.get(x, y));
+            
+            work.move(d ^ 2);
+            assertEquals(state, work);
+        }
+    }
+    
+    /**
+     * This method tests the neighbor iterator.
+     */
+    @Test
+    public void testIterator() {
+        final PuzzleNode node = new PuzzleNode(7).moveUp().moveLeft();
+        final Iterator<PuzzleNode> expected = node.iterator();
+        final Iterator<BitPackedPuzzleState> actual =
+                new BitPackedPuzzleState(node).iterator();
+        
+        while (expected.hasNext()) {
+            assertEquals(expected.next(), actual.next().toPuzzleNode());
+        }
+        
+        assertFalse(actual.hasNext());
+    }
+    
+    /**
+     * This method tests the amount of bits used per tile.
+     */
+    @Test
+    public void testBitsPerTile() {
+        assertEquals(2, BitPackedPuzzleState.getBitsPerTile(2));
+        assertEquals(4, BitPackedPuzzleState.getBitsPerTile(3));
+        assertEquals(4, BitPackedPuzzleState.getBitsPerTile(4));
+        assertEquals(5, BitPackedPuzzleState.getBitsPerTile(5));
+        assertEquals(6, BitPackedPuzzleState.getBitsPerTile(8));
+        assertEquals(7, BitPackedPuzzleState.getBitsPerTile(11));
+    }
+    
+    /**
+     * This method tests that too large dimensions are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLargeDimension() {
+        new BitPackedPuzzleState(BitPackedPuzzleState.MAX_DIMENSION + 1);
+    }
+}
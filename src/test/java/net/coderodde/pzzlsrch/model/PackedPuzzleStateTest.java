@@ -0,0 +1,123 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Iterator;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the packed puzzle state.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PackedPuzzleStateTest {
+    
+    /**
+     * This method tests that the packed state follows the puzzle node in a
+     * random walk.
+     */
+    @Test
+    public void testMovesMatchPuzzleNode() {
+        final Random r = new Random(13L);
+        
+        for (int n = 2; n <= PackedPuzzleState.MAX_DIMENSION; ++n) {
+            PuzzleNode node = new PuzzleNode(n);
+            PackedPuzzleState state = new PackedPuzzleState(n);
+            
+            assertEquals(new PackedPuzzleState(node), state);
+            
+            for (int i = 0; i != 1000; ++i) {
+                PuzzleNode nextNode = null;
+                PackedPuzzleState nextState = null;
+                
+                switch (r.nextInt(4)) {
+                    case 0:
+                        nextNode = node.moveUp();
+                        nextState = state.moveUp();
+                        break;
+                    case 1:
+                        nextNode = node.moveRight();
+                        nextState = state.moveRight();
+                        break;
+                    case 2:
+                        nextNode = node.moveDown();
+                        nextState = state.moveDown();
+                        break;
+                    case 3:
+                        nextNode = node.moveLeft();
+                        nextState = state.moveLeft();
+                        break;
+                }
+                
+                if (nextNode == null) {
+                    assertNull(nextState);
+                    continue;
+                }
+                
+                node = nextNode;
+                state = nextState;
+                
+                assertEquals(node, state.toPuzzleNode());
+                assertEquals(new PackedPuzzleState(node), state);
+                assertEquals(new PackedPuzzleState(node).hashCode(),
+                             state.hashCode());
+            }
+        }
+    }
+    
+    /**
+     * This method tests that in-place moves agree with the copying moves and
+     * that sliding back restores the state.
+     */
+    @Test
+    public void testInPlaceMoves() {
+        final PackedPuzzleState state =
+                new PackedPuzzleState(new PuzzleNode(4).moveUp().moveLeft());
+        final PackedPuzzleState work = state.copy();
+        
+        for (int d = 0; d != PuzzleState.DIRECTIONS; ++d) {
+            assertTrue(work.canMove(d));
+            
+            final PuzzleNode expected = work.toPuzzleNode();
+            final int x = expected.getBlankX();
+            final int y = expected.getBlankY();
+            final int tile = work.move(d);
+            
+            expected.move(d);
+            assertEquals(expected, work.toPuzzleNode());
+            assertEquals(tile, work.get(x, y));
+            
+            work.move(d ^ 2);
+            assertEquals(state, work);
+        }
+    }
+    
+    /**
+     * This method tests the neighbor iterator.
+     */
+    @Test
+    public void testIterator() {
+        final PuzzleNode node = new PuzzleNode(4).moveUp().moveLeft();
+        final Iterator<PuzzleNode> expected = node.iterator();
+        final Iterator<PackedPuzzleState> actual =
+                new PackedPuzzleState(node).iterator();
+        
+        while (expected.hasNext()) {
+            assertEquals(expected.next(), actual.next().toPuzzleNode());
+        }
+        
+        assertFalse(actual.hasNext());
+    }
+    
+    /**
+     * This method tests that too large dimensions are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLargeDimension() {
+        new PackedPuzzleState(PackedPuzzleState.MAX_DIMENSION + 1);
+    }
+}
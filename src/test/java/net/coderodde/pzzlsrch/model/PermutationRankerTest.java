@@ -0,0 +1,142 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the permutation ranker.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PermutationRankerTest {
+    
+    /**
+     * This method tests that every 3x3 index maps to a distinct solvable node
+     * and back.
+     */
+    @Test
+    public void testRankUnrankAll() {
+        final PermutationRanker ranker = new PermutationRanker(3);
+        
+        assertEquals(181440L, ranker.getStateCount());
+        
+        final boolean[] seen = new boolean[(int) ranker.getStateCount()];
+        
+        for (long i = 0; i != ranker.getStateCount(); ++i) {
+            final PuzzleNode node = ranker.unrank(i);
+            assertEquals(i, ranker.rank(node));
+            
+            for (final PuzzleNode neighbour : node) {
+                // Neighbors of a solvable node are solvable.
+                final long j = ranker.rank(neighbour);
+                assertEquals(neighbour, ranker.unrank(j));
+                seen[(int) j] = true;
+            }
+        }
+        
+        for (final boolean b : seen) {
+            assertTrue(b);
+        }
+    }
+    
+    /**
+     * This method tests ranking of random 4x4 nodes.
+     */
+    @Test
+    public void testRankRandom4x4() {
+        final PermutationRanker ranker = new PermutationRanker(4);
+        final Random r = new Random(7L);
+        
+        assertEquals(0L, ranker.rank(ranker.unrank(0L)));
+        assertEquals(ranker.getStateCount() - 1, 
+                     ranker.rank(ranker.unrank(ranker.getStateCount() - 1)));
+        
+        for (int i = 0; i != 1000; ++i) {
+            final PuzzleNode node = randomWalk(4, r);
+            final long index = ranker.rank(node);
+            
+            assertTrue(index >= 0 && index < ranker.getStateCount());
+            assertEquals(node, ranker.unrank(index));
+        }
+    }
+    
+    /**
+     * This method tests the ranking of partial permutations.
+     */
+    @Test
+    public void testPartial() {
+        final int N = 16;
+        final int k = 4;
+        final long count = PermutationRanker.count(N, k);
+        final int[] cells = new int[k];
+        final boolean[] seen = new boolean[(int) count];
+        
+        assertEquals(16L * 15 * 14 * 13, count);
+        
+        for (long rank = 0; rank != count; ++rank) {
+            PermutationRanker.unrank(rank, k, N, cells);
+            
+            for (int i = 0; i != k; ++i) {
+                for (int j = i + 1; j != k; ++j) {
+                    assertFalse(cells[i] == cells[j]);
+                }
+            }
+            
+            final long again = PermutationRanker.rank(cells, k, N);
+            assertEquals(rank, again);
+            assertFalse(seen[(int) again]);
+            seen[(int) again] = true;
+        }
+    }
+    
+    /**
+     * This method tests the ranking of partial permutations of all the 64
+     * cells a bit set holds.
+     */
+    @Test
+    public void testPartialFullWord() {
+        final Random r = new Random(31L);
+        final int N = PermutationRanker.MAX_CELLS;
+        final int k = 10;
+        final long count = PermutationRanker.count(N, k);
+        final int[] cells = new int[k];
+        
+        for (int i = 0; i != 100000; ++i) {
+            final long rank = (r.nextLong() >>> 1) % count;
+            PermutationRanker.unrank(rank, k, N, cells);
+            assertEquals(rank, PermutationRanker.rank(cells, k, N));
+        }
+        
+        PermutationRanker.unrank(count - 1, k, N, cells);
+        
+        for (int i = 0; i != k; ++i) {
+            assertEquals(N - 1 - i, cells[i]);
+        }
+    }
+    
+    /**
+     * This method tests that unsupported dimensions are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLargeDimension() {
+        new PermutationRanker(PermutationRanker.MAX_DIMENSION + 1);
+    }
+    
+    private static PuzzleNode randomWalk(final int n, final Random r) {
+        final PuzzleNode node = new PuzzleNode(n);
+        
+        for (int i = 0; i != 200; ++i) {
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (node.canMove(d)) {
+                node.move(d);
+            }
+        }
+        
+        return node;
+    }
+}
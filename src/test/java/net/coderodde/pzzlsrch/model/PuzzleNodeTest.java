@@ -0,0 +1,161 @@
+package net.coderodde.pzzlsrch.model;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * This class tests the puzzle node.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PuzzleNodeTest {
+    
+    /**
+     * This method tests that the incrementally updated Zobrist hash equals
+     * the hash computed from scratch after random in-place moves, copying
+     * moves, copies and overwrites.
+     */
+    @Test
+    public void testIncrementalHash() {
+        final Random r = new Random(131L);
+        
+        for (int n = 2; n <= 11; ++n) {
+            PuzzleNode node = new PuzzleNode(n);
+            final PuzzleNode other = new PuzzleNode(n);
+            
+            for (int i = 0; i != 2000; ++i) {
+                PuzzleNode next = null;
+                
+                switch (r.nextInt(7)) {
+                    case 0:
+                        next = node.moveUp();
+                        break;
+                        
+                    case 1:
+                        next = node.moveRight();
+                        break;
+                        
+                    case 2:
+                        next = node.moveDown();
+                        break;
+                        
+                    case 3:
+                        next = node.moveLeft();
+                        break;
+                        
+                    case 4:
+                        next = node.copy();
+                        break;
+                        
+                    case 5:
+                        other.copyFrom(node);
+                        next = other;
+                        break;
+                        
+                    default:
+                        final int d = r.nextInt(PuzzleState.DIRECTIONS);
+                        
+                        if (node.canMove(d)) {
+                            node.move(d);
+                        }
+                        
+                        next = node;
+                }
+                
+                if (next != null) {
+                    node = next;
+                }
+                
+                final PuzzleNode fresh = rebuild(node);
+                
+                assertEquals(fresh.getZobristHash(), node.getZobristHash());
+                assertEquals(fresh, node);
+                assertEquals(fresh.hashCode(), node.hashCode());
+            }
+        }
+    }
+    
+    /**
+     * This method tests that the nodes reached by different move orders are
+     * equal and have the same hash codes.
+     */
+    @Test
+    public void testMoveOrders() {
+        final Random r = new Random(137L);
+        
+        for (int n = 2; n <= 11; ++n) {
+            final PuzzleNode node1 = new PuzzleNode(n);
+            final PuzzleNode node2 = new PuzzleNode(n);
+            
+            // Circling a 2x2 block three times restores the board, so the
+            // two nodes take different paths to the same boards.
+            for (int i = 0; i != 3; ++i) {
+                node2.move(PuzzleState.UP);
+                node2.move(PuzzleState.LEFT);
+                node2.move(PuzzleState.DOWN);
+                node2.move(PuzzleState.RIGHT);
+            }
+            
+            for (int i = 0; i != 1000; ++i) {
+                final int d = r.nextInt(PuzzleState.DIRECTIONS);
+                
+                if (node1.canMove(d) == false) {
+                    continue;
+                }
+                
+                node1.move(d);
+                node2.move(d);
+                
+                // Slide the other node forth and back.
+                final int e = r.nextInt(PuzzleState.DIRECTIONS);
+                
+                if (node2.canMove(e)) {
+                    node2.move(e);
+                    node2.move(e ^ 2);
+                }
+                
+                assertEquals(node1, node2);
+                assertEquals(node1.hashCode(), node2.hashCode());
+                assertEquals(node1.getZobristHash(), node2.getZobristHash());
+            }
+        }
+    }
+    
+    /**
+     * Returns the solved node of dimension <code>n</code> with the first two
+     * tiles swapped, which is not reachable from the solved node.
+     * 
+     * @param n the dimension.
+     * 
+     * @return the unreachable node.
+     */
+    public static PuzzleNode getUnreachableNode(final int n) {
+        final byte[] m = new byte[n * n];
+        
+        for (int i = 0; i != n * n - 1; ++i) {
+            m[i] = (byte)(i + 1);
+        }
+        
+        m[0] = 2;
+        m[1] = 1;
+        return new PuzzleNode(m, n, n - 1, n - 1);
+    }
+    
+    /**
+     * Constructs a new node with the same tiles as <code>node</code>,
+     * computing its hash from scratch.
+     * 
+     * @param node the node to rebuild.
+     * 
+     * @return the new node.
+     */
+    private static PuzzleNode rebuild(final PuzzleNode node) {
+        final int n = node.getDimension();
+        final byte[] m = new byte[n * n];
+        
+        node.copyTiles(m, 0);
+        return new PuzzleNode(m, n, node.getBlankX(), node.getBlankY());
+    }
+}
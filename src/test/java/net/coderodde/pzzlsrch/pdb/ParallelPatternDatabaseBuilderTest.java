@@ -0,0 +1,96 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import static org.junit.Assert.assertEquals;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * This class tests the parallel pattern database builder.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class ParallelPatternDatabaseBuilderTest {
+    
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+    
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+    
+    /**
+     * This method tests that the tables equal those of the sequential
+     * builder.
+     */
+    @Test
+    public void testIdenticalTables() {
+        final PuzzleNode target3 = new PuzzleNode(3);
+        final PackedPuzzleState target4 = new PackedPuzzleState(4);
+        
+        assertIdentical(target3, 1, 2, 3, 4);
+        assertIdentical(target3, 8, 6, 4, 2, 7);
+        assertIdentical(target3.moveUp().moveLeft(), 1, 5, 8);
+        assertIdentical(target4, 1, 2, 5, 6);
+        assertIdentical(target4, 15, 11, 14);
+    }
+    
+    /**
+     * This method tests that the progress is reported for every layer.
+     */
+    @Test
+    public void testProgress() {
+        final List<long[]> layers = new ArrayList<long[]>();
+        final PatternDatabaseBuilder.ProgressListener listener =
+                new PatternDatabaseBuilder.ProgressListener() {
+            @Override
+            public void layerCompleted(final int cost,
+                                       final long states,
+                                       final long reached,
+                                       final long total) {
+                layers.add(new long[]{ cost, states, reached, total });
+            }
+        };
+        
+        new ParallelPatternDatabaseBuilder(new PuzzleNode(3), 1, 2, 3)
+                .withPool(pool)
+                .withProgressListener(listener)
+                .build();
+        
+        long reached = 0L;
+        
+        for (int i = 0; i != layers.size(); ++i) {
+            final long[] layer = layers.get(i);
+            reached += layer[1];
+            
+            assertEquals(i, layer[0]);
+            assertEquals(reached, layer[2]);
+        }
+        
+        // Every abstract state of the 8-puzzle is reachable.
+        assertEquals(9 * 8 * 7 * 6, reached);
+        assertEquals(reached, layers.get(layers.size() - 1)[3]);
+    }
+    
+    private static void assertIdentical(final PuzzleState<?> target,
+                                        final int... tiles) {
+        final PatternDatabase expected =
+                new PatternDatabaseBuilder(target, tiles).build();
+        final PatternDatabase actual =
+                new ParallelPatternDatabaseBuilder(target, tiles)
+                .withPool(pool)
+                .build();
+        
+        assertEquals(expected.size(), actual.size());
+        
+        for (int i = 0; i != expected.size(); ++i) {
+            assertEquals(expected.getByRank(i), actual.getByRank(i));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.solvers.support.BidirectionalBFSSolver;
+import net.coderodde.pzzlsrch.solvers.support.IDAStarSolver;
+import net.coderodde.pzzlsrch.solvers.support.PackedManhattanHeuristicFunction;
+import net.coderodde.pzzlsrch.solvers.support.PatternDatabaseHeuristicFunction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the pattern database builder and heuristic.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PatternDatabaseBuilderTest {
+    
+    /**
+     * This method tests that the additive heuristic is admissible, dominates
+     * the Manhattan distance and vanishes at the target.
+     */
+    @Test
+    public void testAdmissible() {
+        final Random r = new Random(31L);
+        final PackedPuzzleState target = new PackedPuzzleState(3);
+        final PatternDatabaseHeuristicFunction<PackedPuzzleState> pdb =
+                new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                        PatternDatabaseBuilder.buildPartition(
+                                target,
+                                new int[]{ 1, 2, 3, 4 },
+                                new int[]{ 5, 6, 7, 8 }))
+                .withTarget(target);
+        final PackedManhattanHeuristicFunction manhattan =
+                new PackedManhattanHeuristicFunction().withTarget(target);
+        
+        assertEquals(0, pdb.get(target));
+        
+        for (int i = 0; i != 100; ++i) {
+            final PackedPuzzleState state =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(50, 3, r));
+            final List<PackedPuzzleState> path =
+                    new BidirectionalBFSSolver<PackedPuzzleState>()
+                    .search(state, target);
+            final int h = pdb.get(state);
+            
+            assertTrue(h <= path.size() - 1);
+            assertTrue(h >= manhattan.get(state));
+        }
+    }
+    
+    /**
+     * This method tests that IDA* with a pattern database finds optimal paths
+     * on the 4x4 board.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(37L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final PatternDatabase[] databases =
+                PatternDatabaseBuilder.buildPartition(
+                        target,
+                        new int[]{ 1, 2, 5, 6 },
+                        new int[]{ 3, 4, 7, 8 },
+                        new int[]{ 9, 10, 13, 14 },
+                        new int[]{ 11, 12, 15 });
+        final IDAStarSolver<PackedPuzzleState> manhattan =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        final IDAStarSolver<PackedPuzzleState> pdb =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(
+                    new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                            databases));
+        
+        for (int i = 0; i != 5; ++i) {
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(80, 4, r));
+            
+            assertEquals(manhattan.search(source, target).size(),
+                         pdb.search(source, target).size());
+            assertTrue(pdb.getNodeCount() <= manhattan.getNodeCount());
+        }
+    }
+    
+    /**
+     * This method tests that the reflected lookups remain admissible and
+     * never lower the estimate.
+     */
+    @Test
+    public void testReflection() {
+        final Random r = new Random(79L);
+        final PuzzleNode target = new PuzzleNode(3);
+        final PatternDatabase[] databases =
+                PatternDatabaseBuilder.buildPartition(
+                        target,
+                        new int[]{ 1, 2, 3, 4 },
+                        new int[]{ 5, 6, 7, 8 });
+        final PatternDatabaseHeuristicFunction<PuzzleNode> plain =
+                new PatternDatabaseHeuristicFunction<PuzzleNode>(databases)
+                .withTarget(target);
+        final PatternDatabaseHeuristicFunction<PuzzleNode> reflected =
+                new PatternDatabaseHeuristicFunction<PuzzleNode>(databases)
+                .withReflection(true)
+                .withTarget(target);
+        int improved = 0;
+        
+        assertEquals(0, reflected.get(target));
+        assertEquals(0, reflected.newInstance().withTarget(target)
+                                 .get(target));
+        
+        for (int i = 0; i != 100; ++i) {
+            final PuzzleNode state = Utils.getRandomPuzzleNode(50, 3, r);
+            final List<PuzzleNode> path =
+                    new BidirectionalBFSSolver<PuzzleNode>()
+                    .search(state, target);
+            final int h = reflected.get(state);
+            
+            assertTrue(h <= path.size() - 1);
+            assertTrue(h >= plain.get(state));
+            
+            if (h > plain.get(state)) {
+                ++improved;
+            }
+        }
+        
+        assertTrue(improved > 0);
+    }
+    
+    /**
+     * This method tests that the reflected lookups are rejected for a target
+     * not symmetric about the main diagonal.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testReflectionAsymmetricTarget() {
+        final PuzzleNode target = new PuzzleNode(3).moveLeft();
+        
+        new PatternDatabaseHeuristicFunction<PuzzleNode>(
+                new PatternDatabaseBuilder(target, 1, 2, 3).build())
+                .withReflection(true)
+                .withTarget(target);
+    }
+    
+    /**
+     * This method tests that a database is rejected for another target.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTargetMismatch() {
+        final PuzzleNode target = new PuzzleNode(3);
+        final PatternDatabaseHeuristicFunction<PuzzleNode> pdb =
+                new PatternDatabaseHeuristicFunction<PuzzleNode>(
+                        new PatternDatabaseBuilder(target, 1, 2, 3).build());
+        
+        pdb.withTarget(target.moveUp());
+    }
+    
+    /**
+     * This method tests that overlapping patterns are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingPatterns() {
+        final PuzzleNode target = new PuzzleNode(3);
+        
+        new PatternDatabaseHeuristicFunction<PuzzleNode>(
+                PatternDatabaseBuilder.buildPartition(target,
+                                                      new int[]{ 1, 2 },
+                                                      new int[]{ 2, 3 }));
+    }
+}
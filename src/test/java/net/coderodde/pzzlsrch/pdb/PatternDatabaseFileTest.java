@@ -0,0 +1,183 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class tests the pattern database files.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PatternDatabaseFileTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * This method tests that a mapped database equals the written one.
+     */
+    @Test
+    public void testWriteAndMap() throws IOException {
+        final PuzzleNode target = new PuzzleNode(3);
+        final PatternDatabase expected =
+                new PatternDatabaseBuilder(target, 1, 2, 3, 4).build();
+        final File file = folder.newFile("test.pdb");
+        
+        PatternDatabaseFile.write(expected, file);
+        
+        final PatternDatabase actual = PatternDatabaseFile.map(file);
+        
+        assertEquals(expected.getDimension(), actual.getDimension());
+        assertArrayEquals(expected.getTiles(), actual.getTiles());
+        assertArrayEquals(expected.getTarget(), actual.getTarget());
+        assertEquals(expected.size(), actual.size());
+        
+        for (int i = 0; i != expected.size(); ++i) {
+            assertEquals(expected.getByRank(i), actual.getByRank(i));
+        }
+    }
+    
+    /**
+     * This method tests that the databases are built once and then loaded.
+     */
+    @Test
+    public void testLoadOrBuild() throws IOException {
+        final PuzzleNode target = new PuzzleNode(3);
+        final File directory = folder.newFolder();
+        final PatternDatabase[] first =
+                PatternDatabaseFile.loadOrBuild(directory,
+                                                target,
+                                                new int[]{ 1, 2, 3, 4 },
+                                                new int[]{ 5, 6, 7, 8 });
+        final String[] names = directory.list();
+        
+        Arrays.sort(names);
+        
+        assertArrayEquals(new String[]{
+                              PatternDatabaseFile.getFileName(target,
+                                                              1, 2, 3, 4),
+                              PatternDatabaseFile.getFileName(target,
+                                                              5, 6, 7, 8) },
+                          names);
+        
+        final long modified = new File(directory, names[0]).lastModified();
+        final PatternDatabase[] second =
+                PatternDatabaseFile.loadOrBuild(directory,
+                                                target,
+                                                new int[]{ 1, 2, 3, 4 },
+                                                new int[]{ 5, 6, 7, 8 });
+        
+        assertEquals(modified, new File(directory, names[0]).lastModified());
+        assertEquals(first[1].size(), second[1].size());
+        assertTrue(second[0].matchesTarget(target));
+    }
+    
+    /**
+     * This method tests that a file of another kind is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testBadMagic() throws IOException {
+        final File file = folder.newFile("bad.pdb");
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        
+        try {
+            raf.writeInt(0xcafebabe);
+            raf.writeInt(PatternDatabaseFile.VERSION);
+        } finally {
+            raf.close();
+        }
+        
+        PatternDatabaseFile.map(file);
+    }
+    
+    /**
+     * This method tests that a truncated file is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        final File file = folder.newFile("truncated.pdb");
+        
+        PatternDatabaseFile.write(
+                new PatternDatabaseBuilder(new PuzzleNode(3), 1, 2).build(),
+                file);
+        
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        
+        try {
+            raf.setLength(raf.length() - 1);
+        } finally {
+            raf.close();
+        }
+        
+        PatternDatabaseFile.map(file);
+    }
+    
+    /**
+     * This method tests that a file with a duplicate pattern tile is
+     * rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testCorruptedTiles() throws IOException {
+        // The tiles 1, 2 follow the four header integers.
+        PatternDatabaseFile.map(corrupt(16 + 1, (byte) 1));
+    }
+    
+    /**
+     * This method tests that a file with a tile out of range is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testTileOutOfRange() throws IOException {
+        PatternDatabaseFile.map(corrupt(16, (byte) 200));
+    }
+    
+    /**
+     * This method tests that a file whose target is not a permutation is
+     * rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testCorruptedTarget() throws IOException {
+        // The target follows the two tiles.
+        PatternDatabaseFile.map(corrupt(16 + 2 + 3, (byte) 1));
+    }
+    
+    /**
+     * Writes a 3x3 database over the tiles 1 and 2 and overwrites the byte
+     * at <code>position</code>.
+     * 
+     * @param position the position of the byte to overwrite.
+     * @param value the new value of the byte.
+     * 
+     * @return the corrupted file.
+     * 
+     * @throws IOException if writing fails.
+     */
+    private File corrupt(final long position, final byte value)
+    throws IOException {
+        final File file = folder.newFile("corrupted.pdb");
+        
+        PatternDatabaseFile.write(
+                new PatternDatabaseBuilder(new PuzzleNode(3), 1, 2).build(),
+                file);
+        
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        
+        try {
+            raf.seek(position);
+            raf.writeByte(value);
+        } finally {
+            raf.close();
+        }
+        
+        return file;
+    }
+}
@@ -0,0 +1,154 @@
+package net.coderodde.pzzlsrch.pdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.solvers.support.IDAStarSolver;
+import net.coderodde.pzzlsrch.solvers.support.PatternDatabaseHeuristicFunction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class tests the compressed pattern tables.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class PatternTableTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * This method tests that the nibble table saturates the costs.
+     */
+    @Test
+    public void testNibbles() {
+        final byte[] costs = { 0, 1, 15, 16, 7, (byte) 200, 3 };
+        final PatternTable table =
+                NibblePatternTable.encode(new BytePatternTable(costs));
+        
+        assertEquals(costs.length, table.size());
+        assertEquals(4, table.getData().capacity());
+        
+        for (int i = 0; i != costs.length; ++i) {
+            assertEquals(Math.min(costs[i] & 0xff, 15), table.get(i));
+        }
+    }
+    
+    /**
+     * This method tests that the minimum table folds blocks of entries.
+     */
+    @Test
+    public void testMinBlocks() {
+        final byte[] costs = { 5, 3, 4, 9, 8, 7, 6 };
+        final MinBlockPatternTable table =
+                MinBlockPatternTable.encode(new BytePatternTable(costs), 3);
+        final int[] expected = { 3, 3, 3, 7, 7, 7, 6 };
+        
+        assertEquals(3, table.getFactor());
+        assertEquals(costs.length, table.size());
+        
+        for (int i = 0; i != costs.length; ++i) {
+            assertEquals(expected[i], table.get(i));
+        }
+    }
+    
+    /**
+     * This method tests that a table with a bad factor is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadFactor() {
+        final ByteBuffer data = ByteBuffer.allocate(6);
+        data.putInt(0, 0);
+        new MinBlockPatternTable(data, 2);
+    }
+    
+    /**
+     * This method tests that compressed databases survive a file round trip.
+     */
+    @Test
+    public void testFiles() throws IOException {
+        final PatternDatabase database =
+                new PatternDatabaseBuilder(new PuzzleNode(3), 1, 2, 3, 4)
+                .build();
+        final PatternTable[] tables = {
+            NibblePatternTable.encode(database.getTable()),
+            MinBlockPatternTable.encode(database.getTable(), 4)
+        };
+        
+        for (final PatternTable table : tables) {
+            final File file = folder.newFile();
+            
+            PatternDatabaseFile.write(database.withTable(table), file);
+            
+            final PatternTable actual =
+                    PatternDatabaseFile.map(file).getTable();
+            
+            assertEquals(table.getEncoding(), actual.getEncoding());
+            assertEquals(table.size(), actual.size());
+            
+            for (int i = 0; i != table.size(); ++i) {
+                assertEquals(table.get(i), actual.get(i));
+            }
+        }
+    }
+    
+    /**
+     * This method tests that IDA* still finds optimal paths with compressed
+     * pattern databases.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(41L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final PatternDatabase[] databases =
+                PatternDatabaseBuilder.buildPartition(
+                        target,
+                        new int[]{ 1, 2, 5, 6 },
+                        new int[]{ 3, 4, 7, 8 },
+                        new int[]{ 9, 10, 13, 14 },
+                        new int[]{ 11, 12, 15 });
+        final PatternDatabase[] nibbles =
+                new PatternDatabase[databases.length];
+        final PatternDatabase[] blocks =
+                new PatternDatabase[databases.length];
+        
+        for (int i = 0; i != databases.length; ++i) {
+            final PatternTable table = databases[i].getTable();
+            nibbles[i] = databases[i].withTable(
+                    NibblePatternTable.encode(table));
+            blocks[i] = databases[i].withTable(
+                    MinBlockPatternTable.encode(table, 2));
+        }
+        
+        final IDAStarSolver<PackedPuzzleState> exact = newSolver(databases);
+        final IDAStarSolver<PackedPuzzleState> nibble = newSolver(nibbles);
+        final IDAStarSolver<PackedPuzzleState> block = newSolver(blocks);
+        
+        for (int i = 0; i != 5; ++i) {
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(60, 4, r));
+            final int length = exact.search(source, target).size();
+            
+            assertEquals(length, nibble.search(source, target).size());
+            assertEquals(length, block.search(source, target).size());
+            assertTrue(exact.getNodeCount() <= block.getNodeCount());
+        }
+    }
+    
+    private static IDAStarSolver<PackedPuzzleState> newSolver(
+            final PatternDatabase[] databases) {
+        return new IDAStarSolver<PackedPuzzleState>()
+               .withHeuristicFunction(
+                    new PatternDatabaseHeuristicFunction<PackedPuzzleState>(
+                            databases));
+    }
+}
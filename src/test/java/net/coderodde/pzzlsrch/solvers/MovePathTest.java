@@ -0,0 +1,60 @@
+package net.coderodde.pzzlsrch.solvers;
+
+import java.util.List;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.support.BidirectionalBFSSolver;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the move-encoded path.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class MovePathTest {
+    
+    /**
+     * This method tests that the path replays its moves.
+     */
+    @Test
+    public void testMaterialize() {
+        final PuzzleNode source = new PuzzleNode(3);
+        final byte[] moves = { PuzzleState.UP,
+                               PuzzleState.LEFT,
+                               PuzzleState.DOWN };
+        final MovePath<PuzzleNode> path =
+                new MovePath<PuzzleNode>(source, moves);
+        
+        assertEquals(4, path.size());
+        assertEquals(3, path.getMoveCount());
+        assertArrayEquals(moves, path.getMoves());
+        assertEquals(source, path.get(0));
+        assertEquals(source.moveUp(), path.get(1));
+        assertEquals(source.moveUp().moveLeft(), path.get(2));
+        assertEquals(source.moveUp().moveLeft().moveDown(), path.get(3));
+    }
+    
+    /**
+     * This method tests that a solver returns a path as moves.
+     */
+    @Test
+    public void testSolverPath() {
+        final PuzzleNode target = new PuzzleNode(3);
+        final PuzzleNode source = target.moveUp().moveLeft().moveUp();
+        final List<PuzzleNode> path =
+                new BidirectionalBFSSolver<PuzzleNode>().search(source,
+                                                                target);
+        
+        assertTrue(path instanceof MovePath);
+        assertArrayEquals(new byte[]{ PuzzleState.DOWN,
+                                      PuzzleState.RIGHT,
+                                      PuzzleState.DOWN },
+                          ((MovePath<PuzzleNode>) path).getMoves());
+        assertEquals(source, path.get(0));
+        assertEquals(target, path.get(3));
+    }
+}
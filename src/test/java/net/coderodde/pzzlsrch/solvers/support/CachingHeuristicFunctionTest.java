@@ -0,0 +1,143 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.BitPackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the caching heuristic function.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class CachingHeuristicFunctionTest {
+    
+    /**
+     * This method tests the hit and miss counters.
+     */
+    @Test
+    public void testCounters() {
+        final PuzzleNode target = new PuzzleNode(4);
+        final CachingHeuristicFunction<PuzzleNode> hf =
+                new CachingHeuristicFunction<PuzzleNode>(
+                        new ManhattanHeuristicFunction(), 16)
+                .withTarget(target);
+        final PuzzleNode node = target.moveUp();
+        
+        assertEquals(0.0, hf.getHitRate(), 0.0);
+        assertEquals(1, hf.get(node));
+        assertEquals(1, hf.get(node));
+        assertEquals(1, hf.get(node.copy()));
+        assertEquals(2L, hf.getHitCount());
+        assertEquals(1L, hf.getMissCount());
+        assertEquals(2.0 / 3.0, hf.getHitRate(), 1e-9);
+        
+        hf.resetStatistics();
+        
+        assertEquals(0L, hf.getHitCount());
+        assertEquals(0L, hf.getMissCount());
+    }
+    
+    /**
+     * This method tests that the cached estimates equal the ones of the
+     * wrapped function, also under heavy eviction.
+     */
+    @Test
+    public void testEstimates() {
+        final Random r = new Random(101L);
+        
+        assertEstimates(new PuzzleNode(4),
+                        Utils.getRandomPuzzleNode(100, 4, r),
+                        new ManhattanHeuristicFunction(),
+                        r);
+        assertEstimates(
+                new PackedPuzzleState(4),
+                new PackedPuzzleState(Utils.getRandomPuzzleNode(100, 4, r)),
+                new LinearConflictHeuristicFunction<PackedPuzzleState>(),
+                r);
+        assertEstimates(new BitPackedPuzzleState(5),
+                        new BitPackedPuzzleState(
+                                Utils.getRandomPuzzleNode(100, 5, r)),
+                        new BitPackedManhattanHeuristicFunction(),
+                        r);
+    }
+    
+    /**
+     * This method tests that IDA* finds the same paths with the cache.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(103L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final IDAStarSolver<PackedPuzzleState> plain =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(
+                    new WalkingDistanceHeuristicFunction<PackedPuzzleState>());
+        final CachingHeuristicFunction<PackedPuzzleState> hf =
+                new CachingHeuristicFunction<PackedPuzzleState>(
+                    new WalkingDistanceHeuristicFunction<PackedPuzzleState>(),
+                    1 << 12);
+        final IDAStarSolver<PackedPuzzleState> cached =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(hf);
+        
+        for (int i = 0; i != 5; ++i) {
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(80, 4, r));
+            
+            assertEquals(plain.search(source, target).size(),
+                         cached.search(source, target).size());
+            assertEquals(plain.getNodeCount(), cached.getNodeCount());
+        }
+        
+        assertTrue(hf.getHitCount() > 0L);
+    }
+    
+    /**
+     * This method tests that an invalid capacity is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new CachingHeuristicFunction<PuzzleNode>(
+                new ManhattanHeuristicFunction(), 0);
+    }
+    
+    private static <T extends PuzzleState<T>>
+        void assertEstimates(final T target,
+                             final T source,
+                             final HeuristicFunction<T> hf,
+                             final Random r) {
+        final HeuristicFunction<T> expected =
+                hf.newInstance().withTarget(target);
+        final CachingHeuristicFunction<T> cached =
+                new CachingHeuristicFunction<T>(hf, 8).withTarget(target);
+        final T state = source.copy();
+        final int n = state.getDimension();
+        int h = cached.get(state);
+        
+        for (int i = 0; i != 2000; ++i) {
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (state.canMove(d) == false) {
+                continue;
+            }
+            
+            final int to = state.getBlankY() * n + state.getBlankX();
+            final int tile = state.move(d);
+            final int from = state.getBlankY() * n + state.getBlankX();
+            
+            h = cached.get(state, h, tile, from, to);
+            assertEquals(expected.get(state), h);
+            assertEquals(h, cached.get(state));
+        }
+        
+        assertTrue(cached.getHitCount() > 0L);
+    }
+}
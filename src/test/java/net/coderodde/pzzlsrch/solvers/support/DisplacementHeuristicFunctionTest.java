@@ -0,0 +1,62 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * This class tests the displacement heuristic.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class DisplacementHeuristicFunctionTest {
+    
+    /**
+     * This method tests that the batch estimates equal the ones of the
+     * single nodes, with and without vectorization and padding.
+     */
+    @Test
+    public void testBatch() {
+        final Random r = new Random(109L);
+        
+        for (int n = 2; n <= 11; ++n) {
+            final PuzzleNode target = Utils.getRandomPuzzleNode(50, n, r);
+            final DisplacementHeuristicFunction hf =
+                    new DisplacementHeuristicFunction().withTarget(target);
+            final PuzzleNode[] nodes = new PuzzleNode[37];
+            final byte[] tiles = new byte[nodes.length * n * n];
+            final byte[] padded =
+                    new byte[tiles.length + VectorKernels.getPadding()];
+            final int[] estimates = new int[nodes.length];
+            
+            for (int i = 0; i != nodes.length; ++i) {
+                nodes[i] = Utils.getRandomPuzzleNode(i, n, r);
+                nodes[i].copyTiles(tiles, i * n * n);
+                nodes[i].copyTiles(padded, i * n * n);
+            }
+            
+            for (final boolean vectorization : new boolean[]{ false, true }) {
+                for (final byte[] batch : new byte[][]{ tiles, padded }) {
+                    hf.withVectorization(vectorization)
+                      .getAll(batch, nodes.length, estimates);
+                    
+                    for (int i = 0; i != nodes.length; ++i) {
+                        assertEquals(hf.get(nodes[i]), estimates[i]);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * This method tests that a batch larger than the arrays is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchTooLarge() {
+        new DisplacementHeuristicFunction().withTarget(new PuzzleNode(4))
+                .getAll(new byte[16], 2, new int[2]);
+    }
+}
@@ -0,0 +1,104 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.ds.IntegerPriorityQueue;
+import net.coderodde.pzzlsrch.ds.support.BucketHeap;
+import net.coderodde.pzzlsrch.ds.support.DAryHeap;
+import net.coderodde.pzzlsrch.ds.support.PrimitiveDAryHeap;
+import net.coderodde.pzzlsrch.ds.support.RadixHeap;
+import net.coderodde.pzzlsrch.ds.support.TieBreakingBucketHeap;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the heuristic breadth-first search.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class HeuristicBFSSolverTest {
+    
+    /**
+     * This method tests that the search finds shortest paths with a
+     * tie-breaking priority queue.
+     */
+    @Test
+    public void testTieBreakingOptimality() {
+        final Random r = new Random(19L);
+        final HeuristicBFSSolver<PackedPuzzleState> solver =
+                new HeuristicBFSSolver<PackedPuzzleState>();
+        
+        solver.withHeuristicFunction(new PackedManhattanHeuristicFunction())
+              .withPriorityQueue(
+                      new TieBreakingBucketHeap<PackedPuzzleState>());
+        
+        for (int i = 0; i != 20; ++i) {
+            final int n = 3 + i % 2;
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(40, n, r));
+            final PackedPuzzleState target = new PackedPuzzleState(n);
+            final List<PackedPuzzleState> expected =
+                    new BidirectionalBFSSolver<PackedPuzzleState>()
+                    .search(source, target);
+            final List<PackedPuzzleState> path =
+                    solver.search(source, target);
+            
+            assertEquals(expected.size(), path.size());
+            assertEquals(source, path.get(0));
+            assertEquals(target, path.get(path.size() - 1));
+            
+            for (int j = 1; j < path.size(); ++j) {
+                assertTrue(Utils.getDirection(path.get(j - 1),
+                                              path.get(j)) >= 0);
+            }
+        }
+    }
+    
+    /**
+     * This method tests that the search finds shortest paths in the
+     * lazy-deletion mode with every priority queue.
+     */
+    @Test
+    public void testLazyDeletionOptimality() {
+        final List<IntegerPriorityQueue<PackedPuzzleState>> queues =
+                new ArrayList<IntegerPriorityQueue<PackedPuzzleState>>();
+        
+        queues.add(new DAryHeap<PackedPuzzleState>());
+        queues.add(new PrimitiveDAryHeap<PackedPuzzleState>());
+        queues.add(new BucketHeap<PackedPuzzleState>());
+        queues.add(new TieBreakingBucketHeap<PackedPuzzleState>());
+        queues.add(new RadixHeap<PackedPuzzleState>());
+        
+        for (final IntegerPriorityQueue<PackedPuzzleState> queue : queues) {
+            final Random r = new Random(23L);
+            final HeuristicBFSSolver<PackedPuzzleState> solver =
+                    new HeuristicBFSSolver<PackedPuzzleState>();
+            
+            solver.withLazyDeletion(true)
+                  .withHeuristicFunction(new PackedManhattanHeuristicFunction())
+                  .withPriorityQueue(queue);
+            
+            for (int i = 0; i != 10; ++i) {
+                final int n = 3 + i % 2;
+                final PackedPuzzleState source =
+                        new PackedPuzzleState(
+                                Utils.getRandomPuzzleNode(40, n, r));
+                final PackedPuzzleState target = new PackedPuzzleState(n);
+                final List<PackedPuzzleState> expected =
+                        new BidirectionalBFSSolver<PackedPuzzleState>()
+                        .search(source, target);
+                final List<PackedPuzzleState> path =
+                        solver.search(source, target);
+                
+                assertEquals(expected.size(), path.size());
+                assertEquals(source, path.get(0));
+                assertEquals(target, path.get(path.size() - 1));
+            }
+        }
+    }
+}
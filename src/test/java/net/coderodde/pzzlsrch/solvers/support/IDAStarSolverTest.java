@@ -0,0 +1,87 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNodeTest;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the IDA* solver.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class IDAStarSolverTest {
+    
+    /**
+     * This method tests that IDA* finds shortest paths.
+     */
+    @Test
+    public void testOptimality() {
+        final Random r = new Random(17L);
+        final IDAStarSolver<PackedPuzzleState> solver =
+                new IDAStarSolver<PackedPuzzleState>();
+        
+        solver.withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        
+        for (int i = 0; i != 20; ++i) {
+            final int n = 3 + i % 2;
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(40, n, r));
+            final PackedPuzzleState target = new PackedPuzzleState(n);
+            final List<PackedPuzzleState> expected =
+                    new BidirectionalBFSSolver<PackedPuzzleState>()
+                    .search(source, target);
+            final List<PackedPuzzleState> path =
+                    solver.search(source, target);
+            
+            assertEquals(expected.size(), path.size());
+            assertEquals(source, path.get(0));
+            assertEquals(target, path.get(path.size() - 1));
+            
+            for (int j = 1; j < path.size(); ++j) {
+                assertTrue(Utils.getDirection(path.get(j - 1),
+                                              path.get(j)) >= 0);
+            }
+        }
+    }
+    
+    /**
+     * This method tests the path from a node to itself.
+     */
+    @Test
+    public void testSourceIsTarget() {
+        final PackedPuzzleState state = new PackedPuzzleState(4);
+        final List<PackedPuzzleState> path =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction())
+                .search(state, state);
+        
+        assertEquals(1, path.size());
+        assertEquals(state, path.get(0));
+    }
+    
+    /**
+     * This method tests that the search ends with an empty path if the
+     * target is not reachable from the source.
+     */
+    @Test
+    public void testUnreachableTarget() {
+        final IDAStarSolver<PackedPuzzleState> solver =
+                new IDAStarSolver<PackedPuzzleState>();
+        
+        solver.withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        
+        for (int n = 2; n <= 4; ++n) {
+            final PackedPuzzleState source = new PackedPuzzleState(
+                    PuzzleNodeTest.getUnreachableNode(n));
+            
+            assertTrue(solver.search(source,
+                                     new PackedPuzzleState(n)).isEmpty());
+        }
+    }
+}
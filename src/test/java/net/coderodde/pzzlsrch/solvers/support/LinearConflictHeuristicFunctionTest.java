@@ -0,0 +1,145 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.BitPackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the linear conflict heuristic.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class LinearConflictHeuristicFunctionTest {
+    
+    /**
+     * This method tests a single conflict.
+     */
+    @Test
+    public void testConflict() {
+        final PuzzleNode target = new PuzzleNode(3);
+        final LinearConflictHeuristicFunction<PuzzleNode> hf =
+                new LinearConflictHeuristicFunction<PuzzleNode>()
+                .withTarget(target);
+        
+        assertEquals(0, hf.get(target));
+        
+        // 4 3 1
+        // 5 _ 2
+        // 7 8 6
+        // Tiles 3 and 1 are reversed in their target row.
+        final PuzzleNode node = target.copy();
+        
+        for (final int d : new int[]{ 0, 0, 3, 3, 2, 1, 1, 0, 3, 2, 2, 0 }) {
+            node.move(d);
+        }
+        
+        assertEquals(8, new ManhattanHeuristicFunction().withTarget(target)
+                                                        .get(node));
+        assertEquals(8 + 2, hf.get(node));
+    }
+    
+    /**
+     * This method tests that the heuristic is admissible and dominates the
+     * Manhattan distance.
+     */
+    @Test
+    public void testAdmissible() {
+        final Random r = new Random(53L);
+        final PackedPuzzleState target = new PackedPuzzleState(3);
+        final LinearConflictHeuristicFunction<PackedPuzzleState> hf =
+                new LinearConflictHeuristicFunction<PackedPuzzleState>()
+                .withTarget(target);
+        final PackedManhattanHeuristicFunction manhattan =
+                new PackedManhattanHeuristicFunction().withTarget(target);
+        
+        for (int i = 0; i != 100; ++i) {
+            final PackedPuzzleState state =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(50, 3, r));
+            final List<PackedPuzzleState> path =
+                    new BidirectionalBFSSolver<PackedPuzzleState>()
+                    .search(state, target);
+            
+            assertTrue(hf.get(state) <= path.size() - 1);
+            assertTrue(hf.get(state) >= manhattan.get(state));
+        }
+    }
+    
+    /**
+     * This method tests that the incremental estimates equal the ones
+     * computed from scratch, with and without the conflict tables.
+     */
+    @Test
+    public void testIncremental() {
+        final Random r = new Random(59L);
+        
+        assertIncremental(new PackedPuzzleState(4),
+                          new PackedPuzzleState(
+                                  Utils.getRandomPuzzleNode(100, 4, r)),
+                          r);
+        assertIncremental(new BitPackedPuzzleState(5),
+                          new BitPackedPuzzleState(
+                                  Utils.getRandomPuzzleNode(100, 5, r)),
+                          r);
+        assertIncremental(new PuzzleNode(8),
+                          Utils.getRandomPuzzleNode(500, 8, r),
+                          r);
+    }
+    
+    /**
+     * This method tests that IDA* finds optimal paths expanding no more
+     * nodes than with the Manhattan distance.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(61L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final IDAStarSolver<PackedPuzzleState> manhattan =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        final IDAStarSolver<PackedPuzzleState> conflicts =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(
+                    new LinearConflictHeuristicFunction<PackedPuzzleState>());
+        
+        for (int i = 0; i != 5; ++i) {
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(80, 4, r));
+            
+            assertEquals(manhattan.search(source, target).size(),
+                         conflicts.search(source, target).size());
+            assertTrue(conflicts.getNodeCount() <= manhattan.getNodeCount());
+        }
+    }
+    
+    private static <T extends PuzzleState<T>>
+        void assertIncremental(final T target, final T source, final Random r) {
+        final LinearConflictHeuristicFunction<T> hf =
+                new LinearConflictHeuristicFunction<T>().withTarget(target);
+        final T state = source.copy();
+        final int n = state.getDimension();
+        int h = hf.get(state);
+        
+        for (int i = 0; i != 2000; ++i) {
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (state.canMove(d) == false) {
+                continue;
+            }
+            
+            final int to = state.getBlankY() * n + state.getBlankX();
+            final int tile = state.move(d);
+            final int from = state.getBlankY() * n + state.getBlankX();
+            
+            h = hf.get(state, h, tile, from, to);
+            assertEquals(hf.get(state), h);
+        }
+    }
+}
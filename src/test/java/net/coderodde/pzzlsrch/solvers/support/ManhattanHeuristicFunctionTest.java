@@ -0,0 +1,140 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.BitPackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * This class tests the Manhattan distance heuristics.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class ManhattanHeuristicFunctionTest {
+    
+    /**
+     * This method tests that the incremental estimates equal the ones
+     * computed from scratch.
+     */
+    @Test
+    public void testIncremental() {
+        final Random r = new Random(43L);
+        final PuzzleNode node = Utils.getRandomPuzzleNode(100, 4, r);
+        
+        assertIncremental(new ManhattanHeuristicFunction(),
+                          new PuzzleNode(4).moveUp(),
+                          node,
+                          r);
+        assertIncremental(new ManhattanHeuristicFunction2(16),
+                          new PuzzleNode(4),
+                          node,
+                          r);
+        assertIncremental(new PackedManhattanHeuristicFunction(),
+                          new PackedPuzzleState(4),
+                          new PackedPuzzleState(node),
+                          r);
+        assertIncremental(
+                new BitPackedManhattanHeuristicFunction(),
+                new BitPackedPuzzleState(5),
+                new BitPackedPuzzleState(Utils.getRandomPuzzleNode(100, 5, r)),
+                r);
+    }
+    
+    /**
+     * This method tests that the heuristics agree and ignore the empty tile.
+     */
+    @Test
+    public void testEqualEstimates() {
+        final Random r = new Random(47L);
+        final ManhattanHeuristicFunction h1 =
+                new ManhattanHeuristicFunction().withTarget(new PuzzleNode(4));
+        final ManhattanHeuristicFunction2 h2 =
+                new ManhattanHeuristicFunction2(16)
+                .withTarget(new PuzzleNode(4));
+        final PackedManhattanHeuristicFunction h3 =
+                new PackedManhattanHeuristicFunction()
+                .withTarget(new PackedPuzzleState(4));
+        
+        // One tile is a cell away from its target cell, and so is the empty
+        // tile, whose distance is not counted.
+        assertEquals(1, h1.get(new PuzzleNode(4).moveUp()));
+        
+        for (int i = 0; i != 100; ++i) {
+            final PuzzleNode node = Utils.getRandomPuzzleNode(100, 4, r);
+            final int h = h3.get(new PackedPuzzleState(node));
+            
+            assertEquals(h, h1.get(node));
+            assertEquals(h, h2.get(node));
+        }
+    }
+    
+    /**
+     * This method tests that the batch estimates equal the ones of the
+     * single nodes, with and without vectorization and padding.
+     */
+    @Test
+    public void testBatch() {
+        final Random r = new Random(107L);
+        
+        for (int n = 2; n <= 11; ++n) {
+            final PuzzleNode target = Utils.getRandomPuzzleNode(50, n, r);
+            final ManhattanHeuristicFunction2 hf =
+                    new ManhattanHeuristicFunction2(n * n).withTarget(target);
+            final PuzzleNode[] nodes = new PuzzleNode[37];
+            final byte[] tiles = new byte[nodes.length * n * n];
+            final byte[] padded =
+                    new byte[tiles.length + VectorKernels.getPadding()];
+            final int[] estimates = new int[nodes.length];
+            
+            for (int i = 0; i != nodes.length; ++i) {
+                nodes[i] = Utils.getRandomPuzzleNode(100, n, r);
+                nodes[i].copyTiles(tiles, i * n * n);
+                nodes[i].copyTiles(padded, i * n * n);
+            }
+            
+            for (final boolean vectorization : new boolean[]{ false, true }) {
+                for (final byte[] batch : new byte[][]{ tiles, padded }) {
+                    hf.withVectorization(vectorization)
+                      .getAll(batch, nodes.length, estimates);
+                    
+                    for (int i = 0; i != nodes.length; ++i) {
+                        assertEquals(hf.get(nodes[i]), estimates[i]);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static <T extends PuzzleState<T>>
+        void assertIncremental(final HeuristicFunction<T> hf,
+                               final T target,
+                               final T source,
+                               final Random r) {
+        hf.withTarget(target);
+        
+        final T state = source.copy();
+        final int n = state.getDimension();
+        int h = hf.get(state);
+        
+        for (int i = 0; i != 1000; ++i) {
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (state.canMove(d) == false) {
+                continue;
+            }
+            
+            final int to = state.getBlankY() * n + state.getBlankX();
+            final int tile = state.move(d);
+            final int from = state.getBlankY() * n + state.getBlankX();
+            
+            h = hf.get(state, h, tile, from, to);
+            assertEquals(hf.get(state), h);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import net.coderodde.pzzlsrch.solvers.HeuristicFunction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * This class tests the maximum of heuristics.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class MaxHeuristicFunctionTest {
+    
+    /**
+     * This method tests that the estimate is the largest one of the members.
+     */
+    @Test
+    public void testMaximum() {
+        final Random r = new Random(83L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final MaxHeuristicFunction<PackedPuzzleState> hf =
+                newMax().withTarget(target);
+        final PackedManhattanHeuristicFunction manhattan =
+                new PackedManhattanHeuristicFunction().withTarget(target);
+        final LinearConflictHeuristicFunction<PackedPuzzleState> conflicts =
+                new LinearConflictHeuristicFunction<PackedPuzzleState>()
+                .withTarget(target);
+        final WalkingDistanceHeuristicFunction<PackedPuzzleState> walking =
+                new WalkingDistanceHeuristicFunction<PackedPuzzleState>()
+                .withTarget(target);
+        
+        assertEquals(0, hf.get(target));
+        
+        for (int i = 0; i != 100; ++i) {
+            final PackedPuzzleState state =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(80, 4, r));
+            
+            assertEquals(Math.max(manhattan.get(state),
+                                  Math.max(conflicts.get(state),
+                                           walking.get(state))),
+                         hf.get(state));
+        }
+    }
+    
+    /**
+     * This method tests that the estimates obtained while descending and
+     * backing up along a path equal the ones computed from scratch.
+     */
+    @Test
+    public void testIncremental() {
+        final Random r = new Random(89L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final MaxHeuristicFunction<PackedPuzzleState> hf =
+                newMax().withTarget(target);
+        final MaxHeuristicFunction<PackedPuzzleState> check =
+                hf.newInstance().withTarget(target);
+        final PackedPuzzleState state =
+                new PackedPuzzleState(Utils.getRandomPuzzleNode(100, 4, r));
+        final List<Integer> moves = new ArrayList<Integer>();
+        final List<Integer> estimates = new ArrayList<Integer>();
+        
+        estimates.add(hf.get(state));
+        
+        for (int i = 0; i != 5000; ++i) {
+            if (moves.isEmpty() == false && r.nextInt(3) == 0) {
+                hf.ascend();
+                state.move(moves.remove(moves.size() - 1) ^ 2);
+                estimates.remove(estimates.size() - 1);
+                continue;
+            }
+            
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (state.canMove(d) == false) {
+                continue;
+            }
+            
+            final int to = state.getBlankY() * 4 + state.getBlankX();
+            final int tile = state.move(d);
+            final int from = state.getBlankY() * 4 + state.getBlankX();
+            final int h = hf.descend(state,
+                                     estimates.get(estimates.size() - 1),
+                                     tile,
+                                     from,
+                                     to);
+            
+            assertEquals(check.get(state), h);
+            moves.add(d);
+            estimates.add(h);
+        }
+    }
+    
+    /**
+     * This method tests that the members after the one exceeding the limit
+     * are skipped.
+     */
+    @Test
+    public void testLimit() {
+        final PackedPuzzleState target = new PackedPuzzleState(3);
+        final MaxHeuristicFunction<PackedPuzzleState> hf =
+                new MaxHeuristicFunction<PackedPuzzleState>(
+                        new PackedManhattanHeuristicFunction(),
+                        new HeuristicFunction<PackedPuzzleState>() {
+                            @Override
+                            public int get(final PackedPuzzleState t) {
+                                fail("The member is not skipped.");
+                                return 0;
+                            }
+                            
+                            @Override
+                            public int get(final PackedPuzzleState t1,
+                                           final PackedPuzzleState t2) {
+                                return get(t1);
+                            }
+                            
+                            @Override
+                            public HeuristicFunction<PackedPuzzleState>
+                                newInstance() {
+                                return this;
+                            }
+                        }).withTarget(target);
+        final PackedPuzzleState state = target.copy();
+        final int tile = state.move(PuzzleState.UP);
+        
+        assertEquals(1, hf.descend(state, 0, tile, 5, 8, 0));
+        hf.ascend();
+    }
+    
+    /**
+     * This method tests that IDA* finds optimal paths expanding no more
+     * nodes than with the Manhattan distance.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(97L);
+        final PackedPuzzleState target = new PackedPuzzleState(4);
+        final IDAStarSolver<PackedPuzzleState> manhattan =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        final IDAStarSolver<PackedPuzzleState> max =
+                new IDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(newMax());
+        final ParallelIDAStarSolver<PackedPuzzleState> parallel =
+                new ParallelIDAStarSolver<PackedPuzzleState>()
+                .withHeuristicFunction(newMax());
+        
+        for (int i = 0; i != 5; ++i) {
+            final PackedPuzzleState source =
+                    new PackedPuzzleState(Utils.getRandomPuzzleNode(80, 4, r));
+            final int length = manhattan.search(source, target).size();
+            
+            assertEquals(length, max.search(source, target).size());
+            assertEquals(length, parallel.search(source, target).size());
+            assertTrue(max.getNodeCount() <= manhattan.getNodeCount());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static MaxHeuristicFunction<PackedPuzzleState> newMax() {
+        return new MaxHeuristicFunction<PackedPuzzleState>(
+                new PackedManhattanHeuristicFunction(),
+                new LinearConflictHeuristicFunction<PackedPuzzleState>(),
+                new WalkingDistanceHeuristicFunction<PackedPuzzleState>());
+    }
+}
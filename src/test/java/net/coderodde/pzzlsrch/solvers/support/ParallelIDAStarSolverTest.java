@@ -0,0 +1,84 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNodeTest;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the parallel IDA* solver.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class ParallelIDAStarSolverTest {
+    
+    /**
+     * This method tests that the parallel solver finds paths as short as the
+     * sequential one for various split depths.
+     */
+    @Test
+    public void testOptimality() {
+        final Random r = new Random(23L);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final IDAStarSolver<PackedPuzzleState> sequential =
+                new IDAStarSolver<PackedPuzzleState>();
+        
+        sequential.withHeuristicFunction(
+                new PackedManhattanHeuristicFunction());
+        
+        try {
+            for (int i = 0; i != 12; ++i) {
+                final PackedPuzzleState source =
+                        new PackedPuzzleState(
+                                Utils.getRandomPuzzleNode(60, 4, r));
+                final PackedPuzzleState target = new PackedPuzzleState(4);
+                final ParallelIDAStarSolver<PackedPuzzleState> solver =
+                        new ParallelIDAStarSolver<PackedPuzzleState>()
+                        .withPool(pool)
+                        .withSplitDepth(i % 6);
+                
+                solver.withHeuristicFunction(
+                        new PackedManhattanHeuristicFunction());
+                
+                final List<PackedPuzzleState> expected =
+                        sequential.search(source, target);
+                final List<PackedPuzzleState> path =
+                        solver.search(source, target);
+                
+                assertEquals(expected.size(), path.size());
+                assertEquals(source, path.get(0));
+                assertEquals(target, path.get(path.size() - 1));
+                assertTrue(solver.getNodeCount() > 0L
+                        || path.size() == 1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * This method tests that the search ends with an empty path if the
+     * target is not reachable from the source.
+     */
+    @Test
+    public void testUnreachableTarget() {
+        final ParallelIDAStarSolver<PackedPuzzleState> solver =
+                new ParallelIDAStarSolver<PackedPuzzleState>();
+        
+        solver.withHeuristicFunction(new PackedManhattanHeuristicFunction());
+        
+        for (int n = 2; n <= 4; ++n) {
+            final PackedPuzzleState source = new PackedPuzzleState(
+                    PuzzleNodeTest.getUnreachableNode(n));
+            
+            assertTrue(solver.search(source,
+                                     new PackedPuzzleState(n)).isEmpty());
+        }
+    }
+}
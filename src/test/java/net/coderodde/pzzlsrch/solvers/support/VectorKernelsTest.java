@@ -0,0 +1,70 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the Vector API batch kernels.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class VectorKernelsTest {
+    
+    /**
+     * This method tests that the tests run with the Vector API module, so
+     * that the batch tests exercise the kernels.
+     */
+    @Test
+    public void testAvailable() {
+        assertTrue(VectorKernels.isAvailable());
+        assertTrue(VectorKernels.getPadding() > 0);
+    }
+    
+    /**
+     * This method tests that the kernels evaluate every node of a padded
+     * batch, and only the leading nodes of an unpadded one.
+     */
+    @Test
+    public void testPadding() {
+        final Random r = new Random(113L);
+        
+        for (int n = 2; n <= 11; ++n) {
+            final int cells = n * n;
+            final PuzzleNode target = Utils.getRandomPuzzleNode(50, n, r);
+            final byte[] targetTiles = new byte[cells];
+            
+            target.copyTiles(targetTiles, 0);
+            
+            final BatchKernel[] kernels = {
+                VectorKernels.newDisplacementKernel(targetTiles),
+                VectorKernels.newManhattanKernel(target)
+            };
+            
+            final int count = 37;
+            final int padding = VectorKernels.getPadding();
+            final int vectors = (cells + padding - 1) / padding * padding;
+            final int[] estimates = new int[count];
+            
+            for (final BatchKernel kernel : kernels) {
+                assertEquals(count,
+                             kernel.getAll(new byte[count * cells + padding],
+                                           count,
+                                           estimates));
+                
+                final int within = kernel.getAll(new byte[count * cells],
+                                                 count,
+                                                 estimates);
+                
+                // The nodes evaluated are the ones whose whole vectors lie
+                // within the array.
+                assertTrue((within - 1) * cells + vectors <= count * cells);
+                assertTrue(within * cells + vectors > count * cells);
+            }
+        }
+    }
+}
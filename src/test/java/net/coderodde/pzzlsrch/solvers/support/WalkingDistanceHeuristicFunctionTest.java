@@ -0,0 +1,154 @@
+package net.coderodde.pzzlsrch.solvers.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.coderodde.pzzlsrch.Utils;
+import net.coderodde.pzzlsrch.model.PackedPuzzleState;
+import net.coderodde.pzzlsrch.model.PuzzleNode;
+import net.coderodde.pzzlsrch.model.PuzzleState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * This class tests the walking distance heuristic.
+ * 
+ * @author Rodion Efremov
+ * @version 1.0
+ */
+public class WalkingDistanceHeuristicFunctionTest {
+    
+    /**
+     * This method tests the sizes of the tables of the 15-puzzle.
+     */
+    @Test
+    public void testTableSize() {
+        assertEquals(24964, WalkingDistanceTable.get(4, 3).size());
+        assertEquals(0, new WalkingDistanceHeuristicFunction<PuzzleNode>()
+                        .withTarget(new PuzzleNode(4))
+                        .get(new PuzzleNode(4)));
+    }
+    
+    /**
+     * This method tests that the boards too large are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLarge() {
+        new WalkingDistanceHeuristicFunction<PuzzleNode>()
+                .withTarget(new PuzzleNode(5));
+    }
+    
+    /**
+     * This method tests that the heuristic is admissible and dominates the
+     * Manhattan distance.
+     */
+    @Test
+    public void testAdmissible() {
+        final Random r = new Random(67L);
+        final PuzzleNode target = Utils.getRandomPuzzleNode(30, 3, r);
+        final WalkingDistanceHeuristicFunction<PuzzleNode> hf =
+                new WalkingDistanceHeuristicFunction<PuzzleNode>()
+                .withTarget(target);
+        final ManhattanHeuristicFunction manhattan =
+                new ManhattanHeuristicFunction().withTarget(target);
+        
+        for (int i = 0; i != 100; ++i) {
+            final PuzzleNode state = Utils.getRandomPuzzleNode(50, 3, r);
+            final List<PuzzleNode> path =
+                    new BidirectionalBFSSolver<PuzzleNode>()
+                    .search(state, target);
+            
+            assertTrue(hf.get(state) <= path.size() - 1);
+            assertTrue(hf.get(state) >= manhattan.get(state));
+        }
+    }
+    
+    /**
+     * This method tests that the estimates obtained while descending and
+     * backing up along a path equal the ones computed from scratch.
+     */
+    @Test
+    public void testIncremental() {
+        final Random r = new Random(71L);
+        
+        assertIncremental(new PuzzleNode(4),
+                          Utils.getRandomPuzzleNode(100, 4, r),
+                          r);
+        assertIncremental(new PackedPuzzleState(
+                                  Utils.getRandomPuzzleNode(100, 4, r)),
+                          new PackedPuzzleState(
+                                  Utils.getRandomPuzzleNode(100, 4, r)),
+                          r);
+        assertIncremental(Utils.getRandomPuzzleNode(100, 3, r),
+                          Utils.getRandomPuzzleNode(100, 3, r),
+                          r);
+    }
+    
+    /**
+     * This method tests that IDA* finds optimal paths expanding no more
+     * nodes than with the Manhattan distance.
+     */
+    @Test
+    public void testIDAStar() {
+        final Random r = new Random(73L);
+        final PuzzleNode target = new PuzzleNode(4);
+        final IDAStarSolver<PuzzleNode> manhattan =
+                new IDAStarSolver<PuzzleNode>()
+                .withHeuristicFunction(new ManhattanHeuristicFunction());
+        final IDAStarSolver<PuzzleNode> walking =
+                new IDAStarSolver<PuzzleNode>()
+                .withHeuristicFunction(
+                    new WalkingDistanceHeuristicFunction<PuzzleNode>());
+        
+        for (int i = 0; i != 5; ++i) {
+            final PuzzleNode source = Utils.getRandomPuzzleNode(80, 4, r);
+            
+            assertEquals(manhattan.search(source, target).size(),
+                         walking.search(source, target).size());
+            assertTrue(walking.getNodeCount() <= manhattan.getNodeCount());
+        }
+    }
+    
+    private static <T extends PuzzleState<T>>
+        void assertIncremental(final T target, final T source, final Random r) {
+        final WalkingDistanceHeuristicFunction<T> hf =
+                new WalkingDistanceHeuristicFunction<T>().withTarget(target);
+        final WalkingDistanceHeuristicFunction<T> check =
+                new WalkingDistanceHeuristicFunction<T>().withTarget(target);
+        final T state = source.copy();
+        final int n = state.getDimension();
+        final List<Integer> moves = new ArrayList<Integer>();
+        final List<Integer> estimates = new ArrayList<Integer>();
+        
+        estimates.add(hf.get(state));
+        
+        for (int i = 0; i != 5000; ++i) {
+            if (moves.isEmpty() == false && r.nextInt(3) == 0) {
+                hf.ascend();
+                state.move(moves.remove(moves.size() - 1) ^ 2);
+                estimates.remove(estimates.size() - 1);
+                continue;
+            }
+            
+            final int d = r.nextInt(PuzzleState.DIRECTIONS);
+            
+            if (state.canMove(d) == false) {
+                continue;
+            }
+            
+            final int to = state.getBlankY() * n + state.getBlankX();
+            final int tile = state.move(d);
+            final int from = state.getBlankY() * n + state.getBlankX();
+            final int h = hf.descend(state,
+                                     estimates.get(estimates.size() - 1),
+                                     tile,
+                                     from,
+                                     to);
+            
+            assertEquals(check.get(state), h);
+            moves.add(d);
+            estimates.add(h);
+        }
+    }
+}